@@ -14,7 +14,7 @@ plugins {
 
 applyLibrary(appendBuildConfig = false)
 applyTest()
-applyKotlin(parcelize = true)
+applyKotlin(parcelize = true, ksp = true)
 withKotlinAndroidMavenPublication(
     versionName = "1.4-SNAPSHOT",
     signed = true,
@@ -63,9 +63,12 @@ dependencies {
     compileOnly(DepsAndroidx.material)
     compileOnly(DepsAndroidx.localBroadcastManager)
     compileOnly(DepsAndroidx.recyclerview.core)
+    testImplementation(DepsAndroidx.recyclerview.core)
     compileOnly(DepsAndroidx.gridlayout)
     compileOnly(DepsAndroidx.preference)
+    testImplementation(DepsAndroidx.preference)
     compileOnly(DepsAndroidx.datastore.core)
+    testImplementation(DepsAndroidx.datastore.core)
     compileOnly(DepsAndroidx.databinding.viewBinding)
     compileOnly(DepsAndroidx.databinding.runtime)
     compileOnly(DepsAndroidx.ads)
@@ -81,6 +84,7 @@ dependencies {
     compileOnly(Deps.network.okhttp.okhttp)
     compileOnly(Deps.network.retrofit.core)
     compileOnly(Deps.lib.protobuf.java)
+    testImplementation(Deps.lib.protobuf.java)
     compileOnly(Deps.lib.google.guavaAndroid)
 
     // ARouter
@@ -92,4 +96,7 @@ dependencies {
     compileOnly(Deps.kotlin.json)
     compileOnly(Deps.kotlin.protobuf)
     compileOnly(Deps.lib.mmkv)
+
+    // 单元测试中使用ksp处理器生成存取器与分发实现，以验证生成的代码
+    add("kspTest", project(":processor"))
 }
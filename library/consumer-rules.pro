@@ -36,6 +36,13 @@
 ## Type类型懒获取，它需要保证父类继承顺序不被R8破坏，但允许混淆类名与方法名
 -keep,allowobfuscation class * extends io.github.chenfei0928.reflect.LazyTypeToken
 
+## 编译时生成的Bundle存取器，通过宿主类名反射获取其单例
+## 在 io.github.chenfei0928.os.BundleSupportType.AutoFind.loadGeneratedAccessor 方法中使用
+-keepnames @io.github.chenfei0928.os.BundleAccessors class *
+-keep class * implements io.github.chenfei0928.os.GeneratedBundleAccessor {
+    public static ** INSTANCE;
+}
+
 ## 为了可以访问到FragmentViewLifecycleOwner的Fragment
 ## 在 androidx.fragment.app.FragmentViewLifecycleAccessor 中使用
 ## androidx.fragment.app.FragmentViewLifecycleAccessor
@@ -50,6 +50,14 @@ class ActivityDelegate<V>(
             BundleSupportType.AutoFind.findByType<V>(isMarkedNullable), name, defaultValue
         )
 
+        /** @see BundleSupportType.AutoFind */
+        @Suppress("UNCHECKED_CAST")
+        fun <V> generated(
+            name: String? = null, defaultValue: V? = null
+        ): ReadOnlyProperty<Activity, V> = ActivityDelegate(
+            BundleSupportType.AutoFind as BundleSupportType<V>, name, defaultValue
+        )
+
         fun <V> parceler(
             parceler: Parceler<V?>,
             name: String? = null,
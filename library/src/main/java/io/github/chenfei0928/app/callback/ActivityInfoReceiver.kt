@@ -10,6 +10,9 @@ import io.github.chenfei0928.content.IntentFilterBroadcastReceiver
 import io.github.chenfei0928.os.getParcelableExtraCompat
 
 /**
+ * 每个activity生命周期事件都会发送一次广播，且 LiveData 只保留最新的值，
+ * 需要按顺序接收每个事件时使用 [ActivityLifecycleEventBus]
+ *
  * @author chenfei()
  * @date 2022-10-19 18:53
  */
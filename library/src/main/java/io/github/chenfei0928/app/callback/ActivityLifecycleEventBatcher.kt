@@ -0,0 +1,42 @@
+package io.github.chenfei0928.app.callback
+
+/**
+ * 将一段时间窗口内的多个activity生命周期事件合并为一批发送
+ *
+ * 第一个事件加入时通过 [scheduleFlush] 调度一次发送，调度执行前加入的事件都会合并到同一批中，
+ * 批次内事件保持加入的顺序。
+ *
+ * @param scheduleFlush 调度在时间窗口后执行发送
+ * @param sendBatch 发送一批事件，每批只调用一次
+ *
+ * @author chenf()
+ * @date 2026-10-19 03:30
+ */
+internal class ActivityLifecycleEventBatcher(
+    private val scheduleFlush: (Runnable) -> Unit,
+    private val sendBatch: (ArrayList<ActivityInfo>) -> Unit,
+) : Runnable {
+    // 访问时需要持有 this 锁
+    private var pending = ArrayList<ActivityInfo>()
+    private var flushScheduled = false
+
+    fun add(activityInfo: ActivityInfo) {
+        val schedule = synchronized(this) {
+            pending.add(activityInfo)
+            !flushScheduled.also { flushScheduled = true }
+        }
+        if (schedule) {
+            scheduleFlush(this)
+        }
+    }
+
+    override fun run() {
+        val batch = synchronized(this) {
+            flushScheduled = false
+            pending.also { pending = ArrayList() }
+        }
+        if (batch.isNotEmpty()) {
+            sendBatch(batch)
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.chenfei0928.app.callback
+
+import android.app.Application
+import android.content.Context
+import android.content.Intent
+import android.os.Process
+import androidx.annotation.MainThread
+import io.github.chenfei0928.content.IntentFilterBroadcastReceiver
+import io.github.chenfei0928.lifecycle.LiveListeners
+import io.github.chenfei0928.os.getParcelableArrayListExtraCompat
+
+/**
+ * 跨进程的activity生命周期事件分发，[ActivityInfoReceiver] 的替代实现
+ *
+ * - 本进程的事件直接分发给本进程的监听器，不经过广播；
+ * - 发送给其它进程的事件在 [batchWindowMillis] 时间窗口内合并为一次广播，接收方忽略本进程发出的广播；
+ * - 进程名只获取一次；
+ * - 每个事件都会按顺序回调给监听器，不会像 LiveData 一样只保留最新的值。
+ *
+ * 需要在每个进程的 [Application.onCreate] 中调用 [register]。
+ *
+ * @author chenf()
+ * @date 2026-10-19 03:30
+ */
+object ActivityLifecycleEventBus : LiveListeners<ActivityLifecycleEventBus.Listener>() {
+    private const val ACTION_BATCH =
+        "io.github.chenfei0928.util.MULTI_PROCESS_ACTIVITY_LIFECYCLE_CALLBACK_BATCH"
+    private const val EXTRA_ACTIVITY_INFOS = "activityInfos"
+    private const val EXTRA_SENDER_PID = "senderPid"
+
+    /**
+     * 发送给其它进程的事件的合并时间窗口
+     */
+    var batchWindowMillis: Long = 16
+
+    private val receiver by lazy(LazyThreadSafetyMode.NONE) {
+        object : IntentFilterBroadcastReceiver(ACTION_BATCH) {
+            override fun onReceive(context: Context, intent: Intent) {
+                if (intent.getIntExtra(EXTRA_SENDER_PID, 0) == Process.myPid()) {
+                    // 本进程的事件已经直接分发过
+                    return
+                }
+                intent.setExtrasClassLoader(ActivityInfo::class.java.classLoader)
+                val activityInfos = intent.getParcelableArrayListExtraCompat<ActivityInfo>(
+                    EXTRA_ACTIVITY_INFOS
+                ) ?: return
+                dispatchBatch(activityInfos)
+            }
+        }
+    }
+
+    @MainThread
+    fun register(context: Context) {
+        val application = context.applicationContext as Application
+        receiver.register(application)
+        application.registerActivityLifecycleCallbacks(
+            BatchedActivityLifecycleCallbackSender(application, ::dispatch) { batch ->
+                val intent = Intent(ACTION_BATCH)
+                intent.setPackage(application.packageName)
+                intent.putExtra(EXTRA_SENDER_PID, Process.myPid())
+                intent.putParcelableArrayListExtra(EXTRA_ACTIVITY_INFOS, batch)
+                application.sendBroadcast(intent)
+            }
+        )
+    }
+
+    internal fun dispatch(activityInfo: ActivityInfo) {
+        forEachActive { it.onActivityLifecycleEvent(activityInfo) }
+    }
+
+    internal fun dispatchBatch(activityInfos: List<ActivityInfo>) {
+        activityInfos.forEach(::dispatch)
+    }
+
+    fun interface Listener {
+        fun onActivityLifecycleEvent(activityInfo: ActivityInfo)
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.chenfei0928.app.callback
+
+import android.app.Activity
+import android.app.Application
+import android.content.Context
+import android.os.Bundle
+import androidx.lifecycle.Lifecycle
+import io.github.chenfei0928.app.ProcessUtil
+import io.github.chenfei0928.concurrent.ExecutorUtil
+
+/**
+ * 将activity生命周期事件直接分发给本进程，并合并后发送给其它进程
+ *
+ * @param dispatchLocal 本进程内直接分发事件
+ * @param sendBatch 发送一批事件给其它进程
+ *
+ * @author chenf()
+ * @date 2026-10-19 03:30
+ */
+internal class BatchedActivityLifecycleCallbackSender(
+    context: Context,
+    private val dispatchLocal: (ActivityInfo) -> Unit,
+    sendBatch: (ArrayList<ActivityInfo>) -> Unit,
+) : Application.ActivityLifecycleCallbacks {
+    private val processName: String = ProcessUtil.getProcessName(context)
+    private val packageName: String = context.packageName
+    private val batcher = ActivityLifecycleEventBatcher({
+        ExecutorUtil.runOnUiThreadDelayed(it, ActivityLifecycleEventBus.batchWindowMillis)
+    }, sendBatch)
+
+    override fun onActivityCreated(activity: Activity, savedInstanceState: Bundle?) {
+        send(activity, Lifecycle.Event.ON_CREATE)
+    }
+
+    override fun onActivityStarted(activity: Activity) {
+        send(activity, Lifecycle.Event.ON_START)
+    }
+
+    override fun onActivityResumed(activity: Activity) {
+        send(activity, Lifecycle.Event.ON_RESUME)
+    }
+
+    override fun onActivityPaused(activity: Activity) {
+        send(activity, Lifecycle.Event.ON_PAUSE)
+    }
+
+    override fun onActivityStopped(activity: Activity) {
+        send(activity, Lifecycle.Event.ON_STOP)
+    }
+
+    override fun onActivitySaveInstanceState(activity: Activity, outState: Bundle) {
+        // noop
+    }
+
+    override fun onActivityDestroyed(activity: Activity) {
+        send(activity, Lifecycle.Event.ON_DESTROY)
+    }
+
+    private fun send(activity: Activity, event: Lifecycle.Event) {
+        val activityInfo = ActivityInfo(
+            processName,
+            packageName,
+            activity.javaClass.name,
+            System.identityHashCode(activity),
+            event
+        )
+        dispatchLocal(activityInfo)
+        batcher.add(activityInfo)
+    }
+}
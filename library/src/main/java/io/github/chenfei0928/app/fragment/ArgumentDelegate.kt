@@ -46,6 +46,14 @@ class ArgumentDelegate<V>(
             BundleSupportType.AutoFind.findByType<V>(isMarkedNullable), name, defaultValue
         )
 
+        /** @see BundleSupportType.AutoFind */
+        @Suppress("UNCHECKED_CAST")
+        fun <V> generated(
+            name: String? = null, defaultValue: V? = null
+        ): ReadWriteProperty<Fragment, V> = ArgumentDelegate(
+            BundleSupportType.AutoFind as BundleSupportType<V>, name, defaultValue
+        )
+
         fun <V> parceler(
             parceler: Parceler<V?>,
             name: String? = null,
@@ -40,6 +40,14 @@ class HostIntentDelegate<V>(
             BundleSupportType.AutoFind.findByType<V>(isMarkedNullable), name, defaultValue
         )
 
+        /** @see BundleSupportType.AutoFind */
+        @Suppress("UNCHECKED_CAST")
+        fun <V> generated(
+            name: String? = null, defaultValue: V? = null
+        ): ReadOnlyProperty<Fragment, V> = HostIntentDelegate(
+            BundleSupportType.AutoFind as BundleSupportType<V>, name, defaultValue
+        )
+
         fun <V> parceler(
             parceler: Parceler<V?>,
             name: String? = null,
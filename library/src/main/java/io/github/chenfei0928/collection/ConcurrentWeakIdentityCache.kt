@@ -0,0 +1,113 @@
+package io.github.chenfei0928.collection
+
+import java.lang.ref.ReferenceQueue
+import java.lang.ref.WeakReference
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 线程安全的弱引用key缓存，key按引用相等比较
+ *
+ * - 读取已存在的值只有一次 [ConcurrentHashMap.get]，不加锁，查找时使用线程内复用的查找key，不产生对象分配；
+ * - 未命中时在锁内再次检查后创建，保证每个key最多只创建一次值；
+ * - key被回收后其条目在下次创建值时通过引用队列移除。
+ *
+ * @author chenf()
+ * @date 2026-10-19 04:20
+ */
+class ConcurrentWeakIdentityCache<K : Any, V : Any> {
+    private val map = ConcurrentHashMap<Any, V>()
+    private val queue = ReferenceQueue<K>()
+    private val lookupKey = ThreadLocal<LookupKey>()
+
+    /**
+     * 获取[key]已缓存的值，不会创建值
+     */
+    operator fun get(key: K): V? {
+        val lookup = lookupKey.get() ?: LookupKey().also { lookupKey.set(it) }
+        lookup.key = key
+        try {
+            return map[lookup]
+        } finally {
+            lookup.key = null
+        }
+    }
+
+    /**
+     * 获取[key]已缓存的值，或在没有缓存时调用[creator]创建；并发调用时[creator]对同一个key最多只会被调用一次
+     *
+     * [creator]在锁内调用，不能在其中访问该缓存的其它key的创建
+     */
+    inline fun getOrCreate(key: K, creator: (K) -> V): V =
+        get(key) ?: synchronized(this) {
+            get(key) ?: creator(key).also { putLocked(key, it) }
+        }
+
+    @PublishedApi
+    internal fun putLocked(key: K, value: V) {
+        expungeStaleEntries()
+        map[WeakKey(key, queue)] = value
+    }
+
+    /**
+     * 仅在[key]当前映射到[value]时移除
+     */
+    fun remove(key: K, value: V): Boolean {
+        val lookup = lookupKey.get() ?: LookupKey().also { lookupKey.set(it) }
+        lookup.key = key
+        try {
+            return map.remove(lookup, value)
+        } finally {
+            lookup.key = null
+        }
+    }
+
+    /**
+     * 当前缓存数量，可能包含key已被回收但还未移除的条目
+     */
+    val size: Int
+        get() = map.size
+
+    /**
+     * 移除key已被回收的条目
+     */
+    fun expungeStaleEntries() {
+        while (true) {
+            val ref = queue.poll() ?: return
+            map.remove(ref)
+        }
+    }
+
+    /**
+     * 保存在map中的弱引用key，其哈希值在创建时计算，key被回收后只与自身相等
+     */
+    private class WeakKey<K : Any>(
+        key: K,
+        queue: ReferenceQueue<in K>,
+    ) : WeakReference<K>(key, queue) {
+        private val hash = System.identityHashCode(key)
+
+        override fun hashCode(): Int = hash
+
+        override fun equals(other: Any?): Boolean = when {
+            other === this -> true
+            other is WeakKey<*> -> get().let { it != null && it === other.get() }
+            other is LookupKey -> get().let { it != null && it === other.key }
+            else -> false
+        }
+    }
+
+    /**
+     * 查找时使用的可复用key，每个线程一个实例
+     */
+    private class LookupKey {
+        var key: Any? = null
+
+        override fun hashCode(): Int = System.identityHashCode(key)
+
+        override fun equals(other: Any?): Boolean = when (other) {
+            is WeakKey<*> -> other.get().let { it != null && it === key }
+            is LookupKey -> other.key === key
+            else -> false
+        }
+    }
+}
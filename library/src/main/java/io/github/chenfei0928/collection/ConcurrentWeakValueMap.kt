@@ -0,0 +1,157 @@
+package io.github.chenfei0928.collection
+
+import java.lang.ref.ReferenceQueue
+import java.lang.ref.WeakReference
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 基于 [ConcurrentHashMap] 的线程安全的弱引用值map
+ *
+ * 每个弱引用都记录了其key，值被回收后在下次修改操作时通过引用队列按key移除，移除单个条目的开销为O(1)；
+ * 读取操作不会排空引用队列，以避免读取时竞争引用队列的锁。
+ * 迭代时会跳过值已被回收但还未移除的条目，[size] 可能包含这些条目。
+ *
+ * @author chenf()
+ * @date 2026-10-19 02:00
+ */
+class ConcurrentWeakValueMap<K : Any, V : Any>(
+    initialCapacity: Int = 16,
+) : AbstractMutableMap<K, V>() {
+    private val map = ConcurrentHashMap<K, KeyedReference<K, V>>(initialCapacity)
+    private val queue = ReferenceQueue<V>()
+
+    /**
+     * 移除值已被回收的条目
+     */
+    fun expungeStaleEntries() {
+        while (true) {
+            @Suppress("UNCHECKED_CAST")
+            val ref = queue.poll() as KeyedReference<K, V>? ?: return
+            // 只在该key仍映射到该引用时移除，避免移除之后放入的新值
+            map.remove(ref.key, ref)
+        }
+    }
+
+    override val size: Int
+        get() = map.size
+
+    override fun isEmpty(): Boolean = map.isEmpty()
+
+    override fun containsKey(key: K): Boolean = get(key) != null
+
+    override fun get(key: K): V? = map[key]?.get()
+
+    override fun put(key: K, value: V): V? {
+        expungeStaleEntries()
+        return map.put(key, KeyedReference(key, value, queue))?.get()
+    }
+
+    override fun remove(key: K): V? {
+        expungeStaleEntries()
+        return map.remove(key)?.get()
+    }
+
+    override fun clear() {
+        map.clear()
+        expungeStaleEntries()
+    }
+
+    /**
+     * 如果 [key] 没有映射到存活的值则放入 [value]，并返回放入后 [key] 所映射的值
+     */
+    fun putIfAbsentAndGet(key: K, value: V): V {
+        expungeStaleEntries()
+        val newRef = KeyedReference(key, value, queue)
+        while (true) {
+            val oldRef = map.putIfAbsent(key, newRef)
+                ?: return value
+            oldRef.get()?.let { return it }
+            // 旧值已被回收，替换为新值；替换失败说明已被其它线程修改，重试
+            if (map.replace(key, oldRef, newRef)) {
+                return value
+            }
+        }
+    }
+
+    /**
+     * 原子的 getOrPut，所有调用方都会获得同一个值实例
+     *
+     * 与标准库中 `ConcurrentMap.getOrPut` 一致，并发调用时 [defaultValue] 可能被调用多次，
+     * 但只有一个结果会被放入并返回给所有调用方。
+     */
+    inline fun getOrPut(key: K, defaultValue: () -> V): V =
+        get(key) ?: putIfAbsentAndGet(key, defaultValue())
+
+    override val entries: MutableSet<MutableMap.MutableEntry<K, V>> =
+        object : AbstractMutableSet<MutableMap.MutableEntry<K, V>>() {
+            override val size: Int
+                get() = map.size
+
+            override fun add(element: MutableMap.MutableEntry<K, V>): Boolean =
+                put(element.key, element.value) != element.value
+
+            override fun iterator(): MutableIterator<MutableMap.MutableEntry<K, V>> = EntryIterator()
+        }
+
+    /**
+     * 遍历时强引用下一个存活的值，避免 [hasNext] 之后值被回收
+     */
+    private inner class EntryIterator : MutableIterator<MutableMap.MutableEntry<K, V>> {
+        private val iterator = map.entries.iterator()
+        private var next: Entry? = null
+        private var last: Entry? = null
+
+        override fun hasNext(): Boolean {
+            while (next == null && iterator.hasNext()) {
+                val (key, ref) = iterator.next()
+                val value = ref.get() ?: continue
+                next = Entry(key, value)
+            }
+            return next != null
+        }
+
+        override fun next(): MutableMap.MutableEntry<K, V> {
+            if (!hasNext()) {
+                throw NoSuchElementException()
+            }
+            return next!!.also {
+                last = it
+                next = null
+            }
+        }
+
+        override fun remove() {
+            val last = checkNotNull(last)
+            this.last = null
+            this@ConcurrentWeakValueMap.remove(last.key)
+        }
+    }
+
+    private inner class Entry(
+        override val key: K,
+        private var currentValue: V,
+    ) : MutableMap.MutableEntry<K, V> {
+        override val value: V
+            get() = currentValue
+
+        override fun setValue(newValue: V): V {
+            val oldValue = currentValue
+            currentValue = newValue
+            put(key, newValue)
+            return oldValue
+        }
+
+        override fun equals(other: Any?): Boolean =
+            other is Map.Entry<*, *> && other.key == key && other.value == value
+
+        override fun hashCode(): Int = key.hashCode() xor value.hashCode()
+
+        override fun toString(): String = "$key=$value"
+    }
+
+    private class KeyedReference<K, V>(
+        val key: K,
+        value: V,
+        queue: ReferenceQueue<in V>,
+    ) : WeakReference<V>(value, queue)
+}
@@ -1,6 +1,8 @@
 package io.github.chenfei0928.collection
 
 /**
+ * 需要频繁随机访问（如绑定到RecyclerView）时，使用维护了过滤结果索引的 [IndexedFilterList]
+ *
  * @author ChenFei(chenfei0928@gmail.com)
  * @date 2020-12-03 14:42
  */
@@ -0,0 +1,300 @@
+package io.github.chenfei0928.collection
+
+import androidx.recyclerview.widget.RecyclerView
+
+/**
+ * 维护过滤结果索引的过滤列表视图
+ *
+ * 与 [FilterList] 每次访问都对数据源进行过滤不同，此类维护一个数据源中符合过滤条件的元素下标的有序 [IntArray]，
+ * [get]、[size] 均为 O(1)，真实下标到过滤后下标的转换 [toFilteredIndex] 使用二分查找。
+ *
+ * 通过此视图进行的修改会增量更新索引，并通知 [adapterDataObserver] 精确的过滤后的范围变化；
+ * 直接修改数据源 [list] 后需要调用 [onSourceRangeInserted]、[onSourceRangeRemoved]、[onSourceRangeChanged]
+ * 以增量更新索引并通知精确的变化，或调用 [invalidate] 使索引在下次访问时重建。
+ *
+ * @param list 源数据集合
+ * @param filterPredicate 过滤条件，修改后会重建索引
+ *
+ * @author chenf()
+ * @date 2026-10-19 00:50
+ */
+class IndexedFilterList<E>(
+    val list: MutableList<E>,
+    filterPredicate: (E) -> Boolean,
+) : AbstractMutableList<E>(), RandomAccess, RecyclerViewAdapterDataSource {
+    override var adapterDataObserver: RecyclerView.AdapterDataObserver? = null
+
+    // 符合过滤条件的元素在数据源中的下标，升序排列，只有前 filteredSize 个有效
+    private var indices: IntArray = EMPTY
+    private var filteredSize = 0
+    private var indexValid = false
+
+    var filterPredicate: (E) -> Boolean = filterPredicate
+        set(value) {
+            field = value
+            invalidate()
+        }
+
+    /**
+     * 使索引失效并在下次访问时重建，用于数据源发生了未知的修改时，会通知 [RecyclerView.AdapterDataObserver.onChanged]
+     */
+    fun invalidate() {
+        indexValid = false
+        adapterDataObserver?.onChanged()
+    }
+
+    private fun ensureIndex() {
+        if (indexValid) {
+            return
+        }
+        val list = list
+        var indices = if (indices.size >= list.size) indices else IntArray(list.size)
+        var size = 0
+        list.forEachIndexed { index, e ->
+            if (filterPredicate(e)) {
+                indices[size++] = index
+            }
+        }
+        // 过滤结果较少时释放多余的空间
+        if (indices.size > size * 2 + MIN_CAPACITY) {
+            indices = indices.copyOf(size)
+        }
+        this.indices = indices
+        filteredSize = size
+        indexValid = true
+    }
+
+    override val size: Int
+        get() {
+            ensureIndex()
+            return filteredSize
+        }
+
+    override fun get(index: Int): E = list[toRealIndex(index)]
+
+    /**
+     * 将过滤后的下标转换为数据源中的下标
+     */
+    fun toRealIndex(filteredIndex: Int): Int {
+        ensureIndex()
+        if (filteredIndex !in 0 until filteredSize) {
+            throw IndexOutOfBoundsException("index: $filteredIndex, size: $filteredSize")
+        }
+        return indices[filteredIndex]
+    }
+
+    /**
+     * 将数据源中的下标转换为过滤后的下标
+     *
+     * @return 该元素在过滤后的下标，如果该元素不符合过滤条件，返回 `-(插入位置) - 1`
+     */
+    fun toFilteredIndex(realIndex: Int): Int {
+        ensureIndex()
+        return indices.binarySearch(realIndex, 0, filteredSize)
+    }
+
+    /**
+     * 查找第一个真实下标不小于 [realIndex] 的过滤后的下标
+     */
+    private fun lowerBound(realIndex: Int): Int {
+        val index = indices.binarySearch(realIndex, 0, filteredSize)
+        return if (index >= 0) index else -index - 1
+    }
+
+    private fun shift(from: Int, delta: Int) {
+        for (i in from until filteredSize) {
+            indices[i] += delta
+        }
+    }
+
+    private fun insertIndices(at: Int, realIndices: IntArray, count: Int) {
+        if (count == 0) {
+            return
+        }
+        if (filteredSize + count > indices.size) {
+            indices = indices.copyOf(maxOf(filteredSize + count, indices.size * 2, MIN_CAPACITY))
+        }
+        System.arraycopy(indices, at, indices, at + count, filteredSize - at)
+        System.arraycopy(realIndices, 0, indices, at, count)
+        filteredSize += count
+    }
+
+    private fun removeIndices(at: Int, count: Int) {
+        if (count == 0) {
+            return
+        }
+        System.arraycopy(indices, at + count, indices, at, filteredSize - at - count)
+        filteredSize -= count
+    }
+
+    //<editor-fold desc="通过视图的修改" defaultstatus="collapsed">
+    override fun add(index: Int, element: E) {
+        ensureIndex()
+        if (index !in 0..filteredSize) {
+            throw IndexOutOfBoundsException("index: $index, size: $filteredSize")
+        }
+        val realIndex = if (index == filteredSize) list.size else indices[index]
+        list.add(realIndex, element)
+        onSourceRangeInserted(realIndex, 1)
+    }
+
+    override fun addAll(index: Int, elements: Collection<E>): Boolean {
+        ensureIndex()
+        if (index !in 0..filteredSize) {
+            throw IndexOutOfBoundsException("index: $index, size: $filteredSize")
+        }
+        val realIndex = if (index == filteredSize) list.size else indices[index]
+        if (!list.addAll(realIndex, elements)) {
+            return false
+        }
+        onSourceRangeInserted(realIndex, elements.size)
+        return true
+    }
+
+    override fun removeAt(index: Int): E {
+        val realIndex = toRealIndex(index)
+        val element = list.removeAt(realIndex)
+        removeIndices(index, 1)
+        shift(index, -1)
+        modCount++
+        adapterDataObserver?.onItemRangeRemoved(index, 1)
+        return element
+    }
+
+    override fun set(index: Int, element: E): E {
+        val realIndex = toRealIndex(index)
+        val oldElement = list.set(realIndex, element)
+        if (filterPredicate(element)) {
+            adapterDataObserver?.onItemRangeChanged(index, 1)
+        } else {
+            // 新元素不符合过滤条件，从过滤结果中移除
+            removeIndices(index, 1)
+            modCount++
+            adapterDataObserver?.onItemRangeRemoved(index, 1)
+        }
+        return oldElement
+    }
+
+    override fun clear() {
+        ensureIndex()
+        val oldSize = filteredSize
+        if (oldSize == 0) {
+            return
+        }
+        // 从后向前移除，避免下标偏移
+        for (i in oldSize - 1 downTo 0) {
+            list.removeAt(indices[i])
+        }
+        filteredSize = 0
+        modCount++
+        adapterDataObserver?.onItemRangeRemoved(0, oldSize)
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="数据源修改的通知" defaultstatus="collapsed">
+    /**
+     * 通知数据源 [list] 在 [realStart] 处插入了 [count] 个元素
+     */
+    fun onSourceRangeInserted(realStart: Int, count: Int) {
+        if (!indexValid || count <= 0) {
+            invalidateIfNeeded(count)
+            return
+        }
+        val at = lowerBound(realStart)
+        shift(at, count)
+        val inserted = IntArray(count)
+        var insertedCount = 0
+        for (realIndex in realStart until realStart + count) {
+            if (filterPredicate(list[realIndex])) {
+                inserted[insertedCount++] = realIndex
+            }
+        }
+        insertIndices(at, inserted, insertedCount)
+        modCount++
+        if (insertedCount > 0) {
+            adapterDataObserver?.onItemRangeInserted(at, insertedCount)
+        }
+    }
+
+    /**
+     * 通知数据源 [list] 从 [realStart] 处移除了 [count] 个元素
+     */
+    fun onSourceRangeRemoved(realStart: Int, count: Int) {
+        if (!indexValid || count <= 0) {
+            invalidateIfNeeded(count)
+            return
+        }
+        val from = lowerBound(realStart)
+        val to = lowerBound(realStart + count)
+        removeIndices(from, to - from)
+        shift(from, -count)
+        modCount++
+        if (to > from) {
+            adapterDataObserver?.onItemRangeRemoved(from, to - from)
+        }
+    }
+
+    /**
+     * 通知数据源 [list] 从 [realStart] 处的 [count] 个元素内容发生了变化，
+     * 会重新判断这些元素是否符合过滤条件，并通知其在过滤后的插入、移除或变化
+     */
+    fun onSourceRangeChanged(realStart: Int, count: Int) {
+        if (!indexValid || count <= 0) {
+            invalidateIfNeeded(count)
+            return
+        }
+        // 连续的变化合并为一次通知
+        var changedStart = -1
+        var changedCount = 0
+        val single = IntArray(1)
+        for (realIndex in realStart until realStart + count) {
+            val filteredIndex = indices.binarySearch(realIndex, 0, filteredSize)
+            val match = filterPredicate(list[realIndex])
+            if (filteredIndex >= 0 && match) {
+                if (changedCount > 0 && changedStart + changedCount == filteredIndex) {
+                    changedCount++
+                } else {
+                    dispatchChanged(changedStart, changedCount)
+                    changedStart = filteredIndex
+                    changedCount = 1
+                }
+                continue
+            }
+            dispatchChanged(changedStart, changedCount)
+            changedCount = 0
+            if (filteredIndex >= 0) {
+                removeIndices(filteredIndex, 1)
+                modCount++
+                adapterDataObserver?.onItemRangeRemoved(filteredIndex, 1)
+            } else if (match) {
+                single[0] = realIndex
+                insertIndices(-filteredIndex - 1, single, 1)
+                modCount++
+                adapterDataObserver?.onItemRangeInserted(-filteredIndex - 1, 1)
+            }
+        }
+        dispatchChanged(changedStart, changedCount)
+    }
+
+    private fun dispatchChanged(start: Int, count: Int) {
+        if (count > 0) {
+            adapterDataObserver?.onItemRangeChanged(start, count)
+        }
+    }
+
+    private fun invalidateIfNeeded(count: Int) {
+        if (count > 0) {
+            invalidate()
+        }
+    }
+    //</editor-fold>
+
+    companion object {
+        private val EMPTY = IntArray(0)
+        private const val MIN_CAPACITY = 16
+
+        fun <E> MutableList<E>.toIndexedFilterList(
+            predicate: (E) -> Boolean
+        ): IndexedFilterList<E> = IndexedFilterList(this, predicate)
+    }
+}
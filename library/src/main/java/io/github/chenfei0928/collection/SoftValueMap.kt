@@ -0,0 +1,17 @@
+package io.github.chenfei0928.collection
+
+import androidx.collection.ArrayMap
+import java.lang.ref.SoftReference
+
+/**
+ * 值使用 [SoftReference] 保存的map，值只在内存不足时被回收，适用于对内存敏感的缓存，
+ * 值被回收后其条目会在下次访问该map时通过引用队列移除；非线程安全
+ *
+ * @author chenf()
+ * @date 2026-10-19 02:00
+ */
+class SoftValueMap<K, V>(
+    map: MutableMap<K, SoftReference<V>> = ArrayMap()
+) : WrapMutableMap<K, K, V, SoftReference<V>>(
+    map, WrapMutableMapConvertor.Key.NoTodo(), WrapMutableMapConvertor.Value.SoftRef()
+)
@@ -4,6 +4,9 @@ import androidx.collection.ArrayMap
 import java.lang.ref.WeakReference
 
 /**
+ * 值使用 [WeakReference] 保存的map，值被回收后其条目会在下次访问该map时通过引用队列移除，
+ * 不会因为长期持有而无限增长；非线程安全，多线程访问时使用 [ConcurrentWeakValueMap]
+ *
  * @author chenf()
  * @date 2024-12-31 16:45
  */
@@ -44,12 +44,67 @@ open class WrapMutableMap<WK, K, WV, V>(
         Entries(this, map.entries, keyConvertor, valueConvertor)
     }
     override val keys: MutableSet<WK> by lazy {
-        Keys(this, map.keys, keyConvertor)
+        Keys(this, map.keys, keyConvertor, valueConvertor)
     }
     override val values: MutableCollection<WV> by lazy {
         Values(this, map.values, valueConvertor)
     }
 
+    /**
+     * 遍历宿主map中值未被回收的条目
+     *
+     * 遍历期间不排空引用队列（只在创建迭代器时排空），避免在打开的迭代器下修改宿主map；
+     * 值已被回收但引用还未进入队列的条目会被跳过。判断条目存活时取得的值会被持有到该条目被返回，
+     * [remove] 需要紧跟在 [next] 之后调用，中间调用 [hasNext] 后底层迭代器可能已经前进。
+     */
+    private abstract class LiveIterator<WK, K, WV, V, T>(
+        private val hostMap: WrapMutableMap<WK, K, WV, V>,
+    ) : MutableIterator<T>, WrapMutableMapConvertor.Value<WV, V> by hostMap.valueConvertor {
+        private val iterator = hostMap.run {
+            onAnyOperation()
+            map.entries.iterator()
+        }
+        private var hasNextEntry = false
+        private var nextKey: K? = null
+        private var nextValue: WV? = null
+        private var canRemove = false
+
+        override fun hasNext(): Boolean {
+            while (!hasNextEntry && iterator.hasNext()) {
+                val entry = iterator.next()
+                canRemove = false
+                val value = entry.value!!.toWV()
+                if (value != null) {
+                    hasNextEntry = true
+                    nextKey = entry.key
+                    nextValue = value
+                }
+            }
+            return hasNextEntry
+        }
+
+        override fun next(): T {
+            if (!hasNext()) {
+                throw NoSuchElementException()
+            }
+            @Suppress("UNCHECKED_CAST")
+            val result = convert(nextKey as K, nextValue as WV)
+            hasNextEntry = false
+            nextKey = null
+            nextValue = null
+            canRemove = true
+            return result
+        }
+
+        override fun remove() {
+            check(canRemove) { "remove() must be called right after next()" }
+            canRemove = false
+            iterator.remove()
+        }
+
+        protected abstract fun convert(rawKey: K, liveValue: WV): T
+    }
+
     private class Entries<WK, K, WV, V>(
         private val hostMap: WrapMutableMap<WK, K, WV, V>,
         private val entries: MutableSet<MutableMap.MutableEntry<K, V>>,
@@ -77,28 +132,20 @@ open class WrapMutableMap<WK, K, WV, V>(
         }
 
         override fun iterator(): MutableIterator<MutableMap.MutableEntry<WK, WV>> {
-            return object : MutableIterator<MutableMap.MutableEntry<WK, WV>> {
-                private val iterator = entries.iterator()
-                override fun remove() {
-                    hostMap.onAnyOperation()
-                    iterator.remove()
-                }
-
-                override fun hasNext(): Boolean {
-                    hostMap.onAnyOperation()
-                    return iterator.hasNext()
-                }
-
-                override fun next(): MutableMap.MutableEntry<WK, WV> {
+            return object : LiveIterator<WK, K, WV, V, MutableMap.MutableEntry<WK, WV>>(hostMap) {
+                override fun convert(rawKey: K, liveValue: WV): MutableMap.MutableEntry<WK, WV> {
                     return object : MutableMap.MutableEntry<WK, WV> {
-                        private val next = iterator.next()
-                        override val key: WK
-                            get() = next.key!!.toWK()
+                        private var current: WV = liveValue
+                        override val key: WK = rawKey!!.toWK()
                         override val value: WV
-                            get() = next.value!!.toWV()
+                            get() = current
 
                         override fun setValue(newValue: WV): WV {
-                            return next.setValue(newValue!!.toV())!!.toWV()
+                            // 替换已有key的值不是结构性修改，底层迭代器可能已经前进，不使用其条目
+                            val oldValue = current
+                            hostMap.map.put(rawKey, newValue!!.toV())
+                            current = newValue
+                            return oldValue
                         }
                     }
                 }
@@ -117,10 +164,11 @@ open class WrapMutableMap<WK, K, WV, V>(
         }
     }
 
-    private class Keys<WK, K>(
-        private val hostMap: WrapMutableMap<WK, K, *, *>,
+    private class Keys<WK, K, WV, V>(
+        private val hostMap: WrapMutableMap<WK, K, WV, V>,
         private val keys: MutableSet<K>,
         private val keyConvertor: WrapMutableMapConvertor.Key<WK, K>,
+        private val valueConvertor: WrapMutableMapConvertor.Value<WV, V>,
     ) : AbstractMutableSet<WK>(),
         WrapMutableMapConvertor.Key<WK, K> by keyConvertor {
         override fun add(element: WK): Boolean {
@@ -134,22 +182,8 @@ open class WrapMutableMap<WK, K, WV, V>(
         }
 
         override fun iterator(): MutableIterator<WK> {
-            return object : MutableIterator<WK> {
-                private val iterator = keys.iterator()
-                override fun remove() {
-                    hostMap.onAnyOperation()
-                    iterator.remove()
-                }
-
-                override fun hasNext(): Boolean {
-                    hostMap.onAnyOperation()
-                    return iterator.hasNext()
-                }
-
-                override fun next(): WK {
-                    hostMap.onAnyOperation()
-                    return iterator.next()!!.toWK()
-                }
+            return object : LiveIterator<WK, K, WV, V, WK>(hostMap) {
+                override fun convert(rawKey: K, liveValue: WV): WK = rawKey!!.toWK()
             }
         }
 
@@ -165,8 +199,8 @@ open class WrapMutableMap<WK, K, WV, V>(
         }
     }
 
-    private class Values<WV, V>(
-        private val hostMap: WrapMutableMap<*, *, WV, V>,
+    private class Values<WK, K, WV, V>(
+        private val hostMap: WrapMutableMap<WK, K, WV, V>,
         private val values: MutableCollection<V>,
         private val valueConvertor: WrapMutableMapConvertor.Value<WV, V>,
     ) : AbstractMutableCollection<WV>(),
@@ -177,21 +211,8 @@ open class WrapMutableMap<WK, K, WV, V>(
         }
 
         override fun iterator(): MutableIterator<WV> {
-            return object : MutableIterator<WV> {
-                private val iterator = values.iterator()
-                override fun remove() {
-                    hostMap.onAnyOperation()
-                    iterator.remove()
-                }
-
-                override fun hasNext(): Boolean {
-                    hostMap.onAnyOperation()
-                    return iterator.hasNext()
-                }
-
-                override fun next(): WV {
-                    return iterator.next()!!.toWV()
-                }
+            return object : LiveIterator<WK, K, WV, V, WV>(hostMap) {
+                override fun convert(rawKey: K, liveValue: WV): WV = liveValue
             }
         }
 
@@ -331,7 +352,9 @@ open class WrapMutableMap<WK, K, WV, V>(
     override fun forEach(action: BiConsumer<in WK, in WV>) {
         onAnyOperation()
         map.forEach {
-            action.accept(it.key!!.toWK(), it.value!!.toWV())
+            // 值已被回收但还未进入引用队列的条目跳过
+            val value = it.value!!.toWV() ?: return@forEach
+            action.accept(it.key!!.toWK(), value)
         }
     }
 
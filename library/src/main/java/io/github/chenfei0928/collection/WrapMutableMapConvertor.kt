@@ -1,7 +1,11 @@
 package io.github.chenfei0928.collection
 
+import java.lang.ref.Reference
 import java.lang.ref.ReferenceQueue
+import java.lang.ref.SoftReference
 import java.lang.ref.WeakReference
+import java.util.Collections
+import java.util.IdentityHashMap
 
 /**
  * @author chenf()
@@ -15,6 +19,36 @@ interface WrapMutableMapConvertor {
         fun onAnyOperation()
     }
 
+    /**
+     * 在宿主map的每次操作前排空引用队列，将值已被回收的条目从宿主map中移除
+     *
+     * 一次排空中所有已回收的引用只需要遍历一次宿主map，没有引用被回收时只有一次 [ReferenceQueue.poll] 的开销。
+     * 视图的迭代器只在创建时排空，遍历过程中不会修改宿主map，而是跳过值已被回收的条目。
+     */
+    abstract class RefExpunger<V, R : Reference<V>> : Hostable<Any, Any, V, R> {
+        protected val queue = ReferenceQueue<V>()
+        override lateinit var hostMap: WrapMutableMap<Any, Any, V, R>
+        private var expunging: Boolean = false
+
+        override fun onAnyOperation() {
+            if (expunging) {
+                return
+            }
+            var ref: Reference<out V>? = queue.poll() ?: return
+            expunging = true
+            try {
+                val stale = Collections.newSetFromMap(IdentityHashMap<Reference<*>, Boolean>())
+                while (ref != null) {
+                    stale.add(ref)
+                    ref = queue.poll()
+                }
+                hostMap.map.values.removeAll { it in stale }
+            } finally {
+                expunging = false
+            }
+        }
+    }
+
     interface Key<WK, K> {
         fun <WKA : WK & Any> WKA.toK(): K
         fun <KA : K & Any> KA.toWK(): WK
@@ -45,24 +79,25 @@ interface WrapMutableMapConvertor {
             override fun <VA : V & Any> VA.toWV(): V = this
         }
 
-        class WeakRef<V> : Value<V, WeakReference<V>>, Hostable<Any, Any, V, WeakReference<V>> {
-            private val queue = ReferenceQueue<V>()
-            override lateinit var hostMap: WrapMutableMap<Any, Any, V, WeakReference<V>>
-
+        /**
+         * 值使用 [WeakReference] 保存，值被回收后其条目会在宿主map下次被访问时移除
+         */
+        class WeakRef<V> : RefExpunger<V, WeakReference<V>>(), Value<V, WeakReference<V>> {
             override fun <WVA : V & Any> WVA.toV(): WeakReference<V> = WeakReference(this, queue)
-            override fun <VA : WeakReference<V>> VA.toWV(): V = get()!!
-            private var protectFromCheckedChange: Boolean = false
-            override fun onAnyOperation() {
-                if (protectFromCheckedChange) {
-                    return
-                }
-                protectFromCheckedChange = true
-                val x = queue.poll()
-                while (x != null) {
-                    hostMap.map.entries.removeAll { it.value == x }
-                }
-                protectFromCheckedChange = false
-            }
+
+            // 值可能已被回收但还未进入引用队列，此时返回null
+            @Suppress("UNCHECKED_CAST")
+            override fun <VA : WeakReference<V>> VA.toWV(): V = get() as V
+        }
+
+        /**
+         * 值使用 [SoftReference] 保存，只在内存不足时被回收，用于对内存敏感的缓存
+         */
+        class SoftRef<V> : RefExpunger<V, SoftReference<V>>(), Value<V, SoftReference<V>> {
+            override fun <WVA : V & Any> WVA.toV(): SoftReference<V> = SoftReference(this, queue)
+
+            @Suppress("UNCHECKED_CAST")
+            override fun <VA : SoftReference<V>> VA.toWV(): V = get() as V
         }
     }
 }
@@ -0,0 +1,114 @@
+package io.github.chenfei0928.concurrent
+
+import io.github.chenfei0928.util.Log
+
+/**
+ * 在[BgTaskExecutor]之上按通道键划分的串行任务队列
+ *
+ * 同一通道的任务按提交顺序在同一时刻只有一个在执行，不同通道的任务作为独立的后台任务提交，
+ * 可以在多个工作线程上并发执行。通道在其任务全部执行完毕后被移除。
+ *
+ * @author chenf()
+ * @date 2026-10-18 14:20
+ */
+internal class BgTaskLanes(
+    private val executor: BgTaskExecutor
+) {
+    private val lanes = HashMap<Any, Lane>()
+
+    fun post(laneKey: Any, supersede: Boolean, r: Runnable): Boolean {
+        val lane = synchronized(lanes) {
+            val lane = lanes.getOrPut(laneKey) { Lane(laneKey) }
+            if (supersede) {
+                // 丢弃尚未开始执行的任务，只保留最后提交的任务
+                lane.tasks.clear()
+            }
+            lane.tasks.addLast(r)
+            if (lane.scheduled) {
+                return true
+            }
+            lane.scheduled = true
+            lane
+        }
+        if (executor.postToBg(lane)) {
+            return true
+        }
+        synchronized(lanes) {
+            lane.tasks.remove(r)
+            lane.scheduled = false
+            if (lane.tasks.isEmpty()) {
+                lanes.remove(laneKey)
+            }
+        }
+        return false
+    }
+
+    fun contain(laneKey: Any, r: Runnable): Boolean = synchronized(lanes) {
+        lanes[laneKey]?.tasks?.contains(r) == true
+    }
+
+    fun remove(laneKey: Any) {
+        synchronized(lanes) {
+            lanes[laneKey]?.tasks?.clear()
+        }
+    }
+
+    private inner class Lane(
+        private val laneKey: Any
+    ) : Runnable {
+        val tasks = ArrayDeque<Runnable>(2)
+        var scheduled = false
+
+        override fun run() {
+            var completed = false
+            try {
+                drain()
+                completed = true
+            } finally {
+                if (!completed) {
+                    // 任务抛出了Error，复位通道状态并重新提交剩余任务，避免该通道之后的任务永远不会被执行
+                    resubmit()
+                }
+            }
+        }
+
+        private fun drain() {
+            while (true) {
+                val task = synchronized(lanes) {
+                    val task = tasks.removeFirstOrNull()
+                    if (task == null) {
+                        scheduled = false
+                        lanes.remove(laneKey)
+                    }
+                    task
+                } ?: return
+                try {
+                    task.run()
+                } catch (e: RuntimeException) {
+                    Log.w(TAG, "Failed to run task of lane: $laneKey", e)
+                }
+            }
+        }
+
+        private fun resubmit() {
+            val hasTasks = synchronized(lanes) {
+                scheduled = tasks.isNotEmpty()
+                if (!scheduled) {
+                    lanes.remove(laneKey)
+                }
+                scheduled
+            }
+            if (hasTasks && !executor.postToBg(this)) {
+                synchronized(lanes) {
+                    tasks.clear()
+                    scheduled = false
+                    lanes.remove(laneKey)
+                }
+            }
+        }
+    }
+
+    companion object {
+        private const val TAG = "Ut_BgTaskLanes"
+    }
+}
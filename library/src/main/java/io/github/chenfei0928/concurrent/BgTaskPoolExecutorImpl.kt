@@ -0,0 +1,402 @@
+package io.github.chenfei0928.concurrent
+
+import androidx.annotation.IntRange
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.LifecycleOwner
+import io.github.chenfei0928.util.Log
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.asCoroutineDispatcher
+import java.util.PriorityQueue
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * 多工作线程的后台任务执行器，用于替代只有一个[BgExecutorThread]、队列容量只有10的[BgTaskExecutorImpl]。
+ *
+ * - 队列默认无界，主线程提交任务时不会因队列已满而阻塞；指定了[capacity]时由[overflowPolicy]处理溢出
+ * - 支持任务优先级，优先级高的任务先执行，同优先级的任务按提交顺序执行
+ * - [containInBg]、[removeBgCallbacks]通过哈希索引查找任务，移除任务时只标记取消，由工作线程出队时跳过
+ * - 工作线程按需创建，直到达到[workerCount]个
+ *
+ * 当[workerCount]大于1时，任务之间不再保证执行顺序，需要保证顺序的任务使用[postToBgLane]提交。
+ *
+ * @param name 工作线程名前缀
+ * @param workerCount 工作线程数量
+ * @param threadPriority 工作线程的线程优先级
+ * @param capacity 队列中等待执行任务的容量上限，为[Int.MAX_VALUE]时为无界队列
+ * @param overflowPolicy 队列已满时的处理策略
+ * @author chenf()
+ * @date 2026-10-18 10:12
+ */
+class BgTaskPoolExecutorImpl(
+    private val name: String = "bgPoolExecutor",
+    @IntRange(from = 1) private val workerCount: Int = Runtime.getRuntime()
+        .availableProcessors().coerceIn(2, 4),
+    private val threadPriority: Int = 2,
+    @IntRange(from = 1) private val capacity: Int = Int.MAX_VALUE,
+    private val overflowPolicy: OverflowPolicy = OverflowPolicy.BLOCK,
+) : BgTaskExecutor {
+    private val lock = ReentrantLock()
+    private val notEmpty = lock.newCondition()
+    private val notFull = lock.newCondition()
+    private val queue = PriorityQueue<Task>()
+
+    // 提交的Runnable到其尚未执行的任务链表头，同一个Runnable多次提交时通过Task.nextSame串联
+    private val index = HashMap<Runnable, Task>()
+    private var sequence = 0L
+    private var pendingCount = 0
+    private var workers = 0
+    private var idleWorkers = 0
+    private var workerId = 0
+    private var shutdown = false
+    private val lanes = BgTaskLanes(this)
+
+    /**
+     * 当前等待执行的任务数（不包含已取消的任务）
+     */
+    val pendingTaskCount: Int
+        get() = lock.withLock { pendingCount }
+
+    override fun isRunOnBgThread(): Boolean {
+        val thread = Thread.currentThread()
+        return thread is Worker && thread.owner === this
+    }
+
+    override fun postToBg(r: Runnable): Boolean {
+        return enqueue(r, PRIORITY_DEFAULT, null)
+    }
+
+    override fun postToBg(priority: Int, r: Runnable): Boolean {
+        return enqueue(r, priority, null)
+    }
+
+    override fun postToBg(
+        lifecycleOwner: LifecycleOwner, event: Lifecycle.Event, r: Runnable
+    ): Boolean {
+        val listener = object : LifecycleListenerRunnable(lifecycleOwner, event) {
+            override fun unregister() {
+                removeBgCallbacks(r)
+                this.run()
+            }
+        }
+        // 先注册监听再入队，保证主线程上添加监听先于任务执行完毕后的移除监听
+        listener.register()
+        val enqueue = enqueue(r, PRIORITY_DEFAULT, listener)
+        if (!enqueue) {
+            listener.run()
+        }
+        return enqueue
+    }
+
+    override fun postToBgLane(laneKey: Any, supersede: Boolean, r: Runnable): Boolean {
+        return lanes.post(laneKey, supersede, r)
+    }
+
+    override fun containInBgLane(laneKey: Any, r: Runnable): Boolean {
+        return lanes.contain(laneKey, r)
+    }
+
+    override fun removeBgLaneCallbacks(laneKey: Any) {
+        lanes.remove(laneKey)
+    }
+
+    override fun containInBg(r: Runnable): Boolean = lock.withLock {
+        index.containsKey(r)
+    }
+
+    override fun removeBgCallbacks(r: Runnable) {
+        val head = lock.withLock {
+            val head = index.remove(r)
+            var task = head
+            while (task != null) {
+                task.cancelled = true
+                pendingCount--
+                notFull.signal()
+                task = task.nextSame
+            }
+            head
+        }
+        // 被取消的任务不会再执行，由此移除其生命周期监听
+        var task = head
+        while (task != null) {
+            task.afterRun?.run()
+            task = task.nextSame
+        }
+    }
+
+    override val coroutineDispatcher: CoroutineDispatcher by lazy {
+        this.asCoroutineDispatcher()
+    }
+
+    /**
+     * 不再接收新任务，已提交的任务执行完毕后工作线程退出
+     */
+    fun shutdown() {
+        lock.withLock {
+            shutdown = true
+            notEmpty.signalAll()
+            notFull.signalAll()
+        }
+    }
+
+    /**
+     * 当前存活的工作线程数
+     */
+    val workerThreadCount: Int
+        get() = lock.withLock { workers }
+
+    private fun enqueue(r: Runnable, priority: Int, afterRun: Runnable?): Boolean {
+        lock.lock()
+        try {
+            if (shutdown) {
+                return false
+            }
+            while (pendingCount >= capacity) {
+                when (overflowPolicy) {
+                    OverflowPolicy.BLOCK -> try {
+                        notFull.await()
+                        if (shutdown) {
+                            return false
+                        }
+                    } catch (e: InterruptedException) {
+                        Log.e(TAG, "Failed to enqueue background task", e)
+                        return false
+                    }
+                    OverflowPolicy.DISCARD_NEW -> return false
+                    OverflowPolicy.DISCARD_OLDEST -> {
+                        val oldest = lowestLiveTask()
+                        if (oldest == null || oldest.priority > priority) {
+                            // 队列中的任务优先级都高于新任务，丢弃新任务
+                            return false
+                        }
+                        removeLiveTask(oldest)
+                        Log.w(TAG, "Queue is full, discard task: ${oldest.runnable}")
+                        oldest.afterRun?.run()
+                    }
+                    OverflowPolicy.CALLER_RUNS -> {
+                        lock.unlock()
+                        try {
+                            runTask(r, afterRun)
+                        } finally {
+                            lock.lock()
+                        }
+                        return true
+                    }
+                }
+            }
+            val task = Task(r, priority, sequence++, afterRun)
+            val head = index.put(r, task)
+            if (head != null) {
+                // 同一个Runnable已在队列中，保持链表头为最早提交的任务
+                task.nextSame = head.nextSame
+                head.nextSame = task
+                index[r] = head
+            }
+            queue.offer(task)
+            pendingCount++
+            if (idleWorkers > 0) {
+                notEmpty.signal()
+            }
+            startWorkerIfNeeded()
+            return true
+        } finally {
+            lock.unlock()
+        }
+    }
+
+    /**
+     * 等待的任务多于空闲工作线程时按需创建工作线程，需要持有[lock]
+     */
+    private fun startWorkerIfNeeded() {
+        if (pendingCount > idleWorkers && workers < workerCount) {
+            workers++
+            Worker(++workerId).start()
+        }
+    }
+
+    /**
+     * 从队列中取出下一个未取消的任务并将其从索引中移除，需要持有[lock]
+     */
+    private fun pollLiveTask(): Task? {
+        while (true) {
+            val task = queue.poll()
+                ?: return null
+            if (task.cancelled) {
+                continue
+            }
+            unindex(task)
+            pendingCount--
+            notFull.signal()
+            return task
+        }
+    }
+
+    /**
+     * 查找队列中优先级最低的未取消任务，同优先级时取最早提交的，需要持有[lock]
+     */
+    private fun lowestLiveTask(): Task? {
+        var lowest: Task? = null
+        for (task in queue) {
+            if (task.cancelled) {
+                continue
+            }
+            if (lowest == null || task.priority < lowest.priority ||
+                (task.priority == lowest.priority && task.sequence < lowest.sequence)
+            ) {
+                lowest = task
+            }
+        }
+        return lowest
+    }
+
+    /**
+     * 将未取消的任务从队列与索引中移除，需要持有[lock]
+     */
+    private fun removeLiveTask(task: Task) {
+        queue.remove(task)
+        unindex(task)
+        pendingCount--
+    }
+
+    private fun unindex(task: Task) {
+        val head = index[task.runnable]
+        if (head === task) {
+            val next = task.nextSame
+            if (next == null) {
+                index.remove(task.runnable)
+            } else {
+                index[task.runnable] = next
+            }
+        } else {
+            var prev = head
+            while (prev != null && prev.nextSame !== task) {
+                prev = prev.nextSame
+            }
+            prev?.nextSame = task.nextSame
+        }
+        task.nextSame = null
+    }
+
+    /**
+     * 取出下一个任务，已[shutdown]且队列为空时返回null
+     */
+    private fun take(): Task? {
+        lock.withLock {
+            while (true) {
+                val task = pollLiveTask()
+                if (task != null) {
+                    return task
+                }
+                if (shutdown) {
+                    return null
+                }
+                idleWorkers++
+                try {
+                    notEmpty.await()
+                } finally {
+                    idleWorkers--
+                }
+            }
+        }
+    }
+
+    private fun runTask(r: Runnable, afterRun: Runnable?) {
+        try {
+            r.run()
+        } catch (e: RuntimeException) {
+            Log.w(TAG, "Failed to run task in the background!", e)
+        } finally {
+            afterRun?.run()
+        }
+    }
+
+    private class Task(
+        val runnable: Runnable,
+        val priority: Int,
+        val sequence: Long,
+        val afterRun: Runnable?,
+    ) : Comparable<Task> {
+        @Volatile
+        var cancelled = false
+        var nextSame: Task? = null
+
+        override fun compareTo(other: Task): Int {
+            val byPriority = other.priority.compareTo(priority)
+            return if (byPriority != 0) byPriority else sequence.compareTo(other.sequence)
+        }
+    }
+
+    private inner class Worker(
+        id: Int
+    ) : Thread("$name-$id") {
+        val owner: BgTaskPoolExecutorImpl = this@BgTaskPoolExecutorImpl
+
+        init {
+            // 降低后台工作线程的线程优先级
+            priority = threadPriority
+            isDaemon = true
+        }
+
+        override fun run() {
+            try {
+                // 任务在局部作用域中执行，避免执行完后仍持有其引用
+                while (runNext()) {
+                    // noop
+                }
+            } finally {
+                // 任务抛出Error或线程池关闭时退出，释放工作线程名额，必要时补充新的工作线程
+                lock.withLock {
+                    workers--
+                    if (!shutdown) {
+                        startWorkerIfNeeded()
+                    }
+                }
+            }
+        }
+
+        private fun runNext(): Boolean {
+            val task = try {
+                take()
+            } catch (ex: InterruptedException) {
+                // Odd, just continue
+                Log.w(TAG, ex)
+                return true
+            } ?: return false
+            runTask(task.runnable, task.afterRun)
+            return true
+        }
+    }
+
+    /**
+     * 队列已满时新提交任务的处理策略
+     */
+    enum class OverflowPolicy {
+        /**
+         * 阻塞提交任务的线程直到队列有空位，与[BgTaskExecutorImpl]的行为一致
+         */
+        BLOCK,
+
+        /**
+         * 丢弃新提交的任务，[postToBg]返回false
+         */
+        DISCARD_NEW,
+
+        /**
+         * 丢弃队列中优先级最低的任务里最早提交的一个，为新任务腾出空位；
+         * 队列中的任务优先级都高于新任务时丢弃新任务，[postToBg]返回false
+         */
+        DISCARD_OLDEST,
+
+        /**
+         * 在提交任务的线程上直接执行该任务
+         */
+        CALLER_RUNS,
+    }
+
+    companion object {
+        private const val TAG = "Ut_BgTaskPoolExecutor"
+        const val PRIORITY_LOW = -10
+        const val PRIORITY_DEFAULT = 0
+        const val PRIORITY_HIGH = 10
+    }
+}
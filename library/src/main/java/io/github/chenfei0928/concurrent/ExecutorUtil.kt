@@ -4,8 +4,11 @@ import io.github.chenfei0928.util.StackTraceLogUtil
 
 /**
  * 作为[java.util.concurrent.Executor]使用时将作为背景线程执行器
+ *
+ * 后台任务使用无界队列的[BgTaskPoolExecutorImpl]，提交任务时不会阻塞调用方线程；
+ * 多个工作线程之间不保证执行顺序，需要按顺序执行的任务（如本地存储的异步写入）使用[postToBgLane]提交。
  */
-object ExecutorUtil : BgTaskExecutor by BgTaskExecutorImpl(),
+object ExecutorUtil : BgTaskExecutor by BgTaskPoolExecutorImpl("bgThreadExecutor"),
     UiTaskExecutor by UiTaskExecutorImpl(), ExecutorAndCallback {
 
     override fun <R> execute(commend: () -> R, callback: (R) -> Unit) {
@@ -25,8 +25,42 @@ interface BgTaskExecutor : Executor {
         return postToBg(EventLifecycleOwner.immortal, Lifecycle.Event.ON_DESTROY, r)
     }
 
+    /**
+     * 提交带有优先级的任务，优先级高的任务先执行；不支持任务优先级的实现将忽略[priority]
+     */
+    fun postToBg(priority: Int, r: Runnable): Boolean {
+        return postToBg(r)
+    }
+
     fun postToBg(lifecycleOwner: LifecycleOwner, event: Lifecycle.Event, r: Runnable): Boolean
 
+    /**
+     * 提交任务到[laneKey]对应的串行通道，同一通道的任务按提交顺序依次执行，
+     * 不同通道的任务可以在多个工作线程上并发执行
+     *
+     * 通道键的约定：写入文件的任务使用目标文件的[java.io.File]（按路径比较，同一文件的写入因此总在同一通道），
+     * 没有可用文件的存储（如[android.content.SharedPreferences]）使用该存储实例。
+     *
+     * 默认实现直接提交到[postToBg]，只在单工作线程的实现上保证顺序，且不支持[supersede]
+     *
+     * @param laneKey 通道键
+     * @param supersede 为true时丢弃该通道中尚未开始执行的任务，只保留本次提交的任务，用于只需最后一次写入生效的场景
+     */
+    fun postToBgLane(laneKey: Any, supersede: Boolean, r: Runnable): Boolean {
+        return postToBg(r)
+    }
+
+    fun containInBgLane(laneKey: Any, r: Runnable): Boolean {
+        return containInBg(r)
+    }
+
+    /**
+     * 移除[laneKey]对应的串行通道中尚未开始执行的任务，默认实现不支持按通道移除
+     */
+    fun removeBgLaneCallbacks(laneKey: Any) {
+        // noop
+    }
+
     fun containInBg(r: Runnable): Boolean
 
     fun removeBgCallbacks(r: Runnable)
@@ -41,9 +75,12 @@ class BgTaskExecutorImpl(
     private val bgThread = BgExecutorThread(name).apply {
         // 降低后台工作线程的线程优先级
         priority = 2
+        // 后台线程不阻止进程（如单元测试的JVM）退出
+        isDaemon = true
         start()
     }
     private val lifecycleRunnableMap = WeakHashMap<Runnable, LifecycleListenerRunnable>()
+    private val lanes = BgTaskLanes(this)
 
     override fun isRunOnBgThread(): Boolean = Thread.currentThread() == bgThread
 
@@ -70,6 +107,18 @@ class BgTaskExecutorImpl(
         return enqueue
     }
 
+    override fun postToBgLane(laneKey: Any, supersede: Boolean, r: Runnable): Boolean {
+        return lanes.post(laneKey, supersede, r)
+    }
+
+    override fun containInBgLane(laneKey: Any, r: Runnable): Boolean {
+        return lanes.contain(laneKey, r)
+    }
+
+    override fun removeBgLaneCallbacks(laneKey: Any) {
+        lanes.remove(laneKey)
+    }
+
     override fun containInBg(r: Runnable): Boolean {
         return bgThread.contain(r)
     }
@@ -206,7 +255,7 @@ internal class UiTaskExecutorImpl : UiTaskExecutor {
     }
 }
 
-private abstract class LifecycleListenerRunnable(
+internal abstract class LifecycleListenerRunnable(
     private val lifecycleOwner: LifecycleOwner, private val event: Lifecycle.Event
 ) : Runnable, LifecycleEventObserver {
 
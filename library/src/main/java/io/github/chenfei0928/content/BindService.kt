@@ -61,6 +61,37 @@ inline fun <T : Any> Context.bindServiceFlow(
     ): T = onServiceConnected(name, service)
 })
 
+/**
+ * 通过进程内共享的 [SharedServiceConnectionPool] 绑定服务并在连接后调用 [block]，
+ * 多个调用者并发调用时共享同一次绑定，调用结束后服务在空闲一段时间后才解绑
+ */
+suspend fun <T> Context.bindSharedService(
+    intent: Intent,
+    flag: Int,
+    pool: SharedServiceConnectionPool = SharedServiceConnectionPool.default,
+    block: suspend (name: ComponentName, service: IBinder) -> T
+): T = pool.use(this, intent, flag, block)
+
+/**
+ * 通过进程内共享的 [SharedServiceConnectionPool] 绑定服务，有活跃观察者时持有连接
+ */
+fun <T> Context.bindSharedServiceLiveData(
+    intent: Intent,
+    flag: Int,
+    pool: SharedServiceConnectionPool = SharedServiceConnectionPool.default,
+    onServiceConnectedTransform: OnServiceConnected<T>
+): LiveData<T?> = pool.liveData(this, intent, flag, onServiceConnectedTransform)
+
+/**
+ * 通过进程内共享的 [SharedServiceConnectionPool] 绑定服务，被收集时持有连接
+ */
+fun <T : Any> Context.bindSharedServiceFlow(
+    intent: Intent,
+    flag: Int,
+    pool: SharedServiceConnectionPool = SharedServiceConnectionPool.default,
+    onServiceConnected: OnServiceConnected<T>,
+): Flow<T?> = pool.flow(this, intent, flag, onServiceConnected)
+
 typealias ContinuationOnServiceConnected<T> = (
     name: ComponentName,
     service: IBinder,
@@ -0,0 +1,227 @@
+package io.github.chenfei0928.content
+
+import android.content.BroadcastReceiver
+import android.content.Context
+import android.content.Intent
+import android.content.IntentFilter
+import android.os.Handler
+import android.os.Looper
+import androidx.core.content.ContextCompat
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.LifecycleEventObserver
+import androidx.lifecycle.LifecycleOwner
+import io.github.chenfei0928.lifecycle.isAlive
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 进程内共享系统广播注册的广播多路复用器
+ *
+ * 订阅时只为还没有被注册的action注册一个系统广播接收者，已注册的action被多个订阅者共享引用计数，
+ * 每个action只由一个系统广播接收者接收，收到广播后通过action索引直接找到其订阅者分发，不会重复分发。
+ * 一个系统广播接收者的所有action都没有订阅者后，延迟 [unregisterDelayMillis] 再反注册，
+ * 以避免页面重建等短时间内的重复注册与反注册。
+ *
+ * 粘性广播只在系统广播接收者注册时由系统发送一次，接收者会缓存每个action最近的粘性广播，
+ * 在已注册的action上新增订阅时在分发线程中向新的订阅者重放该广播，与单独注册时收到的初始粘性广播一致。
+ *
+ * 订阅者不是系统注册的[BroadcastReceiver]，不支持[BroadcastReceiver.goAsync]等有序广播相关的方法。
+ *
+ * @param scheduler 分发广播的线程，为null时在主线程分发
+ * @param unregisterDelayMillis 最后一个订阅者离开后延迟反注册系统广播接收者的时间
+ * @param flags 注册系统广播接收者时的flags，见[ContextCompat.registerReceiver]
+ *
+ * @author chenf()
+ * @date 2026-10-19 04:00
+ */
+class BroadcastReceiverMultiplexer(
+    private val scheduler: Handler? = null,
+    private val unregisterDelayMillis: Long = DEFAULT_UNREGISTER_DELAY_MILLIS,
+    private val flags: Int = ContextCompat.RECEIVER_EXPORTED,
+) {
+    // 以下字段访问时需要持有其锁
+    private val actionEntries = HashMap<String, ActionEntry>()
+    private var context: Context? = null
+
+    /**
+     * action到其订阅者的索引，只在订阅者变化时重新发布，分发时不需要加锁
+     */
+    @Volatile
+    private var index: Map<String, Array<Subscription>> = emptyMap()
+
+    private val handler: Handler by lazy { scheduler ?: Handler(Looper.getMainLooper()) }
+
+    /**
+     * 订阅 [actions] 的广播，需要调用 [Subscription.unsubscribe] 取消订阅
+     *
+     * 如果订阅的action已经注册过且收到过粘性广播，会在分发线程中向 [subscriber] 重放最近的一次粘性广播
+     */
+    fun subscribe(context: Context, actions: Collection<String>, subscriber: Subscriber): Subscription {
+        require(actions.isNotEmpty()) { "actions must not be empty" }
+        val subscription = Subscription(actions.toHashSet(), subscriber)
+        val appContext: Context
+        val stickyIntents = ArrayList<Intent>(0)
+        synchronized(actionEntries) {
+            appContext = this.context ?: context.applicationContext.also { this.context = it }
+            // 为还没有系统广播接收者的action注册一个新的接收者，其初始粘性广播由系统发送
+            val newActions = subscription.actions.filterTo(HashSet()) { it !in actionEntries }
+            if (newActions.isNotEmpty()) {
+                val receiver = SystemReceiver(newActions)
+                newActions.forEach { actionEntries[it] = ActionEntry(receiver) }
+                receiver.register(appContext)
+            }
+            subscription.actions.forEach {
+                val entry = actionEntries.getValue(it)
+                entry.subscriptions.add(subscription)
+                entry.receiver.cancelPendingUnregister()
+                if (it !in newActions) {
+                    entry.receiver.stickyIntent(it)?.let(stickyIntents::add)
+                }
+            }
+            publishIndex()
+        }
+        stickyIntents.forEach { intent ->
+            handler.post { subscription.dispatch(appContext, intent) }
+        }
+        return subscription
+    }
+
+    /**
+     * 订阅 [actions] 的广播，并在 [owner] 销毁时取消订阅；[owner] 已经销毁时返回null
+     */
+    fun subscribe(
+        context: Context, owner: LifecycleOwner, actions: Collection<String>, subscriber: Subscriber
+    ): Subscription? {
+        if (!owner.lifecycle.isAlive) {
+            return null
+        }
+        val subscription = subscribe(context, actions, subscriber)
+        owner.lifecycle.addObserver(LifecycleEventObserver { _, event ->
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                subscription.unsubscribe()
+            }
+        })
+        return subscription
+    }
+
+    private fun removeSubscription(subscription: Subscription) {
+        synchronized(actionEntries) {
+            subscription.actions.forEach { action ->
+                val entry = actionEntries[action]
+                    ?: return@forEach
+                entry.subscriptions.remove(subscription)
+                if (entry.receiver.isUnused()) {
+                    entry.receiver.scheduleUnregister()
+                }
+            }
+            publishIndex()
+        }
+    }
+
+    private fun publishIndex() {
+        val index = HashMap<String, Array<Subscription>>(actionEntries.size)
+        actionEntries.forEach { (action, entry) ->
+            if (entry.subscriptions.isNotEmpty()) {
+                index[action] = entry.subscriptions.toTypedArray()
+            }
+        }
+        this.index = index
+    }
+
+    private class ActionEntry(
+        val receiver: BroadcastReceiverMultiplexer.SystemReceiver,
+    ) {
+        val subscriptions = ArrayList<Subscription>(1)
+    }
+
+    /**
+     * 一组action的系统广播接收者，不同接收者之间的action不会重复
+     */
+    private inner class SystemReceiver(
+        private val actions: Set<String>,
+    ) : BroadcastReceiver() {
+        private var registeredContext: Context? = null
+
+        // 每个action最近收到的粘性广播，在分发线程中写入
+        private val stickyIntents = ConcurrentHashMap<String, Intent>()
+        private val pendingUnregister = Runnable {
+            synchronized(actionEntries) {
+                if (isUnused()) {
+                    unregister()
+                }
+            }
+        }
+
+        fun register(context: Context) {
+            val intentFilter = IntentFilter().apply {
+                actions.forEach { addAction(it) }
+            }
+            ContextCompat.registerReceiver(context, this, intentFilter, null, scheduler, flags)
+            registeredContext = context
+        }
+
+        fun stickyIntent(action: String): Intent? = stickyIntents[action]
+
+        fun isUnused(): Boolean = actions.all { actionEntries[it]?.subscriptions.isNullOrEmpty() }
+
+        fun scheduleUnregister() {
+            handler.removeCallbacks(pendingUnregister)
+            handler.postDelayed(pendingUnregister, unregisterDelayMillis)
+        }
+
+        fun cancelPendingUnregister() {
+            handler.removeCallbacks(pendingUnregister)
+        }
+
+        private fun unregister() {
+            registeredContext?.unregisterReceiver(this)
+            registeredContext = null
+            actions.forEach { actionEntries.remove(it) }
+            publishIndex()
+        }
+
+        override fun onReceive(context: Context, intent: Intent) {
+            val action = intent.action ?: return
+            // 收到过初始粘性广播的action，其后的广播也是粘性广播
+            if (isInitialStickyBroadcast || action in stickyIntents) {
+                stickyIntents[action] = intent
+            }
+            val subscriptions = index[action] ?: return
+            subscriptions.forEach { it.dispatch(context, intent) }
+        }
+    }
+
+    inner class Subscription internal constructor(
+        internal val actions: Set<String>,
+        private val subscriber: Subscriber,
+    ) {
+        @Volatile
+        private var active = true
+
+        internal fun dispatch(context: Context, intent: Intent) {
+            // 分发快照期间可能已被取消订阅
+            if (active) {
+                subscriber.onReceive(context, intent)
+            }
+        }
+
+        fun unsubscribe() {
+            if (active) {
+                active = false
+                removeSubscription(this)
+            }
+        }
+    }
+
+    fun interface Subscriber {
+        fun onReceive(context: Context, intent: Intent)
+    }
+
+    companion object {
+        private const val DEFAULT_UNREGISTER_DELAY_MILLIS = 1000L
+
+        /**
+         * 进程内默认的多路复用器，在主线程分发
+         */
+        val default: BroadcastReceiverMultiplexer by lazy { BroadcastReceiverMultiplexer() }
+    }
+}
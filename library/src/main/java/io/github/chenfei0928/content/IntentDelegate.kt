@@ -49,6 +49,14 @@ class IntentDelegate<V>(
             BundleSupportType.AutoFind.findByType<V>(isMarkedNullable), name, defaultValue
         )
 
+        /** @see BundleSupportType.AutoFind */
+        @Suppress("UNCHECKED_CAST")
+        fun <V> generated(
+            name: String? = null, defaultValue: V? = null
+        ): ReadWriteProperty<Intent, V> = IntentDelegate(
+            BundleSupportType.AutoFind as BundleSupportType<V>, name, defaultValue
+        )
+
         fun <V> parceler(
             parceler: Parceler<V?>,
             name: String? = null,
@@ -43,6 +43,21 @@ abstract class IntentFilterBroadcastReceiver(
         )
     }
 
+    /**
+     * 通过 [BroadcastReceiverMultiplexer] 订阅，与其它订阅了相同action的接收者共享同一个系统广播注册，
+     * 不支持 [goAsync] 等有序广播相关的方法
+     *
+     * 多路复用器只按action匹配广播，[IntentFilter] 中的category、data scheme等其它匹配条件不会生效，
+     * 需要这些条件时在 [onReceive] 中自行过滤，或使用 [register] 单独注册
+     */
+    open fun registerMultiplexed(
+        context: Context,
+        owner: LifecycleOwner,
+        multiplexer: BroadcastReceiverMultiplexer = BroadcastReceiverMultiplexer.default,
+    ): BroadcastReceiverMultiplexer.Subscription? = multiplexer.subscribe(
+        context, owner, actions.asList()
+    ) { c, intent -> onReceive(c, intent) }
+
     open fun registerLocal(context: Context, owner: LifecycleOwner) {
         if (!owner.lifecycle.isAlive) {
             return
@@ -0,0 +1,431 @@
+package io.github.chenfei0928.content
+
+import android.content.ComponentName
+import android.content.Context
+import android.content.Intent
+import android.content.ServiceConnection
+import android.os.Handler
+import android.os.IBinder
+import android.os.Looper
+import android.os.RemoteException
+import io.github.chenfei0928.util.Log
+import kotlinx.coroutines.channels.awaitClose
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.callbackFlow
+import kotlinx.coroutines.suspendCancellableCoroutine
+import kotlin.coroutines.resume
+import kotlin.coroutines.resumeWithException
+
+/**
+ * 进程内共享的服务绑定池
+ *
+ * 以 [Intent.filterEquals] 与绑定flag区分服务，同一个服务只绑定一次，所有使用者共享同一个 [IBinder]：
+ * - 使用者通过 [acquire] 获取 [Lease] 并增加引用计数，[Lease.close] 后减少引用计数；
+ * - 引用计数归零后延迟 [idleUnbindDelayMillis] 再解绑，期间再次获取时直接复用已有的连接；
+ * - 服务进程死亡（[IBinder.DeathRecipient]、[ServiceConnection.onBindingDied]）时，
+ *   多个死亡通知只会触发一次重新绑定，重新绑定前系统已自动重连时不会重复绑定。
+ *
+ * 绑定使用 applicationContext。[Listener.onServiceConnected]、[ServiceConnection.onServiceDisconnected]
+ * 引起的 [Listener.onServiceDisconnected] 由系统在主线程回调（[acquire] 时已连接的除外，在调用线程回调）；
+ * 延迟解绑、重新绑定、[Listener.onBindingFailed] 与binder死亡引起的 [Listener.onServiceDisconnected] 在 [scheduler] 线程执行。
+ *
+ * @param scheduler 延迟解绑、重新绑定与绑定失败、binder死亡回调的线程，为null时在主线程
+ * @param idleUnbindDelayMillis 最后一个使用者释放后延迟解绑的时间
+ *
+ * @author chenf()
+ * @date 2026-10-19 05:40
+ */
+class SharedServiceConnectionPool(
+    private val scheduler: Handler? = null,
+    private val idleUnbindDelayMillis: Long = DEFAULT_IDLE_UNBIND_DELAY_MILLIS,
+) {
+    // 以下字段及连接的状态访问时需要持有其锁
+    private val connections = HashMap<Key, SharedConnection>()
+
+    private val handler: Handler by lazy { scheduler ?: Handler(Looper.getMainLooper()) }
+
+    /**
+     * 获取 [intent] 服务的共享连接并增加引用计数，使用完毕后需要调用 [Lease.close]
+     *
+     * 服务已连接时 [listener] 会在此方法返回前收到 [Listener.onServiceConnected]
+     */
+    fun acquire(context: Context, intent: Intent, flag: Int, listener: Listener): Lease {
+        val key = Key(Intent(intent), flag)
+        val lease: Lease
+        val name: ComponentName?
+        val service: IBinder?
+        synchronized(connections) {
+            val connection = connections[key]
+                ?: SharedConnection(context.applicationContext, key).also { connections[key] = it }
+            lease = Lease(connection, listener)
+            connection.leases.add(lease)
+            connection.publishLeases()
+            handler.removeCallbacks(connection.pendingUnbind)
+            if (!connection.bound) {
+                connection.bind()
+            }
+            name = connection.name
+            service = connection.service
+        }
+        if (name != null && service != null) {
+            lease.dispatchConnected(name, service)
+        }
+        return lease
+    }
+
+    /**
+     * 等待服务连接后以其 [IBinder] 调用 [block]，调用期间持有连接，调用结束后释放
+     *
+     * 服务拒绝绑定时抛出 [RemoteException]
+     */
+    suspend fun <T> use(
+        context: Context, intent: Intent, flag: Int, block: suspend (name: ComponentName, service: IBinder) -> T
+    ): T {
+        var lease: Lease? = null
+        try {
+            val (name, service) = suspendCancellableCoroutine { continuation ->
+                lease = acquire(context, intent, flag, object : Listener {
+                    override fun onServiceConnected(name: ComponentName, service: IBinder) {
+                        if (continuation.isActive) {
+                            continuation.resume(name to service)
+                        }
+                    }
+
+                    override fun onServiceDisconnected(name: ComponentName) {
+                        // 等待系统或死亡重连后的再次连接
+                    }
+
+                    override fun onBindingFailed(intent: Intent) {
+                        if (continuation.isActive) {
+                            continuation.resumeWithException(RemoteException("onBindingFailed: $intent"))
+                        }
+                    }
+                })
+            }
+            return block(name, service)
+        } finally {
+            lease?.close()
+        }
+    }
+
+    /**
+     * 有活跃观察者时持有连接的 LiveData，服务断开或拒绝绑定时值为null
+     */
+    fun <T> liveData(
+        context: Context, intent: Intent, flag: Int, transform: OnServiceConnected<T>
+    ): androidx.lifecycle.LiveData<T?> = object : androidx.lifecycle.LiveData<T?>(), Listener {
+        private var lease: Lease? = null
+
+        override fun onActive() {
+            super.onActive()
+            lease = acquire(context, intent, flag, this)
+        }
+
+        override fun onInactive() {
+            super.onInactive()
+            lease?.close()
+            lease = null
+        }
+
+        override fun onServiceConnected(name: ComponentName, service: IBinder) {
+            update(transform(name, service))
+        }
+
+        override fun onServiceDisconnected(name: ComponentName) {
+            update(null)
+        }
+
+        override fun onBindingFailed(intent: Intent) {
+            update(null)
+        }
+
+        private fun update(value: T?) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                setValue(value)
+            } else {
+                postValue(value)
+            }
+        }
+    }
+
+    /**
+     * 被收集时持有连接的 Flow，服务断开时发送null，服务拒绝绑定时以 [RemoteException] 结束
+     */
+    fun <T : Any> flow(
+        context: Context, intent: Intent, flag: Int, transform: OnServiceConnected<T>
+    ): Flow<T?> = callbackFlow {
+        val lease = acquire(context, intent, flag, object : Listener {
+            override fun onServiceConnected(name: ComponentName, service: IBinder) {
+                trySend(transform(name, service))
+            }
+
+            override fun onServiceDisconnected(name: ComponentName) {
+                trySend(null)
+            }
+
+            override fun onBindingFailed(intent: Intent) {
+                close(RemoteException("onBindingFailed: $intent"))
+            }
+        })
+        awaitClose { lease.close() }
+    }
+
+    private fun release(lease: Lease) {
+        val connection = lease.connection
+        synchronized(connections) {
+            if (!connection.leases.remove(lease)) {
+                return
+            }
+            connection.publishLeases()
+            if (connection.leases.isEmpty()) {
+                handler.removeCallbacks(connection.pendingUnbind)
+                handler.postDelayed(connection.pendingUnbind, idleUnbindDelayMillis)
+            }
+        }
+    }
+
+    /**
+     * 以 [Intent.filterEquals] 比较的服务key
+     */
+    internal class Key(
+        val intent: Intent,
+        val flag: Int,
+    ) {
+        private val hash = intent.filterHashCode() * 31 + flag
+
+        override fun hashCode(): Int = hash
+
+        override fun equals(other: Any?): Boolean =
+            other is Key && flag == other.flag && intent.filterEquals(other.intent)
+    }
+
+    /**
+     * 一个服务的共享连接，状态字段访问时需要持有 [connections] 的锁
+     */
+    internal inner class SharedConnection(
+        private val context: Context,
+        private val key: Key,
+    ) : ServiceConnection, IBinder.DeathRecipient {
+        val leases = ArrayList<Lease>()
+        var bound = false
+        var name: ComponentName? = null
+
+        @Volatile
+        var service: IBinder? = null
+        private var rebindPending = false
+
+        /**
+         * 分发回调时使用的快照，只在使用者变化时重新发布，分发时不需要加锁
+         */
+        @Volatile
+        private var leaseSnapshot: Array<Lease> = emptyArray()
+
+        val pendingUnbind = Runnable {
+            synchronized(connections) {
+                // 绑定失败时连接已被移除，同一个key可能已经有了新的连接
+                if (leases.isEmpty() && connections[key] === this@SharedConnection) {
+                    if (bound) {
+                        unbind()
+                    }
+                    connections.remove(key)
+                }
+            }
+        }
+
+        private val rebind = Runnable {
+            synchronized(connections) {
+                rebindPending = false
+                if (!bound || service?.isBinderAlive == true) {
+                    // 已经解绑，或系统已自动重连
+                    return@Runnable
+                }
+                Log.i(TAG, "rebind: ${key.intent}")
+                unbind()
+                bind()
+            }
+        }
+
+        fun publishLeases() {
+            leaseSnapshot = leases.toTypedArray()
+        }
+
+        fun bind() {
+            bound = true
+            val result = try {
+                context.bindService(key.intent, this, key.flag)
+            } catch (e: SecurityException) {
+                Log.e(TAG, "bind: ${key.intent}", e)
+                false
+            }
+            if (!result) {
+                handler.post { onBindingFailed() }
+            }
+        }
+
+        fun unbind() {
+            bound = false
+            clearService()
+            try {
+                context.unbindService(this)
+            } catch (e: IllegalArgumentException) {
+                Log.e(TAG, "unbind: ${key.intent}", e)
+            }
+        }
+
+        private fun clearService() {
+            try {
+                service?.unlinkToDeath(this, 0)
+            } catch (_: NoSuchElementException) {
+                // 未注册或已经死亡
+            }
+            service = null
+        }
+
+        private fun scheduleRebind() {
+            synchronized(connections) {
+                if (rebindPending || !bound) {
+                    return
+                }
+                rebindPending = true
+            }
+            handler.post(rebind)
+        }
+
+        override fun onServiceConnected(name: ComponentName, service: IBinder) {
+            val alive = synchronized(connections) {
+                if (!bound) {
+                    return
+                }
+                clearService()
+                this.name = name
+                try {
+                    service.linkToDeath(this, 0)
+                    this.service = service
+                    true
+                } catch (e: RemoteException) {
+                    // 连接时就已经死亡
+                    Log.w(TAG, "onServiceConnected: binder already dead ${key.intent}", e)
+                    false
+                }
+            }
+            if (alive) {
+                leaseSnapshot.forEach { it.dispatchConnected(name, service) }
+            } else {
+                scheduleRebind()
+            }
+        }
+
+        override fun onServiceDisconnected(name: ComponentName) {
+            synchronized(connections) {
+                clearService()
+            }
+            leaseSnapshot.forEach { it.dispatchDisconnected(name) }
+        }
+
+        override fun onBindingDied(name: ComponentName) {
+            Log.w(TAG, "onBindingDied: $name")
+            onServiceDisconnected(name)
+            scheduleRebind()
+        }
+
+        override fun onNullBinding(name: ComponentName) {
+            onBindingFailed()
+        }
+
+        override fun binderDied() {
+            // 在binder线程回调
+            synchronized(connections) {
+                clearService()
+            }
+            val name = name ?: key.intent.component
+            if (name != null) {
+                handler.post { leaseSnapshot.forEach { it.dispatchDisconnected(name) } }
+            }
+            scheduleRebind()
+        }
+
+        private fun onBindingFailed() {
+            val snapshot: Array<Lease>
+            synchronized(connections) {
+                snapshot = leaseSnapshot
+                if (bound) {
+                    unbind()
+                }
+                // 之后的释放不再调度解绑
+                leases.clear()
+                publishLeases()
+                if (connections[key] === this) {
+                    connections.remove(key)
+                }
+            }
+            snapshot.forEach { it.dispatchBindingFailed(key.intent) }
+        }
+    }
+
+    /**
+     * 共享连接的一次使用，[close] 后不再收到回调
+     */
+    inner class Lease internal constructor(
+        internal val connection: SharedServiceConnectionPool.SharedConnection,
+        private val listener: Listener,
+    ) : AutoCloseable {
+        @Volatile
+        private var active = true
+
+        /**
+         * 当前连接的服务，未连接时为null
+         */
+        val service: IBinder?
+            get() = if (active) connection.service else null
+
+        internal fun dispatchConnected(name: ComponentName, service: IBinder) {
+            if (active) {
+                listener.onServiceConnected(name, service)
+            }
+        }
+
+        internal fun dispatchDisconnected(name: ComponentName) {
+            if (active) {
+                listener.onServiceDisconnected(name)
+            }
+        }
+
+        internal fun dispatchBindingFailed(intent: Intent) {
+            if (active) {
+                listener.onBindingFailed(intent)
+            }
+        }
+
+        override fun close() {
+            if (active) {
+                active = false
+                release(this)
+            }
+        }
+    }
+
+    interface Listener {
+        fun onServiceConnected(name: ComponentName, service: IBinder)
+
+        /**
+         * 服务断开，之后系统重连或死亡重新绑定成功时会再次收到 [onServiceConnected]
+         */
+        fun onServiceDisconnected(name: ComponentName)
+
+        /**
+         * 服务不存在、无权限或拒绝绑定（返回null的binder），不会再连接
+         */
+        fun onBindingFailed(intent: Intent) {
+        }
+    }
+
+    companion object {
+        private const val TAG = "Ut_SharedServiceConnPool"
+        private const val DEFAULT_IDLE_UNBIND_DELAY_MILLIS = 5000L
+
+        /**
+         * 进程内默认的绑定池，在主线程调度
+         */
+        val default: SharedServiceConnectionPool by lazy { SharedServiceConnectionPool() }
+    }
+}
@@ -72,6 +72,27 @@ constructor(
     }
     //</editor-fold>
 
+    /**
+     * 每个存储key的版本号，用于字段转换器的读缓存失效判断
+     */
+    internal val keyVersions = SpKeyVersions()
+
+    /**
+     * 字段转换器是否可以缓存转换结果，存储内容可能被其它进程修改且不会收到通知时需要返回`false`
+     */
+    internal open val isConvertCacheable: Boolean
+        get() = true
+
+    /**
+     * 通知存储内容已在外部被修改（如绕过saver直接对 [sp] 的修改），使所有字段的读缓存失效
+     *
+     * [SharedPreferences] 的修改会通过 [SharedPreferences.OnSharedPreferenceChangeListener] 自动处理，
+     * 多进程模式的 [com.tencent.mmkv.MMKV] 不使用读缓存。
+     */
+    fun notifyContentChanged() {
+        keyVersions.bumpAll()
+    }
+
     val fieldAccessorCache: SpSaverFieldObserver<SpSaver> by lazy {
         @Suppress("UNCHECKED_CAST")
         SpSaverFieldObserver<SpSaver>(
@@ -88,14 +109,15 @@ constructor(
 
     final override fun remove(key: String) {
         editor.remove(key)
+        keyVersions.bump(key)
         // 查找存储值为该key的字段
-        fieldAccessorCache.spSaverPropertyDelegateFields.filter { it.localStorageKey == key }
-            .forEach(::onFieldValueRemoved)
+        fieldAccessorCache.findFieldsByLocalStorageKey(key).forEach(::onFieldValueRemoved)
     }
 
     final override fun remove(property: KProperty<*>) {
         val field = fieldAccessorCache.findFieldByPropertyOrThrow(property)
         editor.remove(field.localStorageKey)
+        keyVersions.bump(field.localStorageKey)
         onFieldValueRemoved(field)
     }
 
@@ -110,6 +132,7 @@ constructor(
 
     override fun clear() {
         editor.clear()
+        keyVersions.bumpAll()
     }
 
     override fun toString(): String = fieldAccessorCache.toSpSaverPropertyString()
@@ -19,6 +19,9 @@ open class BaseMmkvSaver<SpSaver : BaseMmkvSaver<SpSaver>>(
     override val sp: MMKV = mmkv
     override val editor: MMKV = mmkv
 
+    // 多进程模式下其它进程的修改只会在访问时通过 MMKVContentChangeNotification 通知，无法及时使读缓存失效
+    override val isConvertCacheable: Boolean = !mmkv.isMultiProcess
+
     constructor(
         mmapID: String,
         mode: Int = MMKV.SINGLE_PROCESS_MODE,
@@ -17,6 +17,14 @@ open class BaseSpSaver<SpSaver : BaseSpSaver<SpSaver>>(
 ) : AbsSpSaver<SpSaver, SharedPreferences, SharedPreferences.Editor>(false) {
     private var spAutoApply: SpSaverAutoApply? = null
 
+    // sp只弱引用持有监听器，需要由saver强引用；用于使其它saver实例或外部直接对sp的修改使字段读缓存失效
+    private val keyVersionsInvalidator =
+        SharedPreferences.OnSharedPreferenceChangeListener { _, key -> keyVersions.bump(key) }
+
+    init {
+        sp.registerOnSharedPreferenceChangeListener(keyVersionsInvalidator)
+    }
+
     constructor(
         context: Context, name: String, mode: Int = Context.MODE_PRIVATE,
     ) : this(context.getSharedPreferences(name, mode))
@@ -37,7 +45,7 @@ open class BaseSpSaver<SpSaver : BaseSpSaver<SpSaver>>(
 
     fun setEnableAutoApply(enable: Boolean) {
         spAutoApply = if (enable) {
-            SpSaverAutoApply(this)
+            SpSaverAutoApply(this, sp)
         } else {
             null
         }
@@ -51,6 +59,7 @@ open class BaseSpSaver<SpSaver : BaseSpSaver<SpSaver>>(
             ?: return false
         val result = editor.commit()
         val compareAndSet = editorAtomicReference.compareAndSet(editor, null)
+        onEditorFlushed()
         return result && compareAndSet
     }
 
@@ -60,5 +69,14 @@ open class BaseSpSaver<SpSaver : BaseSpSaver<SpSaver>>(
             ?: return
         editor.apply()
         editorAtomicReference.compareAndSet(editor, null)
+        onEditorFlushed()
+    }
+
+    /**
+     * 写入时递增的版本号早于编辑器提交，提交前的读取会以新版本号缓存旧值；
+     * 而sp的修改监听会被投递到主线程回调，不能依赖其使缓存失效，因此在提交后使所有字段的读缓存失效
+     */
+    private fun onEditorFlushed() {
+        keyVersions.bumpAll()
     }
 }
@@ -0,0 +1,46 @@
+package io.github.chenfei0928.content.sp.saver
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * [AbsSpSaver] 中每个存储key的版本号，用于 [io.github.chenfei0928.content.sp.saver.convert.BaseSpConvert]
+ * 判断其读缓存是否仍然有效
+ *
+ * 每个key的值被写入或移除时递增其版本号，整体被清空或外部修改了未知的key时递增全局版本号。
+ * 读取方只需要比较缓存时记录的版本号与当前版本号，不需要加锁或比较存储值。
+ *
+ * @author chenf()
+ * @date 2026-10-18 23:50
+ */
+internal class SpKeyVersions {
+    private val versions = ConcurrentHashMap<String, AtomicInteger>()
+    private val global = AtomicInteger()
+
+    /**
+     * 获取[key]的版本号计数器，读取方可以持有该计数器以避免每次读取时查表
+     */
+    fun counter(key: String): AtomicInteger =
+        versions[key] ?: versions.getOrPut(key) { AtomicInteger() }
+
+    /**
+     * 全局版本号，在[bumpAll]时递增
+     */
+    val globalVersion: Int
+        get() = global.get()
+
+    /**
+     * 递增[key]的版本号，[key]为null时递增全局版本号
+     */
+    fun bump(key: String?) {
+        if (key == null) {
+            bumpAll()
+        } else {
+            counter(key).incrementAndGet()
+        }
+    }
+
+    fun bumpAll() {
+        global.incrementAndGet()
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.chenfei0928.content.sp.saver
 
+import android.content.SharedPreferences
 import android.os.Handler
 import android.os.Looper
 import android.os.Message
@@ -11,7 +12,8 @@ import java.util.WeakHashMap
  * @date 2020-08-18 19:24
  */
 internal class SpSaverAutoApply(
-    spSaver: BaseSpSaver<*>
+    spSaver: BaseSpSaver<*>,
+    private val sp: SharedPreferences,
 ) {
     private val spApplyTask = Runnable { spSaver.apply() }
 
@@ -19,10 +21,8 @@ internal class SpSaverAutoApply(
         val looper = Looper.myLooper()
         when {
             ExecutorUtil.isRunOnBgThread() -> {
-                // 在背景线程执行，发送任务到背景线程以提交
-                if (!ExecutorUtil.containInBg(spApplyTask)) {
-                    ExecutorUtil.postToBg(spApplyTask)
-                }
+                // 在背景线程执行，发送任务到该sp的串行通道以提交，通道中未执行的提交任务会被替换
+                ExecutorUtil.postToBgLane(sp, true, spApplyTask)
             }
             looper == null -> {
                 // 当前线程没有Looper，发送延时任务以自动提交
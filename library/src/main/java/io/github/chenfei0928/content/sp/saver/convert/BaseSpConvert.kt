@@ -2,9 +2,10 @@ package io.github.chenfei0928.content.sp.saver.convert
 
 import android.content.SharedPreferences
 import io.github.chenfei0928.content.sp.saver.AbsSpSaver
-import io.github.chenfei0928.lang.deepEquals
+import io.github.chenfei0928.content.sp.saver.SpKeyVersions
 import io.github.chenfei0928.lang.toStringByReflect
 import io.github.chenfei0928.util.Log
+import java.util.concurrent.atomic.AtomicInteger
 import kotlin.reflect.KProperty
 
 /**
@@ -18,6 +19,11 @@ import kotlin.reflect.KProperty
  * 如果是 reified inline 方法是为了减少传入T类型，此时需要保留其使用的原始构造器；
  * 如果是非 inline 方法是为了隐藏原始构造器，此时需要移除原始构造器；
  *
+ * 转换结果会被缓存，通过 [AbsSpSaver] 中存储key的版本号判断缓存是否有效：
+ * 字段写入、移除、清空及 [SharedPreferences.OnSharedPreferenceChangeListener] 回调都会递增版本号，
+ * 读取时只需比较版本号，不需要加锁与比较存储值。
+ * 存储内容可能被其它进程修改时（如多进程模式的 [com.tencent.mmkv.MMKV]）不缓存，每次读取都重新转换。
+ *
  * @author ChenFei(chenfei0928@gmail.com)
  * @date 2020-09-03 13:38
  */
@@ -31,25 +37,50 @@ constructor(
     final override val saver: AbsSpSaver.Delegate<SpSaver, SpValueType>
 ) : AbsSpSaver.AbsSpDelegate<SpSaver, Sp, Ed, FieldType?>,
     AbsSpSaver.Decorate<SpSaver, SpValueType> {
+    // 读缓存，只在版本号与保存时一致时有效；以不可变对象整体发布，读取时不需要加锁
     @Volatile
-    private var cacheValue: Pair<SpValueType & Any, FieldType>? = null
+    private var cache: ReadCache<FieldType>? = null
 
     final override fun getLocalStorageKey(property: KProperty<*>): String =
         saver.getLocalStorageKey(property)
 
-    @Synchronized
     final override fun getValue(thisRef: SpSaver, property: KProperty<*>): FieldType? {
+        if (!thisRef.isConvertCacheable) {
+            val value = saver.getValue(thisRef, property)
+                ?: return defaultValueOrNull
+            return convert(property, value) ?: defaultValueOrNull
+        }
+        val cache = cache
+        // 无默认值参数的转换器实例可能被多个saver、字段共享，需要校验缓存所属
+        if (cache != null && cache.keyVersions === thisRef.keyVersions && cache.property === property
+            && cache.version == cache.counter.get()
+            && cache.globalVersion == thisRef.keyVersions.globalVersion
+        ) {
+            return cache.value
+        }
+        val keyVersions = thisRef.keyVersions
+        val counter = keyVersions.counter(saver.getLocalStorageKey(property))
+        // 先记录版本号再读取，读取期间发生的修改会使此次缓存失效
+        val version = counter.get()
+        val globalVersion = keyVersions.globalVersion
         val value = saver.getValue(thisRef, property)
-        val cacheValue = cacheValue
-        @Suppress("TooGenericExceptionCaught")
-        return if (value == null) {
+        val t = if (value == null) {
             defaultValueOrNull
-        } else if (cacheValue != null && cacheValue.first.deepEquals(value)) {
-            cacheValue.second
-        } else try {
-            val t = onRead(value)
-            this.cacheValue = value to t
-            t
+        } else {
+            // 转换失败时不缓存
+            convert(property, value) ?: return defaultValueOrNull
+        }
+        this.cache = ReadCache(keyVersions, property, counter, version, globalVersion, t)
+        return t
+    }
+
+    /**
+     * 转换存储值，转换失败时输出日志并返回null
+     */
+    private fun convert(property: KProperty<*>, value: SpValueType & Any): FieldType? {
+        @Suppress("TooGenericExceptionCaught")
+        return try {
+            onRead(value)
         } catch (e: Exception) {
             Log.e(TAG, buildString {
                 append("getValue: convert ")
@@ -60,7 +91,7 @@ constructor(
                 append("origin is ")
                 append(value.toStringByReflect())
             }, e)
-            defaultValueOrNull
+            null
         }
     }
 
@@ -71,13 +102,17 @@ constructor(
         } else null
 
     final override fun setValue(thisRef: SpSaver, property: KProperty<*>, value: FieldType?) {
+        val key = saver.getLocalStorageKey(property)
+        val keyVersions = thisRef.keyVersions
         if (value == null) {
-            thisRef.editor.remove(saver.getLocalStorageKey(property))
+            thisRef.editor.remove(key)
+            keyVersions.bump(key)
         } else {
-            val t = onSave(value)
-            cacheValue = t to value
-            saver.setValue(thisRef, property, t)
+            saver.setValue(thisRef, property, onSave(value))
         }
+        // 写入后读取到的版本号可能已被其它线程的并发写入递增，以其缓存本线程写入的值会使缓存与存储不一致，
+        // 因此只清除缓存，由下次读取时重新缓存
+        cache = null
     }
 
     protected abstract fun onRead(value: SpValueType & Any): FieldType & Any
@@ -88,6 +123,15 @@ constructor(
     override fun toString(): String =
         "${this.javaClass.simpleName}(saver=$saver, spValueType=$spValueType)"
 
+    private class ReadCache<FieldType>(
+        val keyVersions: SpKeyVersions,
+        val property: KProperty<*>,
+        val counter: AtomicInteger,
+        val version: Int,
+        val globalVersion: Int,
+        val value: FieldType?,
+    )
+
     companion object {
         private const val TAG = "Ut_BaseSpConvert"
     }
@@ -6,9 +6,10 @@ import com.tencent.mmkv.MMKV
 import io.github.chenfei0928.content.sp.saver.AbsSpSaver
 import io.github.chenfei0928.content.sp.saver.PreferenceType
 import io.github.chenfei0928.content.sp.saver.delegate.ByteArrayDelegate
+import io.github.chenfei0928.io.PooledByteArrayOutputStream
 import io.github.chenfei0928.repository.local.LocalSerializer
+import io.github.chenfei0928.util.use
 import java.io.ByteArrayInputStream
-import java.io.ByteArrayOutputStream
 
 /**
  * 使用 [LocalSerializer] 来进行序列化保存的 [BaseSpConvert]，
@@ -34,9 +35,10 @@ private constructor(
     }
 
     override fun onSave(value: V): ByteArray {
-        return ByteArrayOutputStream().use { byteArrayOutputStream ->
-            serializer.write(byteArrayOutputStream, value)
-            byteArrayOutputStream.toByteArray()
+        // 使用复用的缓冲区序列化，只在最后分配一次与结果长度相同的数组
+        return PooledByteArrayOutputStream.pool.use { outputStream ->
+            serializer.write(outputStream, value)
+            outputStream.toByteArray()
         }
     }
 
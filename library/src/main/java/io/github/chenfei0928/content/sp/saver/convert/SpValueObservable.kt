@@ -22,14 +22,14 @@ class SpValueObservable<SpSaver : AbsSpSaver<SpSaver, *, *>, V>(
     override fun setValue(thisRef: SpSaver, property: KProperty<*>, value: V) {
         saver.setValue(thisRef, property, value)
         if (hasActiveObserver()) {
-            forEach { it(value) }
+            forEachActive { it(value) }
         }
     }
 
     fun onLocalStorageChange(thisRef: SpSaver, property: KProperty<*>) {
         if (hasActiveObserver()) {
             val value = getValue(thisRef, property)
-            forEach { it(value) }
+            forEachActive { it(value) }
         }
     }
 
@@ -43,6 +43,7 @@ constructor(
         } else {
             putValue(thisRef.editor, key, value)
         }
+        thisRef.keyVersions.bump(key)
     }
 
     protected abstract fun getValueImpl(sp: Sp, key: String): V & Any
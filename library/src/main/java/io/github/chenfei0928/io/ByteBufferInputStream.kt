@@ -0,0 +1,56 @@
+package io.github.chenfei0928.io
+
+import java.io.InputStream
+import java.nio.ByteBuffer
+
+/**
+ * 以[InputStream]的形式读取[ByteBuffer]的剩余内容，不拷贝数据，
+ * 可用于读取[java.nio.MappedByteBuffer]内存映射的文件
+ *
+ * @author chenf()
+ * @date 2026-10-18 18:05
+ */
+class ByteBufferInputStream(
+    val buffer: ByteBuffer
+) : InputStream() {
+
+    override fun read(): Int {
+        return if (!buffer.hasRemaining()) {
+            -1
+        } else {
+            buffer.get().toInt() and 0xFF
+        }
+    }
+
+    override fun read(b: ByteArray, off: Int, len: Int): Int {
+        if (len == 0) {
+            return 0
+        } else if (!buffer.hasRemaining()) {
+            return -1
+        }
+        val count = minOf(len, buffer.remaining())
+        buffer.get(b, off, count)
+        return count
+    }
+
+    override fun skip(n: Long): Long {
+        if (n <= 0) {
+            return 0
+        }
+        val count = minOf(n, buffer.remaining().toLong()).toInt()
+        buffer.position(buffer.position() + count)
+        return count.toLong()
+    }
+
+    override fun available(): Int = buffer.remaining()
+
+    override fun markSupported(): Boolean = true
+
+    override fun mark(readlimit: Int) {
+        buffer.mark()
+    }
+
+    override fun reset() {
+        buffer.reset()
+    }
+}
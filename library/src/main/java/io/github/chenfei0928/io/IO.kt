@@ -1,6 +1,7 @@
 package io.github.chenfei0928.io
 
 import android.os.Build
+import java.io.EOFException
 import java.io.File
 import java.io.InputStream
 import java.io.Reader
@@ -39,3 +40,17 @@ fun InputStream.readNBytesCompat(
     read(bytes, 0, size)
     bytes
 }
+
+/**
+ * 读取[length]个字节到[bytes]的[offset]处，数据不足时抛出[EOFException]
+ */
+fun InputStream.readFully(bytes: ByteArray, offset: Int = 0, length: Int = bytes.size - offset) {
+    var n = 0
+    while (n < length) {
+        val count = read(bytes, offset + n, length - n)
+        if (count < 0) {
+            throw EOFException()
+        }
+        n += count
+    }
+}
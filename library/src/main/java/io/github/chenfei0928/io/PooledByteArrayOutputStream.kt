@@ -0,0 +1,90 @@
+package io.github.chenfei0928.io
+
+import androidx.core.util.Pools
+import io.github.chenfei0928.util.NonnullPools
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.InputStream
+
+/**
+ * 可复用的可增长字节缓冲区
+ *
+ * 与[ByteArrayOutputStream]相比，可以通过[inputStream]获取与其共享底层数组的输入流，
+ * 或通过[buffer]与[size]直接访问底层数组，避免[toByteArray]的拷贝。
+ * 通过[pool]获取实例以复用底层数组，避免频繁序列化时反复分配与扩容。
+ *
+ * 由于底层数组会被复用，[inputStream]与[buffer]只在实例被归还到[pool]或[reset]之前有效。
+ * 容量超过[MAX_POOLED_CAPACITY]的实例归还时会被丢弃，因此超过该大小的数据（如数MB的文件）
+ * 每次仍会重新分配与扩容，只能节省[toByteArray]的拷贝，无法从复用中获益。
+ *
+ * @author chenf()
+ * @date 2026-10-18 17:10
+ */
+class PooledByteArrayOutputStream(
+    initialSize: Int = DEFAULT_INITIAL_SIZE
+) : ByteArrayOutputStream(initialSize) {
+
+    /**
+     * 底层数组，有效数据长度为[size]
+     */
+    val buffer: ByteArray
+        get() = buf
+
+    /**
+     * 底层数组的容量
+     */
+    val capacity: Int
+        get() = buf.size
+
+    /**
+     * 获取与此缓冲区共享底层数组的输入流，不会拷贝数据
+     */
+    fun inputStream(): InputStream = ByteArrayInputStream(buf, 0, count)
+
+    /**
+     * 将[inputStream]的剩余内容全部读取到此缓冲区中，直接写入底层数组而不经过中间缓冲区
+     */
+    fun readFrom(inputStream: InputStream): PooledByteArrayOutputStream {
+        grow(count + maxOf(inputStream.available(), MIN_READ_SIZE))
+        while (true) {
+            if (count == buf.size) {
+                grow(count + maxOf(inputStream.available(), MIN_READ_SIZE))
+            }
+            val read = inputStream.read(buf, count, buf.size - count)
+            if (read < 0) {
+                return this
+            }
+            count += read
+        }
+    }
+
+    private fun grow(minCapacity: Int) {
+        if (minCapacity > buf.size) {
+            buf = buf.copyOf(maxOf(minCapacity, buf.size shl 1))
+        }
+    }
+
+    companion object {
+        private const val DEFAULT_INITIAL_SIZE = 1024
+        private const val MIN_READ_SIZE = 1024
+
+        /**
+         * 超过该容量的缓冲区不会被复用，避免长期持有大内存
+         */
+        const val MAX_POOLED_CAPACITY = 256 * 1024
+
+        val pool: NonnullPools<PooledByteArrayOutputStream> =
+            object : NonnullPools.SimplePool<PooledByteArrayOutputStream>(
+                Pools.SynchronizedPool(4)
+            ) {
+                override fun create(): PooledByteArrayOutputStream = PooledByteArrayOutputStream()
+
+                override fun release(instance: PooledByteArrayOutputStream) {
+                    if (instance.capacity <= MAX_POOLED_CAPACITY) {
+                        instance.reset()
+                        super.release(instance)
+                    }
+                }
+            }
+    }
+}
@@ -51,10 +51,49 @@ fun StringBuilder.appendByReflect(
     return this
 }
 
+/**
+ * 限制输出长度与深度的反射toString，超出长度或深度的部分输出为`...`
+ *
+ * @param maxChars 输出的最大字符数，超出后不再继续遍历对象图
+ * @param maxDepth 对象图遍历的最大深度，根对象的深度为0
+ */
+fun Any?.toStringByReflect(maxChars: Int, maxDepth: Int = Int.MAX_VALUE): String =
+    StringBuilder().also { it.appendByReflect(this, maxChars, maxDepth) }.toString()
+
+/**
+ * 将反射toString的结果流式输出到[Appendable]中（如日志文件的Writer），
+ * 内部缓冲超过一定大小时即写出，而不会先构建出完整的字符串。
+ * 输出达到[maxChars]时不再继续遍历对象图，用于在崩溃报告中输出较大的对象图
+ *
+ * @param maxChars 输出的最大字符数，超出后不再继续遍历对象图
+ * @param maxDepth 对象图遍历的最大深度，根对象的深度为0
+ */
+@ReturnThis
+fun <A : Appendable> A.appendByReflect(
+    any: Any?, maxChars: Int, maxDepth: Int = Int.MAX_VALUE
+): A {
+    val record = ToStringStackRecord(any, "this@toStringByReflect", null)
+    val budget = ToStringBudget(this, maxChars, maxDepth)
+    record.budget = budget
+    val buffer = StringBuilder()
+    try {
+        buffer.appendByReflectImpl(any, record)
+    } catch (_: ToStringBudget.Exhausted) {
+        // 输出已达到长度限制，中断遍历，已输出的内容在下方写出并截断
+    }
+    budget.flush(buffer)
+    return this
+}
+
 @Suppress("CyclomaticComplexMethod", "LongMethod", "ReturnCount")
 private fun StringBuilder.appendByReflectImpl(
     any: Any?, record: ToStringStackRecord,
 ): StringBuilder {
+    // 超出深度限制时不再输出该节点，超出长度限制时抛出异常中断整个遍历
+    val budget = record.budget
+    if (budget != null && !budget.onNode(this, record.depth)) {
+        return this
+    }
     if (any == null) {
         return append("null")
     }
@@ -128,12 +167,14 @@ private fun StringBuilder.appendByReflectImpl(
         } else {
             append('[')
             any.onEachIndexed { i, entry ->
+                if (i != 0) {
+                    append(", ")
+                }
                 appendByReflectImpl(entry.key, record.onChildNode(entry.key, "[$i].key"))
                 append('=')
                 appendByReflectImpl(entry.value, record.onChildNode(entry.value, "[$i].value"))
-                append(", ")
             }
-            replace(length - 2, length, "]")
+            append(']')
         }
         is Map.Entry<*, *> -> {
             appendByReflectImpl(any.key, record.onChildNode(any.key, "key"))
@@ -179,7 +220,7 @@ private fun StringBuilder.appendByReflectImpl(
             // protobuf 序列化对象
             DependencyChecker.protobuf?.appendShortTo(this, any)
             this
-        } else if (!record.config.useToStringMethod(any.javaClass)) {
+        } else if (!record.config.classPlan(any.javaClass).useToStringMethod) {
             // 如果该类的 toString 方法没有被重写过（包括其父类）则反射输出字段
             appendObjectByReflectImpl(any, record)
         } else {
@@ -289,23 +330,23 @@ private sealed interface StaticFieldsCache {
  *
  * @param T 类类型
  */
-private sealed interface FieldsCache<T : Any> {
+internal sealed interface FieldsCache<T : Any> {
     /**
      * 该类是否有成员字段可以被输出。
      */
     val hasField: Boolean
 
     /**
-     * 将当前类实例字段输出到 [builder] 中，并返回该字符串构建器实例。
+     * 将当前类实例字段输出到 [builder] 中，字段之间使用`, `分隔。
      *
      * @param builder 字符串构建器实例
      * @param any 类实例
      * @param record 记录堆栈信息，用于递归调用时防止无限循环。
-     * @return [builder]实例。
+     * @param first 是否为第一个输出字段的类，不是时在第一个字段前也输出分隔符
      */
     fun appendTo(
-        builder: StringBuilder, any: T, record: ToStringStackRecord
-    ): StringBuilder
+        builder: StringBuilder, any: T, record: ToStringStackRecord, first: Boolean
+    )
 
     /**
      * Java类字段缓存，不包括transient和static字段。
@@ -317,37 +358,66 @@ private sealed interface FieldsCache<T : Any> {
     class Java<T : Any>(
         clazz: Class<T>
     ) : FieldsCache<T> {
-        private val fields: List<Field> = clazz.declaredFields.filter {
+        private val fields: Array<JavaField> = clazz.declaredFields.filter {
             !it.isTransient && !it.isStatic && !it.isSynthetic
         }.mapNotNull {
             try {
                 it.isAccessible = true
-                it
+                JavaField(it)
             } catch (e: SecurityException) {
                 Log.d(TAG, "FieldsCache.Java.fields: ${it.name}", e)
                 null
             }
-        }
+        }.toTypedArray()
         override val hasField: Boolean = fields.isNotEmpty()
 
         override fun appendTo(
-            builder: StringBuilder, any: T, record: ToStringStackRecord
-        ): StringBuilder = builder.apply {
-            fields.forEach { field ->
+            builder: StringBuilder, any: T, record: ToStringStackRecord, first: Boolean
+        ) = builder.run {
+            fields.forEachIndexed { index, field ->
+                if (!first || index != 0) {
+                    append(", ")
+                }
                 append(field.name)
                 append('=')
-                appendValue(any, field) { value ->
+                val primitiveAppender = field.primitiveAppender
+                if (primitiveAppender != null) {
+                    appendPrimitiveValue(any, field.field, primitiveAppender)
+                } else {
+                    val value = getValue(any, field.field)
                     if (value == any) {
                         append("this")
                     } else {
                         appendByReflectImpl(value, record.onChildNode(value, field.name))
                     }
                 }
-                append(", ")
             }
         }
     }
 
+    /**
+     * Java实例字段及其预先确定的原生类型读取方式
+     */
+    class JavaField(
+        val field: Field
+    ) {
+        val name: String = field.name
+
+        // 原生类型字段在创建时确定其读取方式，避免每次读取时判断类型与装箱
+        @Suppress("RemoveRedundantQualifierName")
+        val primitiveAppender: ((StringBuilder, Field, Any) -> Unit)? = when (field.type) {
+            java.lang.Integer.TYPE -> { sb, f, o -> sb.append(f.getInt(o)) }
+            java.lang.Float.TYPE -> { sb, f, o -> sb.append(f.getFloat(o)) }
+            java.lang.Byte.TYPE -> { sb, f, o -> sb.append(f.getByte(o).toInt()) }
+            java.lang.Double.TYPE -> { sb, f, o -> sb.append(f.getDouble(o)) }
+            java.lang.Long.TYPE -> { sb, f, o -> sb.append(f.getLong(o)) }
+            java.lang.Character.TYPE -> { sb, f, o -> sb.append(f.getChar(o)) }
+            java.lang.Boolean.TYPE -> { sb, f, o -> sb.append(f.getBoolean(o)) }
+            java.lang.Short.TYPE -> { sb, f, o -> sb.append(f.getShort(o).toInt()) }
+            else -> null
+        }
+    }
+
     /**
      * 根据Kotlin类对象获取其字段列表，但不包括扩展属性。
      *
@@ -372,9 +442,12 @@ private sealed interface FieldsCache<T : Any> {
         override val hasField: Boolean = fields.isNotEmpty()
 
         override fun appendTo(
-            builder: StringBuilder, any: T, record: ToStringStackRecord
-        ): StringBuilder = builder.apply {
-            fields.forEach { field ->
+            builder: StringBuilder, any: T, record: ToStringStackRecord, first: Boolean
+        ) = builder.run {
+            fields.forEachIndexed { index, field ->
+                if (!first || index != 0) {
+                    append(", ")
+                }
                 append(field.name)
                 append('=')
                 appendValue(any, field) { value ->
@@ -384,13 +457,37 @@ private sealed interface FieldsCache<T : Any> {
                         appendByReflectImpl(value, record.onChildNode(value, field.name))
                     }
                 }
-                append(", ")
             }
         }
     }
 
     companion object {
         val cache = LruCache<String, FieldsCache<*>>(UtilInitializer.lruCacheStandardSize)
+
+        /**
+         * 获取[clazz]及其父类需要输出的字段缓存，按输出顺序排列。
+         * Kotlin类会输出包括父类在内的所有字段，Java类只输出其自身的字段后继续查找父类
+         */
+        @Suppress("UNCHECKED_CAST")
+        fun hierarchyOf(clazz: Class<*>): List<FieldsCache<Any>> {
+            val caches = ArrayList<FieldsCache<Any>>(2)
+            var thisOrSuperClass: Class<*>? = clazz
+            while (thisOrSuperClass != null && thisOrSuperClass != Any::class.java) {
+                val current: Class<*> = thisOrSuperClass
+                if (current.isWriteByKotlin) {
+                    caches += cache.getOrPut(current.name) {
+                        Kotlin(current.kotlin)
+                    } as FieldsCache<Any>
+                    break
+                } else {
+                    caches += cache.getOrPut(current.name) {
+                        Java(current)
+                    } as FieldsCache<Any>
+                    thisOrSuperClass = current.superclass
+                }
+            }
+            return caches
+        }
     }
 }
 //</editor-fold>
@@ -400,56 +497,32 @@ private fun StringBuilder.appendObjectByReflectImpl(
     any: Any, record: ToStringStackRecord
 ): StringBuilder {
     val thisClass: Class<*> = any.javaClass
-    if (thisClass.isWriteByKotlin) {
-        // 如果当前实例的类是kotlin类，且当前对象是伴生对象，尝试打印伴生对象的字段
-        val kClass = thisClass.kotlin
-        // slow call, 判断当前对象是不是伴生对象的实例
-        if (kClass.isCompanion) {
-            // 获取该伴生对象的宿主类
-            val outerClass = thisClass.declaringClass
-            StaticFieldsCache.cache.getOrPut(outerClass.name) {
-                StaticFieldsCache.KotlinKClassComponentObject(outerClass.kotlin, kClass)
-            }.appendTo(this, record)
-            return this
-        }
+    val plan = record.config.classPlan(thisClass)
+    // 如果当前实例的类是kotlin类，且当前对象是伴生对象，尝试打印伴生对象的字段
+    if (plan.isKotlinCompanion) {
+        // 获取该伴生对象的宿主类
+        val outerClass = thisClass.declaringClass
+        StaticFieldsCache.cache.getOrPut(outerClass.name) {
+            StaticFieldsCache.KotlinKClassComponentObject(outerClass.kotlin, thisClass.kotlin)
+        }.appendTo(this, record)
+        return this
     }
     // 如果类在反射黑名单中，不使用反射处理这个类
-    if (record.config.isReflectSkip(thisClass)) {
+    if (plan.reflectSkip) {
         appendOrStd(any)
         return this
     }
     // 不是数组，toString 也没有被重写过，调用反射输出每一个字段
-    var thisOrSuperClass: Class<*>? = thisClass
-    append(thisOrSuperClass?.simpleName)
+    append(thisClass.simpleName)
     append('(')
-    var hasAnyField = false
-    while (thisOrSuperClass != null && thisOrSuperClass != Any::class.java) {
-        // 打印当前类的非static字段
-        if (thisOrSuperClass.isWriteByKotlin) {
-            // Kotlin会输出所有字段，包括父类的
-            @Suppress("UNCHECKED_CAST")
-            val cache: FieldsCache<Any> = FieldsCache.cache.getOrPut(thisOrSuperClass.name) {
-                FieldsCache.Kotlin(thisOrSuperClass.kotlin)
-            } as FieldsCache<Any>
-            cache.appendTo(this, any, record)
-            hasAnyField = hasAnyField or cache.hasField
-            break
-        } else {
-            // Java只会输出当前类的
-            @Suppress("UNCHECKED_CAST")
-            val cache: FieldsCache<Any> = FieldsCache.cache.getOrPut(thisOrSuperClass.name) {
-                FieldsCache.Java(thisOrSuperClass)
-            } as FieldsCache<Any>
-            cache.appendTo(this, any, record)
-            hasAnyField = hasAnyField or cache.hasField
-            thisOrSuperClass = thisOrSuperClass.getSuperclass()
+    var first = true
+    plan.fields.forEach { cache ->
+        if (cache.hasField) {
+            cache.appendTo(this, any, record, first)
+            first = false
         }
     }
-    if (hasAnyField) {
-        replace(length - 2, length, ")")
-    } else {
-        append(')')
-    }
+    append(')')
     return this
 }
 //</editor-fold>
@@ -538,6 +611,17 @@ private inline fun StringBuilder.appendValue(
     boxedOrObjectValueAppendable(getValue(thisRef, field))
 }
 
+private inline fun StringBuilder.appendPrimitiveValue(
+    thisRef: Any, field: Field, appender: (StringBuilder, Field, Any) -> Unit,
+): StringBuilder = try {
+    appender(this, field, thisRef)
+    this
+} catch (e: IllegalArgumentException) {
+    append("owner $thisRef's field: $field get failed: $e")
+} catch (e: IllegalAccessException) {
+    append("owner $thisRef's field: $field get failed: $e")
+}
+
 private fun StringBuilder.appendPrimitiveValue(
     thisRef: Any, field: Field,
 ): StringBuilder = try {
@@ -0,0 +1,78 @@
+package io.github.chenfei0928.lang
+
+/**
+ * 反射toString的输出限制与流式输出
+ *
+ * 在遍历对象图的每个节点前检查输出长度与深度，内部缓冲超过[FLUSH_SIZE]时写出到[target]，
+ * 输出达到[maxChars]后抛出[Exhausted]中断遍历（包括集合、数组与字段的循环），并以[ELLIPSIS]结尾。
+ *
+ * @param target 输出目标
+ * @param maxChars 输出的最大字符数
+ * @param maxDepth 对象图遍历的最大深度，超出深度的节点输出为[ELLIPSIS]
+ * @author chenf()
+ * @date 2026-10-18 23:20
+ */
+internal class ToStringBudget(
+    private val target: Appendable,
+    private val maxChars: Int,
+    private val maxDepth: Int,
+) {
+    private var written = 0
+    private var exhausted = false
+    private var ellipsisWritten = false
+
+    /**
+     * 在输出一个节点前调用，输出已达到[maxChars]时抛出[Exhausted]，由调用方在遍历的入口处捕获
+     *
+     * @return 是否继续输出该节点，超出深度时返回`false`
+     */
+    fun onNode(buffer: StringBuilder, depth: Int): Boolean {
+        if (exhausted || written + buffer.length >= maxChars) {
+            exhausted = true
+            throw Exhausted
+        }
+        if (depth > maxDepth) {
+            buffer.append(ELLIPSIS)
+            return false
+        }
+        if (buffer.length >= FLUSH_SIZE) {
+            flush(buffer)
+            if (exhausted) {
+                throw Exhausted
+            }
+        }
+        return true
+    }
+
+    /**
+     * 将[buffer]中的内容写出到[target]并清空，超出[maxChars]的部分会被截断
+     */
+    fun flush(buffer: StringBuilder) {
+        val remaining = maxChars - written
+        if (buffer.length > remaining) {
+            target.append(buffer, 0, remaining.coerceAtLeast(0))
+            written = maxChars
+            exhausted = true
+        } else {
+            target.append(buffer)
+            written += buffer.length
+        }
+        buffer.setLength(0)
+        if (exhausted && !ellipsisWritten) {
+            ellipsisWritten = true
+            target.append(ELLIPSIS)
+        }
+    }
+
+    /**
+     * 输出达到[maxChars]时中断遍历的信号，不记录堆栈
+     */
+    internal object Exhausted : RuntimeException() {
+        override fun fillInStackTrace(): Throwable = this
+    }
+
+    companion object {
+        const val ELLIPSIS = "..."
+        private const val FLUSH_SIZE = 8 * 1024
+    }
+}
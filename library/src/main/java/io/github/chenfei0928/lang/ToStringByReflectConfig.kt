@@ -1,8 +1,11 @@
 package io.github.chenfei0928.lang
 
 import androidx.annotation.ReturnThis
+import androidx.collection.LruCache
 import io.github.chenfei0928.base.UtilInitializer
+import io.github.chenfei0928.collection.getOrPut
 import io.github.chenfei0928.reflect.isSubclassOf
+import io.github.chenfei0928.reflect.isWriteByKotlin
 import io.github.chenfei0928.util.DependencyChecker
 import java.util.Date
 import java.util.concurrent.ConcurrentHashMap
@@ -39,6 +42,16 @@ data class ToStringByReflectConfig(
     internal val doubleArrayStringer: Stringer<DoubleArray>,
     internal val booleanArrayStringer: Stringer<BooleanArray>,
 ) {
+    // 每个类的处理方式，不属于构造器参数，修改配置（创建新的配置实例）时会重新计算。
+    // 处理方式中的字段缓存强引用着类，使用有容量限制的LruCache避免持有所有输出过的类
+    private val classPlans = LruCache<Class<*>, ClassPlan>(UtilInitializer.lruCacheStandardSize)
+
+    /**
+     * 获取[clazz]预先计算好的处理方式
+     */
+    internal fun classPlan(clazz: Class<*>): ClassPlan =
+        classPlans.getOrPut(clazz) { ClassPlan(this, clazz) }
+
     internal fun useToStringMethod(clazz: Class<*>): Boolean =
         useToString && toStringWasOverrideCache.getOrPut(clazz) {
             clazz.getMethod("toString").declaringClass != Any::class.java
@@ -60,6 +73,47 @@ data class ToStringByReflectConfig(
         return skipNodeTypes.any { clazz === it || clazz.isSubclassOf(it) }
     }
 
+    /**
+     * 类的处理方式，缓存了根据配置规则对该类的判断结果及其需要输出的字段，避免对每个对象都重新扫描规则
+     */
+    internal class ClassPlan(
+        config: ToStringByReflectConfig,
+        clazz: Class<*>,
+    ) {
+        /**
+         * 是否跳过该类型的节点记录，见[isSkipNodeType]
+         */
+        val skipNodeType: Boolean = config.isSkipNodeType(clazz)
+
+        /**
+         * 是否使用该类的[Any.toString]方法，见[useToStringMethod]
+         */
+        val useToStringMethod: Boolean by lazy(LazyThreadSafetyMode.PUBLICATION) {
+            config.useToStringMethod(clazz)
+        }
+
+        /**
+         * 是否跳过反射该类的字段，见[isReflectSkip]
+         */
+        val reflectSkip: Boolean by lazy(LazyThreadSafetyMode.PUBLICATION) {
+            config.isReflectSkip(clazz)
+        }
+
+        /**
+         * 该类是否是Kotlin伴生对象的类，slow call，只在需要反射输出字段时计算
+         */
+        val isKotlinCompanion: Boolean by lazy(LazyThreadSafetyMode.PUBLICATION) {
+            clazz.isWriteByKotlin && clazz.kotlin.isCompanion
+        }
+
+        /**
+         * 该类及其父类需要输出的字段，按输出顺序排列
+         */
+        val fields: List<FieldsCache<Any>> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+            FieldsCache.hierarchyOf(clazz)
+        }
+    }
+
     //<editor-fold desc="原生数组类型toString方式" defaultstatus="collapsed">
     interface Stringer<T> {
         fun append(sb: StringBuilder, array: T): StringBuilder
@@ -277,6 +331,12 @@ data class ToStringStackRecord(
     internal val config: ToStringByReflectConfig =
         parentNode?.config ?: UtilInitializer.toStringConfig
 
+    // 节点深度，根节点为0
+    internal val depth: Int = if (parentNode == null) 0 else parentNode.depth + 1
+
+    // 输出长度与深度限制，只在根节点设置，子节点继承
+    internal var budget: ToStringBudget? = parentNode?.budget
+
     internal fun onChildNode(value: Any?, name: String): ToStringStackRecord {
         return ToStringStackRecord(value, this.nodeName + "." + name, this)
     }
@@ -304,7 +364,7 @@ data class ToStringStackRecord(
     private fun findRecordedNodeName(value: Any): String? {
         val record = nodeRecords[value]
         if (record == null && value === this.value &&
-            !config.isSkipNodeType(value.javaClass)
+            !config.classPlan(value.javaClass).skipNodeType
         ) {
             // 如果该对象在之前未记录过，则将其加入到节点记录中
             nodeRecords[value] = nodeName
@@ -2,11 +2,11 @@ package io.github.chenfei0928.lifecycle
 
 import androidx.lifecycle.LifecycleEventObserver
 import androidx.lifecycle.LifecycleOwner
+import io.github.chenfei0928.collection.ConcurrentWeakIdentityCache
 import io.github.chenfei0928.concurrent.ExecutorUtil
 import io.github.chenfei0928.concurrent.UiTaskExecutor.Companion.runOnUiThread
 import io.github.chenfei0928.util.Log
 import java.io.Closeable
-import java.util.WeakHashMap
 import kotlin.properties.ReadOnlyProperty
 import kotlin.reflect.KProperty
 
@@ -29,44 +29,53 @@ open class LifecycleCacheDelegate<Owner : LifecycleOwner, V : LifecycleEventObse
      */
     private val valueCreator: (owner: Owner, closeCallback: Closeable) -> V
 ) : ReadOnlyProperty<Owner, V> {
-    // 通过虚引用HashMap来持有键值对，其将自动移除GC不可访问的key和其所对应的value
-    private val cache: MutableMap<Owner, V> = WeakHashMap()
+    // 通过弱引用key持有键值对，读取已存在的值时不加锁，并保证每个宿主只创建一次值
+    private val cache = ConcurrentWeakIdentityCache<Owner, V>()
 
     override fun getValue(thisRef: Owner, property: KProperty<*>): V {
         if (!thisRef.lifecycle.isAlive && deadValue != null) {
             return deadValue
         }
-        // 宿主存活时，创建或从缓存中获取一个与该宿主生命周期绑定的协程实例
-        return cache.getOrPut(thisRef) {
-            val closeCallback = CloseCallback(thisRef)
+        // 宿主存活时，创建或从缓存中获取一个与该宿主生命周期绑定的实例
+        var created = false
+        val observer = cache.getOrCreate(thisRef) { owner ->
+            created = true
+            val closeCallback = CloseCallback(owner)
             // 传入宿主与值对象的关闭回调
-            val observer = valueCreator(thisRef, closeCallback)
-            closeCallback.observer = observer
-            // 使其监听宿主生命周期变化
+            valueCreator(owner, closeCallback).also { closeCallback.observer = it }
+        }
+        if (created) {
+            // 使其监听宿主生命周期变化，在锁外注册，以免生命周期回调中再次访问该委托
             val lifecycle = thisRef.lifecycle
             ExecutorUtil.runOnUiThread {
                 lifecycle.addObserver(observer)
             }
-            observer
         }
+        return observer
     }
 
     private inner class CloseCallback(
-        private val owner: LifecycleOwner
+        private val owner: Owner
     ) : Closeable {
-        lateinit var observer: LifecycleEventObserver
+        lateinit var observer: V
 
         override fun close() {
-            Log.d(TAG, "close: $observer because $owner was close.", RuntimeException())
-            if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
-                cache.remove(owner, observer)
+            if (captureCloseStackTrace) {
+                Log.d(TAG, "close: $observer because $owner was close.", RuntimeException())
             } else {
-                cache.remove(owner)
+                Log.d(TAG, "close: $observer because $owner was close.")
             }
+            cache.remove(owner, observer)
         }
     }
 
     companion object {
         private const val TAG = "Ut_LifecycleCacheD"
+
+        /**
+         * 值被关闭时是否记录调用栈，记录调用栈开销较大，只建议在调试时开启
+         */
+        @JvmStatic
+        var captureCloseStackTrace: Boolean = false
     }
 }
@@ -8,10 +8,18 @@ import androidx.lifecycle.LifecycleOwner
 /**
  * 与生命周期宿主绑定的监听器集合
  *
+ * 当前活跃的监听器保存在一个不可变的快照数组中，只在监听器增减或活跃状态变化时重新发布，
+ * 分发时直接遍历快照，不需要加锁或创建新的集合；使用 [forEachActive] 分发时不会产生任何对象分配。
+ * 监听器的增减可以在任意线程中进行，但与 [LifecycleOwner] 绑定的 [observe] 仍需要在主线程中调用。
+ *
+ * [onActive]、[onInactive]、[onObserverActiveChanged]、[onObserverRemoved] 回调在释放内部锁后按产生顺序调用，
+ * 回调中可以访问其它持有锁的对象（如 [MediatorLiveListeners] 的来源）而不会产生锁顺序导致的死锁。
+ *
  * @author chenf()
  * @date 2024-06-27 17:24
  */
 open class LiveListeners<Observer> : Iterable<Observer>, ILiveListener<Observer> {
+    // 访问时需要持有其锁
     private val map: MutableMap<Observer, BindWrapper<Observer>> = ArrayMap()
     private var activeObserverCount = 0
         set(value) {
@@ -19,52 +27,149 @@ open class LiveListeners<Observer> : Iterable<Observer>, ILiveListener<Observer>
             if (oldValue == value)
                 return
             field = value
+            publishSnapshot()
             if (oldValue == 0 && value == 1) {
-                onActive()
+                postCallback { onActive() }
             } else if (oldValue == 1 && value == 0) {
-                onInactive()
+                postCallback { onInactive() }
             }
         }
 
-    fun hasActiveObserver(): Boolean = activeObserverCount > 0
+    // 持有 map 锁时产生的回调，释放锁后按产生顺序调用，访问时需要持有 map 锁
+    private val pendingCallbacks = ArrayDeque<Runnable>()
+    private var dispatchingCallbacks = false
+
+    /**
+     * 当前活跃的监听器快照，只在持有 [map] 锁且活跃监听器数量变化时重新发布
+     */
+    @PublishedApi
+    @Volatile
+    internal var activeSnapshot: Array<Any?> = EMPTY
+        private set
+
+    fun hasActiveObserver(): Boolean = activeSnapshot.isNotEmpty()
 
     override fun iterator(): Iterator<Observer> {
-        return map.values.mapNotNull { bind ->
-            bind.observer.takeIf { bind.active }
-        }.iterator()
+        @Suppress("UNCHECKED_CAST")
+        return (activeSnapshot as Array<Observer>).iterator()
     }
 
-    override fun observe(owner: LifecycleOwner, state: Lifecycle.State, observer: Observer) {
-        if (observer in map || owner.lifecycle.currentState == Lifecycle.State.DESTROYED) {
-            // ignore
+    /**
+     * 遍历当前活跃的监听器，遍历的是调用时的快照，遍历过程中监听器的增减不会影响本次遍历
+     */
+    inline fun forEachActive(action: (Observer) -> Unit) {
+        val snapshot = activeSnapshot
+        for (i in snapshot.indices) {
+            @Suppress("UNCHECKED_CAST")
+            action(snapshot[i] as Observer)
+        }
+    }
+
+    private fun publishSnapshot() {
+        activeSnapshot = if (activeObserverCount == 0) {
+            EMPTY
+        } else {
+            val snapshot = arrayOfNulls<Any?>(activeObserverCount)
+            var index = 0
+            map.values.forEach { bind ->
+                if (bind.active && index < snapshot.size) {
+                    snapshot[index++] = bind.observer
+                }
+            }
+            snapshot
+        }
+    }
+
+    /**
+     * 在持有 map 锁时记录一个回调，在释放锁后调用
+     */
+    private fun postCallback(callback: Runnable) {
+        pendingCallbacks.addLast(callback)
+    }
+
+    /**
+     * 持有 map 锁执行 [block]，释放锁后调用其间产生的回调
+     */
+    private inline fun <R> withLock(block: () -> R): R {
+        val result = synchronized(map, block)
+        dispatchCallbacks()
+        return result
+    }
+
+    /**
+     * 在不持有 map 锁时按产生顺序调用回调，同一时间只有一个线程在调用回调，
+     * 其它线程或回调中产生的回调由正在调用的线程继续调用
+     */
+    private fun dispatchCallbacks() {
+        if (Thread.holdsLock(map)) {
+            // 嵌套调用，由最外层释放锁后调用
             return
         }
-        val eventObserver = ObserveLifecycleBind(owner, state, observer)
-        map.put(observer, eventObserver)
-        owner.lifecycle.addObserver(eventObserver)
+        synchronized(map) {
+            if (dispatchingCallbacks || pendingCallbacks.isEmpty()) {
+                return
+            }
+            dispatchingCallbacks = true
+        }
+        var drained = false
+        try {
+            while (true) {
+                val callback = synchronized(map) {
+                    pendingCallbacks.removeFirstOrNull() ?: run {
+                        dispatchingCallbacks = false
+                        drained = true
+                        null
+                    }
+                } ?: break
+                callback.run()
+            }
+        } finally {
+            if (!drained) {
+                // 回调抛出异常，剩余的回调在下次调用时继续
+                synchronized(map) { dispatchingCallbacks = false }
+            }
+        }
+    }
+
+    override fun observe(owner: LifecycleOwner, state: Lifecycle.State, observer: Observer) {
+        withLock {
+            if (observer in map || owner.lifecycle.currentState == Lifecycle.State.DESTROYED) {
+                // ignore
+                return
+            }
+            val eventObserver = ObserveLifecycleBind(owner, state, observer)
+            map.put(observer, eventObserver)
+            owner.lifecycle.addObserver(eventObserver)
+        }
     }
 
     override fun observeForever(element: Observer) {
-        if (map.containsKey(element)) {
-            return
+        withLock {
+            if (map.containsKey(element)) {
+                return
+            }
+            map.put(element, ForeverBind(element))
+            activeObserverCount++
         }
-        map.put(element, ForeverBind(element))
     }
 
     override fun removeObserver(element: Observer) {
-        map.remove(element)?.let { eventObserver ->
-            if (eventObserver is LiveListeners.ObserveLifecycleBind) {
-                eventObserver.owner.lifecycle.removeObserver(eventObserver)
+        withLock {
+            map.remove(element)?.let { eventObserver ->
+                if (eventObserver is LiveListeners.ObserveLifecycleBind) {
+                    eventObserver.owner.lifecycle.removeObserver(eventObserver)
+                }
+                eventObserver.onRemoved()
+                postCallback { onObserverRemoved(element) }
             }
-            eventObserver.onRemoved()
-            onObserverRemoved(element)
         }
     }
 
     override fun removeObservers(owner: LifecycleOwner) {
-        map.forEach { (observer, bind) ->
-            if (bind is LiveListeners.ObserveLifecycleBind && bind.owner === owner)
-                removeObserver(observer)
+        withLock {
+            map.values.filter {
+                it is LiveListeners.ObserveLifecycleBind && it.owner === owner
+            }.forEach { removeObserver(it.observer) }
         }
     }
 
@@ -104,10 +209,6 @@ open class LiveListeners<Observer> : Iterable<Observer>, ILiveListener<Observer>
     ) : BindWrapper<Observer> {
         override val active: Boolean = true
 
-        init {
-            activeObserverCount++
-        }
-
         override fun onRemoved() {
             activeObserverCount--
         }
@@ -128,14 +229,16 @@ open class LiveListeners<Observer> : Iterable<Observer>, ILiveListener<Observer>
                 } else {
                     activeObserverCount--
                 }
-                onObserverActiveChanged(observer, field)
+                postCallback { onObserverActiveChanged(observer, value) }
             }
 
         override fun onStateChanged(source: LifecycleOwner, event: Lifecycle.Event) {
-            active = owner.lifecycle.currentState >= state
-            if (event == Lifecycle.Event.ON_DESTROY) {
-                onObserverActiveChanged(observer, false)
-                removeObserver(observer)
+            withLock {
+                active = owner.lifecycle.currentState >= state
+                if (event == Lifecycle.Event.ON_DESTROY) {
+                    postCallback { onObserverActiveChanged(observer, false) }
+                    removeObserver(observer)
+                }
             }
         }
 
@@ -143,4 +246,8 @@ open class LiveListeners<Observer> : Iterable<Observer>, ILiveListener<Observer>
             active = false
         }
     }
+
+    companion object {
+        private val EMPTY = arrayOfNulls<Any?>(0)
+    }
 }
@@ -3,6 +3,10 @@ package io.github.chenfei0928.lifecycle
 import androidx.collection.ArrayMap
 
 /**
+ * 可以订阅其它 [LiveListeners] 的监听器集合，只在自身有活跃监听器时订阅其来源
+ *
+ * 来源的增减可以在任意线程中进行
+ *
  * @author chenf()
  * @date 2025-02-12 16:15
  */
@@ -10,30 +14,38 @@ open class MediatorLiveListeners<ThisObserver> : LiveListeners<ThisObserver>() {
     private val sources: MutableMap<LiveListeners<*>, Source<*>> = ArrayMap()
 
     fun <Observer> addSource(sourceLiveListeners: LiveListeners<Observer>, observer: Observer) {
-        if (sourceLiveListeners in sources) {
-            return
-        }
-        val source = Source(sourceLiveListeners, observer)
-        sources.put(sourceLiveListeners, source)?.let {
-            it.active = false
-        }
-        if (hasActiveObserver()) {
-            source.active = true
+        synchronized(sources) {
+            if (sourceLiveListeners in sources) {
+                return
+            }
+            val source = Source(sourceLiveListeners, observer)
+            sources.put(sourceLiveListeners, source)?.let {
+                it.active = false
+            }
+            if (hasActiveObserver()) {
+                source.active = true
+            }
         }
     }
 
     fun <Observer> removeSource(source: LiveListeners<Observer>) {
-        sources.remove(source)?.let {
-            it.active = false
+        synchronized(sources) {
+            sources.remove(source)?.let {
+                it.active = false
+            }
         }
     }
 
     override fun onActive() {
-        sources.forEach { it.value.active = true }
+        synchronized(sources) {
+            sources.forEach { it.value.active = true }
+        }
     }
 
     override fun onInactive() {
-        sources.forEach { it.value.active = false }
+        synchronized(sources) {
+            sources.forEach { it.value.active = false }
+        }
     }
 
     private class Source<Observer>(
@@ -8,7 +8,10 @@ import androidx.annotation.RequiresPermission
 import androidx.annotation.WorkerThread
 import io.github.chenfei0928.concurrent.coroutines.IoScope
 import io.github.chenfei0928.util.Log
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.async
 import kotlinx.coroutines.launch
+import java.io.File
 import kotlin.math.log10
 
 /**
@@ -20,9 +23,9 @@ import kotlin.math.log10
 class PcmAudioRecord
 @RequiresPermission(Manifest.permission.RECORD_AUDIO)
 constructor(
-    sampleRateInHz: Int = 16_000,
-    channelConfig: Int = AudioFormat.CHANNEL_IN_MONO,
-    audioFormat: Int = AudioFormat.ENCODING_PCM_16BIT
+    private val sampleRateInHz: Int = 16_000,
+    private val channelConfig: Int = AudioFormat.CHANNEL_IN_MONO,
+    private val audioFormat: Int = AudioFormat.ENCODING_PCM_16BIT
 ) {
 
     // 最小缓冲区大小（单位：字节）
@@ -31,9 +34,9 @@ constructor(
     private val audioRecord = AudioRecord(
         MediaRecorder.AudioSource.MIC, sampleRateInHz, channelConfig, audioFormat, bufferSize
     )
-    val wavConverter: PcmToWavConverter by lazy(LazyThreadSafetyMode.NONE) {
-        // 比特数
-        val bitNum: Byte = when (audioFormat) {
+    // 比特数
+    private val bitNum: Byte
+        get() = when (audioFormat) {
             AudioFormat.ENCODING_PCM_8BIT -> 8
             AudioFormat.ENCODING_PCM_16BIT -> 16
             AudioFormat.ENCODING_PCM_FLOAT -> 32
@@ -41,10 +44,14 @@ constructor(
                 "audioFormat $audioFormat must be ENCODING_PCM_8BIT or ENCODING_PCM_16BIT or ENCODING_PCM_FLOAT."
             )
         }
-        // 声道数
-        val channelCount = Integer
+
+    // 声道数
+    private val channelCount: Byte
+        get() = Integer
             .bitCount(channelConfig)
             .toByte()
+
+    val wavConverter: PcmToWavConverter by lazy(LazyThreadSafetyMode.NONE) {
         PcmToWavConverter(
             bufferSize,
             sampleRateInHz,
@@ -87,6 +94,49 @@ constructor(
         }
     }
 
+    /**
+     * 开始录音并将录音数据直接从读取缓冲区写入wav文件，不在内存中保存整个录音；
+     * 录音停止后在后台补全文件头并关闭文件
+     *
+     * 只支持 [AudioFormat.ENCODING_PCM_8BIT] 与 [AudioFormat.ENCODING_PCM_16BIT]
+     *
+     * @param onDataWritten 每次写入后回调已写入的数据大小，单位：字节
+     * @return 文件头补全并关闭后完成，值为写入的 [file]；写入失败时以该异常完成
+     */
+    fun startRecordToWavFile(
+        file: File,
+        @WorkerThread onDataWritten: ((dataSize: Long) -> Unit)? = null,
+    ): Deferred<File> {
+        val writer = WavFileWriter(file, sampleRateInHz, channelCount.toInt(), bitNum.toInt())
+        return IoScope.async {
+            writer.use {
+                audioRecord.startRecording()
+                if (bitNum.toInt() == 8) {
+                    val buffer = ByteArray(bufferSize)
+                    while (audioRecord.recordingState == AudioRecord.RECORDSTATE_RECORDING) {
+                        val bufferReadResult = audioRecord.read(buffer, 0, bufferSize)
+                        if (bufferReadResult > 0) {
+                            writer.write(buffer, 0, bufferReadResult)
+                            onDataWritten?.invoke(writer.dataSize)
+                            calculateDb(buffer, bufferReadResult)
+                        }
+                    }
+                } else {
+                    val buffer = ShortArray(bufferSize / 2)
+                    while (audioRecord.recordingState == AudioRecord.RECORDSTATE_RECORDING) {
+                        val bufferReadResult = audioRecord.read(buffer, 0, buffer.size)
+                        if (bufferReadResult > 0) {
+                            writer.write(buffer, 0, bufferReadResult)
+                            onDataWritten?.invoke(writer.dataSize)
+                            calculateDb(buffer, bufferReadResult)
+                        }
+                    }
+                }
+            }
+            file
+        }
+    }
+
     fun stopRecord() {
         audioRecord.stop()
         audioRecord.release()
@@ -2,6 +2,8 @@ package io.github.chenfei0928.media;
 
 /**
  * Pcm录音转换wav工具类
+ * <p>
+ * 整个录音需要保存在内存中，长时间录音使用 {@link WavFileWriter} 流式写入文件
  *
  * @author ChenFei(chenfei0928 @ gmail.com)
  * @date 2019-11-07 17:39
@@ -0,0 +1,223 @@
+package io.github.chenfei0928.media
+
+import java.io.Closeable
+import java.io.File
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.channels.FileChannel
+
+/**
+ * 流式写入wav文件，PCM数据直接追加到文件，不需要在内存中保存整个录音
+ *
+ * 创建时先写入占位的文件头，[close] 时回到文件头补全RIFF与data块的大小。
+ * [reserveRf64] 为true时文件头中会预留一个`JUNK`块，数据超过4GB时将其替换为`ds64`块并写为RF64格式（EBU Tech 3306），
+ * 文件头为 [HEADER_SIZE_RF64_RESERVED] 字节；为false时文件头为标准的 [HEADER_SIZE] 字节，数据不能超过4GB，
+ * 超出时 [write] 会直接抛出异常而不是等到 [close] 时才发现。
+ * data块的数据为奇数字节时（如8位单声道），[close] 时会按RIFF规范在其后补一个填充字节，该字节不计入data块大小。
+ *
+ * 非线程安全，写入与关闭需要在同一个线程或自行同步，[dataSize] 可以在其它线程中读取。
+ *
+ * @param sampleRate 采样率，例如44100
+ * @param channels 声道数 单声道：1或双声道：2
+ * @param bitsPerSample 采样位数，8或16
+ * @param bufferSize 写入文件前的缓冲区大小，单位：字节
+ *
+ * @author chenf()
+ * @date 2026-10-19 03:00
+ */
+class WavFileWriter(
+    file: File,
+    val sampleRate: Int,
+    val channels: Int,
+    val bitsPerSample: Int,
+    private val reserveRf64: Boolean = true,
+    bufferSize: Int = DEFAULT_BUFFER_SIZE,
+) : Closeable {
+    private val randomAccessFile = RandomAccessFile(file, "rw")
+    private val channel: FileChannel = randomAccessFile.channel
+    private val buffer = ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN)
+    private val headerSize = if (reserveRf64) HEADER_SIZE_RF64_RESERVED else HEADER_SIZE
+    private var closed = false
+
+    /**
+     * 已写入的PCM数据大小，单位：字节
+     */
+    @Volatile
+    var dataSize: Long = 0
+        private set
+
+    init {
+        require(bitsPerSample == 8 || bitsPerSample == 16) { "bitsPerSample must be 8 or 16: $bitsPerSample" }
+        require(channels > 0) { "channels must be positive: $channels" }
+        channel.truncate(0)
+        writeHeader(0)
+    }
+
+    /**
+     * 写入PCM数据，8位采样为无符号字节，16位采样为小端序的字节
+     */
+    fun write(data: ByteArray, offset: Int = 0, length: Int = data.size - offset) {
+        checkCapacity(length.toLong())
+        var position = offset
+        val end = offset + length
+        while (position < end) {
+            if (!buffer.hasRemaining()) {
+                flushBuffer()
+            }
+            val count = minOf(buffer.remaining(), end - position)
+            buffer.put(data, position, count)
+            position += count
+        }
+        dataSize += length
+    }
+
+    /**
+     * 写入16位PCM采样，按小端序写入
+     */
+    fun write(samples: ShortArray, offset: Int = 0, length: Int = samples.size - offset) {
+        check(bitsPerSample == 16) { "write ShortArray requires 16 bits per sample" }
+        checkCapacity(length * 2L)
+        var position = offset
+        val end = offset + length
+        while (position < end) {
+            if (buffer.remaining() < 2) {
+                flushBuffer()
+            }
+            val count = minOf(buffer.remaining() / 2, end - position)
+            // asShortBuffer 保持小端序，批量写入后推进字节缓冲区的位置
+            buffer.asShortBuffer().put(samples, position, count)
+            buffer.position(buffer.position() + count * 2)
+            position += count
+        }
+        dataSize += length * 2L
+    }
+
+    /**
+     * 不预留RF64时，写入后数据（含填充字节）超过4GB则在写入前抛出异常，已写入的数据仍可以正常关闭
+     */
+    private fun checkCapacity(length: Long) {
+        check(!closed) { "WavFileWriter closed" }
+        if (reserveRf64) {
+            return
+        }
+        val newSize = dataSize + length
+        check(riffSize(newSize) <= UINT32_MAX) {
+            "wav data size overflow 4GB: $newSize, enable reserveRf64 to write RF64"
+        }
+    }
+
+    /**
+     * RIFF块的大小，包括data块奇数字节时的填充字节
+     */
+    private fun riffSize(dataSize: Long): Long =
+        dataSize + (dataSize and 1L) + headerSize - RIFF_CHUNK_HEADER_SIZE
+
+    private fun flushBuffer() {
+        buffer.flip()
+        while (buffer.hasRemaining()) {
+            channel.write(buffer)
+        }
+        buffer.clear()
+    }
+
+    /**
+     * 写入剩余数据并补全文件头后关闭文件
+     */
+    override fun close() {
+        if (closed) {
+            return
+        }
+        closed = true
+        try {
+            if ((dataSize and 1L) == 1L) {
+                // 奇数字节的块后补一个填充字节
+                if (!buffer.hasRemaining()) {
+                    flushBuffer()
+                }
+                buffer.put(0)
+            }
+            flushBuffer()
+            writeHeader(dataSize)
+            channel.force(false)
+        } finally {
+            randomAccessFile.close()
+        }
+    }
+
+    private fun writeHeader(dataSize: Long) {
+        val riffSize = riffSize(dataSize)
+        // 不预留RF64时已在写入时检查
+        val rf64 = riffSize > UINT32_MAX
+        val header = ByteBuffer.allocate(headerSize).order(ByteOrder.LITTLE_ENDIAN)
+        val blockAlign = channels * bitsPerSample / 8
+        // RIFF
+        header.put(if (rf64) RF64 else RIFF)
+        header.putInt(if (rf64) UINT32_MAX.toInt() else riffSize.toInt())
+        header.put(WAVE)
+        if (reserveRf64) {
+            // 未超过4GB时为JUNK占位块，超过时替换为ds64块，其大小相同
+            header.put(if (rf64) DS64 else JUNK)
+            header.putInt(DS64_SIZE)
+            if (rf64) {
+                header.putLong(riffSize)
+                header.putLong(dataSize)
+                header.putLong(dataSize / blockAlign)
+                // table length
+                header.putInt(0)
+            } else {
+                header.position(header.position() + DS64_SIZE)
+            }
+        }
+        // fmt
+        header.put(FMT)
+        header.putInt(FMT_SIZE)
+        header.putShort(FORMAT_PCM)
+        header.putShort(channels.toShort())
+        header.putInt(sampleRate)
+        // 音频数据传送速率,采样率*通道数*采样深度/8
+        header.putInt(sampleRate * blockAlign)
+        header.putShort(blockAlign.toShort())
+        header.putShort(bitsPerSample.toShort())
+        // data
+        header.put(DATA)
+        header.putInt(if (rf64) UINT32_MAX.toInt() else dataSize.toInt())
+        header.flip()
+        var position = 0L
+        while (header.hasRemaining()) {
+            position += channel.write(header, position)
+        }
+        // 初次写入文件头时将文件位置移到文件头之后
+        if (channel.position() < headerSize) {
+            channel.position(headerSize.toLong())
+        }
+    }
+
+    companion object {
+        private const val DEFAULT_BUFFER_SIZE = 64 * 1024
+
+        /**
+         * 标准wav文件头大小
+         */
+        const val HEADER_SIZE = 44
+
+        /**
+         * 预留RF64的ds64块时的文件头大小
+         */
+        const val HEADER_SIZE_RF64_RESERVED = HEADER_SIZE + 8 + 28
+
+        private const val RIFF_CHUNK_HEADER_SIZE = 8
+        private const val DS64_SIZE = 28
+        private const val FMT_SIZE = 16
+        private const val FORMAT_PCM: Short = 1
+        private const val UINT32_MAX = 0xFFFFFFFFL
+
+        private val RIFF = "RIFF".toByteArray(Charsets.US_ASCII)
+        private val RF64 = "RF64".toByteArray(Charsets.US_ASCII)
+        private val WAVE = "WAVE".toByteArray(Charsets.US_ASCII)
+        private val JUNK = "JUNK".toByteArray(Charsets.US_ASCII)
+        private val DS64 = "ds64".toByteArray(Charsets.US_ASCII)
+        private val FMT = "fmt ".toByteArray(Charsets.US_ASCII)
+        private val DATA = "data".toByteArray(Charsets.US_ASCII)
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.chenfei0928.os
+
+/**
+ * 标记该类中的委托属性需要在编译时生成其[BundleSupportType]存取器
+ *
+ * 需要在使用处依赖`:processor`的ksp处理器，处理器会为被标记的类生成一个名为`<类名>_BundleAccessor`的
+ * [GeneratedBundleAccessor]单例，其中直接创建每个委托属性对应的具体[BundleSupportType]实现，
+ * [BundleSupportType.AutoFind]在读写时会优先使用生成的存取器，不再需要kt反射解析字段类型。
+ *
+ * 配合[BundleDelegate.generated]、[io.github.chenfei0928.content.IntentDelegate.generated]等使用，
+ * 无法在编译时确定类型的字段或未生成存取器时仍会回退到反射查找。
+ *
+ * @author chenf()
+ * @date 2026-10-18 21:10
+ */
+@Retention(AnnotationRetention.BINARY)
+@Target(AnnotationTarget.CLASS)
+annotation class BundleAccessors
@@ -40,6 +40,14 @@ class BundleDelegate<V>(
             BundleSupportType.AutoFind.findByType<V>(isMarkedNullable), name, defaultValue
         )
 
+        /** @see BundleSupportType.AutoFind */
+        @Suppress("UNCHECKED_CAST")
+        fun <V> generated(
+            name: String? = null, defaultValue: V? = null
+        ): ReadWriteProperty<Bundle, V> = BundleDelegate(
+            BundleSupportType.AutoFind as BundleSupportType<V>, name, defaultValue
+        )
+
         fun <V> parceler(
             parceler: Parceler<V?>,
             name: String? = null,
@@ -9,6 +9,8 @@ import android.util.Log
 import android.util.Size
 import android.util.SizeF
 import android.util.SparseArray
+import androidx.annotation.VisibleForTesting
+import androidx.annotation.WorkerThread
 import androidx.core.content.IntentCompat
 import androidx.core.os.BundleCompat
 import androidx.core.os.ParcelCompat
@@ -18,6 +20,7 @@ import com.google.protobuf.Parser
 import com.google.protobuf.ProtobufListParceler
 import com.google.protobuf.protobufParserForType
 import io.github.chenfei0928.collection.asArrayList
+import io.github.chenfei0928.concurrent.ExecutorUtil
 import io.github.chenfei0928.io.readNBytesCompat
 import io.github.chenfei0928.lang.contains
 import io.github.chenfei0928.lang.toByteArray
@@ -34,6 +37,10 @@ import java.lang.reflect.GenericArrayType
 import java.lang.reflect.Modifier
 import java.lang.reflect.ParameterizedType
 import java.lang.reflect.Type
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import kotlin.jvm.internal.CallableReference
+import kotlin.jvm.internal.ClassBasedDeclarationContainer
 import kotlin.reflect.KProperty
 import kotlin.reflect.KType
 import kotlin.reflect.full.createInstance
@@ -68,6 +75,12 @@ abstract class BundleSupportType<T>(
         return nonnullValue(property)
     }
 
+    /**
+     * 获取值的可空性，构造器未指定[isMarkedNullable]时通过[KProperty.returnType]反射获取
+     */
+    protected open fun isNullable(property: KProperty<*>): Boolean =
+        isMarkedNullable ?: property.returnType.isMarkedNullable
+
     //<editor-fold desc="Bundle的put" defaultstatus="collapsed">
     /**
      * 填充数据，如果[value]是null，将数据直接[Bundle.remove]，否则调用[putNonnull]存放数据
@@ -93,7 +106,7 @@ abstract class BundleSupportType<T>(
      */
     fun getValue(
         bundle: Bundle?, property: KProperty<*>, name: String, defaultValue: T?
-    ): T? = if (isMarkedNullable ?: property.returnType.isMarkedNullable)
+    ): T? = if (isNullable(property))
         bundle?.let { getNullable(bundle, property, name) }
     else if (bundle != null)
         getNonnull(bundle, property, name, defaultValue)
@@ -142,7 +155,7 @@ abstract class BundleSupportType<T>(
      */
     fun getValue(
         intent: Intent, property: KProperty<*>, name: String, defaultValue: T?
-    ): T? = if (isMarkedNullable ?: property.returnType.isMarkedNullable)
+    ): T? = if (isNullable(property))
         getExtraNullable(intent, property, name)
     else getExtraNonnull(intent, property, name, defaultValue)
 
@@ -1607,11 +1620,31 @@ abstract class BundleSupportType<T>(
     /**
      * 通过反射字段类型来获取其访问器
      *
-     * 每次调用都会使用[KProperty.returnType]，首次使用类和字段的耗时会比较大，一般不要直接使用这个单例，
-     * 而是使用[AutoFind.findByType]来通过 inline 方法根据类型直接获取其存取器
+     * 首次访问某个字段时会使用[KProperty.returnType]解析其类型与可空性，首次使用类和字段的耗时会比较大，
+     * 解析结果会按[KProperty]缓存，之后的读写不再进行反射。
+     * 如果字段所在的类被[BundleAccessors]标记并生成了存取器，则直接使用生成的存取器而不进行反射。
+     * 可以通过[warmUp]在背景线程预先解析，或使用[AutoFind.findByType]来通过 inline 方法根据类型直接获取其存取器
+     *
+     * 各委托的`generated`工厂方法（如[BundleDelegate.generated]）直接使用该对象，在首次读写时才查找存取器，
+     * 创建委托时不会进行`typeOf`等反射，宿主类被[BundleAccessors]标记时直接使用编译时生成的存取器
      */
     object AutoFind : BundleSupportType<Any>(null) {
+        // 委托属性的KProperty是编译器生成的单例，可以直接作为缓存的key。
+        // 缓存强引用KProperty（及其声明类）且不会清除，其大小以应用中被读写过的委托属性数量为上限：
+        // 应用的类加载器存活于整个进程，其中的类不会被卸载，强引用不会造成额外的内存泄漏。
+        // 没有使用按声明类的弱引用缓存（ClassValue在Android上不可用），因为缓存的存取器会强引用字段类型的Class，
+        // 其与声明类通常属于同一类加载器，弱引用的key仍会被value间接强引用而无法被回收
+        @VisibleForTesting
+        internal val typeCache = ConcurrentHashMap<KProperty<*>, BundleSupportType<Any>>()
+
+        // 宿主类编译时生成的存取器，没有生成时为NoGeneratedAccessor；与typeCache相同，不会清除
+        @VisibleForTesting
+        internal val generatedAccessors = ConcurrentHashMap<Class<*>, GeneratedBundleAccessor>()
+
         //<editor-fold desc="重写父类实现">
+        override fun isNullable(property: KProperty<*>): Boolean =
+            findType(property).isNullable(property)
+
         override fun nonnullValue(property: KProperty<*>): Any =
             findType(property).nonnullValue(property)
 
@@ -1640,11 +1673,76 @@ abstract class BundleSupportType<T>(
         ): Any = findType(property).getExtraNonnull(intent, property, name, defaultValue)
 
         @Suppress("kotlin:S6530")
-        private fun findType(property: KProperty<*>): BundleSupportType<Any> = findByType(
-            TypeInfo.ByKProperty(property), NullableCheck.CHECK_BY_REFLECT_WHEN_CALL
-        )
+        @VisibleForTesting
+        internal fun findType(property: KProperty<*>): BundleSupportType<Any> {
+            typeCache[property]?.let { return it }
+            // 优先使用编译时生成的存取器，没有时立即解析类型与可空性，得到的实例在读写时不需要再反射
+            val type = findGeneratedType(property) ?: findByType<Any>(
+                TypeInfo.ByKProperty(property), NullableCheck.CHECK_NOW_BY_REFLECT
+            )
+            return typeCache.putIfAbsent(property, type) ?: type
+        }
+
+        /**
+         * 查找[BundleAccessors]标记的类编译时生成的存取器，委托属性的[KProperty]的owner即为声明该属性的类
+         */
+        @Suppress("UNCHECKED_CAST")
+        private fun findGeneratedType(property: KProperty<*>): BundleSupportType<Any>? {
+            val owner = ((property as? CallableReference)?.owner as? ClassBasedDeclarationContainer)
+                ?.jClass ?: return null
+            val accessor = generatedAccessors.getOrPut(owner) { loadGeneratedAccessor(owner) }
+            return accessor.findType(property.name) as BundleSupportType<Any>?
+        }
+
+        private fun loadGeneratedAccessor(owner: Class<*>): GeneratedBundleAccessor = try {
+            Class.forName(
+                owner.name.replace('$', '_') + GeneratedBundleAccessor.SUFFIX, true, owner.classLoader
+            ).getField("INSTANCE").get(null) as GeneratedBundleAccessor
+        } catch (_: ClassNotFoundException) {
+            NoGeneratedAccessor
+        }
+
+        private object NoGeneratedAccessor : GeneratedBundleAccessor {
+            override fun findType(propertyName: String): BundleSupportType<*>? = null
+        }
         //</editor-fold>
 
+        /**
+         * 预先解析[clazz]及其父类中所有委托属性的存取器并缓存，用于在背景线程中调用以减少首次读写时的反射耗时
+         *
+         * 委托属性的[KProperty]由编译器生成在类的静态字段`$$delegatedProperties`中，
+         * 与读写时传入委托的[KProperty]为同一实例
+         */
+        @WorkerThread
+        fun warmUp(clazz: Class<*>) {
+            var c: Class<*>? = clazz
+            while (c != null && c != Any::class.java) {
+                val properties = try {
+                    c.getDeclaredField(DELEGATED_PROPERTIES_FIELD_NAME).run {
+                        isAccessible = true
+                        get(null) as? Array<*>
+                    }
+                } catch (_: NoSuchFieldException) {
+                    null
+                }
+                properties?.forEach {
+                    if (it is KProperty<*>) try {
+                        findType(it)
+                    } catch (e: RuntimeException) {
+                        Log.w(TAG, "warmUp: $it", e)
+                    }
+                }
+                c = c.superclass
+            }
+        }
+
+        /**
+         * 在[executor]中执行[warmUp]
+         */
+        fun warmUpAsync(clazz: Class<*>, executor: Executor = ExecutorUtil) {
+            executor.execute { warmUp(clazz) }
+        }
+
         inline fun <reified T> findByType(
             isMarkedNullable: Boolean?
         ): BundleSupportType<T> = findByType(
@@ -1856,6 +1954,7 @@ abstract class BundleSupportType<T>(
 
     companion object {
         private const val TAG = "Ut_BundleSupportType"
+        private const val DELEGATED_PROPERTIES_FIELD_NAME = "\$\$delegatedProperties"
 
         @Suppress("UNCHECKED_CAST")
         private fun <T : Any> KProperty<*>.getReturnTypeJClass(): Class<T> =
@@ -0,0 +1,20 @@
+package io.github.chenfei0928.os
+
+/**
+ * 由ksp处理器为[BundleAccessors]标记的类生成的存取器查找表
+ *
+ * 生成的实现为单例，类名为宿主类的二进制名称中`$`替换为`_`后追加[SUFFIX]。
+ *
+ * @author chenf()
+ * @date 2026-10-18 21:10
+ */
+interface GeneratedBundleAccessor {
+    /**
+     * 获取属性名为[propertyName]的委托属性的存取器，未生成该属性的存取器时返回null
+     */
+    fun findType(propertyName: String): BundleSupportType<*>?
+
+    companion object {
+        const val SUFFIX = "_BundleAccessor"
+    }
+}
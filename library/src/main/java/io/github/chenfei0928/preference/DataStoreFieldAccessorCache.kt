@@ -1,12 +1,17 @@
 package io.github.chenfei0928.preference
 
 import androidx.datastore.core.DataStore
+import com.google.protobuf.Message
 import io.github.chenfei0928.preference.base.BaseFieldAccessorCache
 import io.github.chenfei0928.preference.base.DataCopyClassFieldAccessor
 import io.github.chenfei0928.preference.base.FieldAccessor
 import io.github.chenfei0928.preference.base.MutableFieldAccessor
+import io.github.chenfei0928.preference.base.ProtobufMessageField
+import io.github.chenfei0928.util.DependencyChecker
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.delay
 import kotlinx.coroutines.flow.SharingStarted
 import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.flow.filterNotNull
@@ -14,19 +19,26 @@ import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.flow.stateIn
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.runBlocking
+import java.util.concurrent.atomic.AtomicLong
 import kotlin.reflect.KMutableProperty1
 
 /**
  * 支持使用 [DataStore] 来存储首选项的首选项值访问
  *
- * [DataStore]初次加载数据耗时较久（约300-400ms），建议在提前已经获取过该字段
+ * [DataStore]初次加载数据耗时较久（约300-400ms），建议在提前已经获取过该字段，
+ * 或在协程中调用 [awaitData] 等待加载完成后再进行同步读取，以避免同步读取时 [runBlocking] 阻塞调用线程
  *
  * [DataStore.updateData] 的数据刷写方式要求每次返回一个新实例，
  * 不能使用[KMutableProperty1.set]来优化性能，必须使用[DataCopyClassFieldAccessor.copyFunc]写入数据，
  * 即不建议 [fieldAccessor] 使用 [MutableFieldAccessor] 的实例
  *
+ * 每次 [DataStore.updateData] 都会进行一次完整的序列化与文件替换，需要同时修改多个字段时使用 [edit] 在一次写入中完成。
+ * 数据为 [Message] 且字段为 [ProtobufMessageField] 时，同一次写入中的多个字段修改共用一个 [Message.Builder]。
+ *
  * @param blockingWrite true为阻塞方式以 [runBlocking] 写入，false为使用 [launch] 写入，阻塞方式写入时耗时较久
  * @param fieldAccessor 字段访问器，用于存储实例字段存取器
+ * @param coalesceWindowMillis 非阻塞写入时，将该时长内 [androidx.preference.PreferenceDataStore] 的多次写入合并为一次写入，
+ * 为0时不合并
  *
  * @author chenf()
  * @date 2024-08-13 18:18
@@ -36,6 +48,7 @@ class DataStoreFieldAccessorCache<T : Any>(
     private val dataStore: DataStore<T>,
     private val blockingWrite: Boolean = false,
     private val fieldAccessor: DataCopyClassFieldAccessor<T> = DataCopyClassFieldAccessor.Impl(true),
+    private val coalesceWindowMillis: Long = 0,
 ) : BaseFieldAccessorCache<T>(fieldAccessor), DataCopyClassFieldAccessor<T> by fieldAccessor {
     // 缓存dataStore字段最后的值，否则每次 dataStore.data.first() 耗时较久
     private val field: StateFlow<T?> = dataStore.data.stateIn(
@@ -44,28 +57,226 @@ class DataStoreFieldAccessorCache<T : Any>(
         null
     )
 
+    // 等待合并写入的修改，与写入中的修改一起访问时需要持有其锁
+    private val pendingMutations = ArrayList<Mutation<T, *>>()
+    private var pendingFlush: Job? = null
+
+    // 已提交给 updateData 但 field 还未读取到其结果的修改，读取时覆盖在 field 的值上
+    private val inFlightBatches = ArrayList<Batch<T>>()
+
+    // updateData 的写入顺序，dataStore 会串行执行每次写入
+    private val writeSequence = AtomicLong()
+
+    init {
+        // field 读取到写入结果后才移除对应的修改，避免 updateData 返回后到 field 更新前读取到旧值
+        coroutineScope.launch(Dispatchers.IO) {
+            field.collect { if (it != null) onDataObserved(it) }
+        }
+    }
+
     override fun <V> FieldAccessor.Field<T, V>.setToStorage(value: V) {
+        val mutation = Mutation(this, toFieldValue(value))
         if (blockingWrite) {
+            val batch = takePending(listOf(mutation))
             runBlocking(coroutineScope.coroutineContext + Dispatchers.IO) {
-                suspendSet(value)
+                update(batch)
+            }
+        } else if (coalesceWindowMillis <= 0) {
+            val batch = takePending(listOf(mutation))
+            coroutineScope.launch(Dispatchers.IO) {
+                update(batch)
+            }
+        } else synchronized(pendingMutations) {
+            pendingMutations.add(mutation)
+            if (pendingFlush == null) {
+                pendingFlush = coroutineScope.launch(Dispatchers.IO) {
+                    delay(coalesceWindowMillis)
+                    update(takePending(emptyList()))
+                }
+            }
+        }
+    }
+
+    override fun <V> FieldAccessor.Field<T, V>.getFromStorage(): V {
+        val data = field.value ?: runBlocking(coroutineScope.coroutineContext + Dispatchers.IO) {
+            field.filterNotNull().first()
+        }
+        // 还有未写入或写入中的修改时，读取到的值需要包含这些修改
+        val overlay = synchronized(pendingMutations) {
+            if (inFlightBatches.isEmpty() && pendingMutations.isEmpty()) {
+                null
+            } else {
+                inFlightBatches.flatMap { it.mutations } + pendingMutations
+            }
+        }
+        return getValue(if (overlay == null) data else applyMutations(data, overlay))
+    }
+
+    /**
+     * 挂起等待 [DataStore] 首次加载完成，不会阻塞调用线程
+     */
+    suspend fun awaitData(): T = field.value ?: field.filterNotNull().first()
+
+    /**
+     * 挂起等待 [DataStore] 首次加载完成后读取字段值
+     */
+    suspend fun <V> get(field: FieldAccessor.Field<T, V>): V = field.get(awaitData())
+
+    /**
+     * 在一次 [DataStore.updateData] 中修改多个字段，写入方式与 [blockingWrite] 一致
+     *
+     * ```
+     * dataStore.edit {
+     *     this[field1] = value1
+     *     this[field2] = value2
+     * }
+     * ```
+     */
+    fun edit(block: Transaction<T>.() -> Unit) {
+        val mutations = Transaction<T>().apply(block).mutations
+        if (mutations.isEmpty()) {
+            return
+        }
+        val batch = takePending(mutations)
+        if (blockingWrite) {
+            runBlocking(coroutineScope.coroutineContext + Dispatchers.IO) {
+                update(batch)
             }
         } else {
             coroutineScope.launch(Dispatchers.IO) {
-                suspendSet(value)
+                update(batch)
             }
         }
     }
 
-    private suspend fun <V> FieldAccessor.Field<T, V>.suspendSet(value: V) {
-        dataStore.updateData {
-            setValue(it, value)
+    /**
+     * 在一次 [DataStore.updateData] 中修改多个字段，挂起直到写入完成
+     */
+    suspend fun editAndAwait(block: Transaction<T>.() -> Unit): T {
+        val mutations = Transaction<T>().apply(block).mutations
+        return update(takePending(mutations))
+    }
+
+    /**
+     * 取出等待合并写入的修改，与[mutations]一起作为写入中的修改，在 field 读取到其写入结果前读取时仍会覆盖这些修改
+     *
+     * @return 没有任何修改时返回null
+     */
+    private fun takePending(mutations: List<Mutation<T, *>>): Batch<T>? = synchronized(pendingMutations) {
+        pendingFlush = null
+        if (pendingMutations.isEmpty() && mutations.isEmpty()) {
+            null
+        } else {
+            Batch(pendingMutations + mutations).also {
+                pendingMutations.clear()
+                inFlightBatches.add(it)
+            }
         }
     }
 
-    override fun <V> FieldAccessor.Field<T, V>.getFromStorage(): V {
-        val data = field.value ?: runBlocking(coroutineScope.coroutineContext + Dispatchers.IO) {
-            field.filterNotNull().first()
+    @Suppress("TooGenericExceptionCaught")
+    private suspend fun update(batch: Batch<T>?): T = if (batch == null) {
+        awaitData()
+    } else try {
+        dataStore.updateData { data ->
+            applyMutations(data, batch.mutations).also {
+                batch.base = data
+                batch.result = it
+                batch.sequence = writeSequence.incrementAndGet()
+            }
+        }.also {
+            batch.committed = true
+            // field 可能在标记提交前已经读取到了写入结果
+            field.value?.let(::onDataObserved)
+        }
+    } catch (e: Throwable) {
+        // 写入失败或被取消，不再覆盖这些修改
+        synchronized(pendingMutations) { inFlightBatches.remove(batch) }
+        throw e
+    }
+
+    /**
+     * field 读取到新的值时，移除其已包含的写入中的修改
+     *
+     * 读取到某次写入的结果时，该次及之前执行的写入都已完成；
+     * 读取到的值不是任何写入中的修改的写入基础值或结果时，其是已完成的写入之后（如外部写入）的值，
+     * 已完成的写入的结果可能因数据流只保留最新值而未被读取到
+     */
+    private fun onDataObserved(data: T) {
+        synchronized(pendingMutations) {
+            val sequence = inFlightBatches.lastOrNull { it.result === data }?.sequence ?: 0
+            if (sequence > 0) {
+                inFlightBatches.removeAll { it.sequence in 1..sequence }
+            }
+            if (inFlightBatches.none { it.base === data || it.result === data }) {
+                inFlightBatches.removeAll { it.committed }
+            }
+        }
+    }
+
+    /**
+     * 将多个修改应用到 [data]，连续的 [ProtobufMessageField] 修改共用一个 [Message.Builder]
+     */
+    @Suppress("UNCHECKED_CAST")
+    private fun applyMutations(data: T, mutations: List<Mutation<T, *>>): T {
+        if (DependencyChecker.protobuf?.hasFullDependency != true || data !is Message) {
+            return mutations.fold(data) { it, mutation -> mutation.applyTo(it) }
+        }
+        var result: T = data
+        var builder: Message.Builder? = null
+        mutations.forEach { mutation ->
+            // 通过 PreferenceDataStore 写入时的字段可能被包装为 ReadCacheField
+            val field = mutation.field.let {
+                (it as? FieldAccessor.Impl.ReadCacheField<*, *>)?.localField ?: it
+            }
+            if (field is ProtobufMessageField<*, *>) {
+                val b = builder ?: (result as Message).toBuilder().also { builder = it }
+                (field as ProtobufMessageField<Message, Any?>).setTo(b, mutation.value)
+            } else {
+                builder?.let { result = it.build() as T }
+                builder = null
+                result = mutation.applyTo(result)
+            }
+        }
+        return builder?.build() as T? ?: result
+    }
+
+    /**
+     * 一次 [DataStore.updateData] 写入的修改
+     */
+    private class Batch<T>(
+        val mutations: List<Mutation<T, *>>,
+    ) {
+        // 写入基础值、写入结果与写入顺序，用于判断 field 是否已读取到该次写入，未执行写入时顺序为0
+        @Volatile
+        var base: T? = null
+
+        @Volatile
+        var result: T? = null
+
+        @Volatile
+        var sequence = 0L
+
+        // updateData 已返回
+        @Volatile
+        var committed = false
+    }
+
+    internal class Mutation<T, V>(
+        val field: FieldAccessor.Field<T, V>,
+        val value: V,
+    ) {
+        fun applyTo(data: T): T = field.set(data, value)
+    }
+
+    /**
+     * 字段修改事务，记录修改的字段与值，提交时在一次写入中按顺序应用
+     */
+    class Transaction<T> internal constructor() {
+        internal val mutations = ArrayList<Mutation<T, *>>()
+
+        operator fun <V> set(field: FieldAccessor.Field<T, V>, value: V) {
+            mutations.add(Mutation(field, value))
         }
-        return getValue(data)
     }
 }
@@ -36,22 +36,29 @@ abstract class BaseFieldAccessorCache<T : Any>(
     /**
      * 将 preference screen 数据 [value] 设置给 [data] 中，扩展支持了[PreferenceType]的枚举
      */
-    @Suppress("UNCHECKED_CAST")
     protected fun <V> FieldAccessor.Field<T, V>.setValue(
         data: T, value: V
-    ): T = when (val vType = vType) {
+    ): T = set(data, toFieldValue(value))
+
+    /**
+     * 将 preference screen 数据 [value] 转换为字段类型的值，扩展支持了[PreferenceType]的枚举
+     */
+    @Suppress("UNCHECKED_CAST")
+    protected fun <V> FieldAccessor.Field<T, V>.toFieldValue(
+        value: V
+    ): V = when (val vType = vType) {
         is PreferenceType.EnumNameString<*> -> {
             // 将preference的字符串转换为Enum设置给field
-            set(data, vType.forName(value as String) as V)
+            vType.forName(value as String) as V
         }
         is PreferenceType.BaseEnumNameStringCollection<*, *> -> {
             // 将preference的字符串集合转换为Enum集合设置给field
             // forName时使用field的字段类型
-            set(data, vType.forNames(value as Collection<String>, true) as V)
+            vType.forNames(value as Collection<String>, true) as V
         }
         is PreferenceType.Native<*> -> {
             // preference原生支持的类型，直接设置
-            set(data, value)
+            value
         }
         is PreferenceType.Struct<*> -> throwUnsupportedType(this)
     }
@@ -20,6 +20,13 @@ interface FieldAccessor<T> {
      */
     val properties: Map<String, Field<T, *>>
 
+    /**
+     * [properties] 的修改次数，用于判断根据 [properties] 建立的索引是否过期。
+     * 默认以字段数量代替，只适用于字段只会被注册而不会被替换的实现
+     */
+    val modCount: Int
+        get() = properties.size
+
     /**
      * 判断一个字段是否已经注册
      */
@@ -107,7 +114,41 @@ interface FieldAccessor<T> {
         private val readCache: Boolean
     ) : FieldAccessor<T> {
         //<editor-fold desc="快速访问字段扩展" defaultstatus="collapsed">
-        override val properties: MutableMap<String, Field<T, *>> = ArrayMap()
+        override val properties: MutableMap<String, Field<T, *>> = ModCountMap(ArrayMap())
+
+        /**
+         * [properties] 的修改次数，注册、替换或移除字段时递增
+         */
+        @Volatile
+        final override var modCount: Int = 0
+            private set
+
+        /**
+         * 记录修改次数的字段表，通过其 keys、values、entries 视图的修改不会被记录
+         */
+        private inner class ModCountMap(
+            private val map: MutableMap<String, Field<T, *>>
+        ) : MutableMap<String, Field<T, *>> by map {
+            override fun put(key: String, value: Field<T, *>): Field<T, *>? =
+                map.put(key, value).also { modCount++ }
+
+            override fun putAll(from: Map<out String, Field<T, *>>) {
+                map.putAll(from)
+                modCount++
+            }
+
+            override fun remove(key: String): Field<T, *>? =
+                map.remove(key).also { modCount++ }
+
+            override fun clear() {
+                map.clear()
+                modCount++
+            }
+
+            override fun equals(other: Any?): Boolean = map == other
+            override fun hashCode(): Int = map.hashCode()
+            override fun toString(): String = map.toString()
+        }
 
         /**
          * 判断一个字段是否已经注册
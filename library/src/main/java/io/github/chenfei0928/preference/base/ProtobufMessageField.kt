@@ -76,19 +76,28 @@ class ProtobufMessageField<T : Message, V>(
     @Suppress("UNCHECKED_CAST")
     override fun set(
         data: T, value: V
-    ): T = if (fieldDescriptor.type != Descriptors.FieldDescriptor.Type.ENUM) {
-        // 不是枚举enum，直接设置原生类型的装箱或protobuf结构体
-        data.toBuilder().setField(fieldDescriptor, value).build() as T
-    } else if (fieldDescriptor.isRepeated) {
-        // repeat enum，设置 List<EnumValueDescriptor>
-        value as Collection<ProtocolMessageEnum>
-        data.toBuilder()
-            .setField(fieldDescriptor, value.map { it.valueDescriptor })
-            .build() as T
-    } else {
-        // 非重复的枚举，设置 EnumValueDescriptor
-        value as ProtocolMessageEnum
-        data.toBuilder().setField(fieldDescriptor, value.valueDescriptor).build() as T
+    ): T = data.toBuilder().also { setTo(it, value) }.build() as T
+
+    /**
+     * 将 [value] 设置给 [builder]，用于多个字段的修改共用同一个 [Message.Builder]，
+     * 避免每个字段都进行一次 [Message.toBuilder]、[Message.Builder.build]
+     */
+    @Suppress("UNCHECKED_CAST")
+    fun setTo(
+        builder: Message.Builder, value: V
+    ) {
+        if (fieldDescriptor.type != Descriptors.FieldDescriptor.Type.ENUM) {
+            // 不是枚举enum，直接设置原生类型的装箱或protobuf结构体
+            builder.setField(fieldDescriptor, value)
+        } else if (fieldDescriptor.isRepeated) {
+            // repeat enum，设置 List<EnumValueDescriptor>
+            value as Collection<ProtocolMessageEnum>
+            builder.setField(fieldDescriptor, value.map { it.valueDescriptor })
+        } else {
+            // 非重复的枚举，设置 EnumValueDescriptor
+            value as ProtocolMessageEnum
+            builder.setField(fieldDescriptor, value.valueDescriptor)
+        }
     }
 
     override fun toString(): String {
@@ -51,9 +51,57 @@ constructor(
     @Suppress("UNCHECKED_CAST")
     internal fun <V> findFieldOrNullByProperty(
         property: KProperty<V>
-    ): Field<SpSaver, V>? = spSaverPropertyDelegateFields.find {
-        it.property.name == property.name
-    } as? Field<SpSaver, V>
+    ): Field<SpSaver, V>? = fieldIndex.byPropertyName[property.name] as? Field<SpSaver, V>
+
+    /**
+     * 根据本地存储key查找使用该key存储的字段，用于sp变更回调、移除字段时查找受影响的字段
+     */
+    internal fun findFieldsByLocalStorageKey(localStorageKey: String): List<Field<SpSaver, *>> =
+        fieldIndex.byLocalStorageKey[localStorageKey].orEmpty()
+
+    // 字段是在saver的字段委托初始化时逐个注册的，字段注册（包括替换同名字段）后重建索引
+    @Volatile
+    private var fieldIndexCache: FieldIndex<SpSaver>? = null
+    private val fieldIndex: FieldIndex<SpSaver>
+        get() {
+            // 先读取修改次数再建立索引，建立期间注册的字段会使此次索引在下次访问时重建
+            val modCount = modCount
+            val index = fieldIndexCache
+            return if (index != null && index.modCount == modCount) {
+                index
+            } else {
+                FieldIndex(properties.values, modCount).also { fieldIndexCache = it }
+            }
+        }
+
+    /**
+     * 以本地存储key、字段名为key的字段索引，避免每次查找都遍历所有字段
+     *
+     * @param modCount 创建时字段的修改次数 [FieldAccessor.modCount]，用于判断索引是否过期
+     */
+    private class FieldIndex<SpSaver : AbsSpSaver<SpSaver, *, *>>(
+        properties: Collection<FieldAccessor.Field<SpSaver, *>>,
+        val modCount: Int,
+    ) {
+        val byPropertyName = HashMap<String, Field<SpSaver, *>>()
+        val byLocalStorageKey = HashMap<String, MutableList<Field<SpSaver, *>>>()
+        val pdsKeysByLocalStorageKey = HashMap<String, MutableList<String>>()
+
+        init {
+            properties.forEach {
+                val localStorageKey = FieldAccessor.FieldWrapper
+                    .findByType<FieldAccessor.SpLocalStorageKey, SpSaver, Any>(it)
+                    ?.localStorageKey
+                    ?: return@forEach
+                pdsKeysByLocalStorageKey.getOrPut(localStorageKey) { ArrayList(1) }.add(it.pdsKey)
+                val field = FieldAccessor.FieldWrapper
+                    .findByType<Field<SpSaver, Any>, SpSaver, Any>(it)
+                    ?: return@forEach
+                byPropertyName.putIfAbsent(field.property.name, field)
+                byLocalStorageKey.getOrPut(localStorageKey) { ArrayList(1) }.add(field)
+            }
+        }
+    }
 
     private val delegateByReflect = mutableMapOf<String, AbsSpSaver.Delegate<SpSaver, *>>()
 
@@ -124,18 +172,9 @@ constructor(
      * 通知一个字段被变更；并返回受影响的 [Field.pdsKey] 的集合，
      * 即 [androidx.preference.Preference.getKey] 的集合
      */
-    internal fun onPropertyChange(localStorageKey: String): Collection<String> {
-        return properties.mapNotNull {
-            val spSaverField = FieldAccessor.FieldWrapper
-                .findByType<FieldAccessor.SpLocalStorageKey, SpSaver, Any>(it.value)
-            if (spSaverField?.localStorageKey == localStorageKey) {
-                // 此处无需更新 FieldAccessor.Impl.ReadCacheField ，sp的fieldAccessor不开启readCache
-                it.key
-            } else {
-                null
-            }
-        }
-    }
+    internal fun onPropertyChange(localStorageKey: String): Collection<String> =
+        // 此处无需更新 FieldAccessor.Impl.ReadCacheField ，sp的fieldAccessor不开启readCache
+        fieldIndex.pdsKeysByLocalStorageKey[localStorageKey].orEmpty()
 
     override fun <V> FieldAccessor.Field<SpSaver, V>.setToStorage(value: V) {
         setValue(saver, value)
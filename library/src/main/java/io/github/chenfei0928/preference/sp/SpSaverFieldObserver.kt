@@ -3,6 +3,7 @@ package io.github.chenfei0928.preference.sp
 import android.content.SharedPreferences
 import androidx.lifecycle.LiveData
 import androidx.lifecycle.MutableLiveData
+import io.github.chenfei0928.concurrent.ExecutorUtil
 import io.github.chenfei0928.content.sp.LifecycleBindOnSharedPreferenceChangeListener
 import io.github.chenfei0928.content.sp.saver.AbsSpSaver
 import io.github.chenfei0928.content.sp.saver.convert.SpValueObservable
@@ -31,7 +32,7 @@ class SpSaverFieldObserver<SpSaver : AbsSpSaver<SpSaver, *, *>>(
             ?: return
         privateAnyPropertySetCallback.addSource(observable) { newValue ->
             val callbackValue = field to newValue
-            privateAnyPropertySetCallback.forEach { it(callbackValue) }
+            privateAnyPropertySetCallback.forEachActive { it(callbackValue) }
         }
     }
 
@@ -104,7 +105,7 @@ class SpSaverFieldObserver<SpSaver : AbsSpSaver<SpSaver, *, *>>(
 
         override fun onChangedOrClear(sharedPreferences: SharedPreferences, key: String?) {
             val newValue: V = delegate.getValue(observer.saver, property)
-            forEach { it(newValue) }
+            forEachActive { it(newValue) }
         }
 
         override fun onActive() {
@@ -131,37 +132,61 @@ class SpSaverFieldObserver<SpSaver : AbsSpSaver<SpSaver, *, *>>(
         SpChangeLiveListeners(this)
 
     //<editor-fold desc="对SharedPreference的监听，以获取所有字段的变化状态并回调字段更新" defaultstatus="collapsed">
+    /**
+     * sp的变更回调总是在主线程中，且一次 [SharedPreferences.Editor.apply] 修改的多个key会在同一个消息中逐个回调。
+     * 此处将变更的key先合并记录下来，再通过一次主线程消息统一分发，
+     * 使批量修改时每个字段只读取一次新值、每个观察者只需要遍历一次。
+     */
     private class SpChangeLiveListeners<SpSaver : AbsSpSaver<SpSaver, *, *>>(
         private val observer: SpSaverFieldObserver<SpSaver>,
     ) : LiveListeners<(Pair<SpSaverFieldAccessor.Field<SpSaver, *>, *>) -> Unit>(),
-        SharedPreferences.OnSharedPreferenceChangeListener {
+        SharedPreferences.OnSharedPreferenceChangeListener, Runnable {
+        // 等待分发的key，只在主线程中访问
+        private val pendingKeys = LinkedHashSet<String>()
+        private var pendingClear = false
+        private var dispatchScheduled = false
 
         override fun onSharedPreferenceChanged(
             sharedPreferences: SharedPreferences?, key: String?
         ) {
-            val fields: List<SpSaverFieldAccessor.Field<SpSaver, *>> = if (key == null) {
+            if (key == null) {
                 // Android R以上时 clear sp，会回调null，R以下时clear时不会回调
+                pendingClear = true
+            } else {
+                pendingKeys.add(key)
+            }
+            if (!dispatchScheduled) {
+                dispatchScheduled = true
+                ExecutorUtil.postToUiThread(this)
+            }
+        }
+
+        override fun run() {
+            dispatchScheduled = false
+            val fields: Collection<SpSaverFieldAccessor.Field<SpSaver, *>> = if (pendingClear) {
                 observer.spSaverPropertyDelegateFields
             } else {
-                // 根据key获取其对应的AbsSpSaver字段
-                val fields: List<SpSaverFieldAccessor.Field<SpSaver, *>> =
-                    observer.spSaverPropertyDelegateFields
-                        .filter { it.localStorageKey == key }
-                // 没有找到对应的字段，则忽略此次回调
-                fields.ifEmpty {
-                    Log.d(TAG, buildString {
-                        append("registerOnSharedPreferenceChangeListener: ")
-                        append("cannot found property of the key($key) in class ")
-                        append(observer.saver.javaClass.simpleName)
-                    })
-                    return@onSharedPreferenceChanged
+                // 根据key获取其对应的AbsSpSaver字段，同一个字段只回调一次
+                pendingKeys.flatMapTo(LinkedHashSet()) { key ->
+                    // 没有找到对应的字段，则忽略该key
+                    observer.findFieldsByLocalStorageKey(key).ifEmpty {
+                        Log.d(TAG, buildString {
+                            append("registerOnSharedPreferenceChangeListener: ")
+                            append("cannot found property of the key($key) in class ")
+                            append(observer.saver.javaClass.simpleName)
+                        })
+                        emptyList()
+                    }
                 }
             }
-            // 找得到属性，回调通知该字段被更改
-            fields.forEach { field ->
-                val callbackValue = field to field.get(observer.saver)
-                forEach { it(callbackValue) }
+            pendingKeys.clear()
+            pendingClear = false
+            if (fields.isEmpty() || !hasActiveObserver()) {
+                return
             }
+            // 找得到属性，回调通知该字段被更改
+            val callbackValues = fields.map { field -> field to field.get(observer.saver) }
+            forEachActive { callback -> callbackValues.forEach(callback) }
         }
 
         override fun onActive() {
@@ -0,0 +1,21 @@
+package io.github.chenfei0928.reflect
+
+/**
+ * 标记该监听器接口需要在编译时生成多监听器分发实现
+ *
+ * 需要在使用处依赖`:processor`的ksp处理器，处理器会为被标记的接口生成一个名为`<接口名>_ListenersFanOut`的类，
+ * 其实现了该接口与[MutableCollection]，每个接口方法都直接遍历调用集合中的监听器，
+ * [ListenersProxy.newListenersProxy]会优先使用生成的实现，不再需要动态代理与反射调用。
+ *
+ * 只支持非泛型的接口，且接口方法不能有类型参数；有返回值的方法返回最后一个监听器的返回值。
+ *
+ * @author chenf()
+ * @date 2026-10-19 01:10
+ */
+@Retention(AnnotationRetention.BINARY)
+@Target(AnnotationTarget.CLASS)
+annotation class ListenersFanOut {
+    companion object {
+        const val SUFFIX = "_ListenersFanOut"
+    }
+}
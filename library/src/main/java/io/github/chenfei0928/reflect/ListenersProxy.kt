@@ -1,64 +1,239 @@
 package io.github.chenfei0928.reflect
 
+import java.lang.invoke.MethodHandle
 import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
+import java.lang.reflect.Constructor
+import java.lang.reflect.InvocationHandler
+import java.lang.reflect.InvocationTargetException
+import java.lang.reflect.Method
 import java.lang.reflect.Proxy
+import java.util.concurrent.ConcurrentHashMap
 
 /**
  * 创建内部使用集合来保存监听器的监听器代理
  * 传入一个集合来保存监听器实现，将返回该监听器的一个代理实例
  *
+ * 每个接口方法的分发方式只在首次调用时解析并缓存，分发时不再进行反射查找；
+ * 需要完全避免反射时，为监听器接口标记 [ListenersFanOut] 并使用ksp生成分发实现。
+ *
+ * 无论使用 [MethodHandle]、反射还是生成的分发实现，监听器抛出的异常都会原样抛给调用者，
+ * 不会被包装为 [InvocationTargetException]。
+ *
  * @author ChenFei(chenfei0928@gmail.com)
  * @date 2020-09-21 14:11
  */
 object ListenersProxy {
+    private val dispatches = ConcurrentHashMap<Method, Dispatch>()
+    private val generatedFanOuts = ConcurrentHashMap<Class<*>, Any>()
+    private val noGeneratedFanOut = Any()
+    private val emptyArgs = arrayOfNulls<Any?>(0)
 
     inline fun <reified T : Any> newListenersProxy(
-        listenerImpls: MutableCollection<T> = arrayListOf()
+        listenerImpls: MutableCollection<T> = ListenersSnapshotCollection()
     ) = newListenersProxy(T::class.java, listenerImpls)
 
+    /**
+     * 创建多监听器分发代理
+     *
+     * 如果 [clazz] 标记了 [ListenersFanOut] 并生成了分发实现且 [mergePolicy] 为 [MergePolicy.LAST]，将使用生成的实现；
+     * 否则使用动态代理，每个方法的分发方式（包括默认方法的 [MethodHandle]）在首次调用后缓存。
+     * [listenerImpls] 为 [ListenersSnapshotCollection] 时分发遍历其快照，不需要创建迭代器。
+     *
+     * @param mergePolicy 有返回值的方法合并多个监听器返回值的方式
+     */
     @Suppress("kotlin:S6530", "UNCHECKED_CAST")
     fun <T : Any> newListenersProxy(
-        clazz: Class<T>, listenerImpls: MutableCollection<T> = arrayListOf()
-    ): T = Proxy.newProxyInstance(
-        clazz.classLoader, arrayOf(clazz, MutableCollection::class.java)
-    ) { proxy, method, args ->
-        // If the method is a method from Object then defer to normal invocation.
-        return@newProxyInstance when {
-            method.declaringClass == Any::class.java -> {
-                method.safeInvoke(this, args)
+        clazz: Class<T>,
+        listenerImpls: MutableCollection<T> = ListenersSnapshotCollection(),
+        mergePolicy: MergePolicy = MergePolicy.LAST,
+    ): T {
+        if (mergePolicy == MergePolicy.LAST) {
+            val fanOut = generatedFanOuts.getOrPut(clazz) { loadGeneratedFanOut(clazz) }
+            if (fanOut is Constructor<*>) {
+                return fanOut.newInstance(listenerImpls) as T
             }
-            android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O && method.isDefault -> {
-                // Because the service interface might not be public, we need to use a MethodHandle lookup
-                // that ignores the visibility of the declaringClass.
-                val constructor = MethodHandles.Lookup::class.java.getDeclaredConstructor(
-                    Class::class.java, Int::class.javaPrimitiveType
-                )
-                constructor.isAccessible = true
-                val methodHandle = constructor
-                    .newInstance(method.declaringClass, -1 /* trusted */)
-                    .unreflectSpecial(method, method.declaringClass)
-                    .bindTo(proxy)
-                if (args == null) {
-                    methodHandle.invokeWithArguments()
+        }
+        return Proxy.newProxyInstance(
+            clazz.classLoader, arrayOf(clazz, MutableCollection::class.java),
+            ListenersInvocationHandler(clazz, listenerImpls as MutableCollection<Any>, mergePolicy)
+        ) as T
+    }
+
+    private fun loadGeneratedFanOut(clazz: Class<*>): Any = try {
+        Class.forName(
+            clazz.name.replace('$', '_') + ListenersFanOut.SUFFIX, true, clazz.classLoader
+        ).getConstructor(MutableCollection::class.java)
+    } catch (_: ClassNotFoundException) {
+        noGeneratedFanOut
+    } catch (_: NoSuchMethodException) {
+        noGeneratedFanOut
+    }
+
+    /**
+     * 遍历监听器集合，用于生成的分发实现中，[listeners] 为 [ListenersSnapshotCollection] 时不会产生对象分配
+     */
+    inline fun <T> forEachListener(listeners: Collection<T>, action: (T) -> Unit) {
+        if (listeners is ListenersSnapshotCollection<T>) {
+            listeners.forEachSnapshot(action)
+        } else {
+            listeners.forEach(action)
+        }
+    }
+
+    /**
+     * 有返回值的方法合并多个监听器返回值的方式
+     */
+    enum class MergePolicy {
+        /**
+         * 返回最后一个监听器的返回值
+         */
+        LAST,
+
+        /**
+         * 返回值为 boolean 时，任意一个监听器返回 true 则返回 true（如事件是否被消费），其它类型同 [LAST]
+         */
+        ANY_TRUE,
+
+        /**
+         * 返回第一个不为 null 的返回值，所有监听器仍都会被调用
+         */
+        FIRST_NON_NULL,
+    }
+
+    //<editor-fold desc="动态代理分发" defaultstatus="collapsed">
+    private class ListenersInvocationHandler(
+        private val clazz: Class<*>,
+        private val listenerImpls: MutableCollection<Any>,
+        private val mergePolicy: MergePolicy,
+    ) : InvocationHandler {
+        // 绑定到当前代理对象的默认方法
+        private val boundDefaultMethods = ConcurrentHashMap<Method, MethodHandle>()
+
+        override fun invoke(proxy: Any, method: Method, args: Array<Any?>?): Any? =
+            when (val dispatch = dispatches[method] ?: dispatches.getOrPut(method) { Dispatch.of(method) }) {
+                Dispatch.ObjectMethod -> when (method.name) {
+                    "equals" -> proxy === args?.get(0)
+                    "hashCode" -> System.identityHashCode(proxy)
+                    "toString" -> "ListenersProxy(${clazz.name})$listenerImpls"
+                    else -> method.safeInvoke(this, args)
+                }
+                is Dispatch.DefaultMethod -> {
+                    val methodHandle = boundDefaultMethods[method]
+                        ?: dispatch.methodHandle.bindTo(proxy).also { boundDefaultMethods[method] = it }
+                    if (args == null) {
+                        methodHandle.invokeWithArguments()
+                    } else {
+                        methodHandle.invokeWithArguments(args.asList())
+                    }
+                }
+                Dispatch.CollectionMethod -> {
+                    // 如果该方法是集合接口定义的方法，对监听器集合进行操作
+                    method.invokeUnwrapped(listenerImpls, args)
+                }
+                is Dispatch.FanOut -> {
+                    // 否则执行监听器
+                    val args = args ?: emptyArgs
+                    var rst: Any? = null
+                    forEachListener(listenerImpls) {
+                        rst = merge(dispatch, rst, dispatch.invoke(it, args))
+                    }
+                    rst
+                }
+            }
+
+        private fun merge(dispatch: Dispatch.FanOut, last: Any?, current: Any?): Any? =
+            when (mergePolicy) {
+                MergePolicy.LAST -> current
+                MergePolicy.ANY_TRUE -> if (dispatch.returnBoolean) {
+                    last == true || current == true
+                } else {
+                    current
+                }
+                MergePolicy.FIRST_NON_NULL -> last ?: current
+            }
+    }
+
+    /**
+     * 一个接口方法的分发方式，按 [Method] 缓存
+     */
+    private sealed class Dispatch {
+        object ObjectMethod : Dispatch()
+        object CollectionMethod : Dispatch()
+
+        class DefaultMethod(
+            val methodHandle: MethodHandle,
+        ) : Dispatch()
+
+        class FanOut(
+            private val method: Method,
+        ) : Dispatch() {
+            val returnBoolean: Boolean = method.returnType == java.lang.Boolean.TYPE
+                    || method.returnType == java.lang.Boolean::class.java
+
+            // (Object, Object[])Object，避免每次调用 Method.invoke 时展开参数数组
+            private val spreader: MethodHandle? =
+                if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O) {
+                    trustedLookup(method.declaringClass)
+                        .unreflect(method)
+                        .asType(MethodType.genericMethodType(method.parameterCount + 1))
+                        .asSpreader(Array<Any?>::class.java, method.parameterCount)
                 } else {
-                    @Suppress("SpreadOperator")
-                    methodHandle.invokeWithArguments(*args)
+                    null
                 }
+
+            fun invoke(target: Any, args: Array<Any?>): Any? = if (spreader != null) {
+                spreader.invokeExact(target, args) as Any?
+            } else {
+                method.invokeUnwrapped(target, args)
             }
-            method.declaringClass == MutableCollection::class.java -> {
-                // 如果该方法是集合接口定义的方法，对监听器集合进行操作
-                method.safeInvoke(listenerImpls, args)
+        }
+
+        companion object {
+            fun of(method: Method): Dispatch = when {
+                method.declaringClass == Any::class.java -> ObjectMethod
+                android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O && method.isDefault ->
+                    DefaultMethod(
+                        trustedLookup(method.declaringClass)
+                            .unreflectSpecial(method, method.declaringClass)
+                    )
+                method.declaringClass == MutableCollection::class.java
+                        || method.declaringClass.isAssignableFrom(MutableCollection::class.java) ->
+                    CollectionMethod
+                else -> FanOut(method)
             }
-            else -> {
-                // 否则执行监听器
-                var rst: Any? = null
-                listenerImpls.forEach {
-                    rst = method.safeInvoke(it, args)
+
+            // Because the service interface might not be public, we need to use a MethodHandle lookup
+            // that ignores the visibility of the declaringClass.
+            private fun trustedLookup(clazz: Class<*>): MethodHandles.Lookup = try {
+                val constructor = MethodHandles.Lookup::class.java.getDeclaredConstructor(
+                    Class::class.java, Int::class.javaPrimitiveType
+                )
+                constructor.isAccessible = true
+                constructor.newInstance(clazz, -1 /* trusted */)
+            } catch (e: NoSuchMethodException) {
+                // JDK 14 起没有该构造器（如在 Robolectric 中运行），使用 Java 9 的 privateLookupIn
+                val privateLookupIn = try {
+                    MethodHandles::class.java.getMethod(
+                        "privateLookupIn", Class::class.java, MethodHandles.Lookup::class.java
+                    )
+                } catch (_: NoSuchMethodException) {
+                    throw e
                 }
-                rst
+                privateLookupIn.invoke(null, clazz, MethodHandles.lookup()) as MethodHandles.Lookup
             }
         }
-    } as T
+    }
+
+    /**
+     * 反射调用并抛出目标方法原本的异常，与 [MethodHandle] 及生成的分发实现的异常行为一致
+     */
+    private fun Method.invokeUnwrapped(target: Any, args: Array<Any?>?): Any? = try {
+        safeInvoke(target, args)
+    } catch (e: InvocationTargetException) {
+        throw e.targetException ?: e
+    }
+    //</editor-fold>
 
     @Suppress("UNCHECKED_CAST", "kotlin:S6530")
     fun <T : Any> newEmptyListener(
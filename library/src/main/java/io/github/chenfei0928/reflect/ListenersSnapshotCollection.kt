@@ -0,0 +1,77 @@
+package io.github.chenfei0928.reflect
+
+/**
+ * 保存监听器的集合，每次修改后发布一个不可变的快照数组
+ *
+ * 分发时遍历快照数组，不需要创建迭代器，且分发过程中监听器移除自身不会抛出[ConcurrentModificationException]。
+ * 修改操作需要加锁，适用于修改远少于分发的监听器集合。
+ *
+ * @author chenf()
+ * @date 2026-10-19 01:10
+ */
+class ListenersSnapshotCollection<T> : AbstractMutableCollection<T>() {
+    private val list = ArrayList<T>()
+
+    @PublishedApi
+    @Volatile
+    internal var snapshot: Array<Any?> = EMPTY
+        private set
+
+    override val size: Int
+        get() = snapshot.size
+
+    override fun contains(element: T): Boolean = snapshot.contains(element)
+
+    override fun add(element: T): Boolean = synchronized(list) {
+        list.add(element).also { publish() }
+    }
+
+    override fun remove(element: T): Boolean = synchronized(list) {
+        list.remove(element).also { if (it) publish() }
+    }
+
+    override fun clear() = synchronized(list) {
+        list.clear()
+        publish()
+    }
+
+    override fun iterator(): MutableIterator<T> = object : MutableIterator<T> {
+        private val snapshot = this@ListenersSnapshotCollection.snapshot
+        private var index = 0
+
+        override fun hasNext(): Boolean = index < snapshot.size
+
+        @Suppress("UNCHECKED_CAST")
+        override fun next(): T {
+            if (index >= snapshot.size) {
+                throw NoSuchElementException()
+            }
+            return snapshot[index++] as T
+        }
+
+        @Suppress("UNCHECKED_CAST")
+        override fun remove() {
+            check(index > 0)
+            this@ListenersSnapshotCollection.remove(snapshot[index - 1] as T)
+        }
+    }
+
+    /**
+     * 遍历调用时的快照，不会产生对象分配
+     */
+    inline fun forEachSnapshot(action: (T) -> Unit) {
+        val snapshot = snapshot
+        for (i in snapshot.indices) {
+            @Suppress("UNCHECKED_CAST")
+            action(snapshot[i] as T)
+        }
+    }
+
+    private fun publish() {
+        snapshot = if (list.isEmpty()) EMPTY else list.toArray()
+    }
+
+    companion object {
+        private val EMPTY = arrayOfNulls<Any?>(0)
+    }
+}
@@ -0,0 +1,198 @@
+package io.github.chenfei0928.repository.local
+
+import androidx.annotation.IntRange
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.LifecycleEventObserver
+import androidx.lifecycle.LifecycleOwner
+import io.github.chenfei0928.concurrent.BgTaskExecutor
+import io.github.chenfei0928.concurrent.ExecutorUtil
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+
+/**
+ * 本地存储异步写入的合并写入器
+ *
+ * 异步写入的值不会立即写入磁盘，而是在[Config.debounceMillis]内没有新的写入，
+ * 或距第一个未写入的值提交超过[Config.maxLatencyMillis]时，才在后台串行通道中只写入最新的值，
+ * 由此将短时间内的多次写入（每次都需要序列化、fsync及重命名）合并为一次。
+ * 延迟计时在进程内共享的后台计时线程中进行，不受主线程繁忙的影响，计时到期后写入提交到[executor]的串行通道中执行。
+ *
+ * @param laneKey 由待写入的值获取后台写入所使用的串行通道键，即写入的目标文件，见[BgTaskExecutor.postToBgLane]
+ * @param executor 执行后台写入的执行器
+ * @param writer 实际执行写入的方法，同一时刻只会有一个线程调用
+ * @author chenf()
+ * @date 2026-10-18 16:02
+ */
+class CoalescingWriter<V>(
+    private val laneKey: (V) -> Any,
+    private val config: Config,
+    private val executor: BgTaskExecutor = ExecutorUtil,
+    private val writer: (V) -> Unit,
+) {
+    // 保护待写入值的状态，不会在持有该锁时进行磁盘写入
+    private val lock = Any()
+
+    // 保证待写入值的取出与写入的原子性，避免较旧的值在较新的值之后写入
+    private val writeLock = Any()
+    private var pending: V? = null
+    private var hasPending = false
+    private var firstPendingUptime = 0L
+    private var scheduledFlush: ScheduledFuture<*>? = null
+
+    /**
+     * 提交的异步写入次数
+     */
+    @Volatile
+    var submittedCount: Long = 0
+        private set
+
+    /**
+     * 异步写入实际写入磁盘的次数
+     */
+    @Volatile
+    var writtenCount: Long = 0
+        private set
+
+    /**
+     * 被之后的写入替换而未写入磁盘的值的数量
+     */
+    @Volatile
+    var coalescedCount: Long = 0
+        private set
+
+    /**
+     * 由于合并写入而节省的fsync次数
+     *
+     * 每个提交的值最终只会被写入或被替换，被替换的值即节省的一次写入；
+     * [writtenCount]在[writeLock]中递增，与[submittedCount]相减会读到正在写入的中间状态，因此不由其计算
+     */
+    val fsyncSavedCount: Long
+        get() = coalescedCount
+
+    private val writeTask = Runnable { flushPending() }
+    private val flushTask = Runnable {
+        @Suppress("UNCHECKED_CAST")
+        val laneKey = synchronized(lock) {
+            scheduledFlush = null
+            if (!hasPending) {
+                return@Runnable
+            }
+            laneKey(pending as V)
+        }
+        executor.postToBgLane(laneKey, true, writeTask)
+    }
+
+    /**
+     * 提交一个异步写入的值，替换尚未写入的值
+     */
+    fun submit(value: V) {
+        synchronized(lock) {
+            val now = uptimeMillis()
+            if (hasPending) {
+                coalescedCount++
+            } else {
+                firstPendingUptime = now
+            }
+            pending = value
+            hasPending = true
+            submittedCount++
+            val delay = minOf(
+                config.debounceMillis, firstPendingUptime + config.maxLatencyMillis - now
+            ).coerceAtLeast(0)
+            scheduledFlush?.cancel(false)
+            scheduledFlush = timer.schedule(flushTask, delay, TimeUnit.MILLISECONDS)
+        }
+    }
+
+    /**
+     * 在当前线程同步写入[value]，并丢弃尚未写入的值
+     */
+    fun writeNow(value: V) {
+        cancelScheduledFlush()
+        synchronized(writeLock) {
+            synchronized(lock) {
+                if (hasPending) {
+                    coalescedCount++
+                    pending = null
+                    hasPending = false
+                }
+            }
+            writer(value)
+        }
+    }
+
+    /**
+     * 在当前线程同步写入尚未写入的值，没有尚未写入的值时直接返回
+     */
+    fun flushNow() {
+        cancelScheduledFlush()
+        flushPending()
+    }
+
+    /**
+     * 在[lifecycleOwner]进入后台（[Lifecycle.Event.ON_STOP]）时写入尚未写入的值，
+     * [Lifecycle.Event.ON_DESTROY]时移除监听
+     */
+    fun flushOnStop(lifecycleOwner: LifecycleOwner) {
+        lifecycleOwner.lifecycle.addObserver(object : LifecycleEventObserver {
+            override fun onStateChanged(source: LifecycleOwner, event: Lifecycle.Event) {
+                when (event) {
+                    Lifecycle.Event.ON_STOP -> flushNow()
+                    Lifecycle.Event.ON_DESTROY -> source.lifecycle.removeObserver(this)
+                    else -> {
+                        // noop
+                    }
+                }
+            }
+        })
+    }
+
+    private fun cancelScheduledFlush() {
+        synchronized(lock) {
+            scheduledFlush?.cancel(false)
+            scheduledFlush = null
+        }
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun flushPending() {
+        synchronized(writeLock) {
+            val value = synchronized(lock) {
+                if (!hasPending) {
+                    return
+                }
+                val value = pending as V
+                pending = null
+                hasPending = false
+                value
+            }
+            writer(value)
+            writtenCount++
+        }
+    }
+
+    /**
+     * @param debounceMillis 最后一次提交后等待该时长内没有新的提交才进行写入
+     * @param maxLatencyMillis 第一个未写入的值提交后最长等待时长，避免持续提交时一直不写入
+     */
+    data class Config(
+        @IntRange(from = 0) val debounceMillis: Long = 300,
+        @IntRange(from = 0) val maxLatencyMillis: Long = 2000,
+    )
+
+    companion object {
+        /**
+         * 所有合并写入器共享的计时线程，只负责在计时到期后将写入提交到后台串行通道
+         */
+        private val timer: ScheduledExecutorService by lazy {
+            Executors.newSingleThreadScheduledExecutor { r ->
+                Thread(r, "CoalescingWriterTimer").apply { isDaemon = true }
+            }
+        }
+
+        // 与计时线程使用同一时钟
+        private fun uptimeMillis(): Long = TimeUnit.NANOSECONDS.toMillis(System.nanoTime())
+    }
+}
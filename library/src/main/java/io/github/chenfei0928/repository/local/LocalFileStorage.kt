@@ -11,11 +11,17 @@ import java.io.FileDescriptor
 import java.io.FileOutputStream
 import java.util.concurrent.atomic.AtomicReference
 
+/**
+ * @param writeBehind 不为null且启用内存缓存时，异步写入将通过[CoalescingWriter]合并后只写入最新的值
+ * @param mmapReadThreshold 文件大小不小于该值时通过内存映射读取文件，默认不使用内存映射
+ */
 abstract class LocalFileStorage<T : Any>(
     private val serializer: LocalSerializer<T>,
     private val fileName: String,
     private val cacheDir: Boolean = false,
-    private val memoryCacheable: Boolean = true
+    private val memoryCacheable: Boolean = true,
+    writeBehind: CoalescingWriter.Config? = null,
+    private val mmapReadThreshold: Long = Long.MAX_VALUE,
 ) {
 
     private fun getFile(context: Context, fileName: String): File {
@@ -33,11 +39,9 @@ abstract class LocalFileStorage<T : Any>(
 
     //<editor-fold defaultstate="collapsed" desc="通过文件锁读写文件的实现">
     @Synchronized
-    private fun <T> runFileWithLock(context: Context, block: (File) -> T): T {
-        return getFile(context, this.fileName + LOCK_FILE_SUFFIX).let {
-            ShareFileLockHelper.getFileLock(it)
-        }.use {
-            getFile(context, this.fileName).let(block)
+    private fun <T> runFileWithLock(file: File, block: (File) -> T): T {
+        return ShareFileLockHelper.getFileLock(File(file.path + LOCK_FILE_SUFFIX)).use {
+            block(file)
         }
     }
 
@@ -45,13 +49,15 @@ abstract class LocalFileStorage<T : Any>(
      * 从本地文件反序列化
      */
     @Suppress("TooGenericExceptionCaught")
-    private fun loadFromLocalFile(context: Context): T = runFileWithLock(context) { file ->
+    private fun loadFromLocalFile(context: Context): T = runFileWithLock(
+        getFile(context, fileName)
+    ) { file ->
         // 文件不存在，直接返回空
         if (!file.exists()) {
             serializer.defaultValue
         } else try {
             file.inputStream()
-                .use { serializer.read(it) }
+                .use { serializer.readFile(it, mmapReadThreshold) }
         } catch (e: Exception) {
             Log.e(TAG, "loadFromLocalFile: $file, $serializer", e)
             file.delete()
@@ -63,8 +69,8 @@ abstract class LocalFileStorage<T : Any>(
      * 将数据序列化到本地文件
      */
     @Suppress("TooGenericExceptionCaught")
-    private fun saveToLocalFileOrDelete(context: Context, value: T?): Unit =
-        runFileWithLock(context) { file ->
+    private fun saveToLocalFileOrDelete(file: File, value: T?): Unit =
+        runFileWithLock(file) {
             if (value == null) {
                 file.delete()
                 return@runFileWithLock
@@ -104,20 +110,48 @@ abstract class LocalFileStorage<T : Any>(
         }
     }
 
+    /**
+     * 异步写入的合并写入器，可以获取合并写入的统计信息
+     *
+     * 待写入的值与其目标文件一起保存，不持有调用方的[Context]
+     */
+    val coalescingWriter: CoalescingWriter<Pair<File, T?>>? = if (writeBehind == null) {
+        null
+    } else CoalescingWriter({ it.first }, writeBehind) { (file, value) ->
+        saveToLocalFileOrDelete(file, value)
+    }
+
     protected fun write(context: Context, value: T?, writeNow: Boolean = true) {
         // 读取时会拷贝，此处可以不进行拷贝
         if (memoryCacheable) {
             cachedValue.set(value)
         }
+        val coalescingWriter = coalescingWriter
+        val file = getFile(context, fileName)
         if (memoryCacheable && !writeNow) {
-            // 以提交代替同步写入
-            ExecutorUtil.postToBg {
-                saveToLocalFileOrDelete(context, value)
+            if (coalescingWriter != null) {
+                // 合并短时间内的多次写入，只写入最新的值
+                coalescingWriter.submit(file to value)
+            } else {
+                // 以提交代替同步写入，同一文件的写入在同一通道中串行执行，且只保留最后一次写入
+                ExecutorUtil.postToBgLane(file, true) {
+                    saveToLocalFileOrDelete(file, value)
+                }
             }
+        } else if (coalescingWriter != null) {
+            // 同步写入，并丢弃尚未写入的旧值
+            coalescingWriter.writeNow(file to value)
         } else {
-            saveToLocalFileOrDelete(context, value)
+            saveToLocalFileOrDelete(file, value)
         }
     }
+
+    /**
+     * 立即在当前线程写入尚未写入磁盘的值，用于在生命周期stop时确保数据落盘
+     */
+    fun flushNow() {
+        coalescingWriter?.flushNow()
+    }
     //</editor-fold>
 
     /**
@@ -10,17 +10,25 @@ import io.github.chenfei0928.util.Log
 import java.io.File
 import java.util.concurrent.atomic.AtomicReference
 
+/**
+ * @param writeBehind 不为null且启用内存缓存时，异步写入将通过[CoalescingWriter]合并后只写入最新的值
+ * @param mmapReadThreshold 文件大小不小于该值时通过内存映射读取文件，默认不使用内存映射
+ */
 abstract class LocalFileStorage0<T : Any>(
     file: File,
     private val serializer: LocalSerializer<T>,
-    private val memoryCacheable: Boolean = true
+    private val memoryCacheable: Boolean = true,
+    writeBehind: CoalescingWriter.Config? = null,
+    private val mmapReadThreshold: Long = Long.MAX_VALUE,
 ) {
     constructor(
         context: Context,
         fileName: String,
         serializer: LocalSerializer<T>,
         cacheDir: Boolean = false,
-        memoryCacheable: Boolean = true
+        memoryCacheable: Boolean = true,
+        writeBehind: CoalescingWriter.Config? = null,
+        mmapReadThreshold: Long = Long.MAX_VALUE,
     ) : this(
         file = if (cacheDir) {
             File(File(context.cacheDir, "localFileStorage"), fileName)
@@ -28,7 +36,9 @@ abstract class LocalFileStorage0<T : Any>(
             File(File(context.filesDir, "localFileStorage"), fileName)
         },
         serializer = serializer,
-        memoryCacheable = memoryCacheable
+        memoryCacheable = memoryCacheable,
+        writeBehind = writeBehind,
+        mmapReadThreshold = mmapReadThreshold,
     )
 
     private val atomicFile: AtomicFile = AtomicFile(file)
@@ -45,7 +55,7 @@ abstract class LocalFileStorage0<T : Any>(
             serializer.defaultValue
         } else try {
             atomicFile.openRead()
-                .use { serializer.read(it) }
+                .use { serializer.readFile(it, mmapReadThreshold) }
         } catch (e: Exception) {
             Log.e(TAG, "loadFromLocalFile: ${atomicFile.baseFile}, $serializer", e)
             atomicFile.delete()
@@ -91,20 +101,45 @@ abstract class LocalFileStorage0<T : Any>(
         }
     }
 
+    /**
+     * 异步写入的合并写入器，可以获取合并写入的统计信息
+     */
+    val coalescingWriter: CoalescingWriter<T?>? = if (writeBehind == null) {
+        null
+    } else CoalescingWriter({ atomicFile.baseFile }, writeBehind) { value ->
+        saveToLocalFileOrDelete(value)
+    }
+
     protected fun write(value: T?, writeNow: Boolean = true) {
         // 读取时会拷贝，此处可以不进行拷贝
         if (memoryCacheable) {
             cachedValue.set(value)
         }
+        val coalescingWriter = coalescingWriter
         if (memoryCacheable && !writeNow) {
-            // 以提交代替同步写入
-            ExecutorUtil.postToBg {
-                saveToLocalFileOrDelete(value)
+            if (coalescingWriter != null) {
+                // 合并短时间内的多次写入，只写入最新的值
+                coalescingWriter.submit(value)
+            } else {
+                // 以提交代替同步写入，同一文件的写入在同一通道中串行执行，且只保留最后一次写入
+                ExecutorUtil.postToBgLane(atomicFile.baseFile, true) {
+                    saveToLocalFileOrDelete(value)
+                }
             }
+        } else if (coalescingWriter != null) {
+            // 同步写入，并丢弃尚未写入的旧值
+            coalescingWriter.writeNow(value)
         } else {
             saveToLocalFileOrDelete(value)
         }
     }
+
+    /**
+     * 立即在当前线程写入尚未写入磁盘的值，用于在生命周期stop时确保数据落盘
+     */
+    fun flushNow() {
+        coalescingWriter?.flushNow()
+    }
     //</editor-fold>
 
     /**
@@ -1,10 +1,14 @@
 package io.github.chenfei0928.repository.local
 
-import java.io.ByteArrayInputStream
-import java.io.ByteArrayOutputStream
+import io.github.chenfei0928.io.ByteBufferInputStream
+import io.github.chenfei0928.io.PooledByteArrayOutputStream
+import io.github.chenfei0928.util.use
+import java.io.FileInputStream
 import java.io.IOException
 import java.io.InputStream
 import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
 
 /**
  * 本地文件保存序列化接口
@@ -21,12 +25,40 @@ interface LocalSerializer<T : Any> {
     @Throws(IOException::class)
     fun read(inputStream: InputStream): T
 
+    /**
+     * 从[ByteBuffer]（如内存映射的文件）的剩余内容中反序列化，默认将其包装为[InputStream]交由[read]处理。
+     * 可以直接从[ByteBuffer]解析的序列化实现可以覆写此方法以避免流式读取的开销；
+     * 对数据进行变换的修饰器需要覆写此方法，否则委托时将跳过变换直接由被修饰的序列化读取
+     */
+    @Throws(IOException::class)
+    fun read(byteBuffer: ByteBuffer): T {
+        return read(ByteBufferInputStream(byteBuffer))
+    }
+
+    /**
+     * 通过序列化再反序列化来拷贝对象，序列化结果写入复用的缓冲区并直接从其底层数组反序列化，不产生中间数组
+     */
     fun copy(obj: T): T {
-        return ByteArrayOutputStream().use {
+        return PooledByteArrayOutputStream.pool.use {
             write(it, obj)
-            it.toByteArray()
-        }.let { ByteArrayInputStream(it) }.use {
-            read(it)
+            read(it.inputStream())
         }
     }
 }
+
+/**
+ * 从文件中反序列化，文件大小不小于[mmapThreshold]时将文件内存映射后通过[LocalSerializer.read]读取，
+ * 否则流式读取
+ */
+@Throws(IOException::class)
+internal fun <T : Any> LocalSerializer<T>.readFile(
+    inputStream: FileInputStream, mmapThreshold: Long
+): T {
+    val channel = inputStream.channel
+    val size = channel.size()
+    return if (size in mmapThreshold..Int.MAX_VALUE) {
+        read(channel.map(FileChannel.MapMode.READ_ONLY, channel.position(), size - channel.position()))
+    } else {
+        read(inputStream)
+    }
+}
@@ -9,9 +9,11 @@ package io.github.chenfei0928.repository.local.decorator
 import android.util.Base64
 import android.util.Base64InputStream
 import android.util.Base64OutputStream
+import io.github.chenfei0928.io.ByteBufferInputStream
 import io.github.chenfei0928.repository.local.LocalSerializer
 import java.io.InputStream
 import java.io.OutputStream
+import java.nio.ByteBuffer
 
 /**
  * 数据Base64化修饰器
@@ -31,6 +33,10 @@ private constructor(
         }
     }
 
+    override fun read(byteBuffer: ByteBuffer): T {
+        return read(ByteBufferInputStream(byteBuffer))
+    }
+
     override fun write(outputStream: OutputStream, obj: T) {
         Base64OutputStream(outputStream, base64Flag).use {
             serializer.write(it, obj)
@@ -1,10 +1,12 @@
 package io.github.chenfei0928.repository.local.decorator
 
+import io.github.chenfei0928.io.readFully
 import io.github.chenfei0928.lang.toByteArray
 import io.github.chenfei0928.lang.toLong
 import io.github.chenfei0928.repository.local.LocalSerializer
 import java.io.InputStream
 import java.io.OutputStream
+import java.nio.ByteBuffer
 
 /**
  * 对数据添加数据保质期序列化
@@ -25,14 +27,24 @@ abstract class BaseExpirationDateSerializer<T : Any>(
     override fun read(inputStream: InputStream): T {
         // long 类型8字节
         val savedVersionCode = ByteArray(Long.SIZE_BYTES)
-        // 读取本地保存的内容的数据结构版本号
-        inputStream.read(savedVersionCode)
+        // 读取本地保存的内容的数据结构版本号，数据不足时抛出EOFException
+        inputStream.readFully(savedVersionCode)
         // 版本号校验一致，读取内容
         checkOrThrow(savedVersionCode.toLong())
         // 版本号校验一致，读取内容
         return serializer.read(inputStream)
     }
 
+    override fun read(byteBuffer: ByteBuffer): T {
+        val savedVersionCode = ByteArray(Long.SIZE_BYTES)
+        // 读取本地保存的内容的数据结构版本号
+        byteBuffer.get(savedVersionCode)
+        // 版本号校验一致，读取内容
+        checkOrThrow(savedVersionCode.toLong())
+        // 剩余内容交由被修饰的序列化直接从ByteBuffer读取
+        return serializer.read(byteBuffer)
+    }
+
     protected abstract val generateVersionCode: Long
     protected abstract fun checkOrThrow(localSavedVersionCode: Long)
 
@@ -0,0 +1,241 @@
+package io.github.chenfei0928.repository.local.decorator
+
+import androidx.core.util.Pools
+import io.github.chenfei0928.io.readFully
+import io.github.chenfei0928.util.NonnullPools
+import java.io.EOFException
+import java.io.FilterOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.util.zip.CRC32
+import java.util.zip.CheckedInputStream
+import java.util.zip.CheckedOutputStream
+import java.util.zip.Deflater
+import java.util.zip.DeflaterOutputStream
+import java.util.zip.Inflater
+import java.util.zip.InflaterInputStream
+import java.util.zip.ZipException
+
+/**
+ * 复用[Deflater]、[Inflater]的压缩编解码实现
+ *
+ * [GZIPOutputStream][java.util.zip.GZIPOutputStream]、[GZIPInputStream][java.util.zip.GZIPInputStream]
+ * 每次创建都会分配一个native的[Deflater]/[Inflater]及其缓冲区，频繁的小数据写入时开销明显。
+ * 此处自行处理GZip的头部与尾部，内部的raw deflate数据使用池化的[Deflater]/[Inflater]编解码，
+ * 生成的GZip数据与[GZIPOutputStream][java.util.zip.GZIPOutputStream]兼容。
+ *
+ * @author chenf()
+ * @date 2026-10-18 19:20
+ */
+internal object DeflateCodec {
+    private const val BUFFER_SIZE = 4096
+    private const val GZIP_MAGIC = 0x8b1f
+    private const val GZIP_TRAILER_SIZE = 8
+    private const val FHCRC = 2
+    private const val FEXTRA = 4
+    private const val FNAME = 8
+    private const val FCOMMENT = 16
+
+    // 与GZIPOutputStream写入的头部一致：magic、CM=8(deflate)、FLG=0、MTIME=0、XFL=0、OS=0
+    private val GZIP_HEADER = byteArrayOf(
+        GZIP_MAGIC.toByte(), (GZIP_MAGIC shr 8).toByte(), Deflater.DEFLATED.toByte(),
+        0, 0, 0, 0, 0, 0, 0
+    )
+
+    private val deflaterPool = object : NonnullPools.SimplePool<Deflater>(Pools.SynchronizedPool(4)) {
+        override fun create(): Deflater = Deflater(Deflater.DEFAULT_COMPRESSION, true)
+
+        override fun release(instance: Deflater) {
+            instance.reset()
+            super.release(instance)
+        }
+
+        override fun recycle(item: Deflater) {
+            item.end()
+        }
+    }
+
+    private val inflaterPool = object : NonnullPools.SimplePool<Inflater>(Pools.SynchronizedPool(4)) {
+        override fun create(): Inflater = Inflater(true)
+
+        override fun release(instance: Inflater) {
+            instance.reset()
+            super.release(instance)
+        }
+
+        override fun recycle(item: Inflater) {
+            item.end()
+        }
+    }
+
+    @Throws(IOException::class)
+    fun write(
+        outputStream: OutputStream,
+        codec: DeflateSerializer.Codec,
+        level: Int,
+        strategy: Int,
+        block: (OutputStream) -> Unit,
+    ) {
+        val deflater = deflaterPool.acquire()
+        try {
+            deflater.setLevel(level)
+            deflater.setStrategy(strategy)
+            val crc = if (codec == DeflateSerializer.Codec.GZIP) {
+                outputStream.write(GZIP_HEADER)
+                CRC32()
+            } else {
+                null
+            }
+            val deflaterOutputStream = DeflaterOutputStream(
+                NonClosingOutputStream(outputStream), deflater, BUFFER_SIZE
+            )
+            block(if (crc != null) CheckedOutputStream(deflaterOutputStream, crc) else deflaterOutputStream)
+            deflaterOutputStream.finish()
+            if (crc != null) {
+                writeIntLE(outputStream, crc.value.toInt())
+                writeIntLE(outputStream, deflater.bytesRead.toInt())
+            }
+            outputStream.flush()
+        } finally {
+            deflaterPool.release(deflater)
+        }
+    }
+
+    @Throws(IOException::class)
+    fun <T> read(
+        inputStream: InputStream,
+        codec: DeflateSerializer.Codec,
+        block: (InputStream) -> T,
+    ): T {
+        val inflater = inflaterPool.acquire()
+        try {
+            val crc = if (codec == DeflateSerializer.Codec.GZIP) {
+                readGzipHeader(inputStream)
+                CRC32()
+            } else {
+                null
+            }
+            val inflaterInputStream = FrameInflaterInputStream(inputStream, inflater)
+            val checkedInputStream = if (crc != null) {
+                CheckedInputStream(inflaterInputStream, crc)
+            } else {
+                null
+            }
+            val t = block(checkedInputStream ?: inflaterInputStream)
+            if (checkedInputStream != null) {
+                // 读取剩余内容以完成CRC计算，并校验尾部
+                val skipBuffer = ByteArray(256)
+                while (checkedInputStream.read(skipBuffer) >= 0) {
+                    // noop
+                }
+                val trailer = inflaterInputStream.readTrailer(GZIP_TRAILER_SIZE)
+                if (readIntLE(trailer, 0) != crc!!.value.toInt()
+                    || readIntLE(trailer, 4) != inflater.bytesWritten.toInt()
+                ) {
+                    throw ZipException("Corrupt GZIP trailer")
+                }
+            }
+            return t
+        } finally {
+            inflaterPool.release(inflater)
+        }
+    }
+
+    private fun readGzipHeader(inputStream: InputStream) {
+        val header = ByteArray(GZIP_HEADER.size)
+        inputStream.readFully(header)
+        if (((header[0].toInt() and 0xFF) or ((header[1].toInt() and 0xFF) shl 8)) != GZIP_MAGIC) {
+            throw ZipException("Not in GZIP format")
+        }
+        if (header[2].toInt() != Deflater.DEFLATED) {
+            throw ZipException("Unsupported compression method")
+        }
+        val flag = header[3].toInt()
+        val scratch = ByteArray(2)
+        if (flag and FEXTRA == FEXTRA) {
+            inputStream.readFully(scratch)
+            inputStream.skipFully(readUShortLE(scratch).toLong())
+        }
+        if (flag and FNAME == FNAME) {
+            skipZeroTerminated(inputStream)
+        }
+        if (flag and FCOMMENT == FCOMMENT) {
+            skipZeroTerminated(inputStream)
+        }
+        if (flag and FHCRC == FHCRC) {
+            inputStream.skipFully(2)
+        }
+    }
+
+    private fun skipZeroTerminated(inputStream: InputStream) {
+        while (true) {
+            when (inputStream.read()) {
+                -1 -> throw EOFException()
+                0 -> return
+            }
+        }
+    }
+
+    private fun InputStream.skipFully(n: Long) {
+        var remaining = n
+        while (remaining > 0) {
+            if (read() < 0) {
+                throw EOFException()
+            }
+            remaining--
+        }
+    }
+
+    private fun readUShortLE(bytes: ByteArray): Int =
+        (bytes[0].toInt() and 0xFF) or ((bytes[1].toInt() and 0xFF) shl 8)
+
+    private fun readIntLE(bytes: ByteArray, offset: Int): Int =
+        (bytes[offset].toInt() and 0xFF) or
+                ((bytes[offset + 1].toInt() and 0xFF) shl 8) or
+                ((bytes[offset + 2].toInt() and 0xFF) shl 16) or
+                ((bytes[offset + 3].toInt() and 0xFF) shl 24)
+
+    private fun writeIntLE(outputStream: OutputStream, value: Int) {
+        outputStream.write(value and 0xFF)
+        outputStream.write((value shr 8) and 0xFF)
+        outputStream.write((value shr 16) and 0xFF)
+        outputStream.write((value shr 24) and 0xFF)
+    }
+
+    /**
+     * 关闭时不关闭被包装的流，以便在内部序列化关闭流后继续写入GZip尾部
+     */
+    private class NonClosingOutputStream(
+        out: OutputStream
+    ) : FilterOutputStream(out) {
+        override fun write(b: ByteArray, off: Int, len: Int) {
+            out.write(b, off, len)
+        }
+
+        override fun close() {
+            flush()
+        }
+    }
+
+    /**
+     * 关闭时不关闭被包装的流，并可以读取压缩数据之后的尾部
+     */
+    private class FrameInflaterInputStream(
+        inputStream: InputStream, inflater: Inflater
+    ) : InflaterInputStream(inputStream, inflater, BUFFER_SIZE) {
+
+        fun readTrailer(count: Int): ByteArray {
+            val trailer = ByteArray(count)
+            // Inflater已读入但未消费的数据位于缓冲区末尾
+            val remaining = minOf(inf.remaining, count)
+            System.arraycopy(buf, len - inf.remaining, trailer, 0, remaining)
+            `in`.readFully(trailer, remaining)
+            return trailer
+        }
+
+        override fun close() {
+            // noop
+        }
+    }
+}
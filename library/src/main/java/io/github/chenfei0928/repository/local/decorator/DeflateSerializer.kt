@@ -0,0 +1,78 @@
+package io.github.chenfei0928.repository.local.decorator
+
+import androidx.annotation.IntRange
+import io.github.chenfei0928.io.ByteBufferInputStream
+import io.github.chenfei0928.repository.local.LocalSerializer
+import java.io.InputStream
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.util.zip.Deflater
+
+/**
+ * 对数据进行压缩，可以配置压缩等级、压缩策略与压缩格式，并复用native的[Deflater]/[java.util.zip.Inflater]
+ *
+ * 使用[Codec.GZIP]时与[GZipSerializer]的数据格式兼容；
+ * 不需要与其它格式兼容时可以使用[Codec.RAW_DEFLATE]，省去头部与CRC校验
+ *
+ * @author chenf()
+ * @date 2026-10-18 19:52
+ */
+class DeflateSerializer<T : Any>
+private constructor(
+    private val serializer: LocalSerializer<T>,
+    private val codec: Codec,
+    private val level: Int,
+    private val strategy: Int,
+) : LocalSerializer<T> by serializer {
+
+    override fun read(inputStream: InputStream): T {
+        return DeflateCodec.read(inputStream, codec) {
+            serializer.read(it)
+        }
+    }
+
+    override fun read(byteBuffer: ByteBuffer): T {
+        return read(ByteBufferInputStream(byteBuffer))
+    }
+
+    override fun write(outputStream: OutputStream, obj: T) {
+        DeflateCodec.write(outputStream, codec, level, strategy) {
+            serializer.write(it, obj)
+            it.flush()
+        }
+    }
+
+    override fun toString(): String {
+        return "DeflateSerializer(serializer=$serializer, codec=$codec, level=$level, strategy=$strategy)"
+    }
+
+    /**
+     * 压缩数据格式
+     */
+    enum class Codec {
+        /**
+         * GZip格式，带有头部与CRC校验，与[java.util.zip.GZIPOutputStream]兼容
+         */
+        GZIP,
+
+        /**
+         * 不带头部与校验的raw deflate格式，更小更快，但不能与其它格式互相读取
+         */
+        RAW_DEFLATE,
+    }
+
+    companion object {
+        /**
+         * 对数据进行压缩
+         *
+         * @param codec 压缩格式
+         * @param level 压缩等级，见[Deflater.setLevel]
+         * @param strategy 压缩策略，见[Deflater.setStrategy]
+         */
+        fun <T : Any> LocalSerializer<T>.deflate(
+            codec: Codec = Codec.GZIP,
+            @IntRange(from = -1, to = 9) level: Int = Deflater.DEFAULT_COMPRESSION,
+            strategy: Int = Deflater.DEFAULT_STRATEGY,
+        ): LocalSerializer<T> = DeflateSerializer(this, codec, level, strategy)
+    }
+}
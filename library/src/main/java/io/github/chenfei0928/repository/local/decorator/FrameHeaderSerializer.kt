@@ -0,0 +1,92 @@
+package io.github.chenfei0928.repository.local.decorator
+
+import io.github.chenfei0928.base.UtilInitializer
+import io.github.chenfei0928.content.packageInfo
+import io.github.chenfei0928.content.versionCodeLong
+import io.github.chenfei0928.io.readFully
+import io.github.chenfei0928.repository.local.LocalSerializer
+import java.io.InputStream
+import java.io.OutputStream
+import java.nio.ByteBuffer
+
+/**
+ * 在数据前添加固定长度的帧头，同时记录数据结构版本号与保存时间，读取时一次读取整个帧头后校验。
+ * 用于替代叠加使用[VersionedSerializer]与[ExpirationDateSerializer]时的多次头部读写，
+ * 校验失败时抛出异常，交由调用处删除缓存文件
+ *
+ * 帧头格式（大端序）：magic(4) + 版本号(8) + 保存时间戳(8)
+ *
+ * @author chenf()
+ * @date 2026-10-18 20:30
+ */
+class FrameHeaderSerializer<T : Any>
+private constructor(
+    private val serializer: LocalSerializer<T>,
+    private val versionCode: Long,
+    private val timeoutInMillis: Long,
+) : LocalSerializer<T> by serializer {
+
+    override fun write(outputStream: OutputStream, obj: T) {
+        val header = ByteBuffer.allocate(FRAME_SIZE)
+            .putInt(MAGIC)
+            .putLong(versionCode)
+            .putLong(System.currentTimeMillis())
+            .array()
+        outputStream.write(header)
+        serializer.write(outputStream, obj)
+    }
+
+    override fun read(inputStream: InputStream): T {
+        val header = ByteArray(FRAME_SIZE)
+        // 一次读取整个帧头，数据不足时抛出EOFException
+        inputStream.readFully(header)
+        checkOrThrow(ByteBuffer.wrap(header))
+        return serializer.read(inputStream)
+    }
+
+    override fun read(byteBuffer: ByteBuffer): T {
+        checkOrThrow(byteBuffer)
+        return serializer.read(byteBuffer)
+    }
+
+    private fun checkOrThrow(header: ByteBuffer) {
+        require(header.remaining() >= FRAME_SIZE && header.getInt() == MAGIC) {
+            "local file's frame header is invalid.\n本地文件的帧头无效"
+        }
+        val localSavedVersionCode = header.getLong()
+        require(versionCode == localSavedVersionCode) {
+            "current version is $versionCode, local file's version is $localSavedVersionCode," +
+                    " version code not match! The data structure may have been modified.\n" +
+                    "当前版本是 $versionCode, 本地文件的版本是 $localSavedVersionCode，版本不匹配！数据结构可能已经被修改"
+        }
+        val localSavedTimeMillis = header.getLong()
+        require(
+            timeoutInMillis == NO_EXPIRE
+                    || localSavedTimeMillis + timeoutInMillis >= System.currentTimeMillis()
+        ) {
+            "local file's time is $localSavedTimeMillis, Data has expired.\n" +
+                    "本地文件的标记时间是$localSavedTimeMillis，数据已过期"
+        }
+    }
+
+    override fun toString(): String {
+        return "FrameHeaderSerializer(serializer=$serializer, versionCode=$versionCode, timeoutInMillis=$timeoutInMillis)"
+    }
+
+    companion object {
+        private const val MAGIC = 0x43465248
+        private const val FRAME_SIZE = Int.SIZE_BYTES + Long.SIZE_BYTES + Long.SIZE_BYTES
+        const val NO_EXPIRE = -1L
+
+        /**
+         * 添加包含版本号与保存时间的帧头
+         *
+         * @param versionCode 数据结构版本号，与本地保存的版本号不一致时读取失败
+         * @param timeoutInMillis 数据有效期，[NO_EXPIRE]时不校验有效期
+         */
+        fun <T : Any> LocalSerializer<T>.frameHeader(
+            versionCode: Long = UtilInitializer.context.packageInfo.versionCodeLong,
+            timeoutInMillis: Long = NO_EXPIRE,
+        ): LocalSerializer<T> = FrameHeaderSerializer(this, versionCode, timeoutInMillis)
+    }
+}
@@ -6,15 +6,19 @@
  */
 package io.github.chenfei0928.repository.local.decorator
 
+import io.github.chenfei0928.io.ByteBufferInputStream
 import io.github.chenfei0928.repository.local.LocalSerializer
 import java.io.InputStream
 import java.io.OutputStream
-import java.util.zip.GZIPInputStream
-import java.util.zip.GZIPOutputStream
+import java.nio.ByteBuffer
+import java.util.zip.Deflater
 
 /**
  * 对数据进行GZip压缩
  *
+ * 通过[DeflateCodec]复用native的[Deflater]/[java.util.zip.Inflater]，数据格式与[java.util.zip.GZIPOutputStream]一致；
+ * 需要配置压缩等级或使用raw deflate格式时使用[DeflateSerializer]
+ *
  * @author ChenFei(chenfei0928@gmail.com)
  * @date 2021-08-19 16:48
  */
@@ -24,13 +28,22 @@ private constructor(
 ) : LocalSerializer<T> by serializer {
 
     override fun read(inputStream: InputStream): T {
-        return GZIPInputStream(inputStream).use {
+        return DeflateCodec.read(inputStream, DeflateSerializer.Codec.GZIP) {
             serializer.read(it)
         }
     }
 
+    override fun read(byteBuffer: ByteBuffer): T {
+        return read(ByteBufferInputStream(byteBuffer))
+    }
+
     override fun write(outputStream: OutputStream, obj: T) {
-        GZIPOutputStream(outputStream).use {
+        DeflateCodec.write(
+            outputStream,
+            DeflateSerializer.Codec.GZIP,
+            Deflater.DEFAULT_COMPRESSION,
+            Deflater.DEFAULT_STRATEGY
+        ) {
             serializer.write(it, obj)
             it.flush()
         }
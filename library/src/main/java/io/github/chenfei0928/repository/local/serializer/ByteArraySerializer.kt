@@ -1,6 +1,8 @@
 package io.github.chenfei0928.repository.local.serializer
 
+import io.github.chenfei0928.io.PooledByteArrayOutputStream
 import io.github.chenfei0928.repository.local.LocalSerializer
+import io.github.chenfei0928.util.use
 import java.io.IOException
 import java.io.InputStream
 import java.io.OutputStream
@@ -19,7 +21,9 @@ object ByteArraySerializer : LocalSerializer<ByteArray> {
 
     @Throws(IOException::class)
     override fun read(inputStream: InputStream): ByteArray {
-        return inputStream.readBytes()
+        return PooledByteArrayOutputStream.pool.use {
+            it.readFrom(inputStream).toByteArray()
+        }
     }
 
     override fun copy(obj: ByteArray): ByteArray {
@@ -1,6 +1,8 @@
 package io.github.chenfei0928.repository.local.serializer
 
+import io.github.chenfei0928.io.PooledByteArrayOutputStream
 import io.github.chenfei0928.repository.local.LocalSerializer
+import io.github.chenfei0928.util.use
 import kotlinx.serialization.BinaryFormat
 import kotlinx.serialization.DeserializationStrategy
 import kotlinx.serialization.KSerializer
@@ -30,7 +32,11 @@ class KtxsBinarySerializer<T : Any>(
     }
 
     override fun read(inputStream: InputStream): T {
-        return format.decodeFromByteArray(deserializer, inputStream.readBytes())
+        // 读取到复用的缓冲区中，避免readBytes扩容时的多次分配与拷贝
+        val bytes = PooledByteArrayOutputStream.pool.use {
+            it.readFrom(inputStream).toByteArray()
+        }
+        return format.decodeFromByteArray(deserializer, bytes)
     }
 
     override fun copy(obj: T): T {
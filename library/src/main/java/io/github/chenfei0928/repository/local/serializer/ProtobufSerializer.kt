@@ -6,6 +6,7 @@ import com.google.protobuf.protobufDefaultInstance
 import io.github.chenfei0928.repository.local.LocalSerializer
 import java.io.InputStream
 import java.io.OutputStream
+import java.nio.ByteBuffer
 
 /**
  * 用于Protobuf的数据序列化
@@ -38,6 +39,10 @@ class ProtobufSerializer<MessageType : MessageLite>(
         return parser.parseFrom(inputStream)
     }
 
+    override fun read(byteBuffer: ByteBuffer): MessageType {
+        return parser.parseFrom(byteBuffer)
+    }
+
     override fun copy(obj: MessageType): MessageType {
         @Suppress("UNCHECKED_CAST")
         return obj.toBuilder().build() as MessageType
@@ -1,6 +1,8 @@
 package io.github.chenfei0928.repository.local.serializer
 
+import io.github.chenfei0928.io.PooledByteArrayOutputStream
 import io.github.chenfei0928.repository.local.LocalSerializer
+import io.github.chenfei0928.util.use
 import java.io.InputStream
 import java.io.OutputStream
 
@@ -18,7 +20,11 @@ object StringSerializer : LocalSerializer<String> {
     }
 
     override fun read(inputStream: InputStream): String {
-        return String(inputStream.readBytes())
+        // 直接从复用缓冲区的底层数组解码，不产生中间数组
+        return PooledByteArrayOutputStream.pool.use {
+            it.readFrom(inputStream)
+            String(it.buffer, 0, it.size())
+        }
     }
 
     override fun copy(obj: String): String {
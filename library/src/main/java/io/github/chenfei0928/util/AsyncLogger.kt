@@ -0,0 +1,346 @@
+package io.github.chenfei0928.util
+
+import android.os.Process
+import androidx.annotation.IntRange
+import androidx.annotation.Size
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.locks.LockSupport
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * 异步日志实现
+ *
+ * 调用方只将日志等级、tag、内容、异常、时间戳与线程记录到预分配的无锁环形缓冲区中，不进行任何格式化，
+ * 由单独的消费线程取出记录后分发给[sinks]，长日志拆分、异常堆栈格式化等耗时操作都在消费线程中进行。
+ *
+ * 环形缓冲区为多生产者单消费者队列，每个槽位通过序号标记其状态（等待写入或已发布），
+ * 生产者通过CAS获取写入位置，不需要加锁。
+ *
+ * 在消费线程中（如[sinks]内部再次打印日志）缓冲区已满时，总是丢弃新日志，避免消费线程等待自己。
+ * [OverflowPolicy.BLOCK]时已满的生产者在[Condition][java.util.concurrent.locks.Condition]上等待消费线程释放槽位，
+ * 等待期间不占用CPU，只有存在等待的生产者时消费线程才会加锁唤醒。
+ *
+ * @param sinks 日志的下游实现，实现了[Sink]的下游可以获取到日志记录时的时间戳与线程
+ * @param capacity 缓冲区容量，会被向上取整为2的幂
+ * @param overflowPolicy 缓冲区已满时的处理策略
+ * @author chenf()
+ * @date 2026-10-18 22:05
+ */
+class AsyncLogger(
+    private val sinks: Array<out LogInterface>,
+    @IntRange(from = 2) capacity: Int = DEFAULT_CAPACITY,
+    private val overflowPolicy: OverflowPolicy = OverflowPolicy.DROP_OLDEST,
+) : LogInterface {
+    private val mask: Int = Integer.highestOneBit(capacity.coerceAtLeast(2) * 2 - 1) - 1
+    private val records = Array(mask + 1) { Record() }
+
+    // 每个槽位的序号：等于写入位置时可写入，等于写入位置+1时已发布可读取
+    private val sequences = AtomicLongArray(mask + 1).apply {
+        for (i in 0 until length()) {
+            set(i, i.toLong())
+        }
+    }
+    private val tail = AtomicLong()
+    private val head = AtomicLong()
+    private val dropped = AtomicLong()
+
+    @Volatile
+    private var consumerWaiting = false
+
+    // BLOCK策略下等待缓冲区空间的生产者，数量只在持有锁时修改
+    private val notFullLock = ReentrantLock()
+    private val notFull = notFullLock.newCondition()
+
+    @Volatile
+    private var blockedProducers = 0
+    private val consumer = Thread(::consume, "AsyncLogger").apply {
+        isDaemon = true
+        start()
+    }
+
+    /**
+     * 由于缓冲区已满而被丢弃的日志数量
+     */
+    val droppedCount: Long
+        get() = dropped.get()
+
+    /**
+     * 缓冲区中尚未分发的日志数量
+     */
+    val pendingCount: Int
+        get() = (tail.get() - head.get()).toInt().coerceAtLeast(0)
+
+    override fun v(@Size(max = 23) tag: String, msg: String, tr: Throwable?) {
+        offer(android.util.Log.VERBOSE, tag, msg, tr)
+    }
+
+    override fun d(@Size(max = 23) tag: String, msg: String, tr: Throwable?) {
+        offer(android.util.Log.DEBUG, tag, msg, tr)
+    }
+
+    override fun i(@Size(max = 23) tag: String, msg: String, tr: Throwable?) {
+        offer(android.util.Log.INFO, tag, msg, tr)
+    }
+
+    override fun w(@Size(max = 23) tag: String, msg: String, tr: Throwable?) {
+        offer(android.util.Log.WARN, tag, msg, tr)
+    }
+
+    override fun e(@Size(max = 23) tag: String, msg: String, tr: Throwable?) {
+        offer(android.util.Log.ERROR, tag, msg, tr)
+    }
+
+    /**
+     * 等待缓冲区中当前的日志都被分发，用于进程即将退出（如崩溃）时调用
+     *
+     * @return 是否在超时前分发完毕
+     */
+    fun flush(timeoutMillis: Long = DEFAULT_FLUSH_TIMEOUT_MILLIS): Boolean {
+        val target = tail.get()
+        val deadline = System.nanoTime() + timeoutMillis * NANOS_PER_MILLI
+        while (head.get() < target) {
+            if (Thread.currentThread() === consumer || System.nanoTime() > deadline) {
+                return false
+            }
+            LockSupport.unpark(consumer)
+            LockSupport.parkNanos(PRODUCER_PARK_NANOS)
+        }
+        return true
+    }
+
+    private fun offer(level: Int, tag: String, msg: String, tr: Throwable?) {
+        val timeMillis = System.currentTimeMillis()
+        val thread = Thread.currentThread()
+        while (true) {
+            val pos = tail.get()
+            val index = (pos and mask.toLong()).toInt()
+            val diff = sequences.get(index) - pos
+            if (diff == 0L) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    records[index].set(level, tag, msg, tr, timeMillis, thread)
+                    // 发布需要使用volatile写，以与消费线程的等待标记构成可见性保证
+                    sequences.set(index, pos + 1)
+                    if (consumerWaiting) {
+                        LockSupport.unpark(consumer)
+                    }
+                    return
+                }
+            } else if (diff < 0 && !onFull(thread)) {
+                dropped.incrementAndGet()
+                return
+            }
+        }
+    }
+
+    /**
+     * 处理缓冲区已满的情况
+     *
+     * @return 是否重试写入，false时丢弃当前日志
+     */
+    private fun onFull(thread: Thread): Boolean {
+        if (thread === consumer) {
+            return false
+        }
+        return when (overflowPolicy) {
+            OverflowPolicy.DROP_NEWEST -> false
+            OverflowPolicy.DROP_OLDEST -> {
+                // 与消费线程竞争最旧的日志，抢到时直接丢弃并释放槽位
+                val pos = head.get()
+                val index = (pos and mask.toLong()).toInt()
+                if (sequences.get(index) == pos + 1 && head.compareAndSet(pos, pos + 1)) {
+                    records[index].clear()
+                    sequences.set(index, pos + mask + 1)
+                    dropped.incrementAndGet()
+                }
+                true
+            }
+            OverflowPolicy.BLOCK -> {
+                LockSupport.unpark(consumer)
+                notFullLock.withLock {
+                    // 先登记等待再检查，与消费线程释放槽位后检查等待数量构成可见性保证，不会错过唤醒
+                    blockedProducers++
+                    try {
+                        if (isFull()) {
+                            notFull.awaitNanos(BLOCK_WAIT_NANOS)
+                        }
+                    } finally {
+                        blockedProducers--
+                    }
+                }
+                true
+            }
+        }
+    }
+
+    private fun isFull(): Boolean {
+        val pos = tail.get()
+        return sequences.get((pos and mask.toLong()).toInt()) < pos
+    }
+
+    private fun signalNotFull() {
+        if (blockedProducers != 0) {
+            notFullLock.withLock { notFull.signalAll() }
+        }
+    }
+
+    private fun consume() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND)
+        val record = Record()
+        while (true) {
+            val pos = head.get()
+            val index = (pos and mask.toLong()).toInt()
+            if (sequences.get(index) != pos + 1) {
+                consumerWaiting = true
+                // 设置等待标记后再次检查，避免生产者在检查前发布而错过唤醒
+                if (sequences.get(index) != pos + 1) {
+                    LockSupport.parkNanos(CONSUMER_PARK_NANOS)
+                }
+                consumerWaiting = false
+                continue
+            }
+            // 先拷贝再释放槽位，head的CAS失败说明该日志已被DROP_OLDEST丢弃
+            record.copyFrom(records[index])
+            if (!head.compareAndSet(pos, pos + 1)) {
+                continue
+            }
+            records[index].clear()
+            sequences.set(index, pos + mask + 1)
+            signalNotFull()
+            dispatch(record)
+            record.clear()
+        }
+    }
+
+    private fun dispatch(record: Record) {
+        sinks.forEach {
+            try {
+                if (it is Sink) {
+                    it.log(
+                        record.level, record.tag, record.msg, record.tr,
+                        record.timeMillis, record.thread ?: consumer
+                    )
+                } else when (record.level) {
+                    android.util.Log.VERBOSE -> it.v(record.tag, record.msg, record.tr)
+                    android.util.Log.DEBUG -> it.d(record.tag, record.msg, record.tr)
+                    android.util.Log.INFO -> it.i(record.tag, record.msg, record.tr)
+                    android.util.Log.WARN -> it.w(record.tag, record.msg, record.tr)
+                    else -> it.e(record.tag, record.msg, record.tr)
+                }
+            } catch (e: RuntimeException) {
+                android.util.Log.e(TAG, "dispatch: $it", e)
+            }
+        }
+    }
+
+    /**
+     * 可以获取日志记录时的时间戳与线程的日志下游
+     */
+    interface Sink : LogInterface {
+        /**
+         * @param level 日志等级，为[android.util.Log.VERBOSE]等常量
+         * @param timeMillis 日志记录时的[System.currentTimeMillis]
+         * @param thread 记录日志的线程
+         */
+        fun log(
+            level: Int, tag: String, msg: String, tr: Throwable?, timeMillis: Long, thread: Thread
+        )
+
+        override fun v(tag: String, msg: String, tr: Throwable?) = log(
+            android.util.Log.VERBOSE, tag, msg, tr, System.currentTimeMillis(), Thread.currentThread()
+        )
+
+        override fun d(tag: String, msg: String, tr: Throwable?) = log(
+            android.util.Log.DEBUG, tag, msg, tr, System.currentTimeMillis(), Thread.currentThread()
+        )
+
+        override fun i(tag: String, msg: String, tr: Throwable?) = log(
+            android.util.Log.INFO, tag, msg, tr, System.currentTimeMillis(), Thread.currentThread()
+        )
+
+        override fun w(tag: String, msg: String, tr: Throwable?) = log(
+            android.util.Log.WARN, tag, msg, tr, System.currentTimeMillis(), Thread.currentThread()
+        )
+
+        override fun e(tag: String, msg: String, tr: Throwable?) = log(
+            android.util.Log.ERROR, tag, msg, tr, System.currentTimeMillis(), Thread.currentThread()
+        )
+    }
+
+    /**
+     * 缓冲区已满时的处理策略
+     */
+    enum class OverflowPolicy {
+        /**
+         * 丢弃缓冲区中最旧的日志
+         */
+        DROP_OLDEST,
+
+        /**
+         * 丢弃新的日志
+         */
+        DROP_NEWEST,
+
+        /**
+         * 阻塞调用方直到缓冲区有空间，等待期间不占用CPU，但调用方（可能是主线程）的耗时取决于日志下游的分发速度
+         */
+        BLOCK,
+    }
+
+    private class Record {
+        var level: Int = 0
+        var tag: String = ""
+        var msg: String = ""
+        var tr: Throwable? = null
+        var timeMillis: Long = 0
+        var thread: Thread? = null
+
+        fun set(
+            level: Int, tag: String, msg: String, tr: Throwable?, timeMillis: Long, thread: Thread?
+        ) {
+            this.level = level
+            this.tag = tag
+            this.msg = msg
+            this.tr = tr
+            this.timeMillis = timeMillis
+            this.thread = thread
+        }
+
+        // 拷贝时该槽位可能正在被DROP_OLDEST丢弃，此时拷贝结果不会被使用
+        fun copyFrom(other: Record) {
+            set(other.level, other.tag, other.msg, other.tr, other.timeMillis, other.thread)
+        }
+
+        fun clear() {
+            tag = ""
+            msg = ""
+            tr = null
+            thread = null
+        }
+    }
+
+    companion object {
+        private const val TAG = "Ut_AsyncLogger"
+        private const val DEFAULT_CAPACITY = 1024
+        private const val DEFAULT_FLUSH_TIMEOUT_MILLIS = 1000L
+        private const val NANOS_PER_MILLI = 1_000_000L
+        private const val PRODUCER_PARK_NANOS = 50_000L
+        private const val CONSUMER_PARK_NANOS = 100 * NANOS_PER_MILLI
+
+        // 等待空间的超时只用于兜底，正常情况下由消费线程唤醒
+        private const val BLOCK_WAIT_NANOS = 100 * NANOS_PER_MILLI
+
+        /**
+         * 将[Log]当前已注册的所有日志实现替换为以它们为下游的[AsyncLogger]
+         */
+        fun install(
+            @IntRange(from = 2) capacity: Int = DEFAULT_CAPACITY,
+            overflowPolicy: OverflowPolicy = OverflowPolicy.DROP_OLDEST,
+        ): AsyncLogger = synchronized(Log::class.java) {
+            AsyncLogger(Log.getLoggers(), capacity, overflowPolicy).also {
+                Log.setLoggers(it)
+            }
+        }
+    }
+}
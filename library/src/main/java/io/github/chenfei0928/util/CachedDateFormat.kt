@@ -0,0 +1,176 @@
+package io.github.chenfei0928.util
+
+import android.os.Build
+import androidx.annotation.RequiresApi
+import java.text.ParsePosition
+import java.text.SimpleDateFormat
+import java.time.DateTimeException
+import java.time.Instant
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.ZoneId
+import java.time.format.DateTimeFormatter
+import java.time.temporal.ChronoField
+import java.time.temporal.TemporalAccessor
+import java.time.temporal.TemporalQueries
+import java.util.Date
+import java.util.Locale
+import java.util.TimeZone
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 线程安全的日期格式化与解析，按 (pattern, locale, timeZone) 缓存，替代每次调用都创建[SimpleDateFormat]
+ *
+ * - API 26 及以上使用不可变的 [DateTimeFormatter]，所有线程共享同一个实例；
+ * - API 26 以下每个线程持有一个 [SimpleDateFormat]。
+ *
+ * 两者的模式字母基本一致，但存在少量差异（如`u`、`Y`的含义，`yy`解析时的世纪，宽松解析），
+ * 需要在不同系统版本上得到一致结果时只使用两者含义相同的模式字母，
+ * 或使用 [getSimpleDateFormat] 在所有系统版本上都保持 [SimpleDateFormat] 的语义。
+ * 解析时模式中没有的日期字段以 1970-01-01 补全，没有的时间字段以 0 补全，与[SimpleDateFormat]一致。
+ *
+ * 固定格式`yyyy-MM-dd HH:mm:ss.SSS`的高频格式化使用[FastDateTimeFormatter]。
+ *
+ * @author chenf()
+ * @date 2026-10-19 05:00
+ */
+abstract class CachedDateFormat internal constructor(
+    val pattern: String,
+    val locale: Locale,
+    val timeZone: TimeZone,
+) {
+
+    abstract fun format(millis: Long): String
+
+    fun format(date: Date): String = format(date.time)
+
+    /**
+     * 从 [position] 处开始解析，失败时返回null并设置 [ParsePosition.getErrorIndex]
+     */
+    abstract fun parse(text: String, position: ParsePosition): Date?
+
+    /**
+     * 解析[text]开头的日期，失败时返回null
+     */
+    fun parse(text: String): Date? = parse(text, ParsePosition(0))
+
+    override fun toString(): String =
+        "CachedDateFormat(pattern='$pattern', locale=$locale, timeZone=${timeZone.id})"
+
+    /**
+     * API 26 以下，每个线程一个[SimpleDateFormat]
+     */
+    private class ThreadLocalDateFormat(
+        pattern: String, locale: Locale, timeZone: TimeZone
+    ) : CachedDateFormat(pattern, locale, timeZone) {
+        private val formats = object : ThreadLocal<SimpleDateFormat>() {
+            override fun initialValue(): SimpleDateFormat = SimpleDateFormat(pattern, locale).also {
+                it.timeZone = timeZone.clone() as TimeZone
+            }
+        }
+        private val dates = object : ThreadLocal<Date>() {
+            override fun initialValue(): Date = Date()
+        }
+
+        override fun format(millis: Long): String {
+            val date = dates.get()!!
+            date.time = millis
+            return formats.get()!!.format(date)
+        }
+
+        override fun parse(text: String, position: ParsePosition): Date? =
+            formats.get()!!.parse(text, position)
+    }
+
+    /**
+     * API 26 及以上，不可变的[DateTimeFormatter]
+     */
+    @RequiresApi(Build.VERSION_CODES.O)
+    private class JavaTimeDateFormat(
+        pattern: String, locale: Locale, timeZone: TimeZone
+    ) : CachedDateFormat(pattern, locale, timeZone) {
+        private val zoneId: ZoneId = timeZone.toZoneId()
+        private val formatter: DateTimeFormatter =
+            DateTimeFormatter.ofPattern(pattern, locale).withZone(zoneId)
+
+        override fun format(millis: Long): String =
+            formatter.format(Instant.ofEpochMilli(millis))
+
+        override fun parse(text: String, position: ParsePosition): Date? {
+            val start = position.index
+            return try {
+                Date(formatter.parse(text, position).toEpochMilli())
+            } catch (_: DateTimeException) {
+                position.index = start
+                if (position.errorIndex < 0) {
+                    position.errorIndex = start
+                }
+                null
+            }
+        }
+
+        private fun TemporalAccessor.toEpochMilli(): Long {
+            val date = query(TemporalQueries.localDate()) ?: LocalDate.of(
+                field(ChronoField.YEAR, 1970).toInt(),
+                field(ChronoField.MONTH_OF_YEAR, 1).toInt(),
+                field(ChronoField.DAY_OF_MONTH, 1).toInt(),
+            )
+            val time = query(TemporalQueries.localTime()) ?: LocalTime.MIDNIGHT
+            val zone = query(TemporalQueries.zone()) ?: zoneId
+            return LocalDateTime.of(date, time).atZone(zone).toInstant().toEpochMilli()
+        }
+
+        private fun TemporalAccessor.field(field: ChronoField, default: Long): Long =
+            if (isSupported(field)) getLong(field) else default
+    }
+
+    private data class Key(
+        val pattern: String,
+        val locale: Locale,
+        val timeZoneId: String,
+        val simpleDateFormat: Boolean,
+    )
+
+    companion object {
+        private val cache = ConcurrentHashMap<Key, CachedDateFormat>()
+
+        /**
+         * 获取缓存的格式化器，[timeZone]只以其id区分
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun get(
+            pattern: String,
+            locale: Locale = Locale.US,
+            timeZone: TimeZone = TimeZone.getDefault(),
+        ): CachedDateFormat = getOrCreate(pattern, locale, timeZone, Build.VERSION.SDK_INT < Build.VERSION_CODES.O)
+
+        /**
+         * 获取缓存的、在所有系统版本上都使用每个线程一个[SimpleDateFormat]的格式化器，
+         * 模式字母的含义与解析的宽松程度与直接使用[SimpleDateFormat]一致，[timeZone]只以其id区分
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun getSimpleDateFormat(
+            pattern: String,
+            locale: Locale = Locale.US,
+            timeZone: TimeZone = TimeZone.getDefault(),
+        ): CachedDateFormat = getOrCreate(pattern, locale, timeZone, true)
+
+        private fun getOrCreate(
+            pattern: String, locale: Locale, timeZone: TimeZone, simpleDateFormat: Boolean
+        ): CachedDateFormat {
+            val key = Key(pattern, locale, timeZone.id, simpleDateFormat)
+            cache[key]?.let { return it }
+            // TimeZone是可变的，缓存其副本
+            val zone = timeZone.clone() as TimeZone
+            val format = if (simpleDateFormat || Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+                ThreadLocalDateFormat(pattern, locale, zone)
+            } else {
+                JavaTimeDateFormat(pattern, locale, zone)
+            }
+            return cache.putIfAbsent(key, format) ?: format
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package io.github.chenfei0928.util
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.FutureTask
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * 线程安全、有容量上限的 [MapCache] 实现
+ *
+ * - 数据保存在 [ConcurrentHashMap] 中，命中时的读取不加锁；
+ * - 超出 [maxSize] 时按LRU淘汰，命中时只在能立即获得锁时更新访问顺序（有损LRU），以避免读取之间竞争锁；
+ * - 可选的写入后过期 [expireAfterWriteMillis] 与访问后过期 [expireAfterAccessMillis]，过期的值在下次读取时重新创建；
+ * - 并发未命中同一个key时只有一个线程调用 [creator]，其它线程等待其结果，[creator] 中不能读取同一个key；
+ * - [stats] 提供命中、未命中、淘汰次数。
+ *
+ * 与 [MapCache.Basic] 使用 [java.util.WeakHashMap] 不同，key被强引用直到被淘汰或过期。
+ *
+ * @param maxSize 最大缓存数量，小于等于0时不限制
+ * @param expireAfterWriteMillis 写入后过期时间，为0时不过期
+ * @param expireAfterAccessMillis 最后一次访问后过期时间，为0时不过期
+ * @param ticker 纳秒时间源，用于测试中控制时间
+ *
+ * @author chenf()
+ * @date 2026-10-19 02:30
+ */
+class ConcurrentMapCache<T : Any, R : Any>(
+    private val maxSize: Int,
+    expireAfterWriteMillis: Long = 0,
+    expireAfterAccessMillis: Long = 0,
+    private val ticker: () -> Long = System::nanoTime,
+    private val creator: (T) -> R,
+) : MapCache<T, R> {
+    private val expireAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterWriteMillis)
+    private val expireAfterAccessNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterAccessMillis)
+    private val data = ConcurrentHashMap<T, Node<T, R>>()
+
+    // 已加载完成的节点的访问顺序，访问时需要持有 evictionLock
+    private val evictionLock = ReentrantLock()
+    private val accessOrder = LinkedHashMap<T, Node<T, R>>(16, 0.75f, true)
+
+    private val hitCount = AtomicLong()
+    private val missCount = AtomicLong()
+    private val evictionCount = AtomicLong()
+
+    override fun get(key: T): R {
+        while (true) {
+            val node = data[key]
+            if (node != null) {
+                val value = node.valueIfLoaded
+                if (value != null && !node.isExpired(ticker())) {
+                    hitCount.incrementAndGet()
+                    onHit(node)
+                    return value
+                } else if (value == null) {
+                    // 其它线程正在加载，等待其结果
+                    missCount.incrementAndGet()
+                    return node.await() ?: continue
+                } else if (!data.remove(key, node)) {
+                    // 已过期，且已被其它线程替换，重新读取
+                    continue
+                } else {
+                    removeFromAccessOrder(node)
+                }
+            }
+            val loading = Node<T, R>(key, FutureTask { creator(key) })
+            if (data.putIfAbsent(key, loading) != null) {
+                continue
+            }
+            missCount.incrementAndGet()
+            return load(loading)
+        }
+    }
+
+    override fun set(key: T, value: R) {
+        val node = Node(key, value, ticker())
+        data.put(key, node)?.let { removeFromAccessOrder(it) }
+        onLoaded(node)
+    }
+
+    /**
+     * 移除[key]的缓存
+     */
+    fun invalidate(key: T) {
+        data.remove(key)?.let { removeFromAccessOrder(it) }
+    }
+
+    /**
+     * 移除所有缓存
+     */
+    fun invalidateAll() {
+        evictionLock.withLock {
+            data.clear()
+            accessOrder.clear()
+        }
+    }
+
+    /**
+     * 当前缓存数量，可能包含已过期但还未被读取的值
+     */
+    val size: Int
+        get() = data.size
+
+    fun stats(): Stats = Stats(hitCount.get(), missCount.get(), evictionCount.get())
+
+    private fun load(node: Node<T, R>): R {
+        val task = node.loading!!
+        task.run()
+        return try {
+            task.get().also {
+                node.onLoaded(it, ticker())
+                onLoaded(node)
+            }
+        } catch (e: ExecutionException) {
+            // 加载失败时移除该节点，等待中的线程会重新加载
+            data.remove(node.key, node)
+            throw e.cause ?: e
+        }
+    }
+
+    private fun onHit(node: Node<T, R>) {
+        if (expireAfterAccessNanos > 0) {
+            node.accessTime = ticker()
+        }
+        if (maxSize > 0 && evictionLock.tryLock()) {
+            try {
+                accessOrder[node.key]
+            } finally {
+                evictionLock.unlock()
+            }
+        }
+    }
+
+    private fun onLoaded(node: Node<T, R>) {
+        if (maxSize <= 0) {
+            return
+        }
+        evictionLock.withLock {
+            // 加载期间可能已被移除或替换
+            if (data[node.key] !== node) {
+                return
+            }
+            accessOrder[node.key] = node
+            val iterator = accessOrder.values.iterator()
+            while (accessOrder.size > maxSize && iterator.hasNext()) {
+                val eldest = iterator.next()
+                iterator.remove()
+                if (data.remove(eldest.key, eldest)) {
+                    evictionCount.incrementAndGet()
+                }
+            }
+        }
+    }
+
+    private fun removeFromAccessOrder(node: Node<T, R>) {
+        if (maxSize <= 0) {
+            return
+        }
+        evictionLock.withLock {
+            if (accessOrder[node.key] === node) {
+                accessOrder.remove(node.key)
+            }
+        }
+    }
+
+    private fun Node<T, R>.isExpired(now: Long): Boolean =
+        (expireAfterWriteNanos > 0 && now - writeTime >= expireAfterWriteNanos)
+                || (expireAfterAccessNanos > 0 && now - accessTime >= expireAfterAccessNanos)
+
+    /**
+     * 缓存节点，创建时为加载中状态（[loading] 不为null），加载完成后保存其值
+     */
+    private class Node<T, R>(
+        val key: T,
+        @Volatile var loading: FutureTask<R>?,
+    ) {
+        @Volatile
+        private var value: R? = null
+
+        @Volatile
+        var writeTime: Long = 0
+
+        @Volatile
+        var accessTime: Long = 0
+
+        constructor(key: T, value: R, now: Long) : this(key, null) {
+            onLoaded(value, now)
+        }
+
+        val valueIfLoaded: R?
+            get() = value
+
+        fun onLoaded(value: R, now: Long) {
+            writeTime = now
+            accessTime = now
+            this.value = value
+            loading = null
+        }
+
+        /**
+         * 等待其它线程加载完成，加载失败时返回null
+         */
+        fun await(): R? {
+            value?.let { return it }
+            return try {
+                loading?.get() ?: value
+            } catch (_: ExecutionException) {
+                null
+            }
+        }
+    }
+
+    /**
+     * 缓存的统计信息
+     */
+    data class Stats(
+        val hitCount: Long,
+        val missCount: Long,
+        val evictionCount: Long,
+    ) {
+        val hitRate: Double
+            get() = if (hitCount + missCount == 0L) 1.0 else hitCount.toDouble() / (hitCount + missCount)
+    }
+}
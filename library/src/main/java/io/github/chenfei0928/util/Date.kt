@@ -4,7 +4,6 @@
  */
 package io.github.chenfei0928.util
 
-import java.text.SimpleDateFormat
 import java.util.Date
 import java.util.Locale
 
@@ -13,10 +12,13 @@ import java.util.Locale
  * 在单引号内的模式字母不会被认为是规则，如要输出单引号本身，则使用两个单引号
  * 比如要输出：LastTime's 12:00 ，则将匹配规则写为：'LastTime''s 'hh:mm
  *
+ * 格式化器按 (pattern, locale, 当前默认时区) 缓存，在所有系统版本上都保持[java.text.SimpleDateFormat]的模式语义，
+ * 见[CachedDateFormat.getSimpleDateFormat]
+ *
  * @receiver      日期
  * @param pattern 规则
  * @return 格式化后的日期
  */
 @JvmOverloads
 fun Date.toString(pattern: String, locale: Locale = Locale.US): String =
-    SimpleDateFormat(pattern, locale).format(this)
+    CachedDateFormat.getSimpleDateFormat(pattern, locale).format(this)
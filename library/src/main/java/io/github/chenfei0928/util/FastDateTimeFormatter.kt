@@ -0,0 +1,150 @@
+package io.github.chenfei0928.util
+
+import java.util.TimeZone
+
+/**
+ * 固定格式日期时间的无分配格式化器，线程安全
+ *
+ * 直接由毫秒时间戳计算各字段写入调用方复用的[CharArray]或[StringBuilder]，
+ * 日期部分按天缓存，同一天内的格式化只计算时间部分。
+ * 只在跨天时分配一个缓存对象，年份需要在 0..9999 之间。
+ *
+ * 任意格式使用[CachedDateFormat]。
+ *
+ * @param layout 输出的格式
+ * @param timeZone 时区
+ *
+ * @author chenf()
+ * @date 2026-10-19 05:10
+ */
+class FastDateTimeFormatter
+@JvmOverloads constructor(
+    val layout: Layout = Layout.DATE_TIME_MILLIS,
+    timeZone: TimeZone = TimeZone.getDefault(),
+) {
+    // TimeZone是可变的，使用其副本
+    private val timeZone: TimeZone = timeZone.clone() as TimeZone
+
+    @Volatile
+    private var dayCache: DayCache = DayCache(Long.MIN_VALUE, 0, 0, 0)
+
+    /**
+     * 将[millis]格式化写入[buffer]的[offset]处，返回写入的字符数，即[Layout.length]
+     */
+    @JvmOverloads
+    fun format(millis: Long, buffer: CharArray, offset: Int = 0): Int {
+        require(offset >= 0 && buffer.size - offset >= layout.length) {
+            "buffer too small: size=${buffer.size}, offset=$offset, required=${layout.length}"
+        }
+        val localMillis = millis + timeZone.getOffset(millis)
+        val epochDay = localMillis.floorDiv(MILLIS_PER_DAY)
+        var index = offset
+        if (layout.hasDate) {
+            val day = dayCache.takeIf { it.epochDay == epochDay }
+                ?: DayCache.of(epochDay).also { dayCache = it }
+            require(day.year in 0..9999) { "year out of range: ${day.year}" }
+            index = write4(buffer, index, day.year)
+            buffer[index++] = '-'
+            index = write2(buffer, index, day.month)
+            buffer[index++] = '-'
+            index = write2(buffer, index, day.dayOfMonth)
+            if (layout.hasTime) {
+                buffer[index++] = ' '
+            }
+        }
+        if (layout.hasTime) {
+            val millisOfDay = (localMillis - epochDay * MILLIS_PER_DAY).toInt()
+            val secondOfDay = millisOfDay / 1000
+            index = write2(buffer, index, secondOfDay / 3600)
+            buffer[index++] = ':'
+            index = write2(buffer, index, secondOfDay / 60 % 60)
+            buffer[index++] = ':'
+            index = write2(buffer, index, secondOfDay % 60)
+            if (layout.hasMillis) {
+                buffer[index++] = '.'
+                val ms = millisOfDay % 1000
+                buffer[index++] = '0' + ms / 100
+                index = write2(buffer, index, ms % 100)
+            }
+        }
+        return index - offset
+    }
+
+    /**
+     * 将[millis]格式化追加到[builder]，使用线程内复用的字符数组，不产生对象分配
+     */
+    fun formatTo(millis: Long, builder: StringBuilder): StringBuilder {
+        val buffer = buffers.get()!!
+        val length = format(millis, buffer, 0)
+        return builder.append(buffer, 0, length)
+    }
+
+    fun format(millis: Long): String {
+        val buffer = buffers.get()!!
+        return String(buffer, 0, format(millis, buffer, 0))
+    }
+
+    private fun write2(buffer: CharArray, index: Int, value: Int): Int {
+        buffer[index] = '0' + value / 10
+        buffer[index + 1] = '0' + value % 10
+        return index + 2
+    }
+
+    private fun write4(buffer: CharArray, index: Int, value: Int): Int {
+        write2(buffer, index, value / 100)
+        return write2(buffer, index + 2, value % 100)
+    }
+
+    /**
+     * 一天的日期字段，不可变，以便在线程间发布
+     */
+    private class DayCache(
+        val epochDay: Long,
+        val year: Int,
+        val month: Int,
+        val dayOfMonth: Int,
+    ) {
+        companion object {
+            /**
+             * 由距1970-01-01的天数计算公历日期
+             */
+            fun of(epochDay: Long): DayCache {
+                // 以3月1日为一年的开始，将闰日放在年末
+                val z = epochDay + 719468
+                val era = z.floorDiv(146097L)
+                val dayOfEra = z - era * 146097
+                val yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365
+                val dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100)
+                val mp = (5 * dayOfYear + 2) / 153
+                val dayOfMonth = (dayOfYear - (153 * mp + 2) / 5 + 1).toInt()
+                val month = (if (mp < 10) mp + 3 else mp - 9).toInt()
+                val year = (yearOfEra + era * 400 + if (month <= 2) 1 else 0).toInt()
+                return DayCache(epochDay, year, month, dayOfMonth)
+            }
+        }
+    }
+
+    enum class Layout(
+        val pattern: String,
+        internal val hasDate: Boolean,
+        internal val hasTime: Boolean,
+        internal val hasMillis: Boolean,
+    ) {
+        DATE_TIME_MILLIS("yyyy-MM-dd HH:mm:ss.SSS", true, true, true),
+        DATE_TIME("yyyy-MM-dd HH:mm:ss", true, true, false),
+        DATE("yyyy-MM-dd", true, false, false),
+        TIME_MILLIS("HH:mm:ss.SSS", false, true, true),
+        ;
+
+        val length: Int = pattern.length
+    }
+
+    companion object {
+        private const val MILLIS_PER_DAY = 24 * 60 * 60 * 1000L
+        private const val MAX_LENGTH = 23
+
+        private val buffers = object : ThreadLocal<CharArray>() {
+            override fun initialValue(): CharArray = CharArray(MAX_LENGTH)
+        }
+    }
+}
@@ -9,14 +9,13 @@ import java.io.BufferedWriter
 import java.io.File
 import java.io.IOException
 import java.io.PrintWriter
-import java.text.ParsePosition
-import java.text.SimpleDateFormat
-import java.util.Date
 import java.util.Locale
 
 /**
  * log日志统计保存
  *
+ * 需要启动logcat子进程并逐行过滤、逐行刷新写入，新的代码使用进程内写入的[RollingFileLogSink]
+ *
  * @author way
  */
 class FileLogUtil
@@ -25,6 +24,7 @@ private constructor(
 ) : Thread("FileLogUtil") {
     private val pid: String = android.os.Process.myPid().toString()
     private val deviceInfo: String by lazy { devicesInfoProvider(context) }
+    private val dateBuffer = CharArray(FastDateTimeFormatter.Layout.DATE_TIME_MILLIS.length)
     private val logcatProc: Process by lazy {
         Runtime.getRuntime().exec("logcat | grep \"$pid\"")
     }
@@ -76,7 +76,7 @@ private constructor(
             return
         }
         if (needWriteDate) {
-            write(getDateEn())
+            write(dateBuffer, 0, dateEn.format(System.currentTimeMillis(), dateBuffer))
             write(" ")
         }
         write(line)
@@ -130,6 +130,8 @@ private constructor(
         }
 
         //<editor-fold desc="私有的获取文件名工具方法，以及判断日志内容是否需要追加时间信息" defaultstatus="collapsed">
+        internal fun getLogDir(context: Context): File = File(createLogDir(context))
+
         private fun createLogDir(context: Context): String {
             var logDir = context.getExternalFilesDir("log")
             if (logDir == null) {
@@ -161,24 +163,22 @@ private constructor(
             return logTime
         }
 
-        private fun needWriteData(logLine: String): Boolean = arrayOf(
+        private val logLineDatePatterns = arrayOf(
             "yyyy-MM-dd HH:mm:ss.SSS", "yy-MM-dd HH:mm:ss.SSS", "MM-dd HH:mm:ss.SSS",
             "yyyy-MM-dd HH:mm:ss", "yy-MM-dd HH:mm:ss", "MM-dd HH:mm:ss"
-        ).filter {
+        )
+
+        private fun needWriteData(logLine: String): Boolean = logLineDatePatterns.filter {
             logLine.length > it.length
         }.any {
-            SimpleDateFormat(it, Locale.US).parse(
-                logLine.take(it.length), ParsePosition(0)
-            ) != null
+            CachedDateFormat.getSimpleDateFormat(it, Locale.US).parse(logLine.take(it.length)) != null
         }
 
-        private val dateEn: SimpleDateFormat by lazy {
-            SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US)
-        }
+        private val dateEn = FastDateTimeFormatter()
 
         // 2012-10-03 23:41:31.123
         private fun getDateEn(): String {
-            return dateEn.format(Date(System.currentTimeMillis()))
+            return dateEn.format(System.currentTimeMillis())
         }
         //</editor-fold>
     }
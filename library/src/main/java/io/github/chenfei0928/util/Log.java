@@ -8,7 +8,7 @@ import androidx.annotation.Size;
  * @date 2021-06-02 11:28
  */
 public class Log {
-    private static LogInterface[] implList = {SystemLog.INSTANCE};
+    private static volatile LogInterface[] implList = {SystemLog.INSTANCE};
     // log单行大小约4096字节，防止中文日志，此处limit设置为2000
     // logcat -g指令可以读到各个分类的缓冲区上限、目前用量、每次读取量、单条日志长度的上限。
     // system/core/liblog/include/log/log_read.h下的LOGGER_ENTRY_MAX_PAYLOAD和LOGGER_ENTRY_MAX_LEN
@@ -18,11 +18,26 @@ public class Log {
     private Log() {
     }
 
-    public static void register(LogInterface logger) {
-        LogInterface[] newImplList = new LogInterface[implList.length + 1];
-        System.arraycopy(implList, 0, newImplList, 0, implList.length);
+    public static synchronized void register(LogInterface logger) {
+        LogInterface[] oldImplList = implList;
+        LogInterface[] newImplList = new LogInterface[oldImplList.length + 1];
+        System.arraycopy(oldImplList, 0, newImplList, 0, oldImplList.length);
+        newImplList[newImplList.length - 1] = logger;
         implList = newImplList;
-        implList[implList.length - 1] = logger;
+    }
+
+    /**
+     * 获取当前已注册的日志实现的副本
+     */
+    public static LogInterface[] getLoggers() {
+        return implList.clone();
+    }
+
+    /**
+     * 替换所有已注册的日志实现，如使用{@link AsyncLogger}包装原有实现
+     */
+    public static synchronized void setLoggers(LogInterface... loggers) {
+        implList = loggers.clone();
     }
 
     public static void v(@Size(max = 23) String tag, String msg) {
@@ -4,9 +4,11 @@ import android.app.Activity
 import android.app.Application
 import android.content.Context
 import android.content.ContextWrapper
+import io.github.chenfei0928.collection.SoftValueMap
 import io.github.chenfei0928.collection.WeakValueMap
 import io.github.chenfei0928.collection.WrapMutableMap
 import io.github.chenfei0928.collection.WrapMutableMapConvertor
+import java.lang.ref.SoftReference
 import java.lang.ref.WeakReference
 import java.util.WeakHashMap
 import kotlin.properties.ReadWriteProperty
@@ -52,6 +54,26 @@ interface MapCache<T, R> : ReadWriteProperty<T, R> {
             creator: (T) -> R,
         ) = Basic<T, R>(cache = WeakValueMap(cache), creator)
 
+        fun <T, R> SoftValue(
+            cache: MutableMap<T, SoftReference<R>> = HashMap(),
+            creator: (T) -> R,
+        ) = Basic<T, R>(cache = SoftValueMap(cache), creator)
+
+        /**
+         * 线程安全、有容量上限的缓存，见 [ConcurrentMapCache]
+         */
+        fun <T : Any, R : Any> Bounded(
+            maxSize: Int,
+            expireAfterWriteMillis: Long = 0,
+            expireAfterAccessMillis: Long = 0,
+            creator: (T) -> R,
+        ) = ConcurrentMapCache(
+            maxSize = maxSize,
+            expireAfterWriteMillis = expireAfterWriteMillis,
+            expireAfterAccessMillis = expireAfterAccessMillis,
+            creator = creator
+        )
+
         fun <R> Application(
             cache: MutableMap<Application, R> = WeakHashMap(),
             creator: (Context) -> R
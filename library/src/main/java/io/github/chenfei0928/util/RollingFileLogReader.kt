@@ -0,0 +1,146 @@
+package io.github.chenfei0928.util
+
+import java.io.BufferedInputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.EOFException
+import java.io.File
+import java.io.IOException
+import java.io.InputStream
+import java.nio.CharBuffer
+import java.util.zip.GZIPInputStream
+
+/**
+ * 读取[RollingFileLogSink]写入的分段日志文件，并按写入顺序合并还原为文本
+ *
+ * 每行的格式为`yyyy-MM-dd HH:mm:ss.SSS pid-tid/线程名 等级/tag: 内容`，
+ * 分段末尾未完整写入的记录（如进程被杀死时）会被忽略。
+ *
+ * @author chenf()
+ * @date 2026-10-18 22:40
+ */
+object RollingFileLogReader {
+    internal const val MAGIC = 0x434C4F47
+    internal const val VERSION = 1
+    internal const val SEGMENT_EXT = ".seg"
+    internal const val GZIP_EXT = ".gz"
+    private const val LEVEL_CHARS = "??VDIWEA"
+
+    /**
+     * 获取[dir]中[name]的所有分段文件，按写入顺序排列。
+     * 同一分段同时存在压缩与未压缩的文件时（压缩尚未完成），只返回未压缩的文件
+     */
+    fun listSegments(dir: File, name: String): List<File> {
+        val files = dir.listFiles { file ->
+            file.name.startsWith("$name.") && segmentIndex(file, name) >= 0
+        } ?: return emptyList()
+        return files.groupBy { segmentIndex(it, name) }
+            .toSortedMap()
+            .values
+            .map { sameIndex -> sameIndex.minBy { it.name.length } }
+    }
+
+    internal fun segmentIndex(file: File, name: String): Long {
+        val fileName = file.name
+        val end = when {
+            fileName.endsWith(SEGMENT_EXT) -> fileName.length - SEGMENT_EXT.length
+            fileName.endsWith(SEGMENT_EXT + GZIP_EXT) ->
+                fileName.length - SEGMENT_EXT.length - GZIP_EXT.length
+            else -> return -1
+        }
+        val start = name.length + 1
+        return if (start >= end) -1 else fileName.substring(start, end).toLongOrNull() ?: -1
+    }
+
+    /**
+     * 将[dir]中[name]的所有分段合并为文本写入[output]
+     */
+    @Throws(IOException::class)
+    fun merge(dir: File, name: String, output: Appendable) {
+        listSegments(dir, name).forEach { read(it, output) }
+    }
+
+    /**
+     * 将[dir]中[name]的所有分段合并为文本文件[target]
+     */
+    @Throws(IOException::class)
+    fun mergeTo(dir: File, name: String, target: File) {
+        target.bufferedWriter().use { merge(dir, name, it) }
+    }
+
+    /**
+     * 将单个分段文件还原为文本写入[output]
+     */
+    @Throws(IOException::class)
+    fun read(segment: File, output: Appendable) {
+        val inputStream: InputStream = if (segment.name.endsWith(GZIP_EXT)) {
+            GZIPInputStream(segment.inputStream())
+        } else {
+            segment.inputStream()
+        }
+        DataInputStream(BufferedInputStream(inputStream)).use {
+            read(it, output)
+        }
+    }
+
+    private fun read(input: DataInputStream, output: Appendable) {
+        val pid = try {
+            if (input.readInt() != MAGIC || input.readUnsignedByte() != VERSION) {
+                throw IOException("Not a log segment")
+            }
+            input.readInt()
+        } catch (_: EOFException) {
+            return
+        }
+        val dateFormat = FastDateTimeFormatter()
+        val dateBuffer = CharArray(FastDateTimeFormatter.Layout.DATE_TIME_MILLIS.length)
+        while (true) {
+            try {
+                val level = input.read()
+                if (level < 0) {
+                    return
+                }
+                val dateLength = dateFormat.format(input.readLong(), dateBuffer)
+                val tid = input.readLong()
+                val threadName = input.readUTF()
+                val tag = input.readUTF()
+                val msg = readLongString(input)
+                val trace = readLongString(input)
+                output.append(CharBuffer.wrap(dateBuffer, 0, dateLength)).append(' ')
+                    .append(pid.toString()).append('-').append(tid.toString())
+                    .append('/').append(threadName).append(' ')
+                    .append(LEVEL_CHARS.getOrElse(level) { '?' }).append('/')
+                    .append(tag).append(": ").append(msg).append('\n')
+                if (trace != null) {
+                    output.append(trace)
+                    if (!trace.endsWith('\n')) {
+                        output.append('\n')
+                    }
+                }
+            } catch (_: EOFException) {
+                // 末尾未完整写入的记录
+                return
+            }
+        }
+    }
+
+    internal fun writeLongString(output: DataOutputStream, value: String?) {
+        if (value == null) {
+            output.writeInt(-1)
+        } else {
+            val bytes = value.toByteArray(Charsets.UTF_8)
+            output.writeInt(bytes.size)
+            output.write(bytes)
+        }
+    }
+
+    private fun readLongString(input: DataInputStream): String? {
+        val length = input.readInt()
+        if (length < 0) {
+            return null
+        }
+        val bytes = ByteArray(length)
+        input.readFully(bytes)
+        return String(bytes, Charsets.UTF_8)
+    }
+}
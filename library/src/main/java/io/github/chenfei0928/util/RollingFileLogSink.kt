@@ -0,0 +1,258 @@
+package io.github.chenfei0928.util
+
+import android.content.Context
+import androidx.annotation.IntRange
+import io.github.chenfei0928.app.ProcessUtil
+import io.github.chenfei0928.concurrent.BgTaskExecutor
+import io.github.chenfei0928.concurrent.ExecutorUtil
+import io.github.chenfei0928.lang.printStackTrace
+import java.io.BufferedOutputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+import java.util.zip.GZIPOutputStream
+
+/**
+ * 进程内的滚动分段二进制日志文件输出，用于替代通过logcat子进程读取日志的[FileLogUtil]
+ *
+ * 日志以二进制记录追加写入到[dir]下名为`<name>.<序号>.seg`的分段文件中，不进行日期等格式化，
+ * 分段文件超过[Config.segmentSize]时滚动到新的分段，所有分段的总大小超过[Config.maxTotalSize]时删除最旧的分段。
+ * 写入经过缓冲，在未刷新数据超过[Config.flushThresholdBytes]或距上次刷新超过[Config.flushIntervalMillis]时
+ * 才刷新到文件，而不是每行都进行一次系统调用，定时刷新在进程内共享的日志刷新线程中执行，不占用主线程。
+ * 已关闭的分段可以在后台压缩为`.seg.gz`。通过[RollingFileLogReader]将分段合并还原为文本。
+ *
+ * 建议作为[AsyncLogger]的下游使用，以使写入在日志消费线程中进行并获取到日志记录时的时间戳与线程。
+ * 内部出错时只会输出到[android.util.Log]，避免再次进入[Log]。
+ *
+ * @param executor 压缩已关闭分段的后台线程池
+ * @author chenf()
+ * @date 2026-10-18 22:40
+ */
+class RollingFileLogSink(
+    private val dir: File,
+    private val name: String,
+    private val config: Config = Config(),
+    private val executor: BgTaskExecutor = ExecutorUtil,
+) : AsyncLogger.Sink {
+    private val lock = Any()
+    private val pid = android.os.Process.myPid()
+    private var output: DataOutputStream? = null
+    private var segmentIndex = -1L
+    private var unflushedBytes = 0
+    private var lastFlushMillis = 0L
+    private var scheduledFlush: ScheduledFuture<*>? = null
+
+    private val flushTask = Runnable { flush() }
+
+    override fun log(
+        level: Int, tag: String, msg: String, tr: Throwable?, timeMillis: Long, thread: Thread
+    ) {
+        val trace = tr?.let { StringBuilder().apply { it.printStackTrace(this) }.toString() }
+        synchronized(lock) {
+            try {
+                val output = output ?: openNextSegment()
+                val start = output.size()
+                output.writeByte(level)
+                output.writeLong(timeMillis)
+                output.writeLong(thread.id)
+                output.writeUTF(truncateUTF(thread.name))
+                output.writeUTF(truncateUTF(tag))
+                RollingFileLogReader.writeLongString(output, msg)
+                RollingFileLogReader.writeLongString(output, trace)
+                unflushedBytes += output.size() - start
+                if (unflushedBytes >= config.flushThresholdBytes
+                    || timeMillis - lastFlushMillis >= config.flushIntervalMillis
+                ) {
+                    flushLocked()
+                } else if (scheduledFlush == null) {
+                    scheduledFlush = flushScheduler.schedule(
+                        flushTask, config.flushIntervalMillis, TimeUnit.MILLISECONDS
+                    )
+                }
+                if (output.size() >= config.segmentSize) {
+                    closeSegmentLocked()
+                }
+            } catch (e: IOException) {
+                android.util.Log.e(TAG, "log: write failed", e)
+                closeQuietlyLocked()
+            }
+        }
+    }
+
+    /**
+     * 将缓冲中的日志刷新到文件
+     */
+    fun flush() {
+        synchronized(lock) {
+            try {
+                flushLocked()
+            } catch (e: IOException) {
+                android.util.Log.e(TAG, "flush: ", e)
+                closeQuietlyLocked()
+            }
+        }
+    }
+
+    /**
+     * 刷新并关闭当前分段，之后的日志将写入新的分段
+     */
+    fun close() {
+        synchronized(lock) {
+            try {
+                closeSegmentLocked()
+            } catch (e: IOException) {
+                android.util.Log.e(TAG, "close: ", e)
+                closeQuietlyLocked()
+            }
+        }
+    }
+
+    /**
+     * 获取所有分段文件，按写入顺序排列
+     */
+    fun segments(): List<File> = RollingFileLogReader.listSegments(dir, name)
+
+    private fun cancelScheduledFlushLocked() {
+        scheduledFlush?.cancel(false)
+        scheduledFlush = null
+    }
+
+    private fun flushLocked() {
+        cancelScheduledFlushLocked()
+        output?.flush()
+        unflushedBytes = 0
+        lastFlushMillis = System.currentTimeMillis()
+    }
+
+    private fun openNextSegment(): DataOutputStream {
+        if (segmentIndex < 0) {
+            dir.mkdirs()
+            segmentIndex = segments().maxOfOrNull {
+                RollingFileLogReader.segmentIndex(it, name)
+            } ?: -1L
+        }
+        segmentIndex++
+        val file = File(dir, "$name.$segmentIndex${RollingFileLogReader.SEGMENT_EXT}")
+        val output = DataOutputStream(
+            BufferedOutputStream(FileOutputStream(file, true), config.bufferSize)
+        )
+        output.writeInt(RollingFileLogReader.MAGIC)
+        output.writeByte(RollingFileLogReader.VERSION)
+        output.writeInt(pid)
+        this.output = output
+        lastFlushMillis = System.currentTimeMillis()
+        enforceBudget()
+        return output
+    }
+
+    private fun closeSegmentLocked() {
+        val output = output ?: return
+        this.output = null
+        cancelScheduledFlushLocked()
+        output.close()
+        unflushedBytes = 0
+        if (config.compressClosedSegments) {
+            val file = File(dir, "$name.$segmentIndex${RollingFileLogReader.SEGMENT_EXT}")
+            executor.postToBgLane(file, false) { compress(file) }
+        }
+    }
+
+    private fun closeQuietlyLocked() {
+        cancelScheduledFlushLocked()
+        try {
+            output?.close()
+        } catch (_: IOException) {
+            // noop
+        }
+        output = null
+        unflushedBytes = 0
+    }
+
+    /**
+     * 删除最旧的分段，直到所有分段的总大小不超过[Config.maxTotalSize]
+     */
+    private fun enforceBudget() {
+        val segments = segments()
+        var total = segments.sumOf { it.length() }
+        // 正在写入的分段总是最后一个，不会被删除
+        for (index in 0 until segments.size - 1) {
+            if (total <= config.maxTotalSize) {
+                return
+            }
+            total -= segments[index].length()
+            segments[index].delete()
+        }
+    }
+
+    private fun compress(file: File) {
+        val target = File(file.path + RollingFileLogReader.GZIP_EXT)
+        try {
+            file.inputStream().use { input ->
+                GZIPOutputStream(target.outputStream()).use { input.copyTo(it) }
+            }
+            file.delete()
+        } catch (e: IOException) {
+            android.util.Log.e(TAG, "compress: $file", e)
+            target.delete()
+        }
+    }
+
+    /**
+     * @param segmentSize 单个分段文件的大小上限
+     * @param maxTotalSize 所有分段文件的总大小上限
+     * @param bufferSize 写入缓冲区大小
+     * @param flushThresholdBytes 未刷新的数据超过该大小时刷新到文件
+     * @param flushIntervalMillis 距上次刷新超过该时长时刷新到文件
+     * @param compressClosedSegments 是否在后台压缩已关闭的分段
+     */
+    data class Config(
+        @IntRange(from = 1) val segmentSize: Int = 1024 * 1024,
+        @IntRange(from = 1) val maxTotalSize: Long = 16L * 1024 * 1024,
+        @IntRange(from = 1) val bufferSize: Int = 16 * 1024,
+        @IntRange(from = 0) val flushThresholdBytes: Int = 8 * 1024,
+        @IntRange(from = 0) val flushIntervalMillis: Long = 3000,
+        val compressClosedSegments: Boolean = true,
+    )
+
+    companion object {
+        private const val TAG = "Ut_RollingFileLogSink"
+
+        // DataOutputStream.writeUTF的编码后长度上限为65535字节，每个字符编码后最多3字节
+        private const val MAX_UTF_CHARS = 65535 / 3
+
+        private val flushScheduler: ScheduledExecutorService by lazy {
+            Executors.newSingleThreadScheduledExecutor { r ->
+                Thread(r, "RollingFileLogFlush").apply { isDaemon = true }
+            }
+        }
+
+        /**
+         * 截断超出[DataOutputStream.writeUTF]长度上限的字符串，避免其抛出异常导致整个分段写入失败
+         */
+        private fun truncateUTF(value: String): String {
+            if (value.length <= MAX_UTF_CHARS) {
+                return value
+            }
+            // 不拆分代理对
+            val end = if (Character.isHighSurrogate(value[MAX_UTF_CHARS - 1])) {
+                MAX_UTF_CHARS - 1
+            } else {
+                MAX_UTF_CHARS
+            }
+            return value.substring(0, end)
+        }
+
+        /**
+         * 在[FileLogUtil]相同的日志目录中创建以进程名命名的日志输出
+         */
+        fun create(context: Context, config: Config = Config()): RollingFileLogSink {
+            val name = ProcessUtil.getProcessName(context).ifEmpty { context.packageName }
+            return RollingFileLogSink(FileLogUtil.getLogDir(context), name.replace(':', '_'), config)
+        }
+    }
+}
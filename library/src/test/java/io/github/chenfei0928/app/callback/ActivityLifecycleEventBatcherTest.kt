@@ -0,0 +1,56 @@
+package io.github.chenfei0928.app.callback
+
+import androidx.lifecycle.Lifecycle
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+/**
+ * 验证[ActivityLifecycleEventBatcher]在时间窗口内合并事件且保持顺序，以及[ActivityLifecycleEventBus]按顺序分发每个事件
+ *
+ * @author chenf()
+ * @date 2026-10-19 03:40
+ */
+class ActivityLifecycleEventBatcherTest {
+
+    @Test
+    fun batchAndOrder() {
+        val scheduled = ArrayList<Runnable>()
+        val batches = ArrayList<List<ActivityInfo>>()
+        val batcher = ActivityLifecycleEventBatcher(scheduled::add, batches::add)
+        val events = listOf(
+            Lifecycle.Event.ON_CREATE,
+            Lifecycle.Event.ON_START,
+            Lifecycle.Event.ON_RESUME,
+        ).map { activityInfo(1, it) }
+        events.forEach(batcher::add)
+        // 时间窗口内只调度一次
+        assertEquals(1, scheduled.size)
+        scheduled.removeAt(0).run()
+        assertEquals(listOf(events), batches)
+
+        // 发送后的事件进入新的批次
+        val next = activityInfo(1, Lifecycle.Event.ON_PAUSE)
+        batcher.add(next)
+        assertEquals(1, scheduled.size)
+        scheduled.removeAt(0).run()
+        assertEquals(listOf(events, listOf(next)), batches)
+    }
+
+    @Test
+    fun dispatchEveryEventInOrder() {
+        val received = ArrayList<ActivityInfo>()
+        val listener = ActivityLifecycleEventBus.Listener { received.add(it) }
+        ActivityLifecycleEventBus.observeForever(listener)
+        try {
+            val events = Lifecycle.Event.values().take(6).mapIndexed { index, event -> activityInfo(index, event) }
+            ActivityLifecycleEventBus.dispatch(events[0])
+            ActivityLifecycleEventBus.dispatchBatch(events.subList(1, events.size))
+            assertEquals(events, received)
+        } finally {
+            ActivityLifecycleEventBus.removeObserver(listener)
+        }
+    }
+
+    private fun activityInfo(hashCode: Int, event: Lifecycle.Event) =
+        ActivityInfo("process", "package", "Activity", hashCode, event)
+}
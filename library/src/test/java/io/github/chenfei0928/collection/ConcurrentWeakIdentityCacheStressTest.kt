@@ -0,0 +1,72 @@
+package io.github.chenfei0928.collection
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CyclicBarrier
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 验证[ConcurrentWeakIdentityCache]在多线程同时首次访问时每个key只创建一次值，以及key被回收后条目被移除
+ *
+ * @author chenf()
+ * @date 2026-10-19 04:30
+ */
+class ConcurrentWeakIdentityCacheStressTest {
+
+    @Test
+    fun uniqueCreationUnderContention() {
+        val cache = ConcurrentWeakIdentityCache<Any, Any>()
+        val keys = Array(KEY_COUNT) { Any() }
+        val created = AtomicInteger()
+        val barrier = CyclicBarrier(THREAD_COUNT)
+        val results = Array(THREAD_COUNT) { arrayOfNulls<Any>(KEY_COUNT) }
+        val pool = Executors.newFixedThreadPool(THREAD_COUNT)
+        repeat(THREAD_COUNT) { thread ->
+            pool.execute {
+                barrier.await()
+                // 每个线程以不同的顺序访问，增加同一个key上的竞争
+                for (i in keys.indices) {
+                    val index = (i + thread * 7) % KEY_COUNT
+                    results[thread][index] = cache.getOrCreate(keys[index]) {
+                        created.incrementAndGet()
+                        Any()
+                    }
+                }
+            }
+        }
+        pool.shutdown()
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS))
+        assertEquals(KEY_COUNT, created.get())
+        keys.forEachIndexed { index, key ->
+            val value = cache[key]
+            results.forEach { assertSame(value, it[index]) }
+        }
+    }
+
+    @Test
+    fun staleKeyCleanup() {
+        val cache = ConcurrentWeakIdentityCache<Any, Any>()
+        val retained = Any()
+        cache.getOrCreate(retained) { Any() }
+        repeat(KEY_COUNT) { cache.getOrCreate(Any()) { Any() } }
+        for (attempt in 0 until 50) {
+            System.gc()
+            Thread.sleep(20)
+            cache.expungeStaleEntries()
+            if (cache.size == 1) {
+                break
+            }
+        }
+        assertEquals(1, cache.size)
+        assertTrue(cache[retained] != null)
+    }
+
+    companion object {
+        private const val THREAD_COUNT = 16
+        private const val KEY_COUNT = 1000
+    }
+}
@@ -0,0 +1,193 @@
+package io.github.chenfei0928.collection
+
+import androidx.recyclerview.widget.RecyclerView
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Test
+import kotlin.random.Random
+
+/**
+ * 随机通过视图修改或直接修改数据源并调用`onSourceRange*`后，将[IndexedFilterList]的
+ * [IndexedFilterList.get]、[IndexedFilterList.size]、[IndexedFilterList.toFilteredIndex]与[FilterList]的过滤结果对比，
+ * 并将发出的[RecyclerView.AdapterDataObserver]事件应用到一个模拟适配器的镜像列表上，验证事件与过滤结果的变化一致
+ *
+ * @author chenf()
+ * @date 2026-10-19 14:00
+ */
+class IndexedFilterListTest {
+
+    @Test
+    fun randomOperations() {
+        repeat(SEED_COUNT) { seed ->
+            RandomOperations(Random(seed)).run()
+        }
+    }
+
+    private class Item(val id: Int, var value: Int) {
+        override fun toString(): String = "Item($id, $value)"
+    }
+
+    /**
+     * 模拟适配器持有的列表：插入与变化的位置记为null，表示适配器会重新绑定该位置，其余位置的元素应保持不变
+     */
+    private class MirrorObserver : RecyclerView.AdapterDataObserver() {
+        val mirror = ArrayList<Item?>()
+        var fullChanged = false
+
+        override fun onChanged() {
+            fullChanged = true
+        }
+
+        override fun onItemRangeChanged(positionStart: Int, itemCount: Int) {
+            for (i in positionStart until positionStart + itemCount) {
+                mirror[i] = null
+            }
+        }
+
+        override fun onItemRangeInserted(positionStart: Int, itemCount: Int) {
+            mirror.addAll(positionStart, List(itemCount) { null })
+        }
+
+        override fun onItemRangeRemoved(positionStart: Int, itemCount: Int) {
+            require(positionStart + itemCount <= mirror.size) { "removed $positionStart+$itemCount of ${mirror.size}" }
+            mirror.subList(positionStart, positionStart + itemCount).clear()
+        }
+    }
+
+    private class RandomOperations(
+        private val random: Random,
+    ) {
+        private var nextId = 0
+        private val source = MutableList(INITIAL_SIZE) { newItem() }
+        private val predicates = listOf<(Item) -> Boolean>({ it.value % 3 != 0 }, { it.value % 2 == 0 })
+        private val indexed = IndexedFilterList(source, predicates[0])
+        private val reference = FilterList(source, false, predicates[0])
+        private val observer = MirrorObserver()
+
+        // 本次操作中内容被修改的元素，仍符合过滤条件时必须通知变化
+        private val mutated = HashSet<Item>()
+
+        fun run() {
+            indexed.adapterDataObserver = observer
+            observer.mirror.addAll(reference.snapshot())
+            repeat(OPERATION_COUNT) { step ->
+                mutated.clear()
+                observer.fullChanged = false
+                val operation = randomOperation()
+                reference.notifyFilterOrDataSourceUpdate()
+                verify("step $step: $operation")
+            }
+        }
+
+        // FilterList 的 toArray 委托给了数据源，逐个读取过滤结果
+        private fun FilterList<Item>.snapshot(): List<Item> = List(size) { this[it] }
+
+        private fun newItem(): Item = Item(nextId++, random.nextInt(VALUE_RANGE))
+
+        private fun newItems(): List<Item> = List(random.nextInt(4)) { newItem() }
+
+        @Suppress("CyclomaticComplexMethod")
+        private fun randomOperation(): String = when (random.nextInt(11)) {
+            0 -> {
+                val index = random.nextInt(indexed.size + 1)
+                indexed.add(index, newItem())
+                "add($index)"
+            }
+            1 -> {
+                val index = random.nextInt(indexed.size + 1)
+                val items = newItems()
+                indexed.addAll(index, items)
+                "addAll($index, ${items.size})"
+            }
+            2 -> if (indexed.isEmpty()) "noop" else {
+                val index = random.nextInt(indexed.size)
+                indexed.removeAt(index)
+                "removeAt($index)"
+            }
+            3 -> if (indexed.isEmpty()) "noop" else {
+                val index = random.nextInt(indexed.size)
+                indexed[index] = newItem()
+                "set($index)"
+            }
+            4 -> if (random.nextInt(20) != 0) "noop" else {
+                indexed.clear()
+                "clear"
+            }
+            5, 6 -> {
+                val start = random.nextInt(source.size + 1)
+                val items = newItems()
+                source.addAll(start, items)
+                indexed.onSourceRangeInserted(start, items.size)
+                "onSourceRangeInserted($start, ${items.size})"
+            }
+            7 -> {
+                val start = random.nextInt(source.size + 1)
+                val count = random.nextInt(minOf(4, source.size - start) + 1)
+                source.subList(start, start + count).clear()
+                indexed.onSourceRangeRemoved(start, count)
+                "onSourceRangeRemoved($start, $count)"
+            }
+            8, 9 -> {
+                val start = random.nextInt(source.size + 1)
+                val count = random.nextInt(minOf(6, source.size - start) + 1)
+                for (i in start until start + count) {
+                    // 部分元素内容不变，部分由符合变为不符合过滤条件或相反
+                    if (random.nextBoolean()) {
+                        source[i].value = random.nextInt(VALUE_RANGE)
+                    }
+                    mutated.add(source[i])
+                }
+                indexed.onSourceRangeChanged(start, count)
+                "onSourceRangeChanged($start, $count)"
+            }
+            else -> if (random.nextInt(10) != 0) "noop" else {
+                val predicate = predicates.random(random)
+                indexed.filterPredicate = predicate
+                reference.filterPredicate = predicate
+                "filterPredicate"
+            }
+        }
+
+        private fun verify(message: String) {
+            assertEquals(message, reference.size, indexed.size)
+            for (i in reference.indices) {
+                assertSame(message, reference[i], indexed[i])
+            }
+            var matched = 0
+            for (realIndex in source.indices) {
+                val expected = if (reference.filterPredicate(source[realIndex])) {
+                    reference.indexOf(source[realIndex])
+                } else {
+                    -matched - 1
+                }
+                assertEquals("$message, realIndex $realIndex", expected, indexed.toFilteredIndex(realIndex))
+                if (expected >= 0) {
+                    matched++
+                }
+            }
+            val mirror = observer.mirror
+            if (!observer.fullChanged) {
+                assertEquals(message, reference.size, mirror.size)
+                for (i in reference.indices) {
+                    val item = mirror[i]
+                    if (reference[i] in mutated) {
+                        assertNull("$message, position $i not notified", item)
+                    } else if (item != null) {
+                        assertSame("$message, position $i", reference[i], item)
+                    }
+                }
+            }
+            // 适配器重新绑定了所有通知过的位置
+            mirror.clear()
+            mirror.addAll(reference.snapshot())
+        }
+    }
+
+    companion object {
+        private const val SEED_COUNT = 50
+        private const val OPERATION_COUNT = 500
+        private const val INITIAL_SIZE = 20
+        private const val VALUE_RANGE = 12
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.chenfei0928.collection
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.lang.ref.WeakReference
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 验证[WeakValueMap]、[ConcurrentWeakValueMap]在值被回收后通过引用队列移除条目，遍历期间发生GC时跳过已回收的值，
+ * 以及并发getOrPut的原子性
+ *
+ * @author chenf()
+ * @date 2026-10-19 02:10
+ */
+class WeakValueMapTest {
+
+    @Test
+    fun staleEntryCleanup() {
+        val map = WeakValueMap<Int, Any>(HashMap())
+        val retained = Any()
+        map[-1] = retained
+        repeat(ENTRY_COUNT) { map[it] = Any() }
+        // size 会排空引用队列并移除值已被回收的条目
+        awaitGc { map.size == 1 }
+        assertEquals(1, map.size)
+        assertSame(retained, map[-1])
+    }
+
+    @Test
+    fun iterateUnderGc() {
+        val map = WeakValueMap<Int, Any>(HashMap())
+        // 偶数key的值被持有，奇数key的值可以被回收
+        val retained = (0 until ENTRY_COUNT step 2).associateWith { Any() }
+        repeat(ENTRY_COUNT) { map[it] = retained[it] ?: Any() }
+        val iterator = map.entries.iterator()
+        val probe = WeakReference(Any())
+        // 打开迭代器后发生GC，引用被回收并进入引用队列
+        awaitGc { probe.get() == null }
+        val seen = ArrayList<Int>()
+        while (iterator.hasNext()) {
+            val entry = iterator.next()
+            System.gc()
+            // 跳过值已被回收的条目，遍历期间不修改底层map，不会抛出ConcurrentModificationException
+            assertTrue(entry.value != null)
+            if (entry.key % 4 == 0) {
+                iterator.remove()
+            } else {
+                seen.add(entry.key)
+            }
+        }
+        val expected = retained.keys.filter { it % 4 != 0 }
+        assertTrue(seen.containsAll(expected))
+        awaitGc { map.size == expected.size }
+        assertEquals(expected.toSet(), map.keys.toSet())
+        assertEquals(expected.size, map.values.size)
+        assertTrue(map.values.all { it != null })
+    }
+
+    @Test
+    fun concurrentStaleEntryCleanup() {
+        val map = ConcurrentWeakValueMap<Int, Any>()
+        val retained = Any()
+        map[-1] = retained
+        repeat(ENTRY_COUNT) { map[it] = Any() }
+        // 修改操作会排空引用队列
+        awaitGc { map.expungeStaleEntries(); map.size == 1 }
+        assertEquals(1, map.size)
+        assertSame(retained, map[-1])
+        assertEquals(listOf(-1), map.keys.toList())
+    }
+
+    @Test
+    fun concurrentGetOrPut() {
+        val map = ConcurrentWeakValueMap<Int, Any>()
+        val threads = 8
+        val pool = Executors.newFixedThreadPool(threads)
+        val start = CountDownLatch(1)
+        val created = AtomicInteger()
+        // 持有所有取到的值，避免测试过程中被回收
+        val results = Array(threads) { arrayOfNulls<Any>(KEY_COUNT) }
+        repeat(threads) { thread ->
+            pool.execute {
+                start.await()
+                repeat(KEY_COUNT) { key ->
+                    results[thread][key] = map.getOrPut(key) {
+                        created.incrementAndGet()
+                        Any()
+                    }
+                }
+            }
+        }
+        start.countDown()
+        pool.shutdown()
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS))
+        repeat(KEY_COUNT) { key ->
+            val value = map[key]
+            results.forEach { assertSame(value, it[key]) }
+        }
+        assertEquals(KEY_COUNT, map.size)
+        assertTrue(created.get() >= KEY_COUNT)
+    }
+
+    private inline fun awaitGc(condition: () -> Boolean) {
+        repeat(GC_ATTEMPTS) {
+            System.gc()
+            Thread.sleep(GC_INTERVAL_MILLIS)
+            if (condition()) {
+                return
+            }
+        }
+    }
+
+    companion object {
+        private const val ENTRY_COUNT = 1000
+        private const val KEY_COUNT = 10_000
+        private const val GC_ATTEMPTS = 50
+        private const val GC_INTERVAL_MILLIS = 20L
+    }
+}
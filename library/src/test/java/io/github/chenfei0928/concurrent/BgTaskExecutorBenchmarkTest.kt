@@ -0,0 +1,128 @@
+package io.github.chenfei0928.concurrent
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 对比[BgTaskExecutorImpl]与[BgTaskPoolExecutorImpl]的吞吐量与入队延迟
+ *
+ * @author chenf()
+ * @date 2026-10-18 11:05
+ */
+class BgTaskExecutorBenchmarkTest {
+
+    @Test
+    fun compareThroughputAndEnqueueLatency() {
+        // 预热
+        benchmark("warmup", BgTaskExecutorImpl("warmup"))
+        benchmark("warmup", BgTaskPoolExecutorImpl("warmupPool"))
+
+        benchmark("BgTaskExecutorImpl", BgTaskExecutorImpl("single"))
+        benchmark("BgTaskPoolExecutorImpl(1)", BgTaskPoolExecutorImpl("pool1", 1))
+        benchmark("BgTaskPoolExecutorImpl(4)", BgTaskPoolExecutorImpl("pool4", 4))
+    }
+
+    @Test
+    fun shutdownAfterPendingTasks() {
+        val executor = BgTaskPoolExecutorImpl("shutdown", 2)
+        val executed = AtomicInteger()
+        repeat(100) {
+            executor.postToBg { executed.incrementAndGet() }
+        }
+        executor.shutdown()
+        assertFalse(executor.postToBg { executed.incrementAndGet() })
+        awaitNoWorker(executor)
+        assertEquals(100, executed.get())
+        assertEquals(0, executor.pendingTaskCount)
+    }
+
+    @Test
+    fun errorDoesNotLoseWorker() {
+        val executor = BgTaskPoolExecutorImpl("error", 1)
+        try {
+            val afterError = CountDownLatch(1)
+            executor.postToBg { throw AssertionError("expected") }
+            executor.postToBg { afterError.countDown() }
+            // 抛出Error的工作线程退出后由新的工作线程继续执行剩余任务
+            assertTrue(afterError.await(5, TimeUnit.SECONDS))
+            assertTrue(executor.workerThreadCount <= 1)
+        } finally {
+            executor.shutdown()
+        }
+    }
+
+    @Test
+    fun priorityAndRemove() {
+        val executor = BgTaskPoolExecutorImpl("priority", 1)
+        val blocker = CountDownLatch(1)
+        executor.postToBg { blocker.await() }
+        val order = mutableListOf<Int>()
+        val done = CountDownLatch(2)
+        val removed = Runnable { order.add(-1) }
+        executor.postToBg(BgTaskPoolExecutorImpl.PRIORITY_LOW) { order.add(1); done.countDown() }
+        executor.postToBg(removed)
+        executor.postToBg(BgTaskPoolExecutorImpl.PRIORITY_HIGH) { order.add(0); done.countDown() }
+        assertTrue(executor.containInBg(removed))
+        executor.removeBgCallbacks(removed)
+        assertTrue(!executor.containInBg(removed))
+        blocker.countDown()
+        assertTrue(done.await(5, TimeUnit.SECONDS))
+        assertEquals(listOf(0, 1), order)
+        executor.shutdown()
+    }
+
+    private fun awaitNoWorker(executor: BgTaskPoolExecutorImpl) {
+        val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5)
+        while (executor.workerThreadCount > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10)
+        }
+        assertEquals(0, executor.workerThreadCount)
+    }
+
+    private fun benchmark(name: String, executor: BgTaskExecutor) {
+        val latch = CountDownLatch(TASK_COUNT)
+        val executed = AtomicInteger()
+        val threads = Collections.synchronizedSet(HashSet<Thread>())
+        var maxEnqueueNanos = 0L
+        val start = System.nanoTime()
+        repeat(TASK_COUNT) {
+            val enqueueStart = System.nanoTime()
+            executor.postToBg {
+                // 模拟少量计算
+                var x = 0L
+                repeat(WORK) { x += it * 31L }
+                if (x == Long.MIN_VALUE) println(x)
+                executed.incrementAndGet()
+                threads.add(Thread.currentThread())
+                latch.countDown()
+            }
+            maxEnqueueNanos = maxOf(maxEnqueueNanos, System.nanoTime() - enqueueStart)
+        }
+        val enqueueNanos = System.nanoTime() - start
+        assertTrue(latch.await(30, TimeUnit.SECONDS))
+        val totalNanos = System.nanoTime() - start
+        // 每个任务只执行一次，且只在执行器自己的后台线程上执行
+        assertEquals(TASK_COUNT, executed.get())
+        assertTrue(threads.none { it === Thread.currentThread() })
+        if (executor is BgTaskPoolExecutorImpl) {
+            assertEquals(0, executor.pendingTaskCount)
+            executor.shutdown()
+            awaitNoWorker(executor)
+        }
+        println(
+            "$name: enqueue avg ${enqueueNanos / TASK_COUNT}ns, max ${maxEnqueueNanos / 1000}us, " +
+                    "throughput ${TASK_COUNT * 1_000_000_000L / totalNanos} tasks/s"
+        )
+    }
+
+    companion object {
+        private const val TASK_COUNT = 20_000
+        private const val WORK = 2_000
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.chenfei0928.concurrent
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 验证[BgTaskExecutor.postToBgLane]的串行通道：同一通道按提交顺序串行执行、supersede只保留最后提交的任务、
+ * 任务抛出Error后通道仍可继续使用
+ *
+ * @author chenf()
+ * @date 2026-10-19 09:30
+ */
+class BgTaskLanesTest {
+    private val executor = BgTaskPoolExecutorImpl("lanes", 4)
+
+    @After
+    fun tearDown() {
+        executor.shutdown()
+    }
+
+    @Test
+    fun serialInOrderPerLane() {
+        val lanes = Array(LANE_COUNT) { Any() }
+        val orders = Array(LANE_COUNT) { Collections.synchronizedList(ArrayList<Int>()) }
+        val running = Array(LANE_COUNT) { AtomicInteger() }
+        val maxRunning = AtomicInteger()
+        val done = CountDownLatch(LANE_COUNT * TASK_COUNT)
+        repeat(TASK_COUNT) { index ->
+            lanes.forEachIndexed { lane, key ->
+                executor.postToBgLane(key, false) {
+                    val concurrent = running[lane].incrementAndGet()
+                    maxRunning.accumulateAndGet(concurrent) { a, b -> maxOf(a, b) }
+                    orders[lane].add(index)
+                    running[lane].decrementAndGet()
+                    done.countDown()
+                }
+            }
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS))
+        assertEquals(1, maxRunning.get())
+        orders.forEach { assertEquals((0 until TASK_COUNT).toList(), it) }
+    }
+
+    @Test
+    fun supersedeKeepsLast() {
+        val key = Any()
+        val started = CountDownLatch(1)
+        val blocker = CountDownLatch(1)
+        val executed = Collections.synchronizedList(ArrayList<Int>())
+        executor.postToBgLane(key, false) {
+            started.countDown()
+            blocker.await()
+            executed.add(0)
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS))
+        val last = CountDownLatch(1)
+        for (index in 1..10) {
+            executor.postToBgLane(key, true) {
+                executed.add(index)
+                last.countDown()
+            }
+        }
+        blocker.countDown()
+        assertTrue(last.await(5, TimeUnit.SECONDS))
+        // 正在执行的任务不会被替换，未开始执行的任务只保留最后一个
+        assertEquals(listOf(0, 10), executed)
+    }
+
+    @Test
+    fun laneUsableAfterError() {
+        val key = Any()
+        val afterError = CountDownLatch(2)
+        executor.postToBgLane(key, false) { throw AssertionError("expected") }
+        executor.postToBgLane(key, false) { afterError.countDown() }
+        executor.postToBgLane(key, false) { afterError.countDown() }
+        assertTrue(afterError.await(5, TimeUnit.SECONDS))
+        // 通道执行完毕后被移除，再次提交仍会执行
+        val again = CountDownLatch(1)
+        executor.postToBgLane(key, false) { again.countDown() }
+        assertTrue(again.await(5, TimeUnit.SECONDS))
+    }
+
+    companion object {
+        private const val LANE_COUNT = 8
+        private const val TASK_COUNT = 500
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.chenfei0928.concurrent
+
+import android.os.Looper
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.LifecycleOwner
+import androidx.lifecycle.LifecycleRegistry
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.Shadows.shadowOf
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.concurrent.thread
+
+/**
+ * 验证在非主线程通过[BgTaskPoolExecutorImpl.postToBg]提交带生命周期的任务后，生命周期监听不会泄漏
+ *
+ * @author chenf()
+ * @date 2026-10-19 09:10
+ */
+@RunWith(RobolectricTestRunner::class)
+class BgTaskPoolExecutorLifecycleTest {
+
+    @Test
+    fun observerRemovedAfterTaskRun() {
+        val owner = object : LifecycleOwner {
+            override val lifecycle = LifecycleRegistry(this)
+        }
+        owner.lifecycle.currentState = Lifecycle.State.RESUMED
+        val executor = BgTaskPoolExecutorImpl("lifecycle", 4)
+        val done = CountDownLatch(TASK_COUNT)
+        thread {
+            repeat(TASK_COUNT) {
+                executor.postToBg(owner, Lifecycle.Event.ON_DESTROY) { done.countDown() }
+            }
+        }.join()
+        assertTrue(done.await(5, TimeUnit.SECONDS))
+        // 等待所有任务的后续移除监听提交到主线程
+        executor.shutdown()
+        val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5)
+        while (executor.workerThreadCount > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10)
+        }
+        shadowOf(Looper.getMainLooper()).idle()
+        assertEquals(0, owner.lifecycle.observerCount)
+    }
+
+    companion object {
+        private const val TASK_COUNT = 200
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.chenfei0928.concurrent
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * 验证[BgTaskPoolExecutorImpl.OverflowPolicy.DISCARD_OLDEST]在混合优先级的队列已满时，
+ * 丢弃优先级最低的任务中最早提交的一个，队列中的任务优先级都高于新任务时丢弃新任务
+ *
+ * @author chenf()
+ * @date 2026-10-19 16:20
+ */
+@RunWith(RobolectricTestRunner::class)
+class BgTaskPoolExecutorOverflowTest {
+
+    @Test
+    fun discardLowestOldest() {
+        val executor = BgTaskPoolExecutorImpl(
+            "overflow", 1, capacity = 4,
+            overflowPolicy = BgTaskPoolExecutorImpl.OverflowPolicy.DISCARD_OLDEST
+        )
+        val started = CountDownLatch(1)
+        val blocker = CountDownLatch(1)
+        try {
+            executor.postToBg {
+                started.countDown()
+                blocker.await()
+            }
+            // 等待工作线程取走阻塞任务，之后提交的任务都留在队列中
+            assertTrue(started.await(5, TimeUnit.SECONDS))
+            val order = Collections.synchronizedList(ArrayList<String>())
+            val done = CountDownLatch(4)
+            fun task(name: String) = Runnable { order.add(name); done.countDown() }
+
+            val low1 = task("low1")
+            val default1 = task("default1")
+            assertTrue(executor.postToBg(BgTaskPoolExecutorImpl.PRIORITY_LOW, low1))
+            assertTrue(executor.postToBg(default1))
+            assertTrue(executor.postToBg(BgTaskPoolExecutorImpl.PRIORITY_HIGH, task("high1")))
+            assertTrue(executor.postToBg(task("default2")))
+            assertEquals(4, executor.pendingTaskCount)
+
+            // 队列已满，丢弃优先级最低的low1而不是下一个将要执行的high1
+            assertTrue(executor.postToBg(task("default3")))
+            assertFalse(executor.containInBg(low1))
+            // 队列中的任务优先级都高于新任务，丢弃新任务
+            val low2 = task("low2")
+            assertFalse(executor.postToBg(BgTaskPoolExecutorImpl.PRIORITY_LOW, low2))
+            assertFalse(executor.containInBg(low2))
+            // 同为最低优先级时丢弃最早提交的default1
+            assertTrue(executor.postToBg(BgTaskPoolExecutorImpl.PRIORITY_HIGH, task("high2")))
+            assertFalse(executor.containInBg(default1))
+            assertEquals(4, executor.pendingTaskCount)
+
+            blocker.countDown()
+            assertTrue(done.await(5, TimeUnit.SECONDS))
+            assertEquals(listOf("high1", "high2", "default2", "default3"), order)
+        } finally {
+            blocker.countDown()
+            executor.shutdown()
+        }
+    }
+}
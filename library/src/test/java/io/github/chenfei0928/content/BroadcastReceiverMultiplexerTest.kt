@@ -0,0 +1,133 @@
+package io.github.chenfei0928.content
+
+import android.app.Application
+import android.content.Context
+import android.content.Intent
+import android.os.Looper
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.Shadows.shadowOf
+import org.robolectric.shadows.ShadowApplication
+import java.time.Duration
+
+/**
+ * 验证[BroadcastReceiverMultiplexer]多个订阅者共享一个系统广播注册，最后一个订阅者离开并延迟后才反注册，
+ * 延迟期间重新订阅复用已有的注册，以及已注册的action上新增的订阅者收到缓存的粘性广播
+ *
+ * @author chenf()
+ * @date 2026-10-19 16:50
+ */
+@RunWith(RobolectricTestRunner::class)
+class BroadcastReceiverMultiplexerTest {
+    private lateinit var application: Application
+    private lateinit var shadowApplication: ShadowApplication
+    private val multiplexer = BroadcastReceiverMultiplexer(unregisterDelayMillis = UNREGISTER_DELAY_MILLIS)
+
+    @Before
+    fun setUp() {
+        application = RuntimeEnvironment.getApplication()
+        shadowApplication = shadowOf(application)
+    }
+
+    @Test
+    fun sharedRegistration() {
+        val subscribers = List(3) { RecordingSubscriber() }
+        subscribers.forEach { multiplexer.subscribe(application, listOf(ACTION), it) }
+        assertEquals(1, shadowApplication.registeredReceivers.size)
+
+        application.sendBroadcast(Intent(ACTION))
+        idleMain()
+        subscribers.forEach { assertEquals(listOf(ACTION), it.actions) }
+
+        // 新的action注册新的系统广播接收者，已注册的action不会重复注册
+        val other = RecordingSubscriber()
+        multiplexer.subscribe(application, listOf(ACTION, OTHER_ACTION), other)
+        assertEquals(2, shadowApplication.registeredReceivers.size)
+        application.sendBroadcast(Intent(OTHER_ACTION))
+        idleMain()
+        assertEquals(listOf(OTHER_ACTION), other.actions)
+        subscribers.forEach { assertEquals(listOf(ACTION), it.actions) }
+    }
+
+    @Test
+    fun delayedUnregister() {
+        val first = multiplexer.subscribe(application, listOf(ACTION), RecordingSubscriber())
+        val second = multiplexer.subscribe(application, listOf(ACTION), RecordingSubscriber())
+        first.unsubscribe()
+        idleMain(UNREGISTER_DELAY_MILLIS * 2)
+        // 仍有订阅者，不会反注册
+        assertEquals(1, shadowApplication.registeredReceivers.size)
+
+        second.unsubscribe()
+        idleMain(UNREGISTER_DELAY_MILLIS / 2)
+        assertEquals(1, shadowApplication.registeredReceivers.size)
+        idleMain(UNREGISTER_DELAY_MILLIS)
+        assertEquals(0, shadowApplication.registeredReceivers.size)
+    }
+
+    @Test
+    fun resubscribeWithinDelay() {
+        multiplexer.subscribe(application, listOf(ACTION), RecordingSubscriber()).unsubscribe()
+        val receiver = shadowApplication.registeredReceivers.single().broadcastReceiver
+        idleMain(UNREGISTER_DELAY_MILLIS / 2)
+
+        // 延迟反注册期间重新订阅，复用已有的系统广播接收者并取消反注册
+        val subscriber = RecordingSubscriber()
+        multiplexer.subscribe(application, listOf(ACTION), subscriber)
+        idleMain(UNREGISTER_DELAY_MILLIS * 2)
+        assertSame(receiver, shadowApplication.registeredReceivers.single().broadcastReceiver)
+
+        application.sendBroadcast(Intent(ACTION))
+        idleMain()
+        assertEquals(listOf(ACTION), subscriber.actions)
+    }
+
+    @Test
+    fun stickyReplayedToLateSubscriber() {
+        @Suppress("DEPRECATION")
+        application.sendStickyBroadcast(Intent(STICKY_ACTION).putExtra(EXTRA, 1))
+        multiplexer.subscribe(application, listOf(STICKY_ACTION), RecordingSubscriber())
+        idleMain()
+
+        val late = RecordingSubscriber()
+        multiplexer.subscribe(application, listOf(STICKY_ACTION), late)
+        assertEquals(emptyList<String>(), late.actions)
+        // 在分发线程中重放
+        idleMain()
+        assertEquals(listOf(STICKY_ACTION), late.actions)
+        assertEquals(1, late.intents.single().getIntExtra(EXTRA, 0))
+        assertEquals(1, shadowApplication.registeredReceivers.size)
+    }
+
+    private fun idleMain(millis: Long = 0) {
+        val looper = shadowOf(Looper.getMainLooper())
+        if (millis > 0) {
+            looper.idleFor(Duration.ofMillis(millis))
+        } else {
+            looper.idle()
+        }
+    }
+
+    private class RecordingSubscriber : BroadcastReceiverMultiplexer.Subscriber {
+        val intents = ArrayList<Intent>()
+        val actions: List<String?>
+            get() = intents.map { it.action }
+
+        override fun onReceive(context: Context, intent: Intent) {
+            intents.add(intent)
+        }
+    }
+
+    companion object {
+        private const val UNREGISTER_DELAY_MILLIS = 1000L
+        private const val ACTION = "io.github.chenfei0928.test.ACTION"
+        private const val OTHER_ACTION = "io.github.chenfei0928.test.OTHER_ACTION"
+        private const val STICKY_ACTION = "io.github.chenfei0928.test.STICKY_ACTION"
+        private const val EXTRA = "extra"
+    }
+}
@@ -0,0 +1,183 @@
+package io.github.chenfei0928.content
+
+import android.app.Application
+import android.content.ComponentName
+import android.content.Context
+import android.content.ContextWrapper
+import android.content.Intent
+import android.content.ServiceConnection
+import android.os.Binder
+import android.os.IBinder
+import android.os.Looper
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.Shadows.shadowOf
+import org.robolectric.shadows.ShadowApplication
+import java.time.Duration
+
+/**
+ * 验证[SharedServiceConnectionPool]的引用计数共享绑定、引用计数归零后延迟解绑与期间复用，
+ * 多个死亡通知只触发一次重新绑定，以及拒绝绑定时[SharedServiceConnectionPool.liveData]的值为null
+ *
+ * @author chenf()
+ * @date 2026-10-19 14:40
+ */
+@RunWith(RobolectricTestRunner::class)
+class SharedServiceConnectionPoolTest {
+    private lateinit var application: Application
+    private lateinit var shadowApplication: ShadowApplication
+    private lateinit var context: CountingContext
+    private val pool = SharedServiceConnectionPool(idleUnbindDelayMillis = IDLE_MILLIS)
+    private val binder = Binder()
+
+    @Before
+    fun setUp() {
+        application = RuntimeEnvironment.getApplication()
+        shadowApplication = shadowOf(application)
+        shadowApplication.setComponentNameAndServiceForBindService(COMPONENT, binder)
+        context = CountingContext(application)
+    }
+
+    @Test
+    fun refCounting() {
+        val first = RecordingListener()
+        val second = RecordingListener()
+        val firstLease = pool.acquire(context, intent(), 0, first)
+        val secondLease = pool.acquire(context, intent(), 0, second)
+        idleMain()
+        assertEquals(1, context.bindCount)
+        assertEquals(listOf("connected"), first.events)
+        assertEquals(listOf("connected"), second.events)
+        assertSame(binder, firstLease.service)
+
+        // 已连接时在返回前回调
+        val third = RecordingListener()
+        val thirdLease = pool.acquire(context, intent(), 0, third)
+        assertEquals(listOf("connected"), third.events)
+        assertEquals(1, context.bindCount)
+
+        firstLease.close()
+        secondLease.close()
+        idleMain(IDLE_MILLIS * 2)
+        // 仍有使用者，不会解绑
+        assertEquals(0, shadowApplication.unboundServiceConnections.size)
+        assertNull(firstLease.service)
+        assertSame(binder, thirdLease.service)
+        thirdLease.close()
+        idleMain(IDLE_MILLIS)
+        assertEquals(1, shadowApplication.unboundServiceConnections.size)
+    }
+
+    @Test
+    fun idleUnbindDelayed() {
+        val lease = pool.acquire(context, intent(), 0, RecordingListener())
+        idleMain()
+        lease.close()
+        idleMain(IDLE_MILLIS / 2)
+        assertEquals(0, shadowApplication.unboundServiceConnections.size)
+        // 延迟解绑期间再次获取，复用已有的连接并取消解绑
+        val listener = RecordingListener()
+        val reacquired = pool.acquire(context, intent(), 0, listener)
+        assertEquals(listOf("connected"), listener.events)
+        idleMain(IDLE_MILLIS * 2)
+        assertEquals(1, context.bindCount)
+        assertEquals(0, shadowApplication.unboundServiceConnections.size)
+
+        reacquired.close()
+        idleMain(IDLE_MILLIS / 2)
+        assertEquals(0, shadowApplication.unboundServiceConnections.size)
+        idleMain(IDLE_MILLIS)
+        assertEquals(1, shadowApplication.unboundServiceConnections.size)
+        // 解绑后再次获取重新绑定
+        pool.acquire(context, intent(), 0, RecordingListener())
+        idleMain()
+        assertEquals(2, context.bindCount)
+    }
+
+    @Test
+    fun singleRebindOnDeath() {
+        val listener = RecordingListener()
+        val lease = pool.acquire(context, intent(), 0, listener)
+        idleMain()
+        val connection = shadowApplication.boundServiceConnections.single()
+        // binder死亡与绑定死亡的多个通知
+        (connection as IBinder.DeathRecipient).binderDied()
+        connection.binderDied()
+        connection.onBindingDied(COMPONENT)
+        idleMain()
+        assertEquals(2, context.bindCount)
+        assertEquals(1, shadowApplication.unboundServiceConnections.size)
+        assertEquals("connected", listener.events.last())
+        assertEquals(2, listener.events.count { it == "connected" })
+        assertSame(binder, lease.service)
+        lease.close()
+    }
+
+    @Test
+    fun liveDataNullOnBindingFailed() {
+        shadowApplication.declareActionUnbindable(UNBINDABLE_ACTION)
+        val liveData = pool.liveData(
+            context, Intent(UNBINDABLE_ACTION).setComponent(COMPONENT), 0
+        ) { _, service -> service }
+        val values = ArrayList<IBinder?>()
+        liveData.observeForever { values.add(it) }
+        idleMain()
+        assertEquals(1, context.bindCount)
+        assertEquals(listOf<IBinder?>(null), values)
+    }
+
+    private fun intent(): Intent = Intent(ACTION).setComponent(COMPONENT)
+
+    private fun idleMain(millis: Long = 0) {
+        val looper = shadowOf(Looper.getMainLooper())
+        if (millis > 0) {
+            looper.idleFor(Duration.ofMillis(millis))
+        } else {
+            looper.idle()
+        }
+    }
+
+    /**
+     * 统计绑定次数，绑定池使用的 applicationContext 为其自身
+     */
+    private class CountingContext(base: Context) : ContextWrapper(base) {
+        var bindCount = 0
+            private set
+
+        override fun getApplicationContext(): Context = this
+
+        override fun bindService(service: Intent, conn: ServiceConnection, flags: Int): Boolean {
+            bindCount++
+            return super.bindService(service, conn, flags)
+        }
+    }
+
+    private class RecordingListener : SharedServiceConnectionPool.Listener {
+        val events = ArrayList<String>()
+
+        override fun onServiceConnected(name: ComponentName, service: IBinder) {
+            events.add("connected")
+        }
+
+        override fun onServiceDisconnected(name: ComponentName) {
+            events.add("disconnected")
+        }
+
+        override fun onBindingFailed(intent: Intent) {
+            events.add("failed")
+        }
+    }
+
+    companion object {
+        private const val IDLE_MILLIS = 1000L
+        private const val ACTION = "io.github.chenfei0928.test.BIND"
+        private const val UNBINDABLE_ACTION = "io.github.chenfei0928.test.UNBINDABLE"
+        private val COMPONENT = ComponentName("io.github.chenfei0928.test", "io.github.chenfei0928.test.Service")
+    }
+}
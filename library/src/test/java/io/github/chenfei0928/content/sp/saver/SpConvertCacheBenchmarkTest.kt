@@ -0,0 +1,211 @@
+package io.github.chenfei0928.content.sp.saver
+
+import android.content.SharedPreferences
+import io.github.chenfei0928.content.sp.saver.convert.IntArraySpConvert
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArraySet
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * [io.github.chenfei0928.content.sp.saver.convert.BaseSpConvert] 读缓存在多线程读取下的吞吐量与失效正确性
+ *
+ * @author chenf()
+ * @date 2026-10-18 23:50
+ */
+class SpConvertCacheBenchmarkTest {
+
+    private class BenchSaver(sp: SharedPreferences) : BaseSpSaver<BenchSaver>(sp) {
+        var ints: IntArray by dataStore { IntArraySpConvert.nonnull() }
+    }
+
+    @Test
+    fun invalidateByExternalChange() {
+        val sp = InMemorySharedPreferences()
+        val saver = BenchSaver(sp)
+        saver.ints = intArrayOf(1, 2, 3)
+        saver.commit()
+        assertArrayEquals(intArrayOf(1, 2, 3), saver.ints)
+        // 绕过saver直接修改sp，通过监听回调使缓存失效
+        sp.edit().putString("ints", "4,5").commit()
+        assertArrayEquals(intArrayOf(4, 5), saver.ints)
+        saver.remove("ints")
+        saver.commit()
+        assertArrayEquals(intArrayOf(), saver.ints)
+    }
+
+    @Test
+    fun readBeforeCommit() {
+        // 模拟sp将修改监听投递到主线程，后台线程提交后不会立即收到回调
+        val sp = InMemorySharedPreferences(notifyListeners = false)
+        val saver = BenchSaver(sp)
+        saver.ints = intArrayOf(1)
+        saver.commit()
+        assertArrayEquals(intArrayOf(1), saver.ints)
+        saver.ints = intArrayOf(2)
+        // 编辑器尚未提交，读取到旧值
+        assertArrayEquals(intArrayOf(1), saver.ints)
+        saver.commit()
+        assertArrayEquals(intArrayOf(2), saver.ints)
+        saver.ints = intArrayOf(3)
+        assertArrayEquals(intArrayOf(2), saver.ints)
+        saver.apply()
+        assertArrayEquals(intArrayOf(3), saver.ints)
+    }
+
+    @Test
+    fun concurrentWritesKeepCacheConsistent() {
+        val sp = InMemorySharedPreferences()
+        val saver = BenchSaver(sp)
+        val threads = List(WRITER_THREADS) { writer ->
+            Thread {
+                repeat(WRITES_PER_THREAD) {
+                    saver.ints = intArrayOf(writer, it)
+                    saver.commit()
+                    // 与其它线程的写入交错读取，使读缓存在写入期间被反复建立
+                    saver.ints
+                }
+            }.apply { start() }
+        }
+        threads.forEach { it.join() }
+        // 所有写入完成后，缓存值与最终存储的值一致
+        val stored = sp.getString("ints", null)!!.split(',').map { it.toInt() }.toIntArray()
+        assertArrayEquals(stored, saver.ints)
+    }
+
+    @Test
+    fun contendedReads() {
+        val saver = BenchSaver(InMemorySharedPreferences())
+        saver.ints = IntArray(ARRAY_SIZE) { it }
+        saver.commit()
+        // 预热
+        benchmark("warmup", saver, false)
+        benchmark("readOnly", saver, false)
+        benchmark("withWriter", saver, true)
+    }
+
+    private fun benchmark(name: String, saver: BenchSaver, withWriter: Boolean) {
+        val start = CountDownLatch(1)
+        val done = CountDownLatch(READER_THREADS)
+        val writing = AtomicBoolean(withWriter)
+        val writer = Thread {
+            start.await()
+            var i = 0
+            while (writing.get()) {
+                saver.ints = IntArray(ARRAY_SIZE) { it + i }
+                i++
+                Thread.sleep(1)
+            }
+        }.apply { start() }
+        repeat(READER_THREADS) {
+            Thread {
+                start.await()
+                var sum = 0L
+                repeat(READS_PER_THREAD) { sum += saver.ints.size }
+                if (sum == Long.MIN_VALUE) println(sum)
+                done.countDown()
+            }.start()
+        }
+        val startNanos = System.nanoTime()
+        start.countDown()
+        assertTrue(done.await(60, TimeUnit.SECONDS))
+        val totalNanos = System.nanoTime() - startNanos
+        writing.set(false)
+        writer.join()
+        val reads = READER_THREADS.toLong() * READS_PER_THREAD
+        println(
+            "$name: $READER_THREADS threads, avg ${totalNanos * READER_THREADS / reads}ns/read, " +
+                    "throughput ${reads * 1_000_000_000L / totalNanos} reads/s"
+        )
+    }
+
+    /**
+     * 仅用于测试的内存sp实现，[notifyListeners]为true时提交时同步回调监听器
+     */
+    private class InMemorySharedPreferences(
+        private val notifyListeners: Boolean = true,
+    ) : SharedPreferences {
+        private val map = ConcurrentHashMap<String, Any>()
+        private val listeners =
+            CopyOnWriteArraySet<SharedPreferences.OnSharedPreferenceChangeListener>()
+
+        override fun getAll(): Map<String, *> = HashMap(map)
+        override fun getString(key: String, defValue: String?): String? =
+            map[key] as String? ?: defValue
+
+        @Suppress("UNCHECKED_CAST")
+        override fun getStringSet(key: String, defValues: Set<String>?): Set<String>? =
+            map[key] as Set<String>? ?: defValues
+
+        override fun getInt(key: String, defValue: Int): Int = map[key] as Int? ?: defValue
+        override fun getLong(key: String, defValue: Long): Long = map[key] as Long? ?: defValue
+        override fun getFloat(key: String, defValue: Float): Float = map[key] as Float? ?: defValue
+        override fun getBoolean(key: String, defValue: Boolean): Boolean =
+            map[key] as Boolean? ?: defValue
+
+        override fun contains(key: String): Boolean = map.containsKey(key)
+        override fun edit(): SharedPreferences.Editor = Editor()
+
+        override fun registerOnSharedPreferenceChangeListener(
+            listener: SharedPreferences.OnSharedPreferenceChangeListener
+        ) {
+            if (notifyListeners) {
+                listeners.add(listener)
+            }
+        }
+
+        override fun unregisterOnSharedPreferenceChangeListener(
+            listener: SharedPreferences.OnSharedPreferenceChangeListener
+        ) {
+            listeners.remove(listener)
+        }
+
+        private inner class Editor : SharedPreferences.Editor {
+            private val pending = HashMap<String, Any?>()
+            private var clear = false
+
+            private fun put(key: String, value: Any?) = apply {
+                synchronized(this) { pending[key] = value }
+            }
+
+            override fun putString(key: String, value: String?) = put(key, value)
+            override fun putStringSet(key: String, values: Set<String>?) = put(key, values)
+            override fun putInt(key: String, value: Int) = put(key, value)
+            override fun putLong(key: String, value: Long) = put(key, value)
+            override fun putFloat(key: String, value: Float) = put(key, value)
+            override fun putBoolean(key: String, value: Boolean) = put(key, value)
+            override fun remove(key: String) = put(key, null)
+            override fun clear() = apply { clear = true }
+
+
+            override fun commit(): Boolean {
+                val changes = synchronized(this) { HashMap(pending).also { pending.clear() } }
+                if (clear) {
+                    map.clear()
+                    listeners.forEach { it.onSharedPreferenceChanged(this@InMemorySharedPreferences, null) }
+                }
+                changes.forEach { (key, value) ->
+                    if (value == null) map.remove(key) else map[key] = value
+                    listeners.forEach { it.onSharedPreferenceChanged(this@InMemorySharedPreferences, key) }
+                }
+                return true
+            }
+
+            override fun apply() {
+                commit()
+            }
+        }
+    }
+
+    companion object {
+        private const val READER_THREADS = 8
+        private const val READS_PER_THREAD = 1_000_000
+        private const val ARRAY_SIZE = 64
+        private const val WRITER_THREADS = 4
+        private const val WRITES_PER_THREAD = 10_000
+    }
+}
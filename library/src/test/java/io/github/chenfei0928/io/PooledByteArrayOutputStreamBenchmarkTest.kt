@@ -0,0 +1,115 @@
+package io.github.chenfei0928.io
+
+import io.github.chenfei0928.repository.local.LocalSerializer
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.InputStream
+import java.io.OutputStream
+import java.lang.management.ManagementFactory
+
+/**
+ * 对比[LocalSerializer.copy]使用[PooledByteArrayOutputStream]前后每次拷贝的内存分配量，
+ * 并验证不超过[PooledByteArrayOutputStream.MAX_POOLED_CAPACITY]的数据拷贝时只分配结果数组
+ *
+ * @author chenf()
+ * @date 2026-10-18 17:40
+ */
+class PooledByteArrayOutputStreamBenchmarkTest {
+
+    @Test
+    fun copyAllocation() {
+        intArrayOf(1024, 100 * 1024, 5 * 1024 * 1024).forEach { size ->
+            val data = ByteArray(size) { it.toByte() }
+            assertArrayEquals(data, RawSerializer.copy(data))
+            assertArrayEquals(data, legacyCopy(data))
+            val pooled = allocatedBytesPerOp { RawSerializer.copy(data) }
+            val legacy = allocatedBytesPerOp { legacyCopy(data) }
+            println("copy ${size / 1024}KB: pooled $pooled bytes/op, legacy $legacy bytes/op")
+            if (size <= PooledByteArrayOutputStream.MAX_POOLED_CAPACITY) {
+                // 缓冲区被复用，每次只分配结果数组与少量对象
+                assertTrue("pooled $pooled bytes/op for $size", pooled <= size + ALLOCATION_SLACK)
+                assertTrue("pooled $pooled >= legacy $legacy", pooled < legacy)
+            }
+        }
+    }
+
+    @Test
+    fun poolReuse() {
+        val pool = PooledByteArrayOutputStream.pool
+        val first = pool.acquire()
+        first.write(ByteArray(1024) { it.toByte() })
+        pool.release(first)
+        val second = pool.acquire()
+        // 归还的实例被复用，且已被重置
+        assertSame(first, second)
+        assertEquals(0, second.size())
+        second.write(ByteArray(PooledByteArrayOutputStream.MAX_POOLED_CAPACITY + 1))
+        pool.release(second)
+        // 容量超过上限的实例不会被复用
+        val third = pool.acquire()
+        assertTrue(third !== second)
+        pool.release(third)
+    }
+
+    @Test
+    fun readFromMatchesInput() {
+        val data = ByteArray(300 * 1024) { (it * 7).toByte() }
+        PooledByteArrayOutputStream().use {
+            it.readFrom(ByteArrayInputStream(data))
+            assertEquals(data.size, it.size())
+            assertArrayEquals(data, it.toByteArray())
+            assertArrayEquals(data, it.inputStream().readBytes())
+        }
+    }
+
+    private fun legacyCopy(obj: ByteArray): ByteArray {
+        return ByteArrayOutputStream().use {
+            RawSerializer.write(it, obj)
+            it.toByteArray()
+        }.let { ByteArrayInputStream(it) }.use {
+            RawSerializer.read(it)
+        }
+    }
+
+    private inline fun allocatedBytesPerOp(block: () -> Unit): Long {
+        val bean = ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+        val threadId = Thread.currentThread().id
+        repeat(WARMUP) { block() }
+        val start = bean.getThreadAllocatedBytes(threadId)
+        repeat(ITERATIONS) { block() }
+        return (bean.getThreadAllocatedBytes(threadId) - start) / ITERATIONS
+    }
+
+    /**
+     * 不覆写[copy]的序列化器，读取时只分配一次结果数组
+     */
+    private object RawSerializer : LocalSerializer<ByteArray> {
+        override val defaultValue: ByteArray = byteArrayOf()
+
+        override fun write(outputStream: OutputStream, obj: ByteArray) {
+            outputStream.write(obj)
+        }
+
+        override fun read(inputStream: InputStream): ByteArray {
+            val bytes = ByteArray(inputStream.available())
+            var offset = 0
+            while (offset < bytes.size) {
+                offset += inputStream.read(bytes, offset, bytes.size - offset)
+            }
+            return bytes
+        }
+    }
+
+    companion object {
+        private const val WARMUP = 5
+        private const val ITERATIONS = 20
+
+        // 结果数组之外允许的分配量，包括输入流等少量对象
+        private const val ALLOCATION_SLACK = 4 * 1024
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.chenfei0928.lang
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+/**
+ * 验证反射toString的输出格式与逐个追加分隔符之前一致，
+ * 以及限制长度时输出被截断并以`...`结尾、达到长度后立即停止遍历，限制深度时超出的节点输出为`...`
+ *
+ * @author chenf()
+ * @date 2026-10-19 13:00
+ */
+@RunWith(RobolectricTestRunner::class)
+class ToStringByReflectTest {
+
+    @Test
+    fun sameFormat() {
+        val a = ToStringNode("a")
+        val b = ToStringNode("b")
+        a.next = b
+        b.next = a
+        val self = ToStringNode("self").also { it.next = it }
+        listOf(
+            ToStringLeaf(1, "x") to "ToStringLeaf(a=1, b=x)",
+            ToStringEmpty() to "ToStringEmpty()",
+            listOf(ToStringLeaf(1, "x"), ToStringLeaf(2, null)) to
+                    "[ToStringLeaf(a=1, b=x), ToStringLeaf(a=2, b=null)]",
+            emptyList<Any>() to "[]",
+            arrayOf("a", null) to "[a, null]",
+            intArrayOf(1, 2) to "[1, 2]",
+            linkedMapOf("k" to 1, "j" to 2) to "[k=1, j=2]",
+            HashMap<String, Int>() to "HashMap(empty)",
+            self to "ToStringNode(name=self, next=this)",
+            a to "ToStringNode(name=a, next=ToStringNode(name=b, next=this@toStringByReflect))",
+        ).forEach { (value, expected) ->
+            assertEquals(expected, value.toStringByReflect())
+            // 长度足够时限制长度的输出与不限制时一致
+            assertEquals(expected, value.toStringByReflect(Int.MAX_VALUE))
+        }
+    }
+
+    @Test
+    fun streamLargeOutput() {
+        // 超过内部缓冲大小，分多次写出
+        val list = List(5000) { ToStringLeaf(it, "value-$it") }
+        val expected = list.toStringByReflect()
+        assertTrue(expected.length > 64 * 1024)
+        assertEquals(expected, StringBuilder().appendByReflect(list, Int.MAX_VALUE).toString())
+    }
+
+    @Test
+    fun truncateStopsTraversal() {
+        val prefix = List(1000) { ToStringLeaf(it, "value-$it") }.toStringByReflect()
+        val source = CountingIterable(List(100_000) { ToStringLeaf(it, "value-$it") })
+        val truncated = source.toStringByReflect(MAX_CHARS)
+        assertEquals(prefix.substring(0, MAX_CHARS) + ToStringBudget.ELLIPSIS, truncated)
+        // 达到长度后不再继续遍历剩余的元素
+        assertTrue("iterated ${source.count}", source.count < MAX_CHARS)
+    }
+
+    @Test
+    fun truncateInsideFields() {
+        val node = ToStringNode("a".repeat(MAX_CHARS * 2))
+        node.next = ToStringNode("b")
+        val truncated = node.toStringByReflect(MAX_CHARS)
+        assertEquals(MAX_CHARS + ToStringBudget.ELLIPSIS.length, truncated.length)
+        assertEquals(node.toStringByReflect().substring(0, MAX_CHARS) + ToStringBudget.ELLIPSIS, truncated)
+    }
+
+    @Test
+    fun depthLimit() {
+        val a = ToStringNode("a")
+        a.next = ToStringNode("b").also { it.next = ToStringNode("c") }
+        assertEquals("ToStringNode(name=a, next=ToStringNode(name=..., next=...))", a.toStringByReflect(1000, 1))
+        assertEquals("...", listOf(1).toStringByReflect(1000, -1))
+    }
+
+    private class CountingIterable<T>(
+        private val source: Iterable<T>
+    ) : Iterable<T> {
+        var count = 0
+            private set
+
+        override fun iterator(): Iterator<T> = source.iterator().let { iterator ->
+            object : Iterator<T> by iterator {
+                override fun next(): T {
+                    count++
+                    return iterator.next()
+                }
+            }
+        }
+    }
+
+    companion object {
+        private const val MAX_CHARS = 200
+    }
+}
+
+internal class ToStringLeaf(val a: Int, val b: String?)
+
+internal class ToStringEmpty
+
+internal class ToStringNode(val name: String) {
+    var next: ToStringNode? = null
+}
@@ -0,0 +1,126 @@
+package io.github.chenfei0928.lifecycle
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.lang.management.ManagementFactory
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * 对比[LiveListeners]每次分发的对象分配量，并发增删监听器时分发的正确性，
+ * 以及互为来源的[MediatorLiveListeners]在不同线程中增删监听器时不会死锁
+ *
+ * @author chenf()
+ * @date 2026-10-19 00:30
+ */
+class LiveListenersBenchmarkTest {
+
+    @Test
+    fun allocationPerDispatch() {
+        intArrayOf(1, 10, 100).forEach { count ->
+            val listeners = LiveListeners<(Int) -> Unit>()
+            var sum = 0L
+            repeat(count) { index -> listeners.observeForever { sum += it + index } }
+            // 预热
+            repeat(DISPATCH_COUNT) { i -> listeners.forEachActive { it(i) } }
+            repeat(DISPATCH_COUNT) { i -> listeners.forEach { it(i) } }
+
+            val forEachActive = allocatedBytesPerDispatch {
+                listeners.forEachActive { it(1) }
+            }
+            val iterator = allocatedBytesPerDispatch {
+                listeners.forEach { it(1) }
+            }
+            println(
+                "listeners $count: forEachActive ${forEachActive}B/dispatch, " +
+                        "iterator ${iterator}B/dispatch"
+            )
+            if (sum == Long.MIN_VALUE) println(sum)
+            assertTrue(forEachActive < 1.0)
+        }
+    }
+
+    @Test
+    fun concurrentAddRemove() {
+        val listeners = LiveListeners<() -> Unit>()
+        val stable = Array(8) { { } }
+        stable.forEach { listeners.observeForever(it) }
+        val running = AtomicBoolean(true)
+        val mutator = Thread {
+            while (running.get()) {
+                val temp = { }
+                listeners.observeForever(temp)
+                listeners.removeObserver(temp)
+            }
+        }.apply { start() }
+        repeat(DISPATCH_COUNT) {
+            var count = 0
+            listeners.forEachActive { count++ }
+            assertTrue(count == stable.size || count == stable.size + 1)
+        }
+        running.set(false)
+        mutator.join()
+        assertEquals(stable.size, listeners.count())
+    }
+
+    @Test
+    fun mediatorCallbacksOutsideLock() {
+        val first = MediatorLiveListeners<() -> Unit>()
+        val second = MediatorLiveListeners<() -> Unit>()
+        first.addSource(second) { }
+        second.addSource(first) { }
+        val workers = listOf(first, second).map { listeners ->
+            Thread {
+                repeat(10_000) {
+                    val temp = { }
+                    listeners.observeForever(temp)
+                    listeners.removeObserver(temp)
+                }
+            }.apply {
+                isDaemon = true
+                start()
+            }
+        }
+        workers.forEach { it.join(10_000) }
+        // 回调在持有监听器锁时调用会因两者加锁顺序相反而死锁
+        assertTrue(workers.none { it.isAlive })
+    }
+
+    @Test
+    fun callbacksInOrder() {
+        val events = ArrayList<String>()
+        val listeners = object : LiveListeners<() -> Unit>() {
+            override fun onActive() {
+                events.add("active")
+                // 回调中增删监听器产生的回调在当前回调返回后调用
+                removeObserver(this@LiveListenersBenchmarkTest.observer)
+                events.add("removed")
+            }
+
+            override fun onInactive() {
+                events.add("inactive")
+            }
+
+            override fun onObserverRemoved(observer: () -> Unit) {
+                events.add("onObserverRemoved")
+            }
+        }
+        listeners.observeForever(observer)
+        assertEquals(listOf("active", "removed", "inactive", "onObserverRemoved"), events)
+        assertTrue(!listeners.hasActiveObserver())
+    }
+
+    private val observer: () -> Unit = { }
+
+    private inline fun allocatedBytesPerDispatch(block: () -> Unit): Double {
+        val bean = ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+        val threadId = Thread.currentThread().id
+        val start = bean.getThreadAllocatedBytes(threadId)
+        repeat(DISPATCH_COUNT) { block() }
+        return (bean.getThreadAllocatedBytes(threadId) - start).toDouble() / DISPATCH_COUNT
+    }
+
+    companion object {
+        private const val DISPATCH_COUNT = 100_000
+    }
+}
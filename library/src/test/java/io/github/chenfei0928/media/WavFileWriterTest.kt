@@ -0,0 +1,108 @@
+package io.github.chenfei0928.media
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.io.File
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+
+/**
+ * 验证[WavFileWriter]写入的单声道、双声道，8位、16位wav文件头与数据，以及奇数字节的data块补齐填充字节
+ *
+ * @author chenf()
+ * @date 2026-10-19 03:10
+ */
+class WavFileWriterTest {
+
+    @Test
+    fun mono8Bit() = verify(channels = 1, bitsPerSample = 8, reserveRf64 = false)
+
+    @Test
+    fun stereo8Bit() = verify(channels = 2, bitsPerSample = 8, reserveRf64 = true)
+
+    @Test
+    fun mono16Bit() = verify(channels = 1, bitsPerSample = 16, reserveRf64 = true)
+
+    @Test
+    fun stereo16Bit() = verify(channels = 2, bitsPerSample = 16, reserveRf64 = false)
+
+    @Test
+    fun oddDataPadded() {
+        val file = File.createTempFile("WavFileWriterTest", ".wav")
+        try {
+            val writer = WavFileWriter(file, 8000, 1, 8, reserveRf64 = false, bufferSize = 64)
+            val data = ByteArray(127) { (it + 1).toByte() }
+            writer.write(data)
+            writer.close()
+
+            val bytes = file.readBytes()
+            // 补一个填充字节，RIFF块大小包含填充字节，data块大小不包含
+            assertEquals(WavFileWriter.HEADER_SIZE + data.size + 1, bytes.size)
+            val header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN)
+            assertEquals(bytes.size - 8, header.getInt(4))
+            assertEquals(data.size, header.getInt(WavFileWriter.HEADER_SIZE - 4))
+            assertArrayEquals(data, bytes.copyOfRange(WavFileWriter.HEADER_SIZE, WavFileWriter.HEADER_SIZE + data.size))
+            assertEquals(0, bytes.last().toInt())
+        } finally {
+            file.delete()
+        }
+    }
+
+    private fun verify(channels: Int, bitsPerSample: Int, reserveRf64: Boolean) {
+        val file = File.createTempFile("WavFileWriterTest", ".wav")
+        try {
+            val sampleRate = 44_100
+            // 小缓冲区，使写入跨越多次刷写
+            val writer = WavFileWriter(file, sampleRate, channels, bitsPerSample, reserveRf64, bufferSize = 64)
+            val expectedData = if (bitsPerSample == 8) {
+                val data = ByteArray(1000) { it.toByte() }
+                writer.write(data, 0, 600)
+                writer.write(data, 600, 400)
+                data
+            } else {
+                val samples = ShortArray(500) { (it * 131 - 30000).toShort() }
+                writer.write(samples, 0, 123)
+                writer.write(samples, 123, 377)
+                ByteBuffer.allocate(1000).order(ByteOrder.LITTLE_ENDIAN)
+                    .apply { asShortBuffer().put(samples) }
+                    .array()
+            }
+            writer.close()
+
+            val bytes = file.readBytes()
+            val headerSize = if (reserveRf64) WavFileWriter.HEADER_SIZE_RF64_RESERVED else WavFileWriter.HEADER_SIZE
+            assertEquals(headerSize + expectedData.size, bytes.size)
+            val header = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN)
+            assertEquals("RIFF", header.readTag())
+            assertEquals(bytes.size - 8, header.int)
+            assertEquals("WAVE", header.readTag())
+            if (reserveRf64) {
+                assertEquals("JUNK", header.readTag())
+                assertEquals(28, header.int)
+                header.position(header.position() + 28)
+            }
+            assertEquals("fmt ", header.readTag())
+            assertEquals(16, header.int)
+            // PCM
+            assertEquals(1, header.short.toInt())
+            assertEquals(channels, header.short.toInt())
+            assertEquals(sampleRate, header.int)
+            assertEquals(sampleRate * channels * bitsPerSample / 8, header.int)
+            assertEquals(channels * bitsPerSample / 8, header.short.toInt())
+            assertEquals(bitsPerSample, header.short.toInt())
+            assertEquals("data", header.readTag())
+            assertEquals(expectedData.size, header.int)
+            assertEquals(headerSize, header.position())
+            assertArrayEquals(expectedData, bytes.copyOfRange(headerSize, bytes.size))
+        } finally {
+            file.delete()
+        }
+    }
+
+    private fun ByteBuffer.readTag(): String {
+        val tag = ByteArray(4)
+        get(tag)
+        return String(tag, Charsets.US_ASCII)
+    }
+}
@@ -0,0 +1,182 @@
+package io.github.chenfei0928.os
+
+import android.content.Intent
+import android.os.Bundle
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import kotlin.reflect.KProperty
+
+/**
+ * 验证[BundleSupportType.AutoFind]按[KProperty]缓存及[BundleSupportType.AutoFind.warmUp]预先解析的存取器
+ * 与不缓存时每次解析的结果一致，并对比两者读取[Bundle]的耗时
+ *
+ * @author chenf()
+ * @date 2026-10-19 11:20
+ */
+@RunWith(RobolectricTestRunner::class)
+class AutoFindTypeCacheTest {
+
+    @Test
+    fun cachedMatchesUncached() {
+        delegatedProperties(CacheHolder::class.java).forEach { property ->
+            val cached = BundleSupportType.AutoFind.findType(property)
+            val uncached = uncached(property)
+            assertEquals(property.toString(), uncached.javaClass, cached.javaClass)
+            assertSame(cached, BundleSupportType.AutoFind.findType(property))
+            assertSameBehavior(property, uncached)
+        }
+    }
+
+    @Test
+    fun warmUpResolvesSuperclasses() {
+        val properties = delegatedProperties(WarmUpHolder::class.java) +
+                delegatedProperties(WarmUpBaseHolder::class.java)
+        properties.forEach {
+            assertTrue(it.toString(), !BundleSupportType.AutoFind.typeCache.containsKey(it))
+        }
+        BundleSupportType.AutoFind.warmUp(WarmUpHolder::class.java)
+        properties.forEach { property ->
+            val warmed = BundleSupportType.AutoFind.typeCache[property]
+                ?: throw AssertionError("not warmed up: $property")
+            assertEquals(property.toString(), uncached(property).javaClass, warmed.javaClass)
+            assertSame(warmed, BundleSupportType.AutoFind.findType(property))
+            assertSameBehavior(property, uncached(property))
+        }
+    }
+
+    @Test
+    fun compareCachedGet() {
+        val properties = delegatedProperties(CacheHolder::class.java)
+        val bundle = Bundle()
+        properties.forEach {
+            BundleSupportType.AutoFind.putNullable(bundle, it, it.name, sampleValue(it))
+        }
+        var cachedResult = 0
+        var uncachedResult = 0
+        val uncachedNanos = measureNanos {
+            repeat(ITERATIONS) {
+                properties.forEach {
+                    // 缓存之前的实现：每次读写都解析类型，并在读写时反射获取可空性
+                    val type = BundleSupportType.AutoFind.findByType<Any>(
+                        BundleSupportType.AutoFind.TypeInfo.ByKProperty(it),
+                        BundleSupportType.AutoFind.NullableCheck.CHECK_BY_REFLECT_WHEN_CALL
+                    )
+                    uncachedResult += comparable(type.getValue(bundle, it, it.name, null)).hashCode()
+                }
+            }
+        }
+        val cachedNanos = measureNanos {
+            repeat(ITERATIONS) {
+                properties.forEach {
+                    cachedResult += comparable(
+                        BundleSupportType.AutoFind.getValue(bundle, it, it.name, null)
+                    ).hashCode()
+                }
+            }
+        }
+        assertEquals(uncachedResult, cachedResult)
+        val count = ITERATIONS * properties.size
+        println(
+            "get x $count: uncached ${uncachedNanos / count}ns/op, cached ${cachedNanos / count}ns/op"
+        )
+    }
+
+    /**
+     * 对比缓存的存取器与[uncached]在[Bundle]与[Intent]上的读写结果，包括缺省值的处理
+     */
+    private fun assertSameBehavior(property: KProperty<*>, uncached: BundleSupportType<Any>) {
+        val autoFind = BundleSupportType.AutoFind
+        val name = property.name
+        val value = sampleValue(property)
+
+        // 缺省时可空类型返回null，非空类型返回默认值
+        assertEquals(
+            comparable(uncached.getValue(Bundle(), property, name, null)),
+            comparable(autoFind.getValue(Bundle(), property, name, null))
+        )
+        assertEquals(
+            comparable(uncached.getValue(Intent(), property, name, null)),
+            comparable(autoFind.getValue(Intent(), property, name, null))
+        )
+
+        // 相互读取对方写入的值
+        val byCached = Bundle().also { autoFind.putNullable(it, property, name, value) }
+        val byUncached = Bundle().also { uncached.putNullable(it, property, name, value) }
+        assertEquals(comparable(value), comparable(uncached.getValue(byCached, property, name, null)))
+        assertEquals(comparable(value), comparable(autoFind.getValue(byUncached, property, name, null)))
+
+        val intentByCached = autoFind.putExtraNullable(Intent(), property, name, value)
+        val intentByUncached = uncached.putExtraNullable(Intent(), property, name, value)
+        assertEquals(comparable(value), comparable(uncached.getValue(intentByCached, property, name, null)))
+        assertEquals(comparable(value), comparable(autoFind.getValue(intentByUncached, property, name, null)))
+    }
+
+    private fun uncached(property: KProperty<*>): BundleSupportType<Any> =
+        BundleSupportType.AutoFind.findByType(
+            BundleSupportType.AutoFind.TypeInfo.ByKProperty(property),
+            BundleSupportType.AutoFind.NullableCheck.CHECK_NOW_BY_REFLECT
+        )
+
+    private fun sampleValue(property: KProperty<*>): Any = when (property.name) {
+        "id" -> 42
+        "name" -> "name"
+        "time" -> 1234567890123L
+        "checked" -> true
+        "ratio" -> 0.5
+        "ids" -> intArrayOf(1, 2, 3)
+        "tags" -> listOf("a", "b")
+        "mode" -> AnnotationRetention.SOURCE
+        "extras" -> Bundle().apply { putInt("k", 1) }
+        "baseId" -> 7
+        "baseName" -> "base"
+        else -> throw IllegalArgumentException(property.toString())
+    }
+
+    private fun comparable(value: Any?): Any? = when (value) {
+        is IntArray -> value.toList()
+        is Bundle -> value.keySet().associateWith { @Suppress("DEPRECATION") value.get(it) }
+        else -> value
+    }
+
+    private fun delegatedProperties(clazz: Class<*>): List<KProperty<*>> =
+        clazz.getDeclaredField("\$\$delegatedProperties").run {
+            isAccessible = true
+            (get(null) as Array<*>).filterIsInstance<KProperty<*>>()
+        }
+
+    private inline fun measureNanos(block: () -> Unit): Long {
+        val start = System.nanoTime()
+        block()
+        return System.nanoTime() - start
+    }
+
+    companion object {
+        private const val ITERATIONS = 10_000
+    }
+}
+
+internal class CacheHolder {
+    val id: Int by Value(0)
+    val name: String? by Value(null)
+    val time: Long? by Value(null)
+    val checked: Boolean by Value(false)
+    val ratio: Double by Value(0.0)
+    val ids: IntArray? by Value(null)
+    val tags: List<String> by Value(emptyList())
+    val mode: AnnotationRetention by Value(AnnotationRetention.BINARY)
+    val extras: Bundle? by Value(null)
+}
+
+internal open class WarmUpBaseHolder {
+    val baseId: Int? by Value(null)
+    val baseName: String by Value("")
+}
+
+internal class WarmUpHolder : WarmUpBaseHolder() {
+    val id: Int by Value(0)
+    val tags: List<String>? by Value(null)
+}
@@ -0,0 +1,78 @@
+package io.github.chenfei0928.os
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Test
+import kotlin.properties.ReadOnlyProperty
+import kotlin.reflect.KProperty
+
+/**
+ * 验证[BundleSupportType.AutoFind]解析被[BundleAccessors]标记的类的字段时使用编译时生成的存取器，
+ * 未标记的类回退到反射解析
+ *
+ * [GeneratedHolder_BundleAccessor]由测试源码集的ksp处理器生成
+ *
+ * @author chenf()
+ * @date 2026-10-18 21:40
+ */
+class BundleAccessorBenchmarkTest {
+
+    @Test
+    fun resolvedByGeneratedAccessor() {
+        BundleSupportType.AutoFind.warmUp(GeneratedHolder::class.java)
+        assertSame(
+            GeneratedHolder_BundleAccessor,
+            BundleSupportType.AutoFind.generatedAccessors[GeneratedHolder::class.java]
+        )
+        delegatedProperties(GeneratedHolder::class.java).forEach { property ->
+            val generated = GeneratedHolder_BundleAccessor.findType(property.name)
+                ?: throw AssertionError("not generated: $property")
+            val resolved = BundleSupportType.AutoFind.typeCache[property]
+                ?: throw AssertionError("not resolved: $property")
+            assertEquals(property.toString(), generated.javaClass, resolved.javaClass)
+        }
+
+        // 未生成存取器的类回退到反射解析
+        BundleSupportType.AutoFind.warmUp(ReflectHolder::class.java)
+        val accessor = BundleSupportType.AutoFind.generatedAccessors[ReflectHolder::class.java]
+            ?: throw AssertionError("not resolved: ${ReflectHolder::class.java}")
+        delegatedProperties(ReflectHolder::class.java).forEach { property ->
+            assertNull(property.toString(), accessor.findType(property.name))
+            assertEquals(
+                property.toString(),
+                GeneratedHolder_BundleAccessor.findType(property.name)!!.javaClass,
+                BundleSupportType.AutoFind.typeCache[property]!!.javaClass
+            )
+        }
+    }
+
+    private fun delegatedProperties(clazz: Class<*>): List<KProperty<*>> =
+        clazz.getDeclaredField("\$\$delegatedProperties").run {
+            isAccessible = true
+            (get(null) as Array<*>).filterIsInstance<KProperty<*>>()
+        }
+}
+
+internal class Value<V>(private val value: V) : ReadOnlyProperty<Any, V> {
+    override fun getValue(thisRef: Any, property: KProperty<*>): V = value
+}
+
+internal class ReflectHolder {
+    val id: Int by Value(0)
+    val name: String? by Value(null)
+    val time: Long by Value(0L)
+    val checked: Boolean by Value(false)
+    val tags: List<String> by Value(emptyList())
+    val mode: AnnotationRetention by Value(AnnotationRetention.BINARY)
+}
+
+@BundleAccessors
+internal class GeneratedHolder {
+    val id: Int by Value(0)
+    val name: String? by Value(null)
+    val time: Long by Value(0L)
+    val checked: Boolean by Value(false)
+    val tags: List<String> by Value(emptyList())
+    val mode: AnnotationRetention by Value(AnnotationRetention.BINARY)
+}
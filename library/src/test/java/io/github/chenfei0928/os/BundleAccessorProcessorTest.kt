@@ -0,0 +1,154 @@
+package io.github.chenfei0928.os
+
+import android.content.Intent
+import android.os.Bundle
+import android.util.Size
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.util.Date
+import kotlin.reflect.KProperty
+
+/**
+ * 验证ksp处理器为[BundleAccessors]标记的类生成的存取器：
+ * 生成类名与[BundleSupportType.AutoFind]加载时使用的命名规则一致，
+ * 每个字段生成的存取器与运行时反射解析的类型、可空性及读写结果一致
+ *
+ * @author chenf()
+ * @date 2026-10-19 11:40
+ */
+@RunWith(RobolectricTestRunner::class)
+class BundleAccessorProcessorTest {
+
+    @Test
+    fun generatedClassName() {
+        listOf(
+            MappedHolder::class.java to MappedHolder_BundleAccessor,
+            AccessorOuter.Nested::class.java to AccessorOuter_Nested_BundleAccessor,
+        ).forEach { (holder, accessor) ->
+            // 与AutoFind.loadGeneratedAccessor的查找方式一致
+            val loaded = Class.forName(
+                holder.name.replace('$', '_') + GeneratedBundleAccessor.SUFFIX, true, holder.classLoader
+            ).getField("INSTANCE").get(null)
+            assertSame(accessor, loaded)
+        }
+        assertNotNull(AccessorOuter_Nested_BundleAccessor.findType("id"))
+    }
+
+    @Test
+    fun generatedMatchesReflection() {
+        delegatedProperties(MappedHolder::class.java).forEach { property ->
+            @Suppress("UNCHECKED_CAST")
+            val generated = MappedHolder_BundleAccessor.findType(property.name) as BundleSupportType<Any>?
+            if (property.name == "unsupported") {
+                // 编译时无法确定类型的字段不生成，运行时回退到反射
+                assertNull(generated)
+                return@forEach
+            }
+            generated ?: throw AssertionError("not generated: $property")
+            val reflect = BundleSupportType.AutoFind.findByType<Any>(
+                BundleSupportType.AutoFind.TypeInfo.ByKProperty(property),
+                BundleSupportType.AutoFind.NullableCheck.CHECK_NOW_BY_REFLECT
+            )
+            assertEquals(property.toString(), reflect.javaClass, generated.javaClass)
+
+            val name = property.name
+            // 缺省时可空类型返回null，非空类型返回默认值，由此确认可空性一致
+            assertEquals(
+                property.toString(),
+                comparable(reflect.getValue(Bundle(), property, name, null)),
+                comparable(generated.getValue(Bundle(), property, name, null))
+            )
+            val value = sampleValue(property)
+            val bundle = Bundle().also { generated.putNullable(it, property, name, value) }
+            assertEquals(
+                property.toString(), comparable(value), comparable(reflect.getValue(bundle, property, name, null))
+            )
+            val intent = generated.putExtraNullable(Intent(), property, name, value)
+            assertEquals(
+                property.toString(), comparable(value), comparable(reflect.getValue(intent, property, name, null))
+            )
+        }
+    }
+
+    private fun sampleValue(property: KProperty<*>): Any = when (property.name) {
+        "byte" -> 1.toByte()
+        "shorts" -> shortArrayOf(1, 2)
+        "id" -> 42
+        "time" -> 1234567890123L
+        "ratio" -> 0.5f
+        "precise" -> 0.25
+        "checked" -> true
+        "chars" -> charArrayOf('a', 'b')
+        "name" -> "name"
+        "extras" -> Bundle().apply { putInt("k", 1) }
+        "size" -> Size(3, 4)
+        "label" -> "label"
+        "tags" -> listOf("a", "b")
+        "numbers" -> listOf(1, 2)
+        "labels" -> listOf<CharSequence>("a", "b")
+        "names" -> arrayOf("a", "b")
+        "mode" -> AnnotationRetention.SOURCE
+        "date" -> Date(1234567890123L)
+        "aliased" -> intArrayOf(1, 2, 3)
+        "intent" -> Intent("action")
+        "intents" -> listOf(Intent("a"), Intent("b"))
+        else -> throw IllegalArgumentException(property.toString())
+    }
+
+    private fun comparable(value: Any?): Any? = when (value) {
+        is ShortArray -> value.toList()
+        is CharArray -> value.toList()
+        is IntArray -> value.toList()
+        is Array<*> -> value.toList()
+        is Bundle -> value.keySet().associateWith { @Suppress("DEPRECATION") value.get(it) }
+        is Intent -> value.action
+        is List<*> -> value.map { comparable(it) }
+        else -> value
+    }
+
+    private fun delegatedProperties(clazz: Class<*>): List<KProperty<*>> =
+        clazz.getDeclaredField("\$\$delegatedProperties").run {
+            isAccessible = true
+            (get(null) as Array<*>).filterIsInstance<KProperty<*>>()
+        }
+}
+
+internal typealias AccessorIds = IntArray
+
+@BundleAccessors
+internal class MappedHolder {
+    val byte: Byte by Value<Byte>(0)
+    val shorts: ShortArray? by Value(null)
+    val id: Int by Value(0)
+    val time: Long? by Value(null)
+    val ratio: Float by Value(0f)
+    val precise: Double? by Value(null)
+    val checked: Boolean by Value(false)
+    val chars: CharArray? by Value(null)
+    val name: String? by Value(null)
+    val extras: Bundle? by Value(null)
+    val size: Size? by Value(null)
+    val label: CharSequence? by Value(null)
+    val tags: List<String> by Value(emptyList())
+    val numbers: List<Int>? by Value(null)
+    val labels: List<CharSequence>? by Value(null)
+    val names: Array<String>? by Value(null)
+    val mode: AnnotationRetention by Value(AnnotationRetention.BINARY)
+    val date: Date? by Value(null)
+    val aliased: AccessorIds? by Value(null)
+    val intent: Intent? by Value(null)
+    val intents: List<Intent>? by Value(null)
+    val unsupported: Any? by Value(null)
+}
+
+internal class AccessorOuter {
+    @BundleAccessors
+    internal class Nested {
+        val id: Int by Value(0)
+    }
+}
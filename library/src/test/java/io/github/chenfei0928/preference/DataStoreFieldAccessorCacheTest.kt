@@ -0,0 +1,210 @@
+package io.github.chenfei0928.preference
+
+import androidx.datastore.core.DataStore
+import com.google.protobuf.Timestamp
+import io.github.chenfei0928.preference.base.FieldAccessor
+import io.github.chenfei0928.preference.base.FieldAccessor.Companion.property
+import io.github.chenfei0928.preference.base.ProtobufMessageField
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.async
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.filterNotNull
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import kotlinx.coroutines.withTimeout
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 使用内存中的[DataStore]验证[DataStoreFieldAccessorCache]：
+ * [DataStoreFieldAccessorCache.edit]在一次写入中修改多个字段，protobuf字段共用[com.google.protobuf.Message.Builder]时按顺序应用，
+ * 合并写入与写入完成到数据流更新之间读取到的都是新值，以及[DataStoreFieldAccessorCache.awaitData]等待首次加载
+ *
+ * @author chenf()
+ * @date 2026-10-19 13:30
+ */
+@RunWith(RobolectricTestRunner::class)
+class DataStoreFieldAccessorCacheTest {
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+
+    @After
+    fun tearDown() {
+        scope.cancel()
+    }
+
+    @Test
+    fun editInOneUpdate() {
+        val dataStore = InMemoryDataStore(Settings())
+        val cache = DataStoreFieldAccessorCache(scope, dataStore, blockingWrite = true)
+        val name = cache.nameField()
+        val count = cache.countField()
+        cache.edit {
+            this[name] = "edited"
+            this[count] = 3
+        }
+        assertEquals(1, dataStore.updateCount.get())
+        assertEquals(Settings("edited", 3), dataStore.current)
+        assertEquals("edited", cache.preferenceDataStore.getString("name", null))
+        assertEquals(3, cache.preferenceDataStore.getInt("count", 0))
+    }
+
+    @Test
+    fun protobufFieldsShareBuilder() {
+        val dataStore = InMemoryDataStore(Timestamp.getDefaultInstance())
+        val cache = DataStoreFieldAccessorCache(scope, dataStore, blockingWrite = true)
+        val seconds = cache.property(
+            ProtobufMessageField(Timestamp.getDefaultInstance(), 1, Long::class.java)
+        )
+        val nanos = cache.property(
+            ProtobufMessageField(Timestamp.getDefaultInstance(), 2, Int::class.java)
+        )
+        // 非protobuf字段读取到的是之前protobuf字段修改后构建的消息
+        val nanosBySeconds = cache.property<Timestamp, Int>(
+            "nanosBySeconds",
+            getter = { it.nanos },
+            setter = { data, value -> data.toBuilder().setNanos(data.seconds.toInt() * value).build() },
+        )
+        val result = runBlocking {
+            cache.editAndAwait {
+                this[seconds] = 5L
+                this[nanosBySeconds] = 10
+                this[seconds] = 7L
+            }
+        }
+        assertEquals(Timestamp.newBuilder().setSeconds(7).setNanos(50).build(), result)
+        assertEquals(1, dataStore.updateCount.get())
+
+        cache.edit {
+            this[seconds] = 1L
+            this[nanos] = 2
+        }
+        assertEquals(Timestamp.newBuilder().setSeconds(1).setNanos(2).build(), dataStore.current)
+        assertEquals(2, dataStore.updateCount.get())
+    }
+
+    @Test
+    fun coalesceWrites() {
+        val dataStore = InMemoryDataStore(Settings())
+        val cache = DataStoreFieldAccessorCache(scope, dataStore, coalesceWindowMillis = 200)
+        cache.nameField()
+        cache.countField()
+        val pds = cache.preferenceDataStore
+        pds.putString("name", "a")
+        pds.putInt("count", 1)
+        pds.putString("name", "b")
+        // 合并写入前读取到的值包含未写入的修改
+        assertEquals("b", pds.getString("name", null))
+        assertEquals(1, pds.getInt("count", 0))
+        assertEquals(0, dataStore.updateCount.get())
+        runBlocking {
+            withTimeout(5000) {
+                while (dataStore.updateCount.get() == 0) {
+                    delay(10)
+                }
+            }
+        }
+        assertEquals(1, dataStore.updateCount.get())
+        assertEquals(Settings("b", 1), dataStore.current)
+    }
+
+    @Test
+    fun readBetweenUpdateAndEmission() {
+        val dataStore = InMemoryDataStore(Settings())
+        val cache = DataStoreFieldAccessorCache(scope, dataStore, blockingWrite = true)
+        cache.nameField()
+        val pds = cache.preferenceDataStore
+        assertEquals("", pds.getString("name", null))
+        // updateData 已返回但数据流还未发出新值
+        dataStore.holdEmission = true
+        pds.putString("name", "written")
+        assertEquals(1, dataStore.updateCount.get())
+        assertEquals("written", pds.getString("name", null))
+        dataStore.release()
+        assertEquals("written", pds.getString("name", null))
+        // 数据流更新后外部写入的新值不会被之前的修改覆盖
+        runBlocking {
+            dataStore.updateData { it.copy(name = "external") }
+            withTimeout(5000) {
+                while (pds.getString("name", null) != "external") {
+                    delay(10)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun awaitDataSuspendsUntilLoaded() {
+        val dataStore = InMemoryDataStore<Settings>(null)
+        val cache = DataStoreFieldAccessorCache(scope, dataStore)
+        val name = cache.nameField()
+        runBlocking {
+            val deferred = async(Dispatchers.IO) { cache.get(name) }
+            delay(100)
+            assertFalse(deferred.isCompleted)
+            dataStore.load(Settings("loaded"))
+            assertEquals("loaded", withTimeout(5000) { deferred.await() })
+            assertEquals(Settings("loaded"), cache.awaitData())
+        }
+    }
+
+    private fun FieldAccessor<Settings>.nameField(): FieldAccessor.Field<Settings, String> =
+        property("name", getter = { it.name }, setter = { data, value -> data.copy(name = value) })
+
+    private fun FieldAccessor<Settings>.countField(): FieldAccessor.Field<Settings, Int> =
+        property("count", getter = { it.count }, setter = { data, value -> data.copy(count = value) })
+
+    private data class Settings(
+        val name: String = "",
+        val count: Int = 0,
+    )
+
+    /**
+     * 仅用于测试的内存[DataStore]，可以暂缓数据流发出写入后的值，以模拟写入完成到数据流更新之间的间隔
+     */
+    private class InMemoryDataStore<T : Any>(initial: T?) : DataStore<T> {
+        private val mutex = Mutex()
+        private val published = MutableStateFlow(initial)
+        val updateCount = AtomicInteger()
+
+        @Volatile
+        var current: T? = initial
+            private set
+
+        @Volatile
+        var holdEmission = false
+
+        override val data: Flow<T> = published.filterNotNull()
+
+        fun load(value: T) {
+            current = value
+            published.value = value
+        }
+
+        fun release() {
+            holdEmission = false
+            published.value = current
+        }
+
+        override suspend fun updateData(transform: suspend (t: T) -> T): T = mutex.withLock {
+            val newData = transform(current ?: published.filterNotNull().first())
+            current = newData
+            updateCount.incrementAndGet()
+            if (!holdEmission) {
+                published.value = newData
+            }
+            newData
+        }
+    }
+}
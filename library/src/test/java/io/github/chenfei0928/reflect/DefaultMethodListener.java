@@ -0,0 +1,16 @@
+package io.github.chenfei0928.reflect;
+
+/**
+ * 带有Java默认方法的监听器，用于验证代理对默认方法的调用
+ *
+ * @author chenf()
+ * @date 2026-10-19 14:20
+ */
+interface DefaultMethodListener {
+    void onEvent(int value);
+
+    default void onEvents(int first, int second) {
+        onEvent(first);
+        onEvent(second);
+    }
+}
@@ -0,0 +1,182 @@
+package io.github.chenfei0928.reflect
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.io.IOException
+
+/**
+ * 对比[ListenersProxy]动态代理分发与编译时生成的分发实现的耗时，合并返回值的方式，
+ * 以及默认方法的调用和监听器抛出的异常在各分发方式下一致
+ *
+ * [BenchmarkListener_ListenersFanOut]由测试源码集的ksp处理器生成；
+ * [MethodHandle][java.lang.invoke.MethodHandle]分发与默认方法只在 API 26 及以上启用，默认以 API 28 运行
+ *
+ * @author chenf()
+ * @date 2026-10-19 01:40
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [28])
+class ListenersProxyBenchmarkTest {
+
+    @Test
+    fun compareDispatch() {
+        intArrayOf(1, 10).forEach { count ->
+            val proxyListeners = ListenersSnapshotCollection<ProxyListener>()
+            val proxy = ListenersProxy.newListenersProxy(ProxyListener::class.java, proxyListeners)
+            val generatedListeners = ListenersSnapshotCollection<BenchmarkListener>()
+            val generated = ListenersProxy.newListenersProxy(BenchmarkListener::class.java, generatedListeners)
+            assertTrue(generated is BenchmarkListener_ListenersFanOut)
+
+            var sum = 0L
+            repeat(count) {
+                proxyListeners.add(object : ProxyListener {
+                    override fun onEvent(value: Int) {
+                        sum += value
+                    }
+
+                    override fun onConsume(value: Int): Boolean = value > 0
+                })
+                generatedListeners.add(object : BenchmarkListener {
+                    override fun onEvent(value: Int) {
+                        sum += value
+                    }
+
+                    override fun onConsume(value: Int): Boolean = value > 0
+                })
+            }
+            // 预热
+            repeat(DISPATCH_COUNT) { proxy.onEvent(it) }
+            repeat(DISPATCH_COUNT) { generated.onEvent(it) }
+
+            val proxyNanos = measureNanos { repeat(DISPATCH_COUNT) { proxy.onEvent(it) } }
+            val generatedNanos = measureNanos { repeat(DISPATCH_COUNT) { generated.onEvent(it) } }
+            println(
+                "listeners $count: proxy ${proxyNanos / DISPATCH_COUNT}ns/dispatch, " +
+                        "generated ${generatedNanos / DISPATCH_COUNT}ns/dispatch"
+            )
+            if (sum == Long.MIN_VALUE) println(sum)
+            assertEquals(proxy.onConsume(1), generated.onConsume(1))
+        }
+    }
+
+    @Test
+    fun mergePolicy() {
+        val listeners = ListenersSnapshotCollection<ProxyListener>()
+        listOf(true, false).forEach { consume ->
+            listeners.add(object : ProxyListener {
+                override fun onEvent(value: Int) = Unit
+                override fun onConsume(value: Int): Boolean = consume
+            })
+        }
+        val last = ListenersProxy.newListenersProxy(ProxyListener::class.java, listeners)
+        val anyTrue = ListenersProxy.newListenersProxy(
+            ProxyListener::class.java, listeners, ListenersProxy.MergePolicy.ANY_TRUE
+        )
+        assertEquals(false, last.onConsume(0))
+        assertEquals(true, anyTrue.onConsume(0))
+        // 代理同时实现了集合接口
+        @Suppress("UNCHECKED_CAST")
+        assertEquals(2, (last as Collection<ProxyListener>).size)
+    }
+
+    @Test
+    fun defaultMethod() {
+        val listeners = ListenersSnapshotCollection<DefaultMethodListener>()
+        val received = ArrayList<Int>()
+        listeners.add(object : DefaultMethodListener {
+            override fun onEvent(value: Int) {
+                received.add(value)
+            }
+        })
+        listeners.add(object : DefaultMethodListener {
+            override fun onEvent(value: Int) {
+                received.add(-value)
+            }
+        })
+        val proxy = ListenersProxy.newListenersProxy(DefaultMethodListener::class.java, listeners)
+        // 默认方法在代理上调用一次，其中对接口方法的调用再分发给所有监听器
+        proxy.onEvents(1, 2)
+        assertEquals(listOf(1, -1, 2, -2), received)
+    }
+
+    @Test
+    fun rawExceptionByMethodHandle() {
+        assertRawException()
+    }
+
+    @Test
+    @Config(sdk = [21])
+    fun rawExceptionByReflect() {
+        assertRawException()
+    }
+
+    private fun assertRawException() {
+        val error = IllegalStateException("expected")
+        val ioError = IOException("expected")
+        val proxyListeners = ListenersSnapshotCollection<ThrowingListener>()
+        proxyListeners.add(object : ThrowingListener {
+            override fun onEvent(value: Int): Unit = throw error
+            override fun onIo(): Unit = throw ioError
+        })
+        val proxy = ListenersProxy.newListenersProxy(ThrowingListener::class.java, proxyListeners)
+        assertSame(error, catchThrowable { proxy.onEvent(1) })
+        // 接口声明的受检异常同样原样抛出，而不是被包装为 UndeclaredThrowableException
+        assertSame(ioError, catchThrowable { proxy.onIo() })
+
+        val generatedListeners = ListenersSnapshotCollection<BenchmarkListener>()
+        generatedListeners.add(object : BenchmarkListener {
+            override fun onEvent(value: Int): Unit = throw error
+            override fun onConsume(value: Int): Boolean = throw error
+        })
+        val generated = ListenersProxy.newListenersProxy(BenchmarkListener::class.java, generatedListeners)
+        assertSame(error, catchThrowable { generated.onEvent(1) })
+        val reflected = ListenersProxy.newListenersProxy(
+            BenchmarkListener::class.java, generatedListeners, ListenersProxy.MergePolicy.ANY_TRUE
+        )
+        assertSame(error, catchThrowable { reflected.onConsume(1) })
+    }
+
+    private inline fun catchThrowable(block: () -> Unit): Throwable {
+        try {
+            block()
+        } catch (e: Throwable) {
+            return e
+        }
+        fail("expected exception")
+        throw AssertionError()
+    }
+
+    private inline fun measureNanos(block: () -> Unit): Long {
+        val start = System.nanoTime()
+        block()
+        return System.nanoTime() - start
+    }
+
+    companion object {
+        private const val DISPATCH_COUNT = 100_000
+    }
+}
+
+interface ProxyListener {
+    fun onEvent(value: Int)
+    fun onConsume(value: Int): Boolean
+}
+
+@ListenersFanOut
+interface BenchmarkListener {
+    fun onEvent(value: Int)
+    fun onConsume(value: Int): Boolean
+}
+
+interface ThrowingListener {
+    fun onEvent(value: Int)
+
+    @Throws(IOException::class)
+    fun onIo()
+}
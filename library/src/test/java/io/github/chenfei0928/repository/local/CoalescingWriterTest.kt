@@ -0,0 +1,107 @@
+package io.github.chenfei0928.repository.local
+
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.LifecycleOwner
+import androidx.lifecycle.LifecycleRegistry
+import io.github.chenfei0928.concurrent.BgTaskPoolExecutorImpl
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * 验证[CoalescingWriter]合并短时间内的多次写入只写入最新的值，以及生命周期stop时写入尚未写入的值
+ *
+ * @author chenf()
+ * @date 2026-10-19 10:00
+ */
+class CoalescingWriterTest {
+    private val executor = BgTaskPoolExecutorImpl("coalescing", 2)
+
+    @After
+    fun tearDown() {
+        executor.shutdown()
+    }
+
+    @Test
+    fun coalesceToLatest() {
+        val written = Collections.synchronizedList(ArrayList<Int>())
+        val latch = CountDownLatch(1)
+        val writer = CoalescingWriter<Int>(
+            { LANE }, CoalescingWriter.Config(debounceMillis = 50, maxLatencyMillis = 5000), executor
+        ) {
+            written.add(it)
+            latch.countDown()
+        }
+        repeat(100) { writer.submit(it) }
+        assertTrue(latch.await(5, TimeUnit.SECONDS))
+        // 等待可能存在的多余写入
+        Thread.sleep(200)
+        assertEquals(listOf(99), written)
+        assertEquals(100, writer.submittedCount)
+        assertEquals(1, writer.writtenCount)
+        assertEquals(99, writer.coalescedCount)
+        assertEquals(99, writer.fsyncSavedCount)
+    }
+
+    @Test
+    fun maxLatencyUnderContinuousSubmit() {
+        val written = Collections.synchronizedList(ArrayList<Int>())
+        val writer = CoalescingWriter<Int>(
+            { LANE }, CoalescingWriter.Config(debounceMillis = 100, maxLatencyMillis = 200), executor
+        ) { written.add(it) }
+        // 持续提交，间隔小于debounceMillis，由maxLatencyMillis保证期间仍有写入
+        val deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1000)
+        var value = 0
+        while (System.nanoTime() < deadline) {
+            writer.submit(value++)
+            Thread.sleep(10)
+        }
+        assertTrue(written.isNotEmpty())
+        writer.flushNow()
+        assertEquals(value - 1, written.last())
+    }
+
+    @Test
+    fun flushOnStopAndRemoveOnDestroy() {
+        val written = Collections.synchronizedList(ArrayList<Int>())
+        val writer = CoalescingWriter<Int>(
+            { LANE }, CoalescingWriter.Config(debounceMillis = 60_000, maxLatencyMillis = 60_000), executor
+        ) { written.add(it) }
+        val owner = object : LifecycleOwner {
+            override val lifecycle = LifecycleRegistry.createUnsafe(this)
+        }
+        owner.lifecycle.currentState = Lifecycle.State.RESUMED
+        writer.flushOnStop(owner)
+        assertEquals(1, owner.lifecycle.observerCount)
+
+        writer.submit(1)
+        writer.submit(2)
+        owner.lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_PAUSE)
+        owner.lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_STOP)
+        // stop时同步写入最新的值
+        assertEquals(listOf(2), written)
+
+        owner.lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_DESTROY)
+        assertEquals(0, owner.lifecycle.observerCount)
+    }
+
+    @Test
+    fun writeNowDropsPending() {
+        val written = Collections.synchronizedList(ArrayList<Int>())
+        val writer = CoalescingWriter<Int>(
+            { LANE }, CoalescingWriter.Config(debounceMillis = 50, maxLatencyMillis = 5000), executor
+        ) { written.add(it) }
+        writer.submit(1)
+        writer.writeNow(2)
+        Thread.sleep(200)
+        assertEquals(listOf(2), written)
+    }
+
+    companion object {
+        private val LANE = Any()
+    }
+}
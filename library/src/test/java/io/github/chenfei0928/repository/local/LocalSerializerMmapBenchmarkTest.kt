@@ -0,0 +1,116 @@
+package io.github.chenfei0928.repository.local
+
+import io.github.chenfei0928.repository.local.serializer.ByteArraySerializer
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.io.InputStream
+import java.io.OutputStream
+import java.nio.ByteBuffer
+
+/**
+ * 对比[readFile]在流式读取与内存映射读取（[mmapThreshold]）下首次读取新文件的耗时，并验证两者读取结果一致
+ *
+ * JVM上无法清除系统页缓存，每次读取都是新打开的文件，测得的是不含磁盘IO的冷读取开销（打开、映射与解析）
+ *
+ * @author chenf()
+ * @date 2026-10-19 10:30
+ */
+class LocalSerializerMmapBenchmarkTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    @Test
+    fun sameResult() {
+        intArrayOf(0, 1, 4096, 1024 * 1024 + 3).forEach { size ->
+            val data = ByteArray(size) { (it * 31).toByte() }
+            val file = writeFile(data)
+            assertArrayEquals(data, read(file, ByteArraySerializer, Long.MAX_VALUE))
+            // 空文件映射为空的ByteBuffer
+            assertArrayEquals(data, read(file, ByteArraySerializer, 0))
+            assertEquals(read(file, ChecksumSerializer, Long.MAX_VALUE), read(file, ChecksumSerializer, 0))
+        }
+    }
+
+    @Test
+    fun compareColdRead() {
+        intArrayOf(16 * 1024, 1024 * 1024, 8 * 1024 * 1024).forEach { size ->
+            val data = ByteArray(size) { (it * 31).toByte() }
+            val files = Array(FILE_COUNT) { writeFile(data) }
+            // 预热
+            files.take(2).forEach {
+                read(it, ChecksumSerializer, Long.MAX_VALUE)
+                read(it, ChecksumSerializer, 0)
+            }
+            var streamChecksum = 0L
+            val streamNanos = measure {
+                files.forEach { streamChecksum += read(it, ChecksumSerializer, Long.MAX_VALUE) }
+            }
+            var mmapChecksum = 0L
+            val mmapNanos = measure {
+                files.forEach { mmapChecksum += read(it, ChecksumSerializer, 0) }
+            }
+            assertEquals(streamChecksum, mmapChecksum)
+            println(
+                "read ${size / 1024}KB x $FILE_COUNT: stream ${streamNanos / FILE_COUNT / 1000}us/file, " +
+                        "mmap ${mmapNanos / FILE_COUNT / 1000}us/file"
+            )
+            files.forEach { it.delete() }
+        }
+    }
+
+    private fun writeFile(data: ByteArray): File {
+        val file = folder.newFile()
+        file.writeBytes(data)
+        return file
+    }
+
+    private fun <T : Any> read(file: File, serializer: LocalSerializer<T>, mmapThreshold: Long): T =
+        file.inputStream().use { serializer.readFile(it, mmapThreshold) }
+
+    private inline fun measure(block: () -> Unit): Long {
+        val begin = System.nanoTime()
+        block()
+        return System.nanoTime() - begin
+    }
+
+    /**
+     * 计算所有字节之和，模拟可以直接从[ByteBuffer]解析的序列化（如protobuf）
+     */
+    private object ChecksumSerializer : LocalSerializer<Long> {
+        override val defaultValue: Long = 0
+
+        override fun write(outputStream: OutputStream, obj: Long) {
+            throw UnsupportedOperationException()
+        }
+
+        override fun read(inputStream: InputStream): Long {
+            val buffer = ByteArray(8 * 1024)
+            var sum = 0L
+            while (true) {
+                val read = inputStream.read(buffer)
+                if (read < 0) {
+                    return sum
+                }
+                for (i in 0 until read) {
+                    sum += buffer[i]
+                }
+            }
+        }
+
+        override fun read(byteBuffer: ByteBuffer): Long {
+            var sum = 0L
+            while (byteBuffer.hasRemaining()) {
+                sum += byteBuffer.get()
+            }
+            return sum
+        }
+    }
+
+    companion object {
+        private const val FILE_COUNT = 20
+    }
+}
@@ -0,0 +1,187 @@
+package io.github.chenfei0928.repository.local.decorator
+
+import io.github.chenfei0928.repository.local.LocalSerializer
+import io.github.chenfei0928.repository.local.decorator.DeflateSerializer.Companion.deflate
+import io.github.chenfei0928.repository.local.serializer.ByteArraySerializer
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.EOFException
+import java.io.InputStream
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.util.zip.Deflater
+import java.util.zip.DeflaterOutputStream
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+import java.util.zip.Inflater
+import java.util.zip.InflaterInputStream
+import java.util.zip.ZipException
+import kotlin.random.Random
+
+/**
+ * 验证[DeflateCodec]自行处理的GZip头尾与[GZIPOutputStream]、[GZIPInputStream]双向兼容，
+ * [DeflateSerializer.Codec.RAW_DEFLATE]与raw deflate兼容，以及尾部损坏或截断时读取失败
+ *
+ * @author chenf()
+ * @date 2026-10-19 10:50
+ */
+class DeflateCodecTest {
+    private val gzip = ByteArraySerializer.deflate()
+    private val rawDeflate = ByteArraySerializer.deflate(DeflateSerializer.Codec.RAW_DEFLATE)
+
+    @Test
+    fun roundTrip() {
+        SIZES.forEach { size ->
+            listOf(compressible(size), incompressible(size)).forEach { data ->
+                assertArrayEquals(data, gzip.read(ByteArrayInputStream(gzip.writeToBytes(data))))
+                assertArrayEquals(data, rawDeflate.read(ByteArrayInputStream(rawDeflate.writeToBytes(data))))
+                // mmap读取路径
+                assertArrayEquals(data, gzip.read(ByteBuffer.wrap(gzip.writeToBytes(data))))
+            }
+        }
+    }
+
+    @Test
+    fun pooledCodecReusedAcrossLevels() {
+        val data = compressible(64 * 1024)
+        intArrayOf(Deflater.BEST_SPEED, Deflater.BEST_COMPRESSION, Deflater.NO_COMPRESSION).forEach { level ->
+            val serializer = ByteArraySerializer.deflate(level = level)
+            assertArrayEquals(data, serializer.read(ByteArrayInputStream(serializer.writeToBytes(data))))
+        }
+    }
+
+    @Test
+    fun writerToGzipInputStream() {
+        SIZES.forEach { size ->
+            val data = incompressible(size)
+            val actual = GZIPInputStream(ByteArrayInputStream(gzip.writeToBytes(data))).use { it.readBytes() }
+            assertArrayEquals(data, actual)
+        }
+    }
+
+    @Test
+    fun gzipOutputStreamToReader() {
+        SIZES.forEach { size ->
+            val data = compressible(size)
+            val bytes = ByteArrayOutputStream().also { out ->
+                GZIPOutputStream(out).use { it.write(data) }
+            }.toByteArray()
+            assertArrayEquals(data, gzip.read(ByteArrayInputStream(bytes)))
+        }
+    }
+
+    @Test
+    fun gzipOutputStreamWithOptionalHeaderToReader() {
+        val data = compressible(4096)
+        val bytes = ByteArrayOutputStream().also { out ->
+            GZIPOutputStream(out).use { it.write(data) }
+        }.toByteArray()
+        // 添加FEXTRA、FNAME、FCOMMENT、FHCRC可选头部
+        val withOptionalHeader = ByteArrayOutputStream().apply {
+            write(bytes, 0, 3)
+            write(4 or 8 or 16 or 2)
+            write(bytes, 4, 6)
+            write(byteArrayOf(3, 0, 1, 2, 3))
+            write("name.bin".toByteArray())
+            write(0)
+            write("comment".toByteArray())
+            write(0)
+            write(byteArrayOf(0, 0))
+            write(bytes, 10, bytes.size - 10)
+        }.toByteArray()
+        assertArrayEquals(data, gzip.read(ByteArrayInputStream(withOptionalHeader)))
+        // 确认构造的数据本身是合法的GZip
+        assertArrayEquals(data, GZIPInputStream(ByteArrayInputStream(withOptionalHeader)).use { it.readBytes() })
+    }
+
+    @Test
+    fun rawDeflateInterop() {
+        val data = compressible(32 * 1024)
+        val actual = InflaterInputStream(
+            ByteArrayInputStream(rawDeflate.writeToBytes(data)), Inflater(true)
+        ).use { it.readBytes() }
+        assertArrayEquals(data, actual)
+
+        val bytes = ByteArrayOutputStream().also { out ->
+            DeflaterOutputStream(out, Deflater(Deflater.DEFAULT_COMPRESSION, true)).use { it.write(data) }
+        }.toByteArray()
+        assertArrayEquals(data, rawDeflate.read(ByteArrayInputStream(bytes)))
+    }
+
+    @Test
+    fun partialReadStillVerifiesTrailer() {
+        val data = incompressible(16 * 1024)
+        val bytes = gzip.writeToBytes(data)
+        val head = HeadSerializer.deflate()
+        assertEquals(data[0], head.read(ByteArrayInputStream(bytes)))
+
+        val corrupt = bytes.copyOf()
+        corrupt[corrupt.size - 8] = (corrupt[corrupt.size - 8] + 1).toByte()
+        assertThrows<ZipException> { head.read(ByteArrayInputStream(corrupt)) }
+    }
+
+    @Test
+    fun corruptCrc() {
+        val bytes = gzip.writeToBytes(compressible(4096))
+        bytes[bytes.size - 8] = (bytes[bytes.size - 8] + 1).toByte()
+        assertThrows<ZipException> { gzip.read(ByteArrayInputStream(bytes)) }
+    }
+
+    @Test
+    fun corruptSize() {
+        val bytes = gzip.writeToBytes(compressible(4096))
+        bytes[bytes.size - 1] = (bytes[bytes.size - 1] + 1).toByte()
+        assertThrows<ZipException> { gzip.read(ByteArrayInputStream(bytes)) }
+    }
+
+    @Test
+    fun truncatedTrailer() {
+        val bytes = gzip.writeToBytes(compressible(4096))
+        assertThrows<EOFException> { gzip.read(ByteArrayInputStream(bytes.copyOf(bytes.size - 3))) }
+    }
+
+    @Test
+    fun invalidHeader() {
+        assertThrows<ZipException> { gzip.read(ByteArrayInputStream(ByteArray(32) { 1 })) }
+        assertThrows<EOFException> { gzip.read(ByteArrayInputStream(ByteArray(4))) }
+    }
+
+    private fun <T : Any> LocalSerializer<T>.writeToBytes(obj: T): ByteArray =
+        ByteArrayOutputStream().also { write(it, obj) }.toByteArray()
+
+    private fun compressible(size: Int): ByteArray = ByteArray(size) { (it % 17).toByte() }
+
+    private fun incompressible(size: Int): ByteArray = Random(size).nextBytes(size)
+
+    private inline fun <reified E : Throwable> assertThrows(block: () -> Unit) {
+        try {
+            block()
+        } catch (e: Throwable) {
+            if (e is E) {
+                return
+            }
+            throw AssertionError("expected ${E::class.java.name} but was $e", e)
+        }
+        throw AssertionError("expected ${E::class.java.name}")
+    }
+
+    /**
+     * 只读取第一个字节，用于验证未读完的数据仍会校验尾部
+     */
+    private object HeadSerializer : LocalSerializer<Byte> {
+        override val defaultValue: Byte = 0
+
+        override fun write(outputStream: OutputStream, obj: Byte) {
+            outputStream.write(obj.toInt())
+        }
+
+        override fun read(inputStream: InputStream): Byte = inputStream.read().toByte()
+    }
+
+    companion object {
+        private val SIZES = intArrayOf(0, 1, 100, 4095, 4096, 4097, 256 * 1024 + 7)
+    }
+}
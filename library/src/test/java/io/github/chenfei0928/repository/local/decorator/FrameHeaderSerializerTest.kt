@@ -0,0 +1,93 @@
+package io.github.chenfei0928.repository.local.decorator
+
+import io.github.chenfei0928.repository.local.LocalSerializer
+import io.github.chenfei0928.repository.local.decorator.DeflateSerializer.Companion.deflate
+import io.github.chenfei0928.repository.local.decorator.FrameHeaderSerializer.Companion.frameHeader
+import io.github.chenfei0928.repository.local.serializer.ByteArraySerializer
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.EOFException
+import java.nio.ByteBuffer
+
+/**
+ * 验证[FrameHeaderSerializer]的帧头读写及版本号、有效期、magic校验
+ *
+ * @author chenf()
+ * @date 2026-10-19 11:05
+ */
+class FrameHeaderSerializerTest {
+    private val data = ByteArray(1000) { it.toByte() }
+
+    @Test
+    fun roundTrip() {
+        val serializer = ByteArraySerializer.frameHeader(versionCode = 3)
+        val bytes = serializer.writeToBytes(data)
+        assertEquals(FRAME_SIZE + data.size, bytes.size)
+        assertArrayEquals(data, serializer.read(ByteArrayInputStream(bytes)))
+        assertArrayEquals(data, serializer.read(ByteBuffer.wrap(bytes)))
+    }
+
+    @Test
+    fun withDeflate() {
+        val serializer = ByteArraySerializer.deflate().frameHeader(versionCode = 3, timeoutInMillis = 60_000)
+        val bytes = serializer.writeToBytes(data)
+        assertArrayEquals(data, serializer.read(ByteArrayInputStream(bytes)))
+        assertArrayEquals(data, serializer.read(ByteBuffer.wrap(bytes)))
+    }
+
+    @Test
+    fun versionMismatch() {
+        val bytes = ByteArraySerializer.frameHeader(versionCode = 3).writeToBytes(data)
+        val serializer = ByteArraySerializer.frameHeader(versionCode = 4)
+        assertThrows<IllegalArgumentException> { serializer.read(ByteArrayInputStream(bytes)) }
+        assertThrows<IllegalArgumentException> { serializer.read(ByteBuffer.wrap(bytes)) }
+    }
+
+    @Test
+    fun expired() {
+        val serializer = ByteArraySerializer.frameHeader(versionCode = 3, timeoutInMillis = 1)
+        val bytes = serializer.writeToBytes(data)
+        Thread.sleep(20)
+        assertThrows<IllegalArgumentException> { serializer.read(ByteArrayInputStream(bytes)) }
+    }
+
+    @Test
+    fun invalidMagic() {
+        val serializer = ByteArraySerializer.frameHeader(versionCode = 3)
+        val bytes = serializer.writeToBytes(data)
+        bytes[0] = (bytes[0] + 1).toByte()
+        assertThrows<IllegalArgumentException> { serializer.read(ByteArrayInputStream(bytes)) }
+        assertThrows<IllegalArgumentException> { serializer.read(ByteBuffer.wrap(bytes)) }
+    }
+
+    @Test
+    fun truncatedHeader() {
+        val serializer = ByteArraySerializer.frameHeader(versionCode = 3)
+        val bytes = serializer.writeToBytes(data).copyOf(FRAME_SIZE - 1)
+        assertThrows<EOFException> { serializer.read(ByteArrayInputStream(bytes)) }
+        assertThrows<IllegalArgumentException> { serializer.read(ByteBuffer.wrap(bytes)) }
+    }
+
+    private fun <T : Any> LocalSerializer<T>.writeToBytes(obj: T): ByteArray =
+        ByteArrayOutputStream().also { write(it, obj) }.toByteArray()
+
+    private inline fun <reified E : Throwable> assertThrows(block: () -> Unit) {
+        try {
+            block()
+        } catch (e: Throwable) {
+            if (e is E) {
+                return
+            }
+            throw AssertionError("expected ${E::class.java.name} but was $e", e)
+        }
+        throw AssertionError("expected ${E::class.java.name}")
+    }
+
+    companion object {
+        // magic(4) + 版本号(8) + 保存时间戳(8)
+        private const val FRAME_SIZE = 20
+    }
+}
@@ -0,0 +1,161 @@
+package io.github.chenfei0928.util
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.concurrent.thread
+
+/**
+ * 验证[AsyncLogger]的多生产者顺序、各溢出策略下的丢弃数量与分发内容，以及[AsyncLogger.flush]会等待缓冲区分发完毕
+ *
+ * @author chenf()
+ * @date 2026-10-19 12:00
+ */
+@RunWith(RobolectricTestRunner::class)
+class AsyncLoggerTest {
+
+    @Test
+    fun multiProducerOrdering() {
+        val sink = RecordingSink()
+        val logger = AsyncLogger(arrayOf(sink), 64, AsyncLogger.OverflowPolicy.BLOCK)
+        val producers = List(PRODUCER_COUNT) { producer ->
+            thread(name = "producer-$producer") {
+                repeat(LOG_COUNT) { logger.i("p$producer", it.toString()) }
+            }
+        }
+        producers.forEach { it.join() }
+        assertTrue(logger.flush(5000))
+        assertEquals(0L, logger.droppedCount)
+        assertEquals(PRODUCER_COUNT * LOG_COUNT, sink.records.size)
+        // 同一生产者的日志保持提交顺序，并记录了提交时的线程
+        (0 until PRODUCER_COUNT).forEach { producer ->
+            val records = sink.records.filter { it.tag == "p$producer" }
+            assertEquals((0 until LOG_COUNT).map { it.toString() }, records.map { it.msg })
+            assertTrue(records.all { it.thread == "producer-$producer" })
+        }
+    }
+
+    @Test
+    fun dropNewest() {
+        val sink = RecordingSink(blocked = true)
+        val logger = AsyncLogger(arrayOf(sink), CAPACITY, AsyncLogger.OverflowPolicy.DROP_NEWEST)
+        fillWhileConsumerBlocked(logger, sink, CAPACITY + OVERFLOW)
+        assertEquals(OVERFLOW.toLong(), logger.droppedCount)
+        sink.release()
+        assertTrue(logger.flush(5000))
+        // 第一条已被消费线程取出，之后缓冲区保留最早写入的日志
+        assertEquals((0..CAPACITY).map { it.toString() }, sink.records.map { it.msg })
+    }
+
+    @Test
+    fun dropOldest() {
+        val sink = RecordingSink(blocked = true)
+        val logger = AsyncLogger(arrayOf(sink), CAPACITY, AsyncLogger.OverflowPolicy.DROP_OLDEST)
+        fillWhileConsumerBlocked(logger, sink, CAPACITY + OVERFLOW)
+        assertEquals(OVERFLOW.toLong(), logger.droppedCount)
+        sink.release()
+        assertTrue(logger.flush(5000))
+        // 第一条已被消费线程取出，之后缓冲区保留最新写入的日志
+        assertEquals(
+            listOf("0") + (OVERFLOW + 1..CAPACITY + OVERFLOW).map { it.toString() },
+            sink.records.map { it.msg }
+        )
+    }
+
+    @Test
+    fun blockWaitsForSpace() {
+        val sink = RecordingSink(blocked = true)
+        val logger = AsyncLogger(arrayOf(sink), CAPACITY, AsyncLogger.OverflowPolicy.BLOCK)
+        fillWhileConsumerBlocked(logger, sink, CAPACITY)
+        val done = CountDownLatch(OVERFLOW)
+        val producer = thread {
+            repeat(OVERFLOW) {
+                logger.i(TAG, (CAPACITY + 1 + it).toString())
+                done.countDown()
+            }
+        }
+        // 缓冲区已满，生产者等待消费线程释放空间
+        assertFalse(done.await(300, TimeUnit.MILLISECONDS))
+        assertEquals(OVERFLOW.toLong(), done.count)
+        sink.release()
+        assertTrue(done.await(5, TimeUnit.SECONDS))
+        producer.join()
+        assertTrue(logger.flush(5000))
+        assertEquals(0L, logger.droppedCount)
+        assertEquals((0..CAPACITY + OVERFLOW).map { it.toString() }, sink.records.map { it.msg })
+    }
+
+    @Test
+    fun flushDrains() {
+        val sink = RecordingSink(delayMillis = 1)
+        val logger = AsyncLogger(arrayOf(sink), 256)
+        repeat(100) { logger.i(TAG, it.toString()) }
+        assertTrue(logger.flush(5000))
+        assertEquals(100, sink.records.size)
+        assertEquals(0, logger.pendingCount)
+    }
+
+    @Test
+    fun flushTimeout() {
+        val sink = RecordingSink(blocked = true)
+        val logger = AsyncLogger(arrayOf(sink), CAPACITY)
+        logger.i(TAG, "0")
+        logger.i(TAG, "1")
+        assertFalse(logger.flush(50))
+        sink.release()
+        assertTrue(logger.flush(5000))
+        assertEquals(2, sink.records.size)
+    }
+
+    /**
+     * 写入第一条日志并等待消费线程在分发它时阻塞，再写入其余日志，使缓冲区中的日志数量可以确定
+     */
+    private fun fillWhileConsumerBlocked(logger: AsyncLogger, sink: RecordingSink, count: Int) {
+        logger.i(TAG, "0")
+        assertTrue(sink.entered.await(5, TimeUnit.SECONDS))
+        for (i in 1..count) {
+            logger.i(TAG, i.toString())
+        }
+        assertEquals(CAPACITY, logger.pendingCount)
+    }
+
+    private data class Record(val tag: String, val msg: String, val thread: String)
+
+    private class RecordingSink(
+        blocked: Boolean = false,
+        private val delayMillis: Long = 0,
+    ) : AsyncLogger.Sink {
+        val records: MutableList<Record> = Collections.synchronizedList(ArrayList())
+        val entered = CountDownLatch(1)
+        private val gate = CountDownLatch(if (blocked) 1 else 0)
+
+        fun release() {
+            gate.countDown()
+        }
+
+        override fun log(
+            level: Int, tag: String, msg: String, tr: Throwable?, timeMillis: Long, thread: Thread
+        ) {
+            entered.countDown()
+            gate.await()
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis)
+            }
+            records.add(Record(tag, msg, thread.name))
+        }
+    }
+
+    companion object {
+        private const val TAG = "Ut_AsyncLoggerTest"
+        private const val CAPACITY = 8
+        private const val OVERFLOW = 5
+        private const val PRODUCER_COUNT = 4
+        private const val LOG_COUNT = 5000
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.chenfei0928.util
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Collections
+import java.util.IdentityHashMap
+import java.util.WeakHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.random.Random
+
+/**
+ * 对比[ConcurrentMapCache]与[MapCache.Basic]在多线程读写混合负载下的耗时，并验证淘汰、过期与单次加载
+ *
+ * [MapCache.Basic]不是线程安全的，对比时使用[Collections.synchronizedMap]包装其[WeakHashMap]
+ *
+ * @author chenf()
+ * @date 2026-10-19 02:40
+ */
+class ConcurrentMapCacheBenchmarkTest {
+
+    @Test
+    fun compareMixedLoad() {
+        val basic = MapCache.Basic<Int, String>(Collections.synchronizedMap(WeakHashMap())) { it.toString() }
+        val concurrent = ConcurrentMapCache<Int, String>(KEY_COUNT) { it.toString() }
+        // 预热
+        mixedLoad(basic)
+        mixedLoad(concurrent)
+
+        val basicNanos = mixedLoad(basic)
+        val concurrentNanos = mixedLoad(concurrent)
+        println(
+            "mixed load $THREAD_COUNT threads: basic ${basicNanos / 1_000_000}ms, " +
+                    "concurrent ${concurrentNanos / 1_000_000}ms, ${concurrent.stats()}"
+        )
+    }
+
+    /**
+     * 每个线程以 1:9 的比例写入与读取随机key，返回所有线程完成的耗时
+     */
+    private fun mixedLoad(cache: MapCache<Int, String>): Long {
+        val pool = Executors.newFixedThreadPool(THREAD_COUNT)
+        val start = CountDownLatch(1)
+        repeat(THREAD_COUNT) { thread ->
+            pool.execute {
+                val random = Random(thread)
+                start.await()
+                repeat(OPERATION_COUNT) {
+                    val key = random.nextInt(KEY_COUNT * 2)
+                    if (it % 10 == 0) {
+                        cache[key] = key.toString()
+                    } else {
+                        cache[key]
+                    }
+                }
+            }
+        }
+        val begin = System.nanoTime()
+        start.countDown()
+        pool.shutdown()
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS))
+        return System.nanoTime() - begin
+    }
+
+    @Test
+    fun singleFlight() {
+        val created = AtomicInteger()
+        val cache = ConcurrentMapCache<Int, Any>(16) {
+            created.incrementAndGet()
+            Thread.sleep(50)
+            Any()
+        }
+        val pool = Executors.newFixedThreadPool(THREAD_COUNT)
+        val results = Collections.synchronizedSet(Collections.newSetFromMap(IdentityHashMap<Any, Boolean>()))
+        repeat(THREAD_COUNT) {
+            pool.execute { results.add(cache[0]) }
+        }
+        pool.shutdown()
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS))
+        assertEquals(1, created.get())
+        assertEquals(1, results.size)
+    }
+
+    @Test
+    fun lruAndExpire() {
+        val now = AtomicLong()
+        val cache = ConcurrentMapCache<Int, Int>(
+            maxSize = 2, expireAfterWriteMillis = 10, ticker = { now.get() }
+        ) { it * 10 }
+        cache[1]
+        cache[2]
+        // 访问1，使2成为最久未使用
+        cache[1]
+        cache[3]
+        assertEquals(2, cache.size)
+        assertEquals(1, cache.stats().evictionCount)
+        assertEquals(1, cache.stats().hitCount)
+
+        now.set(TimeUnit.MILLISECONDS.toNanos(10))
+        cache[1]
+        // 已过期，重新创建
+        assertEquals(4, cache.stats().missCount)
+    }
+
+    companion object {
+        private const val THREAD_COUNT = 8
+        private const val KEY_COUNT = 1024
+        private const val OPERATION_COUNT = 200_000
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.chenfei0928.util
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.text.ParsePosition
+import java.text.SimpleDateFormat
+import java.util.Date
+import java.util.Locale
+import java.util.TimeZone
+import kotlin.random.Random
+
+/**
+ * 对比每次创建[SimpleDateFormat]、[CachedDateFormat]与[FastDateTimeFormatter]的格式化耗时，并验证三者输出一致，
+ * 以及[Date.toString]与[CachedDateFormat.getSimpleDateFormat]在各系统版本上都保持[SimpleDateFormat]的语义
+ *
+ * [CachedDateFormat]在 API 26 及以上使用[java.time.format.DateTimeFormatter]，分别以 API 21、28 运行
+ *
+ * @author chenf()
+ * @date 2026-10-19 05:20
+ */
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [21, 28])
+class DateFormatBenchmarkTest {
+
+    @Test
+    fun sameOutput() {
+        val random = Random(0)
+        listOf("UTC", "Asia/Shanghai", "America/New_York", "Asia/Kolkata").forEach { id ->
+            val timeZone = TimeZone.getTimeZone(id)
+            val expected = SimpleDateFormat(PATTERN, Locale.US).also { it.timeZone = timeZone }
+            val cached = CachedDateFormat.get(PATTERN, Locale.US, timeZone)
+            val fast = FastDateTimeFormatter(timeZone = timeZone)
+            val builder = StringBuilder()
+            repeat(10_000) {
+                // 1900 ~ 2100 年之间
+                val millis = random.nextLong(-2_208_988_800_000L, 4_102_444_800_000L)
+                val text = expected.format(Date(millis))
+                assertEquals(text, cached.format(millis))
+                assertEquals(text, fast.format(millis))
+                builder.setLength(0)
+                assertEquals(text, fast.formatTo(millis, builder).toString())
+                // 夏令时切换时本地时间有歧义，只在没有夏令时的时区验证解析
+                if (id == "UTC") {
+                    assertEquals(millis, cached.parse(text)?.time)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun layouts() {
+        val timeZone = TimeZone.getTimeZone("UTC")
+        val millis = 1_700_000_000_123L
+        FastDateTimeFormatter.Layout.values().forEach {
+            val expected = SimpleDateFormat(it.pattern, Locale.US).also { format -> format.timeZone = timeZone }
+            assertEquals(expected.format(Date(millis)), FastDateTimeFormatter(it, timeZone).format(millis))
+        }
+    }
+
+    @Test
+    fun simpleDateFormatSemantics() {
+        val timeZone = TimeZone.getTimeZone("UTC")
+        val millis = 1_704_000_000_000L
+        // u：SimpleDateFormat中为星期几，DateTimeFormatter中为年；Y：周所在的年
+        listOf("u", "YYYY-ww", "yy-MM-dd", "EEE, d MMM yyyy").forEach { pattern ->
+            val expected = SimpleDateFormat(pattern, Locale.US).also { it.timeZone = timeZone }
+            val format = CachedDateFormat.getSimpleDateFormat(pattern, Locale.US, timeZone)
+            assertEquals(pattern, expected.format(Date(millis)), format.format(millis))
+        }
+        val defaultFormat = SimpleDateFormat("u YYYY", Locale.US)
+        assertEquals(defaultFormat.format(Date(millis)), Date(millis).toString("u YYYY"))
+        // yy 按当前时间前后的世纪解析，宽松解析时超出范围的月份与日期会进位
+        listOf(
+            "yy-MM-dd" to "70-01-01", "yy-MM-dd" to "99-12-31", "yyyy-MM-dd" to "2024-13-45"
+        ).forEach { (pattern, text) ->
+            val expected = SimpleDateFormat(pattern, Locale.US).also { it.timeZone = timeZone }
+            val format = CachedDateFormat.getSimpleDateFormat(pattern, Locale.US, timeZone)
+            assertEquals(text, expected.parse(text, ParsePosition(0)), format.parse(text))
+        }
+    }
+
+    @Test
+    fun compareFormat() {
+        val start = System.currentTimeMillis()
+        val cached = CachedDateFormat.get(PATTERN)
+        val fast = FastDateTimeFormatter()
+        val buffer = CharArray(FastDateTimeFormatter.Layout.DATE_TIME_MILLIS.length)
+        // 预热
+        repeat(2) {
+            measure { Date(start + it).toStringPerCall() }
+            measure { cached.format(start + it).length }
+            measure { fast.format(start + it, buffer) }
+        }
+        val perCallNanos = measure { Date(start + it).toStringPerCall() }
+        val cachedNanos = measure { cached.format(start + it).length }
+        val extensionNanos = measure { Date(start + it).toString(PATTERN).length }
+        val fastNanos = measure { fast.format(start + it, buffer) }
+        println(
+            "format $COUNT times: per call SimpleDateFormat ${perCallNanos / 1_000_000}ms, " +
+                    "Date.toString ${extensionNanos / 1_000_000}ms, " +
+                    "CachedDateFormat ${cachedNanos / 1_000_000}ms, " +
+                    "FastDateTimeFormatter ${fastNanos / 1_000_000}ms"
+        )
+    }
+
+    /**
+     * 修改前[Date.toString]扩展的实现
+     */
+    private fun Date.toStringPerCall(): Int =
+        SimpleDateFormat(PATTERN, Locale.US).format(this).length
+
+    private inline fun measure(block: (Int) -> Int): Long {
+        var sink = 0
+        val begin = System.nanoTime()
+        for (i in 0 until COUNT) {
+            sink += block(i)
+        }
+        val nanos = System.nanoTime() - begin
+        // 避免结果被优化掉
+        return if (sink == Int.MIN_VALUE) 0 else nanos
+    }
+
+    companion object {
+        private const val PATTERN = "yyyy-MM-dd HH:mm:ss.SSS"
+        private const val COUNT = 200_000
+    }
+}
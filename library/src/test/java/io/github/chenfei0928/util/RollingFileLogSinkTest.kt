@@ -0,0 +1,147 @@
+package io.github.chenfei0928.util
+
+import io.github.chenfei0928.concurrent.BgTaskPoolExecutorImpl
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.io.File
+import java.util.concurrent.TimeUnit
+
+/**
+ * 验证[RollingFileLogSink]写入、分段滚动、压缩与超出总大小删除后，[RollingFileLogReader]可以按顺序还原所有日志，
+ * 以及超长的tag与线程名被截断而不会导致写入失败
+ *
+ * @author chenf()
+ * @date 2026-10-19 12:30
+ */
+@RunWith(RobolectricTestRunner::class)
+class RollingFileLogSinkTest {
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val executor = BgTaskPoolExecutorImpl("logCompress", 2)
+
+    @After
+    fun tearDown() {
+        executor.shutdown()
+    }
+
+    @Test
+    fun roundTripWithRotationAndGzip() {
+        val dir = folder.newFolder()
+        val sink = RollingFileLogSink(
+            dir, NAME, RollingFileLogSink.Config(segmentSize = 4096, compressClosedSegments = true), executor
+        )
+        val thread = Thread.currentThread()
+        val error = IllegalStateException("expected")
+        repeat(LOG_COUNT) {
+            sink.log(
+                android.util.Log.INFO, TAG, "msg-$it", if (it % 100 == 0) error else null,
+                TIME_MILLIS + it, thread
+            )
+        }
+        sink.close()
+        awaitBackgroundTasks()
+
+        val segments = sink.segments()
+        assertTrue(segments.size > 1)
+        // 已关闭的分段都已压缩
+        assertTrue(segments.all { it.name.endsWith(".seg.gz") })
+
+        val lines = merge(dir).lines().filter { it.isNotEmpty() }
+        val messages = lines.filter { " I/$TAG: " in it }
+        assertEquals((0 until LOG_COUNT).map { "msg-$it" }, messages.map { it.substringAfter("$TAG: ") })
+        assertTrue(messages.all { "/${thread.name} " in it })
+        // 异常堆栈跟随在对应日志之后
+        val traceIndex = lines.indexOfFirst { it.startsWith(IllegalStateException::class.java.name) }
+        assertTrue(lines[traceIndex - 1].endsWith("$TAG: msg-0"))
+        assertEquals(LOG_COUNT / 100, lines.count { it.startsWith(IllegalStateException::class.java.name) })
+    }
+
+    @Test
+    fun budgetDropsOldestSegments() {
+        val dir = folder.newFolder()
+        val sink = RollingFileLogSink(
+            dir, NAME, RollingFileLogSink.Config(
+                segmentSize = 4096, maxTotalSize = 16 * 1024, compressClosedSegments = false
+            ), executor
+        )
+        repeat(LOG_COUNT) {
+            sink.log(android.util.Log.DEBUG, TAG, "msg-$it", null, TIME_MILLIS + it, Thread.currentThread())
+        }
+        sink.close()
+
+        // 只在打开新分段时检查总大小，正在写入的分段可能超出一个分段的大小
+        assertTrue(sink.segments().sumOf { it.length() } < 16 * 1024 + 2 * 4096)
+        val indexes = merge(dir).lines()
+            .filter { " D/$TAG: " in it }
+            .map { it.substringAfter("$TAG: msg-").toInt() }
+        // 保留的是最新且连续的日志
+        assertTrue(indexes.first() > 0)
+        assertEquals((indexes.first() until LOG_COUNT).toList(), indexes)
+    }
+
+    @Test
+    fun longTagAndThreadNameTruncated() {
+        val dir = folder.newFolder()
+        val sink = RollingFileLogSink(
+            dir, NAME, RollingFileLogSink.Config(compressClosedSegments = false), executor
+        )
+        // 超过writeUTF的65535字节上限
+        val longTag = "标".repeat(30_000)
+        val longThread = Thread("线".repeat(30_000))
+        sink.log(android.util.Log.WARN, longTag, "first", null, TIME_MILLIS, longThread)
+        sink.log(android.util.Log.WARN, TAG, "second", null, TIME_MILLIS + 1, Thread.currentThread())
+        sink.close()
+
+        val lines = merge(dir).lines().filter { it.isNotEmpty() }
+        assertEquals(2, lines.size)
+        assertTrue(lines[0].endsWith(": first"))
+        assertTrue("W/" + "标".repeat(65535 / 3) + ":" in lines[0])
+        assertTrue(lines[1].endsWith("$TAG: second"))
+    }
+
+    @Test
+    fun scheduledFlushOffMainThread() {
+        val dir = folder.newFolder()
+        val sink = RollingFileLogSink(
+            dir, NAME, RollingFileLogSink.Config(
+                flushThresholdBytes = Int.MAX_VALUE, flushIntervalMillis = 100, compressClosedSegments = false
+            ), executor
+        )
+        // 首条日志距打开分段时间很短，不会立即刷新
+        sink.log(android.util.Log.INFO, TAG, "pending", null, System.currentTimeMillis(), Thread.currentThread())
+        val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5)
+        // 不驱动主线程Looper，由刷新线程写入文件
+        while (!merge(dir).contains("$TAG: pending") && System.nanoTime() < deadline) {
+            Thread.sleep(20)
+        }
+        assertTrue(merge(dir).contains("$TAG: pending"))
+        sink.close()
+    }
+
+    private fun merge(dir: File): String = StringBuilder().also {
+        RollingFileLogReader.merge(dir, NAME, it)
+    }.toString()
+
+    private fun awaitBackgroundTasks() {
+        executor.shutdown()
+        val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10)
+        while (executor.workerThreadCount > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10)
+        }
+        assertEquals(0, executor.workerThreadCount)
+    }
+
+    companion object {
+        private const val NAME = "test"
+        private const val TAG = "Ut_RollingFileLogSinkTest"
+        private const val LOG_COUNT = 2000
+        private const val TIME_MILLIS = 1_700_000_000_000L
+    }
+}
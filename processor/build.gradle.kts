@@ -0,0 +1,16 @@
+plugins {
+    id("org.jetbrains.kotlin.jvm")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_21
+    targetCompatibility = JavaVersion.VERSION_21
+}
+
+kotlin {
+}
+
+dependencies {
+    // https://github.com/google/ksp
+    implementation("com.google.devtools.ksp:symbol-processing-api:2.3.4")
+}
@@ -0,0 +1,93 @@
+package io.github.chenfei0928.processor
+
+import com.google.devtools.ksp.processing.CodeGenerator
+import com.google.devtools.ksp.processing.Dependencies
+import com.google.devtools.ksp.processing.KSPLogger
+import com.google.devtools.ksp.processing.Resolver
+import com.google.devtools.ksp.processing.SymbolProcessor
+import com.google.devtools.ksp.processing.SymbolProcessorEnvironment
+import com.google.devtools.ksp.processing.SymbolProcessorProvider
+import com.google.devtools.ksp.symbol.KSAnnotated
+import com.google.devtools.ksp.symbol.KSClassDeclaration
+import com.google.devtools.ksp.validate
+
+/**
+ * 为`io.github.chenfei0928.os.BundleAccessors`标记的类生成`GeneratedBundleAccessor`实现
+ *
+ * 生成的单例类名为宿主类的类名（嵌套类使用`_`连接）追加`_BundleAccessor`，
+ * 其中按委托属性名直接创建对应的具体`BundleSupportType`，运行时`BundleSupportType.AutoFind`
+ * 会优先使用它而不再通过kt反射解析字段类型。
+ *
+ * @author chenf()
+ * @date 2026-10-18 21:20
+ */
+class BundleAccessorProcessor(
+    private val codeGenerator: CodeGenerator,
+    private val logger: KSPLogger,
+) : SymbolProcessor {
+
+    override fun process(resolver: Resolver): List<KSAnnotated> {
+        val symbols = resolver.getSymbolsWithAnnotation(ANNOTATION_NAME)
+        val (valid, deferred) = symbols.partition { it.validate() }
+        val typeMapper = BundleTypeMapper(resolver)
+        valid.forEach {
+            if (it is KSClassDeclaration) {
+                generate(typeMapper, it)
+            } else {
+                logger.error("@BundleAccessors can only be applied to classes", it)
+            }
+        }
+        return deferred
+    }
+
+    private fun generate(typeMapper: BundleTypeMapper, holder: KSClassDeclaration) {
+        val packageName = holder.packageName.asString()
+        val accessorName = generateSequence(holder) { it.parentDeclaration as? KSClassDeclaration }
+            .toList()
+            .asReversed()
+            .joinToString("_") { it.simpleName.asString() } + ACCESSOR_SUFFIX
+        val branches = holder.getDeclaredProperties()
+            .filter { it.isDelegated() }
+            .mapNotNull { property ->
+                val name = property.simpleName.asString()
+                val expression = typeMapper.map(property.type.resolve())
+                if (expression == null) {
+                    logger.info("$name: type not supported at compile time, fallback to reflection", property)
+                    null
+                } else {
+                    "            \"$name\" -> $expression"
+                }
+            }
+            .toList()
+        val dependencies = Dependencies(false, *listOfNotNull(holder.containingFile).toTypedArray())
+        codeGenerator.createNewFile(dependencies, packageName, accessorName).bufferedWriter().use {
+            if (packageName.isNotEmpty()) {
+                it.appendLine("package $packageName")
+                it.appendLine()
+            }
+            it.appendLine("import io.github.chenfei0928.os.BundleSupportType")
+            it.appendLine("import io.github.chenfei0928.os.GeneratedBundleAccessor")
+            it.appendLine()
+            it.appendLine("/**")
+            it.appendLine(" * Generated by ${BundleAccessorProcessor::class.java.simpleName} for [${holder.qualifiedName?.asString()}]")
+            it.appendLine(" */")
+            it.appendLine("object $accessorName : GeneratedBundleAccessor {")
+            it.appendLine("    override fun findType(propertyName: String): BundleSupportType<*>? =")
+            it.appendLine("        when (propertyName) {")
+            branches.forEach { branch -> it.appendLine(branch) }
+            it.appendLine("            else -> null")
+            it.appendLine("        }")
+            it.appendLine("}")
+        }
+    }
+
+    class Provider : SymbolProcessorProvider {
+        override fun create(environment: SymbolProcessorEnvironment): SymbolProcessor =
+            BundleAccessorProcessor(environment.codeGenerator, environment.logger)
+    }
+
+    companion object {
+        private const val ANNOTATION_NAME = "io.github.chenfei0928.os.BundleAccessors"
+        private const val ACCESSOR_SUFFIX = "_BundleAccessor"
+    }
+}
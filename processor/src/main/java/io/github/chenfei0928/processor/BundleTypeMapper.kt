@@ -0,0 +1,135 @@
+package io.github.chenfei0928.processor
+
+import com.google.devtools.ksp.processing.Resolver
+import com.google.devtools.ksp.symbol.ClassKind
+import com.google.devtools.ksp.symbol.KSClassDeclaration
+import com.google.devtools.ksp.symbol.KSType
+import com.google.devtools.ksp.symbol.KSTypeAlias
+
+/**
+ * 将字段类型映射为创建其`BundleSupportType`的代码，
+ * 查找顺序与`BundleSupportType.AutoFind.findByType`保持一致
+ *
+ * 运行时`findByType`只在`DependencyChecker.protobuf`不为null时才使用protobuf的存取器，
+ * 生成的protobuf分支同样在运行时检查该值，为null时返回null交由反射解析
+ *
+ * @author chenf()
+ * @date 2026-10-18 21:20
+ */
+internal class BundleTypeMapper(
+    private val resolver: Resolver
+) {
+    private val parcelable = starProjectedType("android.os.Parcelable")
+    private val charSequence = starProjectedType("kotlin.CharSequence")
+    private val sparseArray = starProjectedType("android.util.SparseArray")
+    private val iBinder = starProjectedType("android.os.IBinder")
+    private val list = starProjectedType("kotlin.collections.List")
+    private val messageLite = starProjectedType("com.google.protobuf.MessageLite")
+    private val serializable = starProjectedType("java.io.Serializable")
+
+    private fun starProjectedType(name: String): KSType? =
+        resolver.getClassDeclarationByName(resolver.getKSNameFromString(name))
+            ?.asStarProjectedType()
+
+    /**
+     * 返回创建[type]对应`BundleSupportType`的表达式，不支持在编译时确定时返回null
+     */
+    @Suppress("CyclomaticComplexMethod", "ReturnCount")
+    fun map(type: KSType): String? {
+        val declaration = type.declaration
+        if (declaration is KSTypeAlias) {
+            val aliased = declaration.type.resolve()
+            return map(if (type.isMarkedNullable) aliased.makeNullable() else aliased)
+        }
+        if (declaration !is KSClassDeclaration) {
+            return null
+        }
+        val nullable = type.isMarkedNullable
+        val nonnull = type.makeNotNullable()
+        val qualifiedName = declaration.qualifiedName?.asString() ?: return null
+        SIMPLE_TYPES[qualifiedName]?.let {
+            return "BundleSupportType.$it($nullable)"
+        }
+        val argument0 = type.arguments.firstOrNull()?.type?.resolve()?.makeNotNullable()
+        val argument0Name = argument0?.declaration?.qualifiedName?.asString()
+        return when {
+            // 原生的非final类型
+            parcelable.isSupertypeOf(nonnull) ->
+                "BundleSupportType.ParcelableType($qualifiedName::class.java, $nullable)"
+            charSequence.isSupertypeOf(nonnull) ->
+                "BundleSupportType.CharSequenceType($nullable)"
+            sparseArray.isSupertypeOf(nonnull) -> if (argument0Name != null) {
+                "BundleSupportType.SparseArrayType($argument0Name::class.java, $nullable)"
+            } else null
+            iBinder.isSupertypeOf(nonnull) ->
+                "BundleSupportType.IBinderType<$qualifiedName>($nullable)"
+            // List类型
+            list.isSupertypeOf(nonnull) -> when {
+                argument0 == null || argument0Name == null -> null
+                parcelable.isSupertypeOf(argument0) ->
+                    "BundleSupportType.ListParcelableType($argument0Name::class.java, $nullable)"
+                argument0Name == "kotlin.String" ->
+                    "BundleSupportType.ListStringType($nullable)"
+                charSequence.isSupertypeOf(argument0) ->
+                    "BundleSupportType.ListCharSequenceType<$argument0Name>($nullable)"
+                argument0Name == "kotlin.Int" ->
+                    "BundleSupportType.ListIntegerType($nullable)"
+                messageLite.isSupertypeOf(argument0) ->
+                    requireProtobuf("BundleSupportType.ListProtoBufType($argument0Name::class.java, $nullable)")
+                else -> null
+            }
+            // 数组类型
+            qualifiedName == "kotlin.Array" -> when {
+                argument0 == null || argument0Name == null -> null
+                parcelable.isSupertypeOf(argument0) ->
+                    "BundleSupportType.ArrayParcelableType($argument0Name::class.java, $nullable)"
+                argument0Name == "kotlin.String" ->
+                    "BundleSupportType.ArrayStringType($nullable)"
+                charSequence.isSupertypeOf(argument0) ->
+                    "BundleSupportType.ArrayCharSequenceType($nullable)"
+                else -> null
+            }
+            // 扩展支持
+            declaration.classKind == ClassKind.ENUM_CLASS ->
+                "BundleSupportType.EnumType($qualifiedName::class.java, $nullable)"
+            messageLite.isSupertypeOf(nonnull) ->
+                requireProtobuf("BundleSupportType.ProtoBufType($qualifiedName::class.java, $nullable)")
+            serializable.isSupertypeOf(nonnull) ->
+                "BundleSupportType.SerializableType($qualifiedName::class.java, $nullable)"
+            else -> null
+        }
+    }
+
+    private fun requireProtobuf(expression: String): String =
+        "if (io.github.chenfei0928.util.DependencyChecker.protobuf != null) $expression else null"
+
+    private fun KSType?.isSupertypeOf(type: KSType): Boolean =
+        this != null && isAssignableFrom(type)
+
+    companion object {
+        private val SIMPLE_TYPES = mapOf(
+            // 基础数据类型与其数组
+            "kotlin.Byte" to "ByteType",
+            "kotlin.ByteArray" to "ByteArrayType",
+            "kotlin.Short" to "ShortType",
+            "kotlin.ShortArray" to "ShortArrayType",
+            "kotlin.Int" to "IntType",
+            "kotlin.IntArray" to "IntArrayType",
+            "kotlin.Long" to "LongType",
+            "kotlin.LongArray" to "LongArrayType",
+            "kotlin.Float" to "FloatType",
+            "kotlin.FloatArray" to "FloatArrayType",
+            "kotlin.Double" to "DoubleType",
+            "kotlin.DoubleArray" to "DoubleArrayType",
+            "kotlin.Boolean" to "BooleanType",
+            "kotlin.BooleanArray" to "BooleanArrayType",
+            "kotlin.Char" to "CharType",
+            "kotlin.CharArray" to "CharArrayType",
+            // 原生的final类型
+            "kotlin.String" to "StringType",
+            "android.os.Bundle" to "BundleType",
+            "android.util.Size" to "SizeType",
+            "android.util.SizeF" to "SizeFType",
+        )
+    }
+}
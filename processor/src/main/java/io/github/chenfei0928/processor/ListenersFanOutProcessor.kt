@@ -0,0 +1,172 @@
+package io.github.chenfei0928.processor
+
+import com.google.devtools.ksp.getAllSuperTypes
+import com.google.devtools.ksp.isInternal
+import com.google.devtools.ksp.isPrivate
+import com.google.devtools.ksp.processing.CodeGenerator
+import com.google.devtools.ksp.processing.Dependencies
+import com.google.devtools.ksp.processing.KSPLogger
+import com.google.devtools.ksp.processing.Resolver
+import com.google.devtools.ksp.processing.SymbolProcessor
+import com.google.devtools.ksp.processing.SymbolProcessorEnvironment
+import com.google.devtools.ksp.processing.SymbolProcessorProvider
+import com.google.devtools.ksp.symbol.ClassKind
+import com.google.devtools.ksp.symbol.KSAnnotated
+import com.google.devtools.ksp.symbol.KSClassDeclaration
+import com.google.devtools.ksp.symbol.KSFunctionDeclaration
+import com.google.devtools.ksp.symbol.KSType
+import com.google.devtools.ksp.symbol.Modifier
+import com.google.devtools.ksp.symbol.Nullability
+import com.google.devtools.ksp.symbol.Variance
+import com.google.devtools.ksp.validate
+
+/**
+ * 为`io.github.chenfei0928.reflect.ListenersFanOut`标记的监听器接口生成多监听器分发实现
+ *
+ * 生成的类名为接口的类名（嵌套类使用`_`连接）追加`_ListenersFanOut`，其构造器接收保存监听器的集合，
+ * 每个抽象方法都直接遍历调用集合中的监听器，有返回值的方法返回最后一个监听器的返回值，
+ * 运行时`ListenersProxy.newListenersProxy`会优先使用它而不再创建动态代理。
+ *
+ * @author chenf()
+ * @date 2026-10-19 01:30
+ */
+class ListenersFanOutProcessor(
+    private val codeGenerator: CodeGenerator,
+    private val logger: KSPLogger,
+) : SymbolProcessor {
+
+    override fun process(resolver: Resolver): List<KSAnnotated> {
+        val symbols = resolver.getSymbolsWithAnnotation(ANNOTATION_NAME)
+        val (valid, deferred) = symbols.partition { it.validate() }
+        valid.forEach {
+            if (it is KSClassDeclaration && it.classKind == ClassKind.INTERFACE) {
+                generate(it)
+            } else {
+                logger.error("@ListenersFanOut can only be applied to interfaces", it)
+            }
+        }
+        return deferred
+    }
+
+    private fun generate(listener: KSClassDeclaration) {
+        if (listener.typeParameters.isNotEmpty()
+            || listener.getAllSuperTypes().any { it.arguments.isNotEmpty() }
+        ) {
+            logger.error("@ListenersFanOut not support generic interface", listener)
+            return
+        }
+        if (listener.isPrivate()) {
+            logger.error("@ListenersFanOut not support private interface", listener)
+            return
+        }
+        if (listener.getAllProperties().any { it.isAbstract() }) {
+            logger.error("@ListenersFanOut not support abstract property", listener)
+            return
+        }
+        val functions = listener.getAllFunctions().filter { it.isAbstract }.toList()
+        functions.forEach {
+            if (it.typeParameters.isNotEmpty() || Modifier.SUSPEND in it.modifiers) {
+                logger.error("@ListenersFanOut not support generic or suspend function", it)
+                return
+            }
+        }
+        val packageName = listener.packageName.asString()
+        val listenerName = listener.qualifiedName?.asString() ?: return
+        val fanOutName = generateSequence(listener) { it.parentDeclaration as? KSClassDeclaration }
+            .toList()
+            .asReversed()
+            .joinToString("_") { it.simpleName.asString() } + FAN_OUT_SUFFIX
+        val visibility = if (listener.isInternal()) "internal " else ""
+        val dependencies = Dependencies(false, *listOfNotNull(listener.containingFile).toTypedArray())
+        codeGenerator.createNewFile(dependencies, packageName, fanOutName).bufferedWriter().use {
+            if (packageName.isNotEmpty()) {
+                it.appendLine("package $packageName")
+                it.appendLine()
+            }
+            it.appendLine("import io.github.chenfei0928.reflect.ListenersProxy")
+            it.appendLine()
+            it.appendLine("/**")
+            it.appendLine(" * Generated by ${ListenersFanOutProcessor::class.java.simpleName} for [$listenerName]")
+            it.appendLine(" */")
+            it.appendLine("${visibility}class $fanOutName(")
+            it.appendLine("    private val listeners: MutableCollection<$listenerName>,")
+            it.appendLine(") : $listenerName, MutableCollection<$listenerName> by listeners {")
+            functions.forEach { function -> it.append(renderFunction(function)) }
+            it.appendLine("}")
+        }
+    }
+
+    private fun renderFunction(function: KSFunctionDeclaration): String = buildString {
+        val name = function.simpleName.asString()
+        val parameters = function.parameters.mapIndexed { index, parameter ->
+            val vararg = if (parameter.isVararg) "vararg " else ""
+            "${vararg}p$index: ${renderType(parameter.type.resolve())}"
+        }
+        val arguments = function.parameters.mapIndexed { index, parameter ->
+            if (parameter.isVararg) "*p$index" else "p$index"
+        }.joinToString()
+        val returnType = function.returnType?.resolve()
+        val returnTypeName = returnType?.let { renderType(it) }
+        appendLine()
+        if (returnTypeName == null || returnTypeName == "kotlin.Unit") {
+            appendLine("    override fun $name(${parameters.joinToString()}) {")
+            appendLine("        ListenersProxy.forEachListener(listeners) { it.$name($arguments) }")
+            appendLine("    }")
+            return@buildString
+        }
+        appendLine("    override fun $name(${parameters.joinToString()}): $returnTypeName {")
+        val defaultValue = PRIMITIVE_DEFAULT_VALUES[returnTypeName]
+        if (defaultValue != null || returnTypeName.endsWith('?')) {
+            appendLine("        var rst: $returnTypeName = ${defaultValue ?: "null"}")
+            appendLine("        ListenersProxy.forEachListener(listeners) { rst = it.$name($arguments) }")
+            appendLine("        return rst")
+        } else {
+            // 非空的引用类型没有默认值，没有监听器时与动态代理一致抛出异常
+            appendLine("        var rst: $returnTypeName? = null")
+            appendLine("        ListenersProxy.forEachListener(listeners) { rst = it.$name($arguments) }")
+            appendLine("        return rst ?: throw NullPointerException(\"No listener to return $name result\")")
+        }
+        appendLine("    }")
+    }
+
+    /**
+     * 渲染为全限定名的类型，java的平台类型视为可空类型
+     */
+    private fun renderType(type: KSType): String = buildString {
+        append(type.declaration.qualifiedName?.asString() ?: type.declaration.simpleName.asString())
+        if (type.arguments.isNotEmpty()) {
+            type.arguments.joinTo(this, prefix = "<", postfix = ">") { argument ->
+                val argumentType = argument.type?.resolve()
+                when {
+                    argument.variance == Variance.STAR || argumentType == null -> "*"
+                    argument.variance == Variance.COVARIANT -> "out ${renderType(argumentType)}"
+                    argument.variance == Variance.CONTRAVARIANT -> "in ${renderType(argumentType)}"
+                    else -> renderType(argumentType)
+                }
+            }
+        }
+        if (type.nullability != Nullability.NOT_NULL) {
+            append('?')
+        }
+    }
+
+    class Provider : SymbolProcessorProvider {
+        override fun create(environment: SymbolProcessorEnvironment): SymbolProcessor =
+            ListenersFanOutProcessor(environment.codeGenerator, environment.logger)
+    }
+
+    companion object {
+        private const val ANNOTATION_NAME = "io.github.chenfei0928.reflect.ListenersFanOut"
+        private const val FAN_OUT_SUFFIX = "_ListenersFanOut"
+        private val PRIMITIVE_DEFAULT_VALUES = mapOf(
+            "kotlin.Boolean" to "false",
+            "kotlin.Byte" to "0",
+            "kotlin.Short" to "0",
+            "kotlin.Int" to "0",
+            "kotlin.Long" to "0L",
+            "kotlin.Float" to "0f",
+            "kotlin.Double" to "0.0",
+            "kotlin.Char" to "Char.MIN_VALUE",
+        )
+    }
+}
@@ -41,5 +41,6 @@ rootProject.name = "Util"
 include(
     ":app",
     "library",
+    ":processor",
     ":script",
 )